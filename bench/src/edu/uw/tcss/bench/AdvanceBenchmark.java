@@ -0,0 +1,88 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.bench;
+
+import edu.uw.tcss.app.SyntheticCity;
+import edu.uw.tcss.io.CityMap;
+import edu.uw.tcss.io.CityReader;
+import edu.uw.tcss.logic.AbstractRoadRage;
+import edu.uw.tcss.logic.Engine;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures one full tick of the simulation, {@code advance()}, on the shipped city map and
+ * on synthetic cities of a thousand, a hundred thousand and a million vehicles, for every
+ * engine. The city keeps running from one invocation to the next, so the figures are for
+ * a simulation in its steady state.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = Iterations.WARMUP, time = 2)
+@Measurement(iterations = Iterations.MEASUREMENT, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AdvanceBenchmark {
+
+    /** The name of the shipped city map, as a value of the city parameter. */
+    private static final String CITY_MAP = "city_map1";
+
+    /**
+     * The city to run: the shipped map, or the number of vehicles in a synthetic city.
+     */
+    @Param({CITY_MAP, "1000", "100000", "1000000"})
+    protected String myCity;
+
+    /**
+     * The engine to run the city with.
+     */
+    @Param({"OBJECT", "ARRAY", "PARALLEL"})
+    protected Engine myEngine;
+
+    /**
+     * The running simulation.
+     */
+    private AbstractRoadRage myRoadRage;
+
+    /**
+     * Loads or builds the city and starts the simulation.
+     *
+     * @throws IOException if the shipped map cannot be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        final CityMap city;
+        if (CITY_MAP.equals(myCity)) {
+            city = CityReader.read(new File("maps", CITY_MAP + ".txt"));
+        } else {
+            city = SyntheticCity.create(Integer.parseInt(myCity));
+        }
+        myRoadRage = myEngine.create(city.getGrid(), city.getVehicles());
+        myRoadRage.start();
+    }
+
+    /**
+     * Advances the simulation by one tick.
+     */
+    @Benchmark
+    public void advance() {
+        myRoadRage.advance();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.bench;
+
+import java.io.File;
+import java.util.Locale;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.profile.JavaFlightRecorderProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the Road Rage benchmarks, with or without profilers, and writes the results as
+ * JSON to {@code bench/results/<profile>.json}. Run from the project directory, so the
+ * benchmarks can find the maps and icons.
+ *
+ * <p>Usage: {@code BenchmarkMain [none|gc|alloc] [benchmark regex]}. The JMH command line,
+ * {@code org.openjdk.jmh.Main}, can also be used directly for anything more specific.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public final class BenchmarkMain {
+
+    /** The directory the results are written to. */
+    private static final File RESULTS = new File("bench", "results");
+
+    /**
+     * Private constructor to prevent construction of instances.
+     */
+    private BenchmarkMain() {
+        super();
+    }
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param theArgs the profile to run with and a regular expression selecting the
+     *                benchmarks (both optional)
+     * @throws RunnerException if a benchmark fails
+     */
+    public static void main(final String... theArgs) throws RunnerException {
+        Profile profile = Profile.NONE;
+        if (theArgs.length > 0) {
+            profile = Profile.valueOf(theArgs[0].toUpperCase(Locale.ROOT));
+        }
+        String include = BenchmarkMain.class.getPackageName() + ".*Benchmark";
+        if (theArgs.length > 1) {
+            include = theArgs[1];
+        }
+        final File result = new File(RESULTS,
+                                     profile.name().toLowerCase(Locale.ROOT) + ".json");
+        RESULTS.mkdirs();
+        final ChainedOptionsBuilder options = new OptionsBuilder().include(include);
+        options.resultFormat(ResultFormatType.JSON);
+        options.result(result.getPath());
+        profile.configure(options);
+        new Runner(options.build()).run();
+    }
+
+    /**
+     * The profilers a run can be made with.
+     */
+    private enum Profile {
+
+        /** Timings only. */
+        NONE,
+
+        /** Collection counts and times, heap churn and bytes allocated per operation. */
+        GC,
+
+        /**
+         * Bytes allocated per operation, plus a flight recording per benchmark for
+         * finding where the allocations come from.
+         */
+        ALLOC;
+
+        /**
+         * Adds this profile's profilers to the options.
+         *
+         * @param theOptions the options of the run
+         */
+        void configure(final ChainedOptionsBuilder theOptions) {
+            switch (this) {
+                case GC -> theOptions.addProfiler(GCProfiler.class, "churn=true");
+                case ALLOC -> {
+                    theOptions.addProfiler(GCProfiler.class);
+                    theOptions.addProfiler(JavaFlightRecorderProfiler.class,
+                                           "dir=" + new File(RESULTS, "jfr").getPath());
+                }
+                default -> {
+                    // timings only
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.bench;
+
+import edu.uw.tcss.io.CityCache;
+import edu.uw.tcss.io.CityMap;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reading the shipped city map through {@link CityCache}: from its compiled copy,
+ * and with no compiled copy, so the text is parsed and the copy written. The map is copied
+ * to a temporary directory first, so the compiled copies are written there and not next
+ * to the shipped map.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = Iterations.WARMUP, time = 1)
+@Measurement(iterations = Iterations.MEASUREMENT, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CityCacheBenchmark {
+
+    /** The shipped city map. */
+    private static final File CITY_FILE = new File("maps", "city_map1.txt");
+
+    /** The temporary directory the map is copied to. */
+    private Path myDirectory;
+
+    /** The copy of the map. */
+    private File myCity;
+
+    /**
+     * Copies the map to a temporary directory and compiles it.
+     *
+     * @throws IOException if the map cannot be copied or read
+     */
+    @Setup(Level.Trial)
+    public void copyCity() throws IOException {
+        myDirectory = Files.createTempDirectory("road-rage-bench");
+        myCity = myDirectory.resolve(CITY_FILE.getName()).toFile();
+        Files.copy(CITY_FILE.toPath(), myCity.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        CityCache.read(myCity);
+    }
+
+    /**
+     * Deletes the temporary directory and everything in it.
+     *
+     * @throws IOException if a file cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void deleteCity() throws IOException {
+        try (Stream<Path> files = Files.walk(myDirectory)) {
+            for (final Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Reads the map from its compiled copy.
+     *
+     * @return the city
+     * @throws IOException if the map cannot be read
+     */
+    @Benchmark
+    public CityMap hit() throws IOException {
+        return CityCache.read(myCity);
+    }
+
+    /**
+     * Reads the map with no compiled copy, which parses the text and writes the copy.
+     *
+     * @param theMiss the state that deletes the compiled copy before each read
+     * @return the city
+     * @throws IOException if the map cannot be read
+     */
+    @Benchmark
+    public CityMap miss(final Miss theMiss) throws IOException {
+        return CityCache.read(myCity);
+    }
+
+    /**
+     * Deletes the compiled copy of the map before every read, so each read misses.
+     */
+    @State(Scope.Thread)
+    public static class Miss {
+
+        /**
+         * Deletes the compiled copy.
+         *
+         * @param theBenchmark the benchmark, which holds the map
+         * @throws IOException if the copy cannot be deleted
+         */
+        @Setup(Level.Invocation)
+        public void deleteCompiled(final CityCacheBenchmark theBenchmark)
+                throws IOException {
+            Files.deleteIfExists(CityCache.compiledFile(theBenchmark.myCity).toPath());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.bench;
+
+/**
+ * The iteration counts shared by the benchmarks, so every benchmark is measured alike.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+final class Iterations {
+
+    /** The number of warmup iterations before measuring. */
+    static final int WARMUP = 3;
+
+    /** The number of measured iterations. */
+    static final int MEASUREMENT = 5;
+
+    /**
+     * Private constructor to prevent construction of instances.
+     */
+    private Iterations() {
+        super();
+    }
+}
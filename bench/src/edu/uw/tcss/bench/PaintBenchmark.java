@@ -0,0 +1,97 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.bench;
+
+import edu.uw.tcss.io.CityMap;
+import edu.uw.tcss.io.CityReader;
+import edu.uw.tcss.logic.RoadRage;
+import edu.uw.tcss.logic.SnapshotRecorder;
+import edu.uw.tcss.view.RoadRagePanel;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures painting one frame of the shipped city map with {@link RoadRagePanel} into an
+ * offscreen image, without a display.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = Iterations.WARMUP, time = 2)
+@Measurement(iterations = Iterations.MEASUREMENT, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PaintBenchmark {
+
+    /**
+     * The panel being painted.
+     */
+    private RoadRagePanel myPanel;
+
+    /**
+     * The image the panel is painted into.
+     */
+    private BufferedImage myImage;
+
+    /**
+     * The graphics context of the image.
+     */
+    private Graphics2D myGraphics;
+
+    /**
+     * Loads the city and shows its starting state on a panel the size of the map.
+     *
+     * @throws IOException if the map cannot be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        final CityMap city = CityReader.read(new File("maps", "city_map1.txt"));
+        final RoadRage roadRage = new RoadRage(city.getGrid(), city.getVehicles());
+        myPanel = new RoadRagePanel(roadRage.getWidth(), roadRage.getHeight());
+        final Dimension size = myPanel.getPreferredSize();
+        myPanel.setSize(size);
+        final SnapshotRecorder recorder = new SnapshotRecorder(roadRage);
+        roadRage.start();
+        myPanel.showSnapshot(recorder.latest());
+        myImage = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_RGB);
+        myGraphics = myImage.createGraphics();
+    }
+
+    /**
+     * Releases the graphics context.
+     */
+    @TearDown
+    public void tearDown() {
+        myGraphics.dispose();
+    }
+
+    /**
+     * Paints one frame.
+     *
+     * @return the image painted into
+     */
+    @Benchmark
+    public BufferedImage paintComponent() {
+        myPanel.paintComponent(myGraphics);
+        return myImage;
+    }
+}
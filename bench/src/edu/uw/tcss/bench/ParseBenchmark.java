@@ -0,0 +1,64 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.bench;
+
+import edu.uw.tcss.io.CityMap;
+import edu.uw.tcss.io.CityReader;
+import edu.uw.tcss.logic.RoadRage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures parsing the text of the shipped city map: parsing alone, and parsing plus
+ * building the simulation from it. The compiled copy the GUI reads through is measured by
+ * {@link CityCacheBenchmark}.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = Iterations.WARMUP, time = 1)
+@Measurement(iterations = Iterations.MEASUREMENT, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ParseBenchmark {
+
+    /** The shipped city map. */
+    private static final File CITY_FILE = new File("maps", "city_map1.txt");
+
+    /**
+     * Parses the city map.
+     *
+     * @return the city
+     * @throws IOException if the map cannot be read
+     */
+    @Benchmark
+    public CityMap cityReader() throws IOException {
+        return CityReader.read(CITY_FILE);
+    }
+
+    /**
+     * Parses the city map and builds a simulation from it.
+     *
+     * @return the simulation
+     * @throws IOException if the map cannot be read
+     */
+    @Benchmark
+    public RoadRage parseAndBuild() throws IOException {
+        final CityMap city = CityReader.read(CITY_FILE);
+        return new RoadRage(city.getGrid(), city.getVehicles());
+    }
+}
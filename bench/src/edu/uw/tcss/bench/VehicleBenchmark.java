@@ -0,0 +1,171 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.bench;
+
+import edu.uw.tcss.io.CityMap;
+import edu.uw.tcss.io.CityReader;
+import edu.uw.tcss.model.AbstractVehicle;
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Light;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
+import edu.uw.tcss.model.VehicleType;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the two decisions every vehicle makes on every tick, {@code chooseDirection}
+ * and {@code canPass}, for each type of vehicle. Each invocation of chooseDirection is
+ * given the neighborhood of the next open square of the shipped city map, and each
+ * invocation of canPass the next of a fixed set of randomly chosen terrains and lights, so
+ * that the branches taken vary the way they do in a running city.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = Iterations.WARMUP, time = 1)
+@Measurement(iterations = Iterations.MEASUREMENT, time = 1)
+@Fork(1)
+public class VehicleBenchmark {
+
+    /** The number of terrains and lights cycled through; a power of two. */
+    private static final int INPUTS = 1024;
+
+    /** The direction the vehicle faces. */
+    private static final Direction FACING = Direction.NORTH;
+
+    /** The seed used to choose the inputs. */
+    private static final long SEED = 305L;
+
+    /**
+     * The type of vehicle to measure.
+     */
+    @Param({"CAR", "TAXI", "TRUCK", "HUMAN", "BICYCLE", "ATV"})
+    protected VehicleType myType;
+
+    /**
+     * The vehicle being measured.
+     */
+    private AbstractVehicle myVehicle;
+
+    /**
+     * The neighborhoods given to chooseDirection.
+     */
+    private Map<Direction, Terrain>[] myNeighbors;
+
+    /**
+     * The terrains given to canPass.
+     */
+    private Terrain[] myTerrains;
+
+    /**
+     * The lights given to canPass.
+     */
+    private Light[] myLights;
+
+    /**
+     * The position of the next neighborhood.
+     */
+    private int myNextNeighbors;
+
+    /**
+     * The position of the next terrain and light.
+     */
+    private int myNext;
+
+    /**
+     * Creates the vehicle and chooses the inputs.
+     *
+     * @throws IOException if the map cannot be read
+     */
+    @Setup
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void setUp() throws IOException {
+        myVehicle = myType.create(0, 0, FACING);
+        final CityMap city = CityReader.read(new File("maps", "city_map1.txt"));
+        myNeighbors = neighborhoods(city.getGrid()).toArray(new Map[0]);
+        final Random random = new Random(SEED);
+        final Terrain[] terrains = Terrain.values();
+        final Light[] lights = Light.values();
+        myTerrains = new Terrain[INPUTS];
+        myLights = new Light[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            myTerrains[i] = terrains[random.nextInt(terrains.length)];
+            myLights[i] = lights[random.nextInt(lights.length)];
+        }
+    }
+
+    /**
+     * Chooses a direction for the next neighborhood.
+     *
+     * @return the direction chosen
+     */
+    @Benchmark
+    public Direction chooseDirection() {
+        myNextNeighbors++;
+        if (myNextNeighbors == myNeighbors.length) {
+            myNextNeighbors = 0;
+        }
+        return myVehicle.chooseDirection(myNeighbors[myNextNeighbors]);
+    }
+
+    /**
+     * Decides whether the vehicle can pass the next terrain and light.
+     *
+     * @return whether the vehicle can pass
+     */
+    @Benchmark
+    public boolean canPass() {
+        myNext = myNext + 1 & INPUTS - 1;
+        return myVehicle.canPass(myTerrains[myNext], myLights[myNext]);
+    }
+
+    /**
+     * Returns the neighborhood of every open square of a map. Squares a vehicle facing
+     * FACING could only leave by reversing are left out, since an Atv never reverses and
+     * would look for a way out forever.
+     *
+     * @param theGrid the terrain grid
+     * @return the neighborhoods
+     */
+    private static List<Map<Direction, Terrain>> neighborhoods(final TerrainGrid theGrid) {
+        final List<Map<Direction, Terrain>> result = new ArrayList<>();
+        for (int y = 1; y < theGrid.getHeight() - 1; y++) {
+            for (int x = 1; x < theGrid.getWidth() - 1; x++) {
+                final Map<Direction, Terrain> neighbors = new EnumMap<>(Direction.class);
+                boolean open = false;
+                for (final Direction dir : Direction.values()) {
+                    final Terrain terrain = theGrid.get(x + dir.dx(), y + dir.dy());
+                    neighbors.put(dir, terrain);
+                    open |= dir != FACING.reverse() && terrain != Terrain.WALL;
+                }
+                if (theGrid.get(x, y) != Terrain.WALL && open) {
+                    result.add(neighbors);
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.app;
+
+import edu.uw.tcss.io.BehaviorCsvWriter;
+import edu.uw.tcss.io.CityCache;
+import edu.uw.tcss.io.CityMap;
+import edu.uw.tcss.io.CityReader;
+import edu.uw.tcss.io.TiledCity;
+import edu.uw.tcss.logic.AbstractRoadRage;
+import edu.uw.tcss.logic.Engine;
+import edu.uw.tcss.model.TerrainMap;
+import edu.uw.tcss.model.Vehicle;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.Locale;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Runs the Road Rage simulation without a display, as fast as the chosen engine allows,
+ * and prints a throughput report as a JSON object. No Swing classes are loaded. While it
+ * runs, the tick metrics of the simulation can be watched over JMX, in JConsole for
+ * example, and the vehicles' behavior counters can be written to a CSV file every second.
+ * <br />
+ * A map file named with {@value CityCache#TILES_SUFFIX} after the name of a city map
+ * file, such as {@code city.txt.tiles}, runs that city on tiles, so that its grid is
+ * never held in memory. The tile file is compiled from the city map file first if it is
+ * missing or out of date.
+ *
+ * <p>Usage:
+ * {@code BatchRunner <map file> <ticks> [seed] [object|array|parallel] [behavior csv]}.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public final class BatchRunner {
+
+    /** The usage message printed when the arguments are wrong. */
+    private static final String USAGE = "usage: BatchRunner <map file> <ticks> [seed] "
+        + "[object|array|parallel] [behavior csv]";
+
+    /** The position of the seed in the arguments. */
+    private static final int SEED_ARG = 2;
+
+    /** The position of the engine in the arguments. */
+    private static final int ENGINE_ARG = 3;
+
+    /** The position of the behavior CSV file in the arguments. */
+    private static final int CSV_ARG = 4;
+
+    /** The time between two dumps of the behavior counters, in milliseconds. */
+    private static final long CSV_PERIOD_MILLIS = 1000;
+
+    /** The number of nanoseconds in a second. */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Private constructor to prevent construction of instances.
+     */
+    private BatchRunner() {
+        super();
+    }
+
+    /**
+     * Runs a city and prints the report.
+     *
+     * @param theArgs the map file, the number of ticks, and optionally the seed and engine
+     */
+    public static void main(final String... theArgs) {
+        if (theArgs.length < 2) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        try {
+            System.out.println(run(new File(theArgs[0]), Integer.parseInt(theArgs[1]),
+                                   parseSeed(theArgs), parseEngine(theArgs),
+                                   parseCsv(theArgs)));
+        } catch (final IOException ioe) {
+            System.err.println("Could not run city map file " + theArgs[0] + ": "
+                               + ioe.getMessage());
+            System.exit(1);
+        } catch (final IllegalArgumentException iae) {
+            System.err.println(iae.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Loads a city, runs it for the given number of ticks and reports the results.
+     *
+     * @param theMap the city map file
+     * @param theTicks the number of ticks to run
+     * @param theSeed the seed for the simulation's random choices
+     * @param theEngine the engine to run the city with
+     * @return the report, as a JSON object
+     * @throws IOException if the map file cannot be read
+     */
+    public static String run(final File theMap, final int theTicks, final long theSeed,
+                             final Engine theEngine) throws IOException {
+        return run(theMap, theTicks, theSeed, theEngine, null);
+    }
+
+    /**
+     * Loads a city, runs it for the given number of ticks while writing the vehicles'
+     * behavior counters to a CSV file, and reports the results.
+     *
+     * @param theMap the city map file
+     * @param theTicks the number of ticks to run
+     * @param theSeed the seed for the simulation's random choices
+     * @param theEngine the engine to run the city with
+     * @param theCsv the file to write the behavior counters to, or null for none
+     * @return the report, as a JSON object
+     * @throws IOException if the map file cannot be read or the CSV file written
+     * @see BehaviorCsvWriter
+     */
+    public static String run(final File theMap, final int theTicks, final long theSeed,
+                             final Engine theEngine, final File theCsv) throws IOException {
+        if (theTicks < 0) {
+            throw new IllegalArgumentException("ticks must not be negative: " + theTicks);
+        }
+        final String path = theMap.getPath();
+        final String result;
+        if (path.endsWith(CityCache.TILES_SUFFIX)) {
+            final File text = new File(path.substring(0, path.length()
+                                                         - CityCache.TILES_SUFFIX.length()));
+            try (TiledCity city = CityCache.readTiled(text)) {
+                result = run(theMap, city.getTerrain(), city.getVehicles(), theTicks, theSeed,
+                             theEngine, theCsv);
+            }
+        } else {
+            final CityMap city = CityReader.read(theMap);
+            result = run(theMap, city.getGrid(), city.getVehicles(), theTicks, theSeed,
+                         theEngine, theCsv);
+        }
+        return result;
+    }
+
+    /**
+     * Runs a city that has been read for the given number of ticks and reports the
+     * results.
+     *
+     * @param theMap the city map file, for the report
+     * @param theTerrain the city's terrain
+     * @param theVehicles the city's vehicles
+     * @param theTicks the number of ticks to run
+     * @param theSeed the seed for the simulation's random choices
+     * @param theEngine the engine to run the city with
+     * @param theCsv the file to write the behavior counters to, or null for none
+     * @return the report, as a JSON object
+     * @throws IOException if the CSV file cannot be written
+     */
+    private static String run(final File theMap, final TerrainMap theTerrain,
+                              final List<Vehicle> theVehicles, final int theTicks,
+                              final long theSeed, final Engine theEngine, final File theCsv)
+        throws IOException {
+        final AbstractRoadRage roadRage = theEngine.create(theTerrain, theVehicles);
+        roadRage.setSeed(theSeed);
+        roadRage.start();
+        resetPeakHeap();
+
+        final ObjectName metrics = registerMetrics(roadRage, theMap, theEngine);
+        final BehaviorCsvWriter csv = startCsv(roadRage, theCsv);
+        final long start = System.nanoTime();
+        try {
+            roadRage.advance(theTicks);
+        } finally {
+            unregisterMetrics(metrics);
+            if (csv != null) {
+                csv.close();
+            }
+        }
+        final double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+
+        return String.format(Locale.ROOT, "{%n"
+                             + "  \"map\": %s,%n"
+                             + "  \"engine\": \"%s\",%n"
+                             + "  \"seed\": %d,%n"
+                             + "  \"vehicles\": %d,%n"
+                             + "  \"ticks\": %d,%n"
+                             + "  \"seconds\": %.6f,%n"
+                             + "  \"ticksPerSecond\": %.2f,%n"
+                             + "  \"vehicleMovesPerSecond\": %.2f,%n"
+                             + "  \"totalCollisions\": %d,%n"
+                             + "  \"peakHeapBytes\": %d%n"
+                             + "}",
+                             quote(theMap.getPath()),
+                             theEngine.name().toLowerCase(Locale.ROOT), theSeed,
+                             theVehicles.size(), theTicks, seconds,
+                             theTicks / seconds, roadRage.getMoveCount() / seconds,
+                             roadRage.getCollisionCount(), peakHeap());
+    }
+
+    /**
+     * Returns the seed given in the arguments, or 0 if there is none.
+     *
+     * @param theArgs the command line arguments
+     * @return the seed
+     */
+    private static long parseSeed(final String... theArgs) {
+        long result = 0;
+        if (theArgs.length > SEED_ARG) {
+            result = Long.parseLong(theArgs[SEED_ARG]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the engine named in the arguments, or the object engine if there is none.
+     *
+     * @param theArgs the command line arguments
+     * @return the engine
+     */
+    private static Engine parseEngine(final String... theArgs) {
+        Engine result = Engine.OBJECT;
+        if (theArgs.length > ENGINE_ARG) {
+            result = Engine.valueOf(theArgs[ENGINE_ARG].toUpperCase(Locale.ROOT));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the behavior CSV file named in the arguments, or null if there is none.
+     *
+     * @param theArgs the command line arguments
+     * @return the CSV file
+     */
+    private static File parseCsv(final String... theArgs) {
+        File result = null;
+        if (theArgs.length > CSV_ARG) {
+            result = new File(theArgs[CSV_ARG]);
+        }
+        return result;
+    }
+
+    /**
+     * Starts writing the behavior counters of a run to a CSV file, if one is given.
+     *
+     * @param theSimulation the simulation
+     * @param theCsv the CSV file, or null for none
+     * @return the writer, or null if there is no file
+     * @throws IOException if the file cannot be created
+     */
+    private static BehaviorCsvWriter startCsv(final AbstractRoadRage theSimulation,
+                                              final File theCsv) throws IOException {
+        BehaviorCsvWriter result = null;
+        if (theCsv != null) {
+            result = new BehaviorCsvWriter(theSimulation.getBehaviorCounters(),
+                                           theCsv.toPath(), CSV_PERIOD_MILLIS);
+        }
+        return result;
+    }
+
+    /**
+     * Makes the tick metrics of a run available over JMX, named after the map and the
+     * engine. The run goes ahead without them if they cannot be.
+     *
+     * @param theSimulation the simulation
+     * @param theMap the city map file
+     * @param theEngine the engine
+     * @return the name they are registered under, or null if they are not
+     */
+    private static ObjectName registerMetrics(final AbstractRoadRage theSimulation,
+                                              final File theMap, final Engine theEngine) {
+        ObjectName result = null;
+        try {
+            result = theSimulation.getMetrics().register(
+                    theMap.getPath() + " " + theEngine.name().toLowerCase(Locale.ROOT));
+        } catch (final JMException exception) {
+            System.err.println("Could not register the tick metrics: "
+                               + exception.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Removes tick metrics from JMX once their run is over.
+     *
+     * @param theName the name they are registered under, or null if they are not
+     */
+    private static void unregisterMetrics(final ObjectName theName) {
+        if (theName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(theName);
+            } catch (final JMException exception) {
+                System.err.println("Could not unregister the tick metrics: "
+                                   + exception.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Resets the peak usage of every heap memory pool to its current usage.
+     */
+    private static void resetPeakHeap() {
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Returns the sum of the peak usage of every heap memory pool since the last reset.
+     *
+     * @return the peak heap usage in bytes
+     */
+    private static long peakHeap() {
+        long result = 0;
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                result += pool.getPeakUsage().getUsed();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a string as a quoted JSON string.
+     *
+     * @param theText the string
+     * @return the JSON string
+     */
+    private static String quote(final String theText) {
+        return '"' + theText.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+}
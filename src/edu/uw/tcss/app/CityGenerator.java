@@ -0,0 +1,472 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.app;
+
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.SimulationRandom;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.VehicleType;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Generates large cities in the city map file format, for testing the simulation at
+ * scale. A city is a walled grid of streets with blocks of varying size between them.
+ * Some intersections have lights with crosswalks next to them. Each block is a park
+ * crossed by trails, a building of wall inside a ring of grass, or an open lot of grass.
+ * <br />
+ * The terrain of every cell is worked out from the seed when it is written, so a city is
+ * streamed out one row at a time and even the largest city needs memory only for its
+ * row and column layout. The same size, seed and population always give the same file.
+ * <br />
+ * Usage: {@code CityGenerator <width> <height> [seed] [TYPE=count ...]}, where TYPE is a
+ * vehicle letter from the map file format, such as {@code C=5000 X=200}. The city is
+ * written to standard output. Without any counts, the city gets a default mix of every
+ * type.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public final class CityGenerator {
+
+    /** The smallest width or height of a city. */
+    public static final int MIN_SIZE = 8;
+
+    /** The largest width or height of a city. */
+    public static final int MAX_SIZE = 10_000;
+
+    /** The usage message printed when the arguments are wrong. */
+    private static final String USAGE =
+        "usage: CityGenerator <width> <height> [seed] [TYPE=count ...]";
+
+    /** The smallest number of cells between two streets. */
+    private static final int MIN_BLOCK = 3;
+
+    /** The number of different block sizes above the smallest. */
+    private static final int BLOCK_SPREAD = 6;
+
+    /** The number of cells per vehicle in a city with the default population. */
+    private static final int CELLS_PER_VEHICLE = 64;
+
+    /** Percent of the default population that is each type, indexed by type ordinal. */
+    private static final int[] DEFAULT_MIX = {10, 15, 30, 20, 15, 10};
+
+    /** The number of percent in the whole. */
+    private static final int PERCENT = 100;
+
+    /** The chance in 100 that an intersection has a light. */
+    private static final int LIGHT_CHANCE = 40;
+
+    /** The chance in 100 that a block is a park. */
+    private static final int PARK_CHANCE = 25;
+
+    /** The chance in 100 that a block is a building, if it is not a park. */
+    private static final int BUILDING_CHANCE = 45;
+
+    /** The number of tries to find a cell for a vehicle before giving up. */
+    private static final int PLACEMENT_TRIES = 10_000;
+
+    /** The position of the seed in the arguments. */
+    private static final int SEED_ARG = 2;
+
+    /** The end of a line of the map file, the same on every platform. */
+    private static final char NEWLINE = '\n';
+
+    /** The directions, indexed by ordinal. */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /** The width of the city. */
+    private final int myWidth;
+
+    /** The height of the city. */
+    private final int myHeight;
+
+    /** The seed the city is generated from. */
+    private final long mySeed;
+
+    /** For each column, its distance from the street column to its left, 0 on a street. */
+    private final int[] myColumnOffset;
+
+    /** For each column, the number of columns in its block, 0 on a street. */
+    private final int[] myColumnSpan;
+
+    /** For each row, its distance from the street row above it, 0 on a street. */
+    private final int[] myRowOffset;
+
+    /** For each row, the number of rows in its block, 0 on a street. */
+    private final int[] myRowSpan;
+
+    /**
+     * Lays out the streets of a city of the given size.
+     *
+     * @param theWidth the number of columns
+     * @param theHeight the number of rows
+     * @param theSeed the seed
+     * @throws IllegalArgumentException if the width or height is out of range
+     */
+    public CityGenerator(final int theWidth, final int theHeight, final long theSeed) {
+        super();
+        myWidth = checkSize(theWidth);
+        myHeight = checkSize(theHeight);
+        mySeed = theSeed;
+        myColumnOffset = new int[theWidth];
+        myColumnSpan = new int[theWidth];
+        layOut(myColumnOffset, myColumnSpan, new SimulationRandom(theSeed));
+        myRowOffset = new int[theHeight];
+        myRowSpan = new int[theHeight];
+        layOut(myRowOffset, myRowSpan, new SimulationRandom(~theSeed));
+    }
+
+    /**
+     * Generates a city and writes it to standard output.
+     *
+     * @param theArgs the width, height, and optionally the seed and vehicle counts
+     */
+    public static void main(final String... theArgs) {
+        if (theArgs.length < 2) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        try {
+            long seed = 0;
+            if (theArgs.length > SEED_ARG) {
+                seed = Long.parseLong(theArgs[SEED_ARG]);
+            }
+            final CityGenerator generator = new CityGenerator(
+                    Integer.parseInt(theArgs[0]), Integer.parseInt(theArgs[1]), seed);
+            final Writer out = new BufferedWriter(
+                    new OutputStreamWriter(System.out, StandardCharsets.US_ASCII));
+            generator.write(out, generator.parsePopulation(theArgs));
+            out.flush();
+        } catch (final IOException ioe) {
+            System.err.println("Could not write the city: " + ioe.getMessage());
+            System.exit(1);
+        } catch (final IllegalArgumentException iae) {
+            System.err.println(iae.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Returns the default population of this city: one vehicle for every 64 cells, with
+     * a fixed share of each type.
+     *
+     * @return the number of vehicles of each type
+     */
+    public Map<VehicleType, Integer> defaultPopulation() {
+        final long total = (long) myWidth * myHeight / CELLS_PER_VEHICLE;
+        final Map<VehicleType, Integer> result = new EnumMap<>(VehicleType.class);
+        for (final VehicleType type : VehicleType.values()) {
+            result.put(type, (int) (total * DEFAULT_MIX[type.ordinal()] / PERCENT));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the terrain of one cell of the city.
+     *
+     * @param theX the x-coordinate of the cell
+     * @param theY the y-coordinate of the cell
+     * @return the terrain
+     */
+    public Terrain terrainAt(final int theX, final int theY) {
+        final Terrain result;
+        if (theX == 0 || theY == 0 || theX == myWidth - 1 || theY == myHeight - 1) {
+            result = Terrain.WALL;
+        } else if (myColumnOffset[theX] == 0 && myRowOffset[theY] == 0) {
+            result = intersectionAt(theX, theY);
+        } else if (myColumnOffset[theX] == 0) {
+            result = streetAt(myRowOffset[theY], myRowSpan[theY],
+                              isLight(theX, theY - 1), isLight(theX, theY + 1));
+        } else if (myRowOffset[theY] == 0) {
+            result = streetAt(myColumnOffset[theX], myColumnSpan[theX],
+                              isLight(theX - 1, theY), isLight(theX + 1, theY));
+        } else {
+            result = blockAt(theX, theY);
+        }
+        return result;
+    }
+
+    /**
+     * Writes the city in the city map file format: the grid, one row at a time, then the
+     * vehicles. Vehicles are placed at random on terrain their type starts on: Humans on
+     * grass, ATVs anywhere but walls, Bicycles on streets or trails, and the rest on
+     * streets.
+     *
+     * @param theOut where to write the city
+     * @param thePopulation the number of vehicles of each type; missing types get none
+     * @throws IOException if the city cannot be written
+     * @throws IllegalArgumentException if a count is negative, or a type finds nowhere
+     *         to start
+     */
+    public void write(final Writer theOut, final Map<VehicleType, Integer> thePopulation)
+        throws IOException {
+        theOut.write(myHeight + " " + myWidth);
+        theOut.write(NEWLINE);
+        final char[] row = new char[myWidth];
+        for (int y = 0; y < myHeight; y++) {
+            for (int x = 0; x < myWidth; x++) {
+                row[x] = terrainAt(x, y).letter();
+            }
+            theOut.write(row);
+            theOut.write(NEWLINE);
+        }
+
+        // in type order, whatever kind of map was passed in
+        final Map<VehicleType, Integer> population = new EnumMap<>(VehicleType.class);
+        population.putAll(thePopulation);
+        long total = 0;
+        for (final int count : population.values()) {
+            if (count < 0) {
+                throw new IllegalArgumentException("Negative vehicle count: " + count);
+            }
+            total += count;
+        }
+        theOut.write(Long.toString(total));
+        theOut.write(NEWLINE);
+        final SimulationRandom random =
+                new SimulationRandom(SimulationRandom.streamSeed(mySeed, myHeight));
+        final StringBuilder line = new StringBuilder();
+        for (final Map.Entry<VehicleType, Integer> entry : population.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                line.setLength(0);
+                placeVehicle(entry.getKey(), random, line);
+                theOut.write(line.toString());
+            }
+        }
+    }
+
+    /**
+     * Lays out the streets along one axis: one next to each edge, and others between
+     * them separated by blocks of random size.
+     *
+     * @param theOffsets the distance of each position from the street before it
+     * @param theSpans the size of the block each position is in
+     * @param theRandom the source of the block sizes
+     */
+    private static void layOut(final int[] theOffsets, final int[] theSpans,
+                               final SimulationRandom theRandom) {
+        final int last = theOffsets.length - 2;
+        int street = 1;
+        while (street < last) {
+            int next = Math.min(street + MIN_BLOCK + 1 + theRandom.nextInt(BLOCK_SPREAD),
+                                last);
+            if (last - next <= MIN_BLOCK) {
+                // too little room for another block, so this one runs to the edge
+                next = last;
+            }
+            for (int i = street + 1; i < next; i++) {
+                theOffsets[i] = i - street;
+                theSpans[i] = next - street - 1;
+            }
+            street = next;
+        }
+    }
+
+    /**
+     * Returns the terrain of an intersection of two streets.
+     *
+     * @param theX the x-coordinate of the intersection
+     * @param theY the y-coordinate of the intersection
+     * @return the terrain
+     */
+    private Terrain intersectionAt(final int theX, final int theY) {
+        Terrain result = Terrain.STREET;
+        if (isLight(theX, theY)) {
+            result = Terrain.LIGHT;
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether a cell would have a light if it were an intersection.
+     *
+     * @param theX the x-coordinate of the cell
+     * @param theY the y-coordinate of the cell
+     * @return true if the cell would have a light
+     */
+    private boolean isLight(final int theX, final int theY) {
+        return chance(theX, theY) < LIGHT_CHANCE;
+    }
+
+    /**
+     * Returns the terrain of a street cell between two intersections: a crosswalk next to
+     * an intersection with a light, and plain street otherwise.
+     *
+     * @param theOffset the distance of the cell from the intersection before it
+     * @param theSpan the number of cells between the two intersections
+     * @param theLightBefore whether the cell before this one has a light
+     * @param theLightAfter whether the cell after this one has a light
+     * @return the terrain
+     */
+    private static Terrain streetAt(final int theOffset, final int theSpan,
+                                    final boolean theLightBefore,
+                                    final boolean theLightAfter) {
+        Terrain result = Terrain.STREET;
+        if (theOffset == 1 && theLightBefore || theOffset == theSpan && theLightAfter) {
+            result = Terrain.CROSSWALK;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the terrain of a cell inside a block.
+     *
+     * @param theX the x-coordinate of the cell
+     * @param theY the y-coordinate of the cell
+     * @return the terrain
+     */
+    private Terrain blockAt(final int theX, final int theY) {
+        // every cell of a block has the same block corner
+        final int chance = chance(theX - myColumnOffset[theX], theY - myRowOffset[theY]);
+        final Terrain result;
+        if (chance < PARK_CHANCE) {
+            result = parkAt(theX, theY);
+        } else if (chance < PARK_CHANCE + BUILDING_CHANCE) {
+            result = buildingAt(theX, theY);
+        } else {
+            result = Terrain.GRASS;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the terrain of a cell of a park: trails across the middle, grass elsewhere.
+     *
+     * @param theX the x-coordinate of the cell
+     * @param theY the y-coordinate of the cell
+     * @return the terrain
+     */
+    private Terrain parkAt(final int theX, final int theY) {
+        Terrain result = Terrain.GRASS;
+        if (myColumnOffset[theX] == (myColumnSpan[theX] + 1) / 2
+                || myRowOffset[theY] == (myRowSpan[theY] + 1) / 2) {
+            result = Terrain.TRAIL;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the terrain of a cell of a building block: wall, inside a ring of grass
+     * one cell wide so that nothing is walled into a dead end.
+     *
+     * @param theX the x-coordinate of the cell
+     * @param theY the y-coordinate of the cell
+     * @return the terrain
+     */
+    private Terrain buildingAt(final int theX, final int theY) {
+        Terrain result = Terrain.WALL;
+        if (myColumnOffset[theX] == 1 || myColumnOffset[theX] == myColumnSpan[theX]
+                || myRowOffset[theY] == 1 || myRowOffset[theY] == myRowSpan[theY]) {
+            result = Terrain.GRASS;
+        }
+        return result;
+    }
+
+    /**
+     * Returns a number from 0 to 99 that depends only on the seed and a position.
+     *
+     * @param theX the x-coordinate
+     * @param theY the y-coordinate
+     * @return the number
+     */
+    private int chance(final int theX, final int theY) {
+        final long hash = SimulationRandom.streamSeed(mySeed, (long) theY * myWidth + theX);
+        return (int) Long.remainderUnsigned(hash, PERCENT);
+    }
+
+    /**
+     * Picks a random starting cell and direction for a vehicle and appends its line of
+     * the map file.
+     *
+     * @param theType the type of the vehicle
+     * @param theRandom the source of the position and direction
+     * @param theLine the line to append to
+     * @throws IllegalArgumentException if no starting cell is found
+     */
+    private void placeVehicle(final VehicleType theType, final SimulationRandom theRandom,
+                              final StringBuilder theLine) {
+        for (int i = 0; i < PLACEMENT_TRIES; i++) {
+            final int x = theRandom.nextInt(myWidth);
+            final int y = theRandom.nextInt(myHeight);
+            final Terrain terrain = terrainAt(x, y);
+            if (canStartOn(theType, terrain)) {
+                theLine.append(theType.letter()).append(' ').append(x).append(' ');
+                theLine.append(y).append(' ');
+                theLine.append(DIRECTIONS[theRandom.nextInt(DIRECTIONS.length)].letter());
+                theLine.append(' ').append(terrain.letter()).append(NEWLINE);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Nowhere for a " + theType + " to start");
+    }
+
+    /**
+     * Returns whether a vehicle of the given type may start on the given terrain.
+     *
+     * @param theType the type of the vehicle
+     * @param theTerrain the terrain
+     * @return true if the vehicle may start there
+     */
+    private static boolean canStartOn(final VehicleType theType, final Terrain theTerrain) {
+        return switch (theType) {
+            case HUMAN -> theTerrain == Terrain.GRASS;
+            case ATV -> theTerrain != Terrain.WALL;
+            case BICYCLE -> theTerrain == Terrain.STREET || theTerrain == Terrain.TRAIL;
+            default -> theTerrain == Terrain.STREET;
+        };
+    }
+
+    /**
+     * Returns the population given in the arguments, or the default population if the
+     * arguments give none.
+     *
+     * @param theArgs the command line arguments
+     * @return the number of vehicles of each type
+     * @throws IllegalArgumentException if a count is malformed
+     */
+    Map<VehicleType, Integer> parsePopulation(final String... theArgs) {
+        final Map<VehicleType, Integer> result = new EnumMap<>(VehicleType.class);
+        for (int i = SEED_ARG + 1; i < theArgs.length; i++) {
+            final String arg = theArgs[i].toUpperCase(Locale.ROOT);
+            final VehicleType type;
+            if (arg.length() < 2) {
+                type = null;
+            } else {
+                type = VehicleType.valueOf(arg.charAt(0));
+            }
+            if (type == null || arg.charAt(1) != '=') {
+                throw new IllegalArgumentException("Not a vehicle count: " + theArgs[i]);
+            }
+            result.put(type, Integer.parseInt(arg.substring(2)));
+        }
+        if (result.isEmpty()) {
+            result.putAll(defaultPopulation());
+        }
+        return result;
+    }
+
+    /**
+     * Checks that a width or height is in range.
+     *
+     * @param theSize the width or height
+     * @return the size
+     * @throws IllegalArgumentException if the size is out of range
+     */
+    private static int checkSize(final int theSize) {
+        if (theSize < MIN_SIZE || theSize > MAX_SIZE) {
+            throw new IllegalArgumentException("City sizes must be from " + MIN_SIZE
+                                               + " to " + MAX_SIZE + ": " + theSize);
+        }
+        return theSize;
+    }
+}
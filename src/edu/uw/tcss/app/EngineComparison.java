@@ -0,0 +1,111 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.app;
+
+import edu.uw.tcss.logic.AbstractRoadRage;
+import edu.uw.tcss.logic.ArrayRoadRage;
+import edu.uw.tcss.logic.RoadRage;
+import edu.uw.tcss.model.TerrainGrid;
+
+/**
+ * Compares the memory used per vehicle and the ticks per second of the object-per-vehicle
+ * engine ({@link RoadRage}) and the array-backed engine ({@link ArrayRoadRage}) on the
+ * same synthetic city.
+ *
+ * <p>Usage: {@code EngineComparison [vehicles] [ticks]}. Run with a heap large enough for
+ * both engines, for example {@code -Xmx4g} for a million vehicles.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public final class EngineComparison {
+
+    /** The number of vehicles to simulate when none is given. */
+    private static final int DEFAULT_VEHICLES = 1_000_000;
+
+    /** The number of ticks to time when none is given. */
+    private static final int DEFAULT_TICKS = 100;
+
+    /** The number of garbage collections to request before measuring the heap. */
+    private static final int GC_PASSES = 3;
+
+    /** The number of nanoseconds in a second. */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Private constructor to prevent construction of instances.
+     */
+    private EngineComparison() {
+        super();
+    }
+
+    /**
+     * Builds a synthetic city and reports the figures for both engines.
+     *
+     * @param theArgs the number of vehicles and the number of ticks (both optional)
+     */
+    public static void main(final String... theArgs) {
+        int vehicles = DEFAULT_VEHICLES;
+        int ticks = DEFAULT_TICKS;
+        if (theArgs.length > 0) {
+            vehicles = Integer.parseInt(theArgs[0]);
+        }
+        if (theArgs.length > 1) {
+            ticks = Integer.parseInt(theArgs[1]);
+        }
+
+        final TerrainGrid grid = SyntheticCity.create(vehicles).getGrid();
+        System.out.printf("city %d x %d, %d vehicles, %d ticks%n",
+                          grid.getWidth(), grid.getHeight(), vehicles, ticks);
+
+        final long objectBase = usedHeap();
+        AbstractRoadRage engine = new RoadRage(grid,
+                                               SyntheticCity.create(vehicles).getVehicles());
+        report("object", engine, usedHeap() - objectBase, vehicles, ticks);
+        engine = null;
+
+        final long arrayBase = usedHeap();
+        engine = new ArrayRoadRage(grid, SyntheticCity.create(vehicles).getVehicles());
+        report("array", engine, usedHeap() - arrayBase, vehicles, ticks);
+        System.out.printf("array storage: %d bytes/vehicle%n",
+                          ArrayRoadRage.bytesPerVehicle());
+    }
+
+    /**
+     * Times an engine and prints its figures.
+     *
+     * @param theName the name of the engine
+     * @param theEngine the engine
+     * @param theBytes the heap retained by the engine's vehicles
+     * @param theVehicles the number of vehicles
+     * @param theTicks the number of ticks to time
+     */
+    private static void report(final String theName, final AbstractRoadRage theEngine,
+                               final long theBytes, final int theVehicles,
+                               final int theTicks) {
+        theEngine.start();
+        final long start = System.nanoTime();
+        for (int i = 0; i < theTicks; i++) {
+            theEngine.advance();
+        }
+        final long elapsed = System.nanoTime() - start;
+        System.out.printf("%-6s %8.1f bytes/vehicle %10.2f ticks/sec%n", theName,
+                          (double) theBytes / theVehicles,
+                          theTicks * NANOS_PER_SECOND / elapsed);
+    }
+
+    /**
+     * Returns the heap in use after requesting a garbage collection.
+     *
+     * @return the used heap in bytes
+     */
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < GC_PASSES; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
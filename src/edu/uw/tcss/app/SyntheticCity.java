@@ -0,0 +1,120 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.app;
+
+import edu.uw.tcss.io.CityMap;
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
+import edu.uw.tcss.model.Vehicle;
+import edu.uw.tcss.model.VehicleType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds walled cities of street blocks and grass, just large enough for a given number of
+ * vehicles of every type, for measuring the engines at sizes no map file covers.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public final class SyntheticCity {
+
+    /** The spacing between streets. */
+    private static final int BLOCK = 4;
+
+    /** The seed used to place the vehicles. */
+    private static final long SEED = 305L;
+
+    /**
+     * Private constructor to prevent construction of instances.
+     */
+    private SyntheticCity() {
+        super();
+    }
+
+    /**
+     * Builds a city holding the given number of vehicles. The same number of vehicles
+     * always gives the same city.
+     *
+     * @param theVehicles the number of vehicles
+     * @return the city
+     */
+    public static CityMap create(final int theVehicles) {
+        final TerrainGrid grid = buildGrid(theVehicles);
+        return new CityMap(grid, buildVehicles(grid, theVehicles));
+    }
+
+    /**
+     * Builds a walled city of street blocks large enough for the given population.
+     *
+     * @param theVehicles the number of vehicles the city must hold
+     * @return the terrain grid
+     */
+    private static TerrainGrid buildGrid(final int theVehicles) {
+        final int side = Math.max(BLOCK * 2, (int) Math.sqrt(theVehicles * 2.0) + 2);
+        final TerrainGrid grid = new TerrainGrid(side, side);
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                grid.set(x, y, terrainAt(x, y, side));
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Returns the terrain of one cell of the synthetic city.
+     *
+     * @param theX the x-coordinate of the cell
+     * @param theY the y-coordinate of the cell
+     * @param theSide the width and height of the city
+     * @return the terrain
+     */
+    private static Terrain terrainAt(final int theX, final int theY, final int theSide) {
+        final Terrain result;
+        if (theX == 0 || theY == 0 || theX == theSide - 1 || theY == theSide - 1) {
+            result = Terrain.WALL;
+        } else if (theX % BLOCK == 1 && theY % BLOCK == 1) {
+            result = Terrain.LIGHT;
+        } else if (theX % BLOCK == 1 || theY % BLOCK == 1) {
+            result = Terrain.STREET;
+        } else {
+            result = Terrain.GRASS;
+        }
+        return result;
+    }
+
+    /**
+     * Scatters vehicles of every type over the city: Humans on grass, everything else on
+     * streets.
+     *
+     * @param theGrid the terrain grid
+     * @param theVehicles the number of vehicles
+     * @return the vehicles
+     */
+    private static List<Vehicle> buildVehicles(final TerrainGrid theGrid,
+                                               final int theVehicles) {
+        final Random random = new Random(SEED);
+        final VehicleType[] types = VehicleType.values();
+        final Direction[] directions = Direction.values();
+        final List<Vehicle> result = new ArrayList<>(theVehicles);
+        while (result.size() < theVehicles) {
+            final int x = random.nextInt(theGrid.getWidth());
+            final int y = random.nextInt(theGrid.getHeight());
+            final VehicleType type = types[result.size() % types.length];
+            final Terrain wanted;
+            if (type == VehicleType.HUMAN) {
+                wanted = Terrain.GRASS;
+            } else {
+                wanted = Terrain.STREET;
+            }
+            if (theGrid.get(x, y) == wanted) {
+                result.add(type.create(x, y, directions[random.nextInt(directions.length)]));
+            }
+        }
+        return result;
+    }
+}
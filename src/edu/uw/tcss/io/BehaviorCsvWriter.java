@@ -0,0 +1,166 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.io;
+
+import edu.uw.tcss.model.BehaviorCounters;
+import edu.uw.tcss.model.VehicleType;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the behavior counters of a simulation to a CSV file at a fixed period, from a
+ * thread of its own, while the simulation runs.
+ * <br />
+ * The file starts with the header {@code millis,type,reversed,blocked,rerolled,
+ * collision_lost}. Each dump adds one row per vehicle type, holding the milliseconds since
+ * the writer started and the counts as they stand; the counts are never reset by the
+ * writer, so the change between two dumps is the difference of their rows. One last dump
+ * is written when the writer is closed.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public final class BehaviorCsvWriter implements Closeable {
+
+    /**
+     * The first line of every file: the time, the type, then one column per behavior.
+     */
+    public static final String HEADER = "millis,type,"
+            + Arrays.stream(BehaviorCounters.Behavior.values())
+                    .map(theBehavior -> theBehavior.name().toLowerCase(Locale.ROOT))
+                    .collect(Collectors.joining(","));
+
+    /**
+     * The number of nanoseconds in a millisecond.
+     */
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    /**
+     * The counters written.
+     */
+    private final BehaviorCounters myCounters;
+
+    /**
+     * The file being written.
+     */
+    private final BufferedWriter myOut;
+
+    /**
+     * The thread the dumps are written from.
+     */
+    private final ScheduledExecutorService myExecutor;
+
+    /**
+     * The time the writer started, from System.nanoTime().
+     */
+    private final long myStart;
+
+    /**
+     * The first error writing the file, thrown by close(); null if there was none.
+     */
+    private IOException myError;
+
+    /**
+     * Creates or replaces a CSV file, writes its header, and starts dumping the counters
+     * to it at the given period.
+     *
+     * @param theCounters the counters to write
+     * @param theFile the file to write
+     * @param thePeriodMillis the time between dumps, in milliseconds
+     * @throws IOException if the file cannot be created
+     * @throws IllegalArgumentException if the period is not positive
+     */
+    public BehaviorCsvWriter(final BehaviorCounters theCounters, final Path theFile,
+                             final long thePeriodMillis) throws IOException {
+        super();
+        if (thePeriodMillis <= 0) {
+            throw new IllegalArgumentException("period must be positive: "
+                                               + thePeriodMillis);
+        }
+        myCounters = theCounters;
+        myOut = Files.newBufferedWriter(theFile);
+        myOut.write(HEADER);
+        myOut.newLine();
+        myStart = System.nanoTime();
+        myExecutor = Executors.newSingleThreadScheduledExecutor(theTask -> {
+            final Thread thread = new Thread(theTask, "Road Rage behavior CSV");
+            thread.setDaemon(true);
+            return thread;
+        });
+        myExecutor.scheduleAtFixedRate(this::dump, thePeriodMillis, thePeriodMillis,
+                                       TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes the counts as they stand now, in addition to the periodic dumps. Does nothing
+     * once writing has failed.
+     */
+    public synchronized void dump() {
+        if (myError == null) {
+            try {
+                writeRows((System.nanoTime() - myStart) / NANOS_PER_MILLI);
+            } catch (final IOException exception) {
+                myError = exception;
+            }
+        }
+    }
+
+    /**
+     * Stops the periodic dumps, writes one last dump and closes the file. Does nothing if
+     * the writer is already closed.
+     *
+     * @throws IOException if any dump could not be written, or the file not closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (myExecutor.isShutdown()) {
+            return;
+        }
+        myExecutor.shutdown();
+        try {
+            myExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            dump();
+            myOut.close();
+            if (myError != null) {
+                throw myError;
+            }
+        }
+    }
+
+    /**
+     * Writes one row per vehicle type and flushes them, so the file can be read while the
+     * simulation runs.
+     *
+     * @param theMillis the milliseconds since the writer started
+     * @throws IOException if the rows cannot be written
+     */
+    private void writeRows(final long theMillis) throws IOException {
+        final BehaviorCounters.Counts counts = myCounters.snapshot();
+        final StringBuilder rows = new StringBuilder();
+        for (final VehicleType type : VehicleType.values()) {
+            rows.append(theMillis).append(',').append(type.name().toLowerCase(Locale.ROOT));
+            for (final BehaviorCounters.Behavior behavior
+                    : BehaviorCounters.Behavior.values()) {
+                rows.append(',').append(counts.get(behavior, type));
+            }
+            rows.append(System.lineSeparator());
+        }
+        myOut.write(rows.toString());
+        myOut.flush();
+    }
+}
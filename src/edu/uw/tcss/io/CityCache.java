@@ -0,0 +1,385 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.io;
+
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.TerrainGrid;
+import edu.uw.tcss.model.Vehicle;
+import edu.uw.tcss.model.VehicleType;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Reads city map files through a compiled binary copy kept next to them, so that a large
+ * city does not have to be parsed again every time it is opened.
+ * <br />
+ * The compiled copy of {@code city.txt} is {@code city.txt.bin}. It starts with a header
+ * holding the length and CRC-32C checksum of the text it was compiled from, then holds
+ * the terrain ordinals row by row, one byte per cell, then each vehicle's type ordinal,
+ * x, y and direction ordinal. The copy is memory-mapped and used only while the text
+ * still has the same length and checksum; otherwise the text is parsed by
+ * {@link CityReader} and the copy written again.
+ * <br />
+ * A city too large to hold in memory is read on tiles instead: its grid is compiled,
+ * one row at a time, into {@code city.txt.tiles}, a {@link TiledTerrain} file that
+ * records the length and checksum of the text in the same way, and its vehicles are
+ * read from the text.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public final class CityCache {
+
+    /**
+     * The suffix added to the name of a city map file to name its compiled copy.
+     */
+    public static final String SUFFIX = ".bin";
+
+    /**
+     * The suffix added to the name of a city map file to name its tile file.
+     */
+    public static final String TILES_SUFFIX = ".tiles";
+
+    /**
+     * The first four bytes of every compiled city: "RRMC".
+     */
+    private static final int MAGIC = 0x5252_4D43;
+
+    /**
+     * The version of the compiled format written by this class.
+     */
+    private static final short VERSION = 1;
+
+    /**
+     * The number of bytes in the header: magic, version, source length, source checksum,
+     * width, height and vehicle count.
+     */
+    private static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + Long.BYTES
+                                            + Integer.BYTES + Integer.BYTES + Integer.BYTES
+                                            + Integer.BYTES;
+
+    /**
+     * The number of bytes for each vehicle: type ordinal, x, y and direction ordinal.
+     */
+    private static final int VEHICLE_BYTES = Byte.BYTES + Integer.BYTES + Integer.BYTES
+                                             + Byte.BYTES;
+
+    /**
+     * The size of the buffer a compiled city is written through.
+     */
+    private static final int WRITE_BUFFER_BYTES = 65_536;
+
+    /**
+     * The vehicle types, indexed by ordinal.
+     */
+    private static final VehicleType[] TYPES = VehicleType.values();
+
+    /**
+     * The directions, indexed by ordinal.
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * A private constructor, to prevent external instantiation.
+     */
+    private CityCache() {
+        super();
+    }
+
+    /**
+     * Reads a city map file, from its compiled copy if that is up to date, and otherwise
+     * from the text, compiling it for next time. A compiled copy that cannot be written,
+     * for example into a read-only folder, is simply skipped.
+     *
+     * @param theFile the city map file
+     * @return the grid and vehicles described by the file
+     * @throws IOException if the file cannot be read or is not a city map
+     */
+    public static CityMap read(final File theFile) throws IOException {
+        final Path compiled = compiledFile(theFile).toPath();
+        try (FileChannel channel = FileChannel.open(theFile.toPath(),
+                                                    StandardOpenOption.READ)) {
+            final MappedText text = new MappedText(channel);
+            final int checksum = text.checksum();
+            CityMap result = readCompiled(compiled, text.length(), checksum);
+            if (result == null) {
+                result = CityReader.read(text);
+                try {
+                    writeCompiled(compiled, result, text.length(), checksum);
+                } catch (final IOException ioe) {
+                    // the city still opens, it is just parsed again next time
+                    Files.deleteIfExists(temporaryFile(compiled));
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Reads a city map file on tiles, so that its grid is never held in memory. The grid
+     * is read from the tile file if that is up to date, and otherwise compiled into it
+     * from the text first. The vehicles are read from the text.
+     *
+     * @param theFile the city map file
+     * @return the tiled grid and vehicles described by the file, to be closed when done
+     * @throws IOException if the file cannot be read or is not a city map, or the tile
+     *         file cannot be written
+     */
+    public static TiledCity readTiled(final File theFile) throws IOException {
+        final Path tiles = tiledFile(theFile).toPath();
+        try (FileChannel channel = FileChannel.open(theFile.toPath(),
+                                                    StandardOpenOption.READ)) {
+            final MappedText text = new MappedText(channel);
+            final int checksum = text.checksum();
+            TiledTerrain terrain = openTiles(tiles, text.length(), checksum);
+            if (terrain == null) {
+                final Path temporary = temporaryFile(tiles);
+                try {
+                    CityReader.readTiles(text, checksum, temporary);
+                    Files.move(temporary, tiles, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temporary);
+                }
+                terrain = TiledTerrain.open(tiles);
+            }
+            try {
+                return new TiledCity(terrain,
+                                     CityReader.readVehicles(text,
+                                                             terrain.getVehiclesPosition()));
+            } catch (final IOException ioe) {
+                terrain.close();
+                throw ioe;
+            }
+        }
+    }
+
+    /**
+     * Returns the tile file of a city map file.
+     *
+     * @param theFile the city map file
+     * @return the tile file, which may not exist
+     */
+    public static File tiledFile(final File theFile) {
+        return new File(theFile.getPath() + TILES_SUFFIX);
+    }
+
+    /**
+     * Returns the compiled copy of a city map file.
+     *
+     * @param theFile the city map file
+     * @return the compiled copy, which may not exist
+     */
+    public static File compiledFile(final File theFile) {
+        return new File(theFile.getPath() + SUFFIX);
+    }
+
+    /**
+     * Reads a compiled city, if it was compiled from text of the given length and
+     * checksum.
+     *
+     * @param theCompiled the compiled city
+     * @param theLength the length of the text
+     * @param theChecksum the checksum of the text
+     * @return the city, or null if the compiled copy is missing, out of date or damaged
+     * @throws IOException if the compiled copy exists but cannot be read
+     */
+    private static CityMap readCompiled(final Path theCompiled, final long theLength,
+                                        final int theChecksum) throws IOException {
+        CityMap result = null;
+        try (FileChannel channel = FileChannel.open(theCompiled, StandardOpenOption.READ)) {
+            if (channel.size() >= HEADER_BYTES && channel.size() <= Integer.MAX_VALUE) {
+                final MappedByteBuffer buffer =
+                        channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.getInt() == MAGIC && buffer.getShort() == VERSION
+                        && buffer.getLong() == theLength && buffer.getInt() == theChecksum) {
+                    result = readBody(buffer);
+                }
+            }
+        } catch (final NoSuchFileException nsfe) {
+            result = null;
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException
+                       | BufferUnderflowException exception) {
+            // damaged: compile it again
+            result = null;
+        }
+        return result;
+    }
+
+    /**
+     * Opens a tile file, if it was compiled from text of the given length and checksum.
+     *
+     * @param theTiles the tile file
+     * @param theLength the length of the text
+     * @param theChecksum the checksum of the text
+     * @return the tiles, or null if the tile file is missing, out of date or damaged
+     * @throws IOException if an out of date tile file cannot be closed
+     */
+    private static TiledTerrain openTiles(final Path theTiles, final long theLength,
+                                          final int theChecksum) throws IOException {
+        TiledTerrain result;
+        try {
+            result = TiledTerrain.open(theTiles);
+        } catch (final IOException ioe) {
+            // missing or damaged: compile it again
+            result = null;
+        }
+        if (result != null && (result.getSourceLength() != theLength
+                               || result.getSourceChecksum() != theChecksum)) {
+            result.close();
+            result = null;
+        }
+        return result;
+    }
+
+    /**
+     * Reads the grid and vehicles of a compiled city, which follow the header.
+     *
+     * @param theBuffer the compiled city, positioned after the source checksum
+     * @return the city, or null if the buffer is not the size the header says
+     */
+    private static CityMap readBody(final ByteBuffer theBuffer) {
+        final int width = theBuffer.getInt();
+        final int height = theBuffer.getInt();
+        final int count = theBuffer.getInt();
+        CityMap result = null;
+        // check the size before allocating anything a damaged header asks for
+        if (width >= 0 && height >= 0 && count >= 0
+                && theBuffer.capacity() == compiledSize(width, height, count)) {
+            final TerrainGrid grid = new TerrainGrid(width, height);
+            for (int y = 0; y < grid.getHeight(); y++) {
+                grid.readRow(y, theBuffer);
+            }
+            // every record has the same size, so the vehicles can be created in parallel
+            final int start = theBuffer.position();
+            final Vehicle[] vehicles = new Vehicle[count];
+            IntStream indexes = IntStream.range(0, count);
+            if (ForkJoinPool.getCommonPoolParallelism() > 1) {
+                indexes = indexes.parallel();
+            }
+            indexes.forEach(
+                i -> vehicles[i] = readVehicle(theBuffer, start + i * VEHICLE_BYTES));
+            result = new CityMap(grid, Arrays.asList(vehicles));
+        }
+        return result;
+    }
+
+    /**
+     * Creates the vehicle recorded at a position of a compiled city, without moving the
+     * buffer's position, so several threads may read the same buffer.
+     *
+     * @param theBuffer the compiled city
+     * @param thePosition the position of the vehicle record
+     * @return the vehicle
+     */
+    private static Vehicle readVehicle(final ByteBuffer theBuffer, final int thePosition) {
+        final VehicleType type = TYPES[theBuffer.get(thePosition)];
+        final int vehicleX = theBuffer.getInt(thePosition + Byte.BYTES);
+        final int vehicleY = theBuffer.getInt(thePosition + Byte.BYTES + Integer.BYTES);
+        final Direction direction =
+                DIRECTIONS[theBuffer.get(thePosition + VEHICLE_BYTES - Byte.BYTES)];
+        return type.create(vehicleX, vehicleY, direction);
+    }
+
+    /**
+     * Writes a compiled city. It is written beside the compiled copy first and then moved
+     * over it, so a reader never sees a half-written copy.
+     *
+     * @param theCompiled the compiled copy to write
+     * @param theCity the city
+     * @param theLength the length of the text it was read from
+     * @param theChecksum the checksum of the text it was read from
+     * @throws IOException if the copy cannot be written
+     */
+    private static void writeCompiled(final Path theCompiled, final CityMap theCity,
+                                      final long theLength, final int theChecksum)
+        throws IOException {
+        final TerrainGrid grid = theCity.getGrid();
+        final List<Vehicle> vehicles = theCity.getVehicles();
+        if (compiledSize(grid.getWidth(), grid.getHeight(), vehicles.size())
+                > Integer.MAX_VALUE) {
+            // too large to map in one piece; the text will be parsed every time
+            return;
+        }
+        final Path temporary = temporaryFile(theCompiled);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                                                    StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer buffer =
+                    ByteBuffer.allocate(Math.max(WRITE_BUFFER_BYTES, grid.getWidth()));
+            buffer.putInt(MAGIC).putShort(VERSION).putLong(theLength).putInt(theChecksum);
+            buffer.putInt(grid.getWidth()).putInt(grid.getHeight()).putInt(vehicles.size());
+            for (int y = 0; y < grid.getHeight(); y++) {
+                room(channel, buffer, grid.getWidth());
+                grid.writeRow(y, buffer);
+            }
+            for (final Vehicle vehicle : vehicles) {
+                room(channel, buffer, VEHICLE_BYTES);
+                buffer.put((byte) VehicleType.of(vehicle).ordinal());
+                buffer.putInt(vehicle.getX()).putInt(vehicle.getY());
+                buffer.put((byte) vehicle.getDirection().ordinal());
+            }
+            // write out whatever is left
+            room(channel, buffer, buffer.capacity());
+        }
+        Files.move(temporary, theCompiled, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Makes room in a buffer for the given number of bytes, writing out what it holds
+     * first if it has to.
+     *
+     * @param theChannel the file being written
+     * @param theBuffer the buffer
+     * @param theBytes the number of bytes about to be put
+     * @throws IOException if the file cannot be written
+     */
+    private static void room(final FileChannel theChannel, final ByteBuffer theBuffer,
+                             final int theBytes) throws IOException {
+        if (theBuffer.remaining() < theBytes) {
+            theBuffer.flip();
+            while (theBuffer.hasRemaining()) {
+                theChannel.write(theBuffer);
+            }
+            theBuffer.clear();
+        }
+    }
+
+    /**
+     * Returns the size of the compiled form of a city.
+     *
+     * @param theWidth the width of the city's grid
+     * @param theHeight the height of the city's grid
+     * @param theVehicles the number of vehicles in the city
+     * @return the size in bytes
+     */
+    private static long compiledSize(final int theWidth, final int theHeight,
+                                     final int theVehicles) {
+        return HEADER_BYTES + (long) theWidth * theHeight
+               + (long) VEHICLE_BYTES * theVehicles;
+    }
+
+    /**
+     * Returns the file a compiled copy is written to before it is moved into place.
+     *
+     * @param theCompiled the compiled copy
+     * @return the temporary file
+     */
+    private static Path temporaryFile(final Path theCompiled) {
+        return theCompiled.resolveSibling(theCompiled.getFileName() + ".tmp");
+    }
+}
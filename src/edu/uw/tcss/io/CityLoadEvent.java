@@ -0,0 +1,66 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.io;
+
+import java.io.File;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for loading a city map, lasting as long as the load.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+@Name("edu.uw.tcss.CityLoad")
+@Label("City Load")
+@Category({"Road Rage", "I/O"})
+@Description("Loading a Road Rage city map")
+final class CityLoadEvent extends Event {
+
+    /**
+     * The path of the city map file.
+     */
+    @Name("path")
+    @Label("Path")
+    private String myPath;
+
+    /**
+     * The width of the map, in squares.
+     */
+    @Name("width")
+    @Label("Map Width")
+    private int myWidth;
+
+    /**
+     * The height of the map, in squares.
+     */
+    @Name("height")
+    @Label("Map Height")
+    private int myHeight;
+
+    /**
+     * The number of vehicles.
+     */
+    @Name("vehicles")
+    @Label("Vehicles")
+    private int myVehicles;
+
+    /**
+     * Sets the city loaded.
+     *
+     * @param theFile the city map file
+     * @param theCity the city
+     */
+    void set(final File theFile, final CityMap theCity) {
+        myPath = theFile.getPath();
+        myWidth = theCity.getGrid().getWidth();
+        myHeight = theCity.getGrid().getHeight();
+        myVehicles = theCity.getVehicles().size();
+    }
+}
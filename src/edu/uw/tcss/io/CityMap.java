@@ -0,0 +1,61 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.io;
+
+import edu.uw.tcss.model.TerrainGrid;
+import edu.uw.tcss.model.Vehicle;
+import java.util.List;
+
+/**
+ * The contents of a city map file: the terrain grid and the vehicles placed on it.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public final class CityMap {
+
+    /**
+     * The terrain grid.
+     */
+    private final TerrainGrid myGrid;
+
+    /**
+     * The vehicles in the order they are listed in the file.
+     */
+    private final List<Vehicle> myVehicles;
+
+    /**
+     * Creates a city map.
+     *
+     * @param theGrid the terrain grid
+     * @param theVehicles the vehicles on the map
+     */
+    public CityMap(final TerrainGrid theGrid, final List<Vehicle> theVehicles) {
+        super();
+        myGrid = theGrid;
+        myVehicles = List.copyOf(theVehicles);
+    }
+
+    /**
+     * Returns the terrain grid. The grid is shared rather than copied, since a large
+     * city's grid is large. The simulation engines keep the grid they are given too, so
+     * every engine created from this city shares it, and loading a checkpoint of
+     * different terrain into any of them changes it.
+     *
+     * @return the grid
+     */
+    public TerrainGrid getGrid() {
+        return myGrid;
+    }
+
+    /**
+     * Returns the vehicles in the order they are listed in the file.
+     *
+     * @return the vehicles
+     */
+    public List<Vehicle> getVehicles() {
+        return myVehicles;
+    }
+}
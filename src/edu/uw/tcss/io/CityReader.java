@@ -0,0 +1,457 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.io;
+
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
+import edu.uw.tcss.model.Vehicle;
+import edu.uw.tcss.model.VehicleType;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Reads city map files. Unlike {@link FileLoader} it reports problems to its caller
+ * rather than the user, and uses no Swing classes, so it can be used by programs that
+ * run without a display.
+ * <br />
+ * The file is mapped into memory and decoded a byte at a time: terrain letters through a
+ * 256-entry table, numbers and vehicle letters without any regular expressions. When
+ * every grid row has the same line ending, each row's position is known in advance, so
+ * the rows of a large map are decoded in parallel. The vehicle lines are then split into
+ * chunks at line breaks and also read in parallel. Small maps are read on one thread.
+ * <br />
+ * For cities too large to hold in memory, the grid can instead be read straight into a
+ * {@link TiledTerrain} file, one row at a time.
+ *
+ * @author Charles Bryan
+ * @author Jakita Kaur (Extracted from FileLoader)
+ * @version Autumn 2024
+ */
+public final class CityReader {
+
+    /**
+     * The size of a file, in bytes, from which it is read in parallel.
+     */
+    private static final long PARALLEL_BYTES = 1_048_576L;
+
+    /**
+     * The number of vehicle chunks per thread, so that uneven chunks even out.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * The terrains, indexed by ordinal.
+     */
+    private static final Terrain[] TERRAINS = Terrain.values();
+
+    /**
+     * The terrain ordinal of every byte value; GRASS for bytes that are no terrain's letter,
+     * as in {@link Terrain#valueOf(char)}.
+     */
+    private static final byte[] TERRAIN_OF_BYTE = createTerrainTable();
+
+    /**
+     * A private constructor, to prevent external instantiation.
+     */
+    private CityReader() {
+        super();
+    }
+
+    /**
+     * Reads a city map file.
+     *
+     * @param theFile the city map file
+     * @return the grid and vehicles described by the file
+     * @throws IOException if the file cannot be read or is not a city map
+     */
+    public static CityMap read(final File theFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(theFile.toPath(),
+                                                    StandardOpenOption.READ)) {
+            return read(new MappedText(channel));
+        }
+    }
+
+    /**
+     * Reads a city map file that is already mapped.
+     *
+     * @param theText the city map file
+     * @return the grid and vehicles described by the file
+     * @throws IOException if the file is not a city map
+     */
+    static CityMap read(final MappedText theText) throws IOException {
+        final boolean parallel = theText.length() >= PARALLEL_BYTES;
+        try {
+
+            // First, we read the map description
+            // Then, we read where the initial vehicles are
+
+            final TextCursor header = new TextCursor(theText, 0, theText.length());
+            final int numRows = header.nextInt();
+            final int numColumns = header.nextInt();
+            header.nextLine();
+            final TerrainGrid grid = new TerrainGrid(numColumns, numRows);
+            final long vehiclesStart = readGrid(theText, header.position(), grid, parallel);
+            return new CityMap(grid, readVehicles(theText, vehiclesStart, parallel));
+        } catch (final IllegalArgumentException iae) {
+            throw new IOException(iae.getMessage(), iae);
+        }
+    }
+
+    /**
+     * Reads the grid portion of the map file, which starts with the first row.
+     *
+     * @param theText the map file
+     * @param theStart the position of the first row
+     * @param theGrid the grid to fill in
+     * @param theParallel whether to decode the rows in parallel
+     * @return the position just past the last row
+     * @throws IOException if a row is too short
+     */
+    private static long readGrid(final MappedText theText, final long theStart,
+                                 final TerrainGrid theGrid, final boolean theParallel)
+        throws IOException {
+        // every row is as long as the first when the rows all end the same way
+        final long stride = rowStride(theText, theStart, theGrid.getWidth());
+        IntStream rows = IntStream.range(0, theGrid.getHeight());
+        if (theParallel) {
+            rows = rows.parallel();
+        }
+        final long result;
+        if (stride > 0 && rows.allMatch(y -> decodeRow(theText, theStart + y * stride,
+                                                         theGrid, y, stride))) {
+            result = theStart + theGrid.getHeight() * stride;
+        } else {
+            result = readRowsByLine(theText, theStart, theGrid);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the distance from the start of one row to the start of the next, if the
+     * first row ends right after its last cell.
+     *
+     * @param theText the map file
+     * @param theStart the position of the first row
+     * @param theWidth the number of cells in a row
+     * @return the distance between rows, or 0 if the first row has extra characters
+     */
+    private static long rowStride(final MappedText theText, final long theStart,
+                                  final int theWidth) {
+        final long end = theStart + theWidth;
+        long result = 0;
+        if (end < theText.length() && theText.get(end) == '\n') {
+            result = theWidth + 1;
+        } else if (end + 1 < theText.length() && theText.get(end) == '\r'
+                   && theText.get(end + 1) == '\n') {
+            result = theWidth + 2;
+        }
+        return result;
+    }
+
+    /**
+     * Decodes one row of the grid at a known position.
+     *
+     * @param theText the map file
+     * @param theStart the position of the row
+     * @param theGrid the grid to fill in
+     * @param theY the row
+     * @param theStride the distance between rows, including the line ending
+     * @return false if the row is not where it was expected to be
+     */
+    private static boolean decodeRow(final MappedText theText, final long theStart,
+                                     final TerrainGrid theGrid, final int theY,
+                                     final long theStride) {
+        final long end = theStart + theStride;
+        boolean result = end <= theText.length() && theText.get(end - 1) == '\n';
+        for (int x = 0; result && x < theGrid.getWidth(); x++) {
+            final byte letter = theText.get(theStart + x);
+            result = letter != '\n' && letter != '\r';
+            theGrid.set(x, theY, terrainOf(letter));
+        }
+        return result;
+    }
+
+    /**
+     * Reads the grid one line at a time, for files whose rows are not all laid out alike.
+     * Characters past the width of the grid are ignored.
+     *
+     * @param theText the map file
+     * @param theStart the position of the first row
+     * @param theGrid the grid to fill in
+     * @return the position just past the last row
+     * @throws IOException if a row is too short
+     */
+    private static long readRowsByLine(final MappedText theText, final long theStart,
+                                       final TerrainGrid theGrid) throws IOException {
+        final TextCursor cursor = new TextCursor(theText, theStart, theText.length());
+        final byte[] cells = new byte[theGrid.getWidth()];
+        for (int row = 0; row < theGrid.getHeight(); row++) {
+            readLine(theText, cursor, row, cells);
+            theGrid.readRow(row, ByteBuffer.wrap(cells));
+        }
+        return cursor.position();
+    }
+
+    /**
+     * Reads the grid of a city map file straight into a tile file, one row at a time, so
+     * that the grid is never held in memory. The tile file records the length and
+     * checksum of the text and where its vehicles start.
+     *
+     * @param theText the map file
+     * @param theChecksum the checksum of the map file
+     * @param theTiles the tile file to write
+     * @throws IOException if the map file is not a city map or the tile file cannot be
+     *         written
+     * @see #readVehicles(MappedText, long)
+     */
+    static void readTiles(final MappedText theText, final int theChecksum,
+                          final Path theTiles) throws IOException {
+        try {
+            final TextCursor cursor = new TextCursor(theText, 0, theText.length());
+            final int numRows = cursor.nextInt();
+            final int numColumns = cursor.nextInt();
+            cursor.nextLine();
+            try (TiledTerrain.RowWriter writer = TiledTerrain.writer(theTiles, numColumns,
+                                                                     numRows)) {
+                final byte[] cells = new byte[numColumns];
+                for (int row = 0; row < numRows; row++) {
+                    readLine(theText, cursor, row, cells);
+                    writer.writeRow(cells);
+                }
+                writer.setSource(theText.length(), theChecksum, cursor.position());
+            }
+        } catch (final IllegalArgumentException iae) {
+            throw new IOException(iae.getMessage(), iae);
+        }
+    }
+
+    /**
+     * Reads the terrain ordinals of one row of the grid. Characters past the width of
+     * the grid are ignored.
+     *
+     * @param theText the map file
+     * @param theCursor the cursor, at the start of the row; it is left at the next line
+     * @param theRow the row, for reporting a short one
+     * @param theCells the array to fill, as long as a row
+     * @throws IOException if the row is too short
+     */
+    private static void readLine(final MappedText theText, final TextCursor theCursor,
+                                 final int theRow, final byte[] theCells)
+        throws IOException {
+        final long start = theCursor.position();
+        for (int column = 0; column < theCells.length; column++) {
+            final long position = start + column;
+            if (position >= theText.length() || theText.get(position) == '\n') {
+                throw new IOException("Row " + theRow + " is shorter than "
+                                      + theCells.length + " cells");
+            }
+            theCells[column] = TERRAIN_OF_BYTE[Byte.toUnsignedInt(theText.get(position))];
+        }
+        theCursor.nextLine();
+    }
+
+    /**
+     * Reads the vehicle portion of a map file whose grid has already been read, in
+     * parallel if the file is large.
+     *
+     * @param theText the map file
+     * @param theStart the position of the number of vehicles
+     * @return the list of Vehicles
+     * @throws IOException if a counted line is malformed or lines are missing
+     */
+    static List<Vehicle> readVehicles(final MappedText theText, final long theStart)
+        throws IOException {
+        try {
+            return readVehicles(theText, theStart, theText.length() >= PARALLEL_BYTES);
+        } catch (final IllegalArgumentException iae) {
+            throw new IOException(iae.getMessage(), iae);
+        }
+    }
+
+    /**
+     * Reads the vehicle portion of the map file: the number of vehicles, then one line
+     * per vehicle. Lines for unknown kinds of vehicle are skipped, but still count, and
+     * anything after the last counted line is ignored.
+     *
+     * @param theText the map file
+     * @param theStart the position of the number of vehicles
+     * @param theParallel whether to read the lines in parallel
+     * @return the list of Vehicles
+     * @throws IOException if a counted line is malformed or lines are missing
+     */
+    private static List<Vehicle> readVehicles(final MappedText theText, final long theStart,
+                                              final boolean theParallel) throws IOException {
+        final TextCursor header = new TextCursor(theText, theStart, theText.length());
+        final int numVehicles = header.nextInt();
+        header.nextLine();
+
+        final long[] bounds = chunkBounds(theText, header.position(), theParallel);
+        IntStream indexes = IntStream.range(0, bounds.length - 1);
+        if (theParallel) {
+            indexes = indexes.parallel();
+        }
+        final List<VehicleLines> chunks = indexes.mapToObj(
+            i -> new VehicleLines(theText, bounds[i], bounds[i + 1])).toList();
+
+        final List<Vehicle> vehicles = new ArrayList<>(numVehicles);
+        int lineCount = 0;
+        for (final VehicleLines chunk : chunks) {
+            for (final Vehicle vehicle : chunk.getVehicles()) {
+                if (lineCount < numVehicles && vehicle != null) {
+                    vehicles.add(vehicle);
+                }
+                lineCount++;
+            }
+            if (lineCount < numVehicles && chunk.getProblem() != null) {
+                throw chunk.getProblem();
+            }
+        }
+        if (lineCount < numVehicles) {
+            throw new IOException("Expected " + numVehicles + " vehicles but found "
+                                  + lineCount);
+        }
+        return vehicles;
+    }
+
+    /**
+     * Splits the rest of a file into chunks that start at the beginning of a line.
+     *
+     * @param theText the map file
+     * @param theStart the position of the first line
+     * @param theParallel whether to make several chunks for every thread, or just one
+     * @return the start of every chunk, then the end of the file
+     */
+    private static long[] chunkBounds(final MappedText theText, final long theStart,
+                                      final boolean theParallel) {
+        int count = 1;
+        if (theParallel) {
+            count = ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD;
+        }
+        final long[] result = new long[count + 1];
+        result[0] = theStart;
+        final long size = theText.length() - theStart;
+        for (int i = 1; i < count; i++) {
+            final TextCursor cursor =
+                    new TextCursor(theText, theStart + size * i / count, theText.length());
+            cursor.nextLine();
+            result[i] = Math.max(cursor.position(), result[i - 1]);
+        }
+        result[count] = theText.length();
+        return result;
+    }
+
+    /**
+     * Returns the terrain a byte of the map file stands for.
+     *
+     * @param theLetter the byte
+     * @return the terrain, or GRASS for a byte that is no terrain's letter
+     */
+    private static Terrain terrainOf(final byte theLetter) {
+        return TERRAINS[TERRAIN_OF_BYTE[Byte.toUnsignedInt(theLetter)]];
+    }
+
+    /**
+     * Builds the table of terrain ordinals by byte value.
+     *
+     * @return the table
+     */
+    private static byte[] createTerrainTable() {
+        final byte[] result = new byte[1 << Byte.SIZE];
+        Arrays.fill(result, (byte) Terrain.GRASS.ordinal());
+        for (final Terrain terrain : TERRAINS) {
+            result[terrain.letter()] = (byte) terrain.ordinal();
+        }
+        return result;
+    }
+
+    /**
+     * The vehicle lines in one chunk of a map file, read up to the first malformed line.
+     */
+    private static final class VehicleLines {
+
+        /**
+         * A vehicle, or null for an unknown kind, for every line read.
+         */
+        private final List<Vehicle> myVehicles;
+
+        /**
+         * What is wrong with the line after the last one read, or null if every line
+         * was read.
+         */
+        private IOException myProblem;
+
+        /**
+         * Reads the vehicle lines in one chunk of a file.
+         *
+         * @param theText the map file
+         * @param theStart the position of the first line of the chunk
+         * @param theEnd the position just past the last line of the chunk
+         */
+        VehicleLines(final MappedText theText, final long theStart, final long theEnd) {
+            super();
+            myVehicles = new ArrayList<>();
+            final TextCursor cursor = new TextCursor(theText, theStart, theEnd);
+            try {
+                while (cursor.hasToken()) {
+                    myVehicles.add(readLine(cursor));
+                    cursor.nextLine();
+                }
+            } catch (final IOException ioe) {
+                myProblem = ioe;
+            }
+        }
+
+        /**
+         * Reads one vehicle line: its kind, x, y and direction. The rest of the line is
+         * not read.
+         *
+         * @param theCursor the cursor, at the start of the line
+         * @return the vehicle, or null for an unknown kind
+         * @throws IOException if the line is malformed
+         */
+        private static Vehicle readLine(final TextCursor theCursor) throws IOException {
+            final VehicleType type = VehicleType.valueOf((char) theCursor.nextByte());
+            final int vehicleX = theCursor.nextInt();
+            final int vehicleY = theCursor.nextInt();
+            final Direction direction = Direction.valueOf((char) theCursor.nextByte());
+            if (direction == null) {
+                throw theCursor.error("Unknown direction");
+            }
+            Vehicle result = null;
+            if (type != null) {
+                result = type.create(vehicleX, vehicleY, direction);
+            }
+            return result;
+        }
+
+        /**
+         * Returns a vehicle, or null for an unknown kind, for every line read.
+         *
+         * @return the vehicles
+         */
+        List<Vehicle> getVehicles() {
+            return myVehicles;
+        }
+
+        /**
+         * Returns what is wrong with the line after the last one read.
+         *
+         * @return the problem, or null if every line was read
+         */
+        IOException getProblem() {
+            return myProblem;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.io;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32C;
+
+/**
+ * The bytes of a file, mapped into memory in windows of up to 1 GiB so that files larger
+ * than a single buffer can be read. Any number of threads may read at once.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+final class MappedText {
+
+    /**
+     * The number of bits of a position that select a byte within a window.
+     */
+    private static final int WINDOW_BITS = 30;
+
+    /**
+     * The size of every window but the last.
+     */
+    private static final long WINDOW_SIZE = 1L << WINDOW_BITS;
+
+    /**
+     * Mask selecting the position within a window.
+     */
+    private static final long WINDOW_MASK = WINDOW_SIZE - 1;
+
+    /**
+     * The windows, in file order.
+     */
+    private final MappedByteBuffer[] myWindows;
+
+    /**
+     * The length of the file.
+     */
+    private final long myLength;
+
+    /**
+     * Maps the whole of a file.
+     *
+     * @param theChannel the file, open for reading
+     * @throws IOException if the file cannot be mapped
+     */
+    MappedText(final FileChannel theChannel) throws IOException {
+        super();
+        myLength = theChannel.size();
+        myWindows = new MappedByteBuffer[(int) ((myLength + WINDOW_MASK) >>> WINDOW_BITS)];
+        for (int i = 0; i < myWindows.length; i++) {
+            final long start = i * WINDOW_SIZE;
+            myWindows[i] = theChannel.map(FileChannel.MapMode.READ_ONLY, start,
+                                          Math.min(WINDOW_SIZE, myLength - start));
+        }
+    }
+
+    /**
+     * Returns the length of the file.
+     *
+     * @return the number of bytes
+     */
+    long length() {
+        return myLength;
+    }
+
+    /**
+     * Returns one byte of the file.
+     *
+     * @param thePosition the position of the byte, which must be less than the length
+     * @return the byte
+     */
+    byte get(final long thePosition) {
+        final MappedByteBuffer window = myWindows[(int) (thePosition >>> WINDOW_BITS)];
+        return window.get((int) (thePosition & WINDOW_MASK));
+    }
+
+    /**
+     * Returns a CRC-32C checksum of the whole file.
+     *
+     * @return the checksum
+     */
+    int checksum() {
+        final CRC32C crc = new CRC32C();
+        for (final MappedByteBuffer window : myWindows) {
+            crc.update(window.duplicate());
+        }
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.io;
+
+import java.io.IOException;
+
+/**
+ * Reads whitespace-separated tokens from a range of a mapped file, one byte at a time,
+ * without any regular expressions or intermediate strings.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+final class TextCursor {
+
+    /**
+     * The base of the numbers read.
+     */
+    private static final int RADIX = 10;
+
+    /**
+     * The problem reported when a number is missing or malformed.
+     */
+    private static final String NUMBER = "Expected a number";
+
+    /**
+     * The file being read.
+     */
+    private final MappedText myText;
+
+    /**
+     * One past the last position this cursor may read.
+     */
+    private final long myEnd;
+
+    /**
+     * The position of the next byte to read.
+     */
+    private long myPosition;
+
+    /**
+     * Creates a cursor over a range of a file.
+     *
+     * @param theText the file
+     * @param theStart the first position to read
+     * @param theEnd one past the last position to read
+     */
+    TextCursor(final MappedText theText, final long theStart, final long theEnd) {
+        super();
+        myText = theText;
+        myPosition = theStart;
+        myEnd = theEnd;
+    }
+
+    /**
+     * Returns the position of the next byte to read.
+     *
+     * @return the position
+     */
+    long position() {
+        return myPosition;
+    }
+
+    /**
+     * Skips whitespace, including line ends, and returns whether anything but whitespace
+     * is left.
+     *
+     * @return true if there is another token
+     */
+    boolean hasToken() {
+        while (myPosition < myEnd && isSpace(myText.get(myPosition))) {
+            myPosition++;
+        }
+        return myPosition < myEnd;
+    }
+
+    /**
+     * Reads the next token and returns its first byte.
+     *
+     * @return the first byte of the token
+     * @throws IOException if there is no token left
+     */
+    byte nextByte() throws IOException {
+        if (!hasToken()) {
+            throw error("Expected more");
+        }
+        final byte result = myText.get(myPosition);
+        while (myPosition < myEnd && !isSpace(myText.get(myPosition))) {
+            myPosition++;
+        }
+        return result;
+    }
+
+    /**
+     * Reads the next token as a non-negative decimal integer.
+     *
+     * @return the integer
+     * @throws IOException if the next token is not a number that fits in an int
+     */
+    int nextInt() throws IOException {
+        if (!hasToken()) {
+            throw error(NUMBER);
+        }
+        final long start = myPosition;
+        long value = 0;
+        while (myPosition < myEnd && !isSpace(myText.get(myPosition))) {
+            final int digit = myText.get(myPosition) - '0';
+            if (digit < 0 || digit >= RADIX || value > Integer.MAX_VALUE) {
+                myPosition = start;
+                throw error(NUMBER);
+            }
+            value = value * RADIX + digit;
+            myPosition++;
+        }
+        if (value > Integer.MAX_VALUE) {
+            myPosition = start;
+            throw error(NUMBER);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Moves to the start of the next line.
+     */
+    void nextLine() {
+        while (myPosition < myEnd && myText.get(myPosition) != '\n') {
+            myPosition++;
+        }
+        if (myPosition < myEnd) {
+            myPosition++;
+        }
+    }
+
+    /**
+     * Creates an exception describing a problem at the current position.
+     *
+     * @param theProblem what is wrong
+     * @return the exception
+     */
+    IOException error(final String theProblem) {
+        return new IOException(theProblem + " at byte " + myPosition);
+    }
+
+    /**
+     * Returns whether a byte is whitespace.
+     *
+     * @param theByte the byte
+     * @return true for a space, tab, carriage return or line feed
+     */
+    static boolean isSpace(final byte theByte) {
+        return theByte == ' ' || theByte == '\t' || theByte == '\r' || theByte == '\n';
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.io;
+
+import edu.uw.tcss.model.Vehicle;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The contents of a city map file read on tiles: the tiled terrain and the vehicles
+ * placed on it. Closing the city closes its tile file.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ * @see CityCache#readTiled(java.io.File)
+ */
+public final class TiledCity implements Closeable {
+
+    /**
+     * The tiled terrain.
+     */
+    private final TiledTerrain myTerrain;
+
+    /**
+     * The vehicles in the order they are listed in the file.
+     */
+    private final List<Vehicle> myVehicles;
+
+    /**
+     * Creates a tiled city.
+     *
+     * @param theTerrain the tiled terrain
+     * @param theVehicles the vehicles on the map
+     */
+    public TiledCity(final TiledTerrain theTerrain, final List<Vehicle> theVehicles) {
+        super();
+        myTerrain = theTerrain;
+        myVehicles = List.copyOf(theVehicles);
+    }
+
+    /**
+     * Returns the tiled terrain, which the simulation engines share rather than copy.
+     *
+     * @return the terrain
+     */
+    public TiledTerrain getTerrain() {
+        return myTerrain;
+    }
+
+    /**
+     * Returns the vehicles in the order they are listed in the file.
+     *
+     * @return the vehicles
+     */
+    public List<Vehicle> getVehicles() {
+        return myVehicles;
+    }
+
+    /**
+     * Closes the tile file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        myTerrain.close();
+    }
+}
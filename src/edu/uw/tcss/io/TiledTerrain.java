@@ -0,0 +1,612 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.io;
+
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainMap;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A read-only map of terrain kept in a file of square tiles, for cities too large to hold
+ * in memory. Only the tiles that are read, around the vehicles or in view, are mapped,
+ * and the operating system's page cache decides which of them stay in memory.
+ * <br />
+ * The file starts with a header: magic number, version, width, height, and, for a file
+ * compiled from a city map file by {@link CityCache}, the length and checksum of that
+ * text and the position of its vehicles. Then come the tiles row by row, each
+ * {@value #TILE_SIZE} cells square and holding one terrain ordinal per cell, row by row.
+ * Tiles on the right and bottom edges are padded out to full size.
+ * <br />
+ * At most a fixed number of tiles are mapped at once. When another is needed, a tile
+ * that has not been read recently is dropped, using the clock approximation of least
+ * recently used. Tiles may be read from any number of threads.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public final class TiledTerrain implements TerrainMap, Closeable {
+
+    /**
+     * The number of cells along each side of a tile.
+     */
+    public static final int TILE_SIZE = 256;
+
+    /**
+     * The number of tiles mapped at once unless another number is asked for.
+     */
+    public static final int DEFAULT_RESIDENT_TILES = 1024;
+
+    /**
+     * The number of bits of a coordinate that select a cell within a tile.
+     */
+    private static final int TILE_BITS = Integer.numberOfTrailingZeros(TILE_SIZE);
+
+    /**
+     * Mask selecting the cell within a tile from a coordinate.
+     */
+    private static final int CELL_MASK = TILE_SIZE - 1;
+
+    /**
+     * The number of bytes in a tile.
+     */
+    private static final int TILE_BYTES = TILE_SIZE * TILE_SIZE;
+
+    /**
+     * The first four bytes of every tile file: "RRTL".
+     */
+    private static final int MAGIC = 0x5252_544C;
+
+    /**
+     * The version of the tile format written by this class.
+     */
+    private static final short VERSION = 2;
+
+    /**
+     * The number of bytes in the header: magic, version, width, height, source length,
+     * source checksum and vehicles position.
+     */
+    private static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + Integer.BYTES
+                                            + Integer.BYTES + Long.BYTES + Integer.BYTES
+                                            + Long.BYTES;
+
+    /**
+     * Marks an empty place in the clock.
+     */
+    private static final int EMPTY = -1;
+
+    /**
+     * The terrains, indexed by ordinal.
+     */
+    private static final Terrain[] TERRAINS = Terrain.values();
+
+    /**
+     * The tile file.
+     */
+    private final FileChannel myChannel;
+
+    /**
+     * The number of columns.
+     */
+    private final int myWidth;
+
+    /**
+     * The number of rows.
+     */
+    private final int myHeight;
+
+    /**
+     * The length of the text this file was compiled from, or 0 if it was not.
+     */
+    private final long mySourceLength;
+
+    /**
+     * The checksum of the text this file was compiled from, or 0 if it was not.
+     */
+    private final int mySourceChecksum;
+
+    /**
+     * The position of the vehicles in the text this file was compiled from, or 0 if it
+     * was not.
+     */
+    private final long myVehiclesPosition;
+
+    /**
+     * The number of tiles in each row of tiles.
+     */
+    private final int myTilesAcross;
+
+    /**
+     * Every tile, indexed row by row, or null while it is not mapped.
+     */
+    private final AtomicReferenceArray<ByteBuffer> myTiles;
+
+    /**
+     * Whether each tile has been read since the clock hand last passed it.
+     */
+    private final boolean[] myReferenced;
+
+    /**
+     * The tiles that are mapped, in the order the clock hand visits them.
+     */
+    private final int[] myClock;
+
+    /**
+     * The place in the clock of the next tile that may be dropped.
+     */
+    private int myHand;
+
+    /**
+     * Opens a tile file.
+     *
+     * @param theChannel the file, open for reading
+     * @param theResidentTiles the most tiles to map at once
+     * @throws IOException if the file cannot be read or is not a tile file
+     */
+    private TiledTerrain(final FileChannel theChannel, final int theResidentTiles)
+        throws IOException {
+        super();
+        final ByteBuffer header = readHeader(theChannel);
+        myChannel = theChannel;
+        myWidth = header.getInt();
+        myHeight = header.getInt();
+        mySourceLength = header.getLong();
+        mySourceChecksum = header.getInt();
+        myVehiclesPosition = header.getLong();
+        myTilesAcross = tilesAlong(myWidth);
+        myTiles = new AtomicReferenceArray<>(checkSize(theChannel.size()));
+        myReferenced = new boolean[myTiles.length()];
+        myClock = new int[theResidentTiles];
+        Arrays.fill(myClock, EMPTY);
+    }
+
+    /**
+     * Opens a tile file, mapping up to {@value #DEFAULT_RESIDENT_TILES} tiles at once.
+     *
+     * @param theFile the tile file
+     * @return the map
+     * @throws IOException if the file cannot be read or is not a tile file
+     */
+    public static TiledTerrain open(final Path theFile) throws IOException {
+        return open(theFile, DEFAULT_RESIDENT_TILES);
+    }
+
+    /**
+     * Opens a tile file.
+     *
+     * @param theFile the tile file
+     * @param theResidentTiles the most tiles to map at once
+     * @return the map
+     * @throws IOException if the file cannot be read or is not a tile file
+     * @throws IllegalArgumentException if the number of tiles is not positive
+     */
+    public static TiledTerrain open(final Path theFile, final int theResidentTiles)
+        throws IOException {
+        if (theResidentTiles <= 0) {
+            throw new IllegalArgumentException("At least one tile must be mapped: "
+                                               + theResidentTiles);
+        }
+        final FileChannel channel = FileChannel.open(theFile, StandardOpenOption.READ);
+        try {
+            return new TiledTerrain(channel, theResidentTiles);
+        } catch (final IOException ioe) {
+            channel.close();
+            throw ioe;
+        }
+    }
+
+    /**
+     * Writes any map of terrain to a tile file, one row of tiles at a time, so that only
+     * a row of tiles has to be held in memory.
+     *
+     * @param theMap the map
+     * @param theFile the tile file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(final TerrainMap theMap, final Path theFile) throws IOException {
+        try (RowWriter writer = writer(theFile, theMap.getWidth(), theMap.getHeight())) {
+            final byte[] row = new byte[theMap.getWidth()];
+            for (int y = 0; y < theMap.getHeight(); y++) {
+                for (int x = 0; x < row.length; x++) {
+                    row[x] = (byte) theMap.ordinal(x, y);
+                }
+                writer.writeRow(row);
+            }
+        }
+    }
+
+    /**
+     * Starts writing a tile file that is given its terrain one row of cells at a time, so
+     * that a map too large to hold in memory can be written as it is read or generated.
+     *
+     * @param theFile the tile file to write
+     * @param theWidth the number of columns
+     * @param theHeight the number of rows
+     * @return the writer, which must be given every row and then closed
+     * @throws IOException if the file cannot be created
+     * @throws IllegalArgumentException if the width or height is negative or the map
+     *         needs too many tiles
+     */
+    public static RowWriter writer(final Path theFile, final int theWidth,
+                                   final int theHeight) throws IOException {
+        if (theWidth < 0 || theHeight < 0
+                || (long) tilesAlong(theWidth) * tilesAlong(theHeight) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Cannot tile a map " + theWidth + " by "
+                                               + theHeight);
+        }
+        return new RowWriter(FileChannel.open(theFile, StandardOpenOption.CREATE,
+                                              StandardOpenOption.WRITE,
+                                              StandardOpenOption.TRUNCATE_EXISTING),
+                             theWidth, theHeight);
+    }
+
+    @Override
+    public int getWidth() {
+        return myWidth;
+    }
+
+    @Override
+    public int getHeight() {
+        return myHeight;
+    }
+
+    @Override
+    public Terrain get(final int theX, final int theY) {
+        return TERRAINS[ordinal(theX, theY)];
+    }
+
+    @Override
+    public int ordinal(final int theX, final int theY) {
+        if (!contains(theX, theY)) {
+            throw new IndexOutOfBoundsException("(" + theX + ", " + theY
+                                                + ") is not on the map");
+        }
+        final int tile = (theY >> TILE_BITS) * myTilesAcross + (theX >> TILE_BITS);
+        return tile(tile).get(cellIndex(0, theX, theY));
+    }
+
+    /**
+     * Always throws, since a tile file is only read.
+     *
+     * @param theX the x-coordinate of the cell
+     * @param theY the y-coordinate of the cell
+     * @param theTerrain the terrain
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void set(final int theX, final int theY, final Terrain theTerrain) {
+        throw new UnsupportedOperationException("Tiled terrain cannot be changed");
+    }
+
+    /**
+     * Returns this map, which cannot be changed.
+     *
+     * @return this map
+     */
+    @Override
+    public TiledTerrain copy() {
+        return this;
+    }
+
+    /**
+     * Returns the length of the text this file was compiled from.
+     *
+     * @return the length, or 0 if it was not compiled from text
+     */
+    long getSourceLength() {
+        return mySourceLength;
+    }
+
+    /**
+     * Returns the checksum of the text this file was compiled from.
+     *
+     * @return the checksum, or 0 if it was not compiled from text
+     */
+    int getSourceChecksum() {
+        return mySourceChecksum;
+    }
+
+    /**
+     * Returns the position of the vehicles in the text this file was compiled from.
+     *
+     * @return the position, or 0 if it was not compiled from text
+     */
+    long getVehiclesPosition() {
+        return myVehiclesPosition;
+    }
+
+    /**
+     * Returns the number of tiles mapped at the moment.
+     *
+     * @return the number of tiles
+     */
+    public synchronized int getResidentTiles() {
+        int result = 0;
+        for (final int tile : myClock) {
+            if (tile != EMPTY) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Closes the tile file. Tiles that are already mapped can still be read, but no
+     * others.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        myChannel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "TiledTerrain[" + myWidth + " by " + myHeight + ']';
+    }
+
+    /**
+     * Returns a tile, mapping it first if it is not mapped.
+     *
+     * @param theTile the index of the tile
+     * @return the tile
+     */
+    private ByteBuffer tile(final int theTile) {
+        ByteBuffer result = myTiles.get(theTile);
+        if (result == null) {
+            result = mapTile(theTile);
+        } else if (!myReferenced[theTile]) {
+            // a stale flag only makes the tile look a little older than it is
+            myReferenced[theTile] = true;
+        }
+        return result;
+    }
+
+    /**
+     * Maps a tile, dropping another if too many are mapped.
+     *
+     * @param theTile the index of the tile
+     * @return the tile
+     * @throws UncheckedIOException if the tile cannot be mapped
+     */
+    private synchronized ByteBuffer mapTile(final int theTile) {
+        ByteBuffer result = myTiles.get(theTile);
+        if (result == null) {
+            // sweep the clock past the recently read tiles to one that may be dropped
+            while (myClock[myHand] != EMPTY && myReferenced[myClock[myHand]]) {
+                myReferenced[myClock[myHand]] = false;
+                myHand = (myHand + 1) % myClock.length;
+            }
+            if (myClock[myHand] != EMPTY) {
+                myTiles.set(myClock[myHand], null);
+            }
+            try {
+                result = myChannel.map(FileChannel.MapMode.READ_ONLY,
+                                       HEADER_BYTES + (long) theTile * TILE_BYTES, TILE_BYTES);
+            } catch (final IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+            myTiles.set(theTile, result);
+            myReferenced[theTile] = true;
+            myClock[myHand] = theTile;
+            myHand = (myHand + 1) % myClock.length;
+        }
+        return result;
+    }
+
+    /**
+     * Reads and checks the header of a tile file.
+     *
+     * @param theChannel the file
+     * @return the header, positioned at the width
+     * @throws IOException if the file cannot be read or is not a tile file
+     */
+    private static ByteBuffer readHeader(final FileChannel theChannel) throws IOException {
+        final ByteBuffer result = ByteBuffer.allocate(HEADER_BYTES);
+        int read = 0;
+        while (result.hasRemaining() && read >= 0) {
+            read = theChannel.read(result, result.position());
+        }
+        result.flip();
+        if (result.remaining() < HEADER_BYTES || result.getInt() != MAGIC
+                || result.getShort() != VERSION) {
+            throw new IOException("Not a terrain tile file");
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of tiles in the file, checking that the file is that long.
+     *
+     * @param theSize the size of the file
+     * @return the number of tiles
+     * @throws IOException if the size does not match the header
+     */
+    private int checkSize(final long theSize) throws IOException {
+        final long tiles = (long) myTilesAcross * tilesAlong(myHeight);
+        if (myWidth < 0 || myHeight < 0 || tiles > Integer.MAX_VALUE
+                || theSize != HEADER_BYTES + tiles * TILE_BYTES) {
+            throw new IOException("The terrain tile file is damaged");
+        }
+        return (int) tiles;
+    }
+
+    /**
+     * Returns the index of a cell within a row of tiles.
+     *
+     * @param theTileX the column of the tile the cell is in, within the row of tiles
+     * @param theX the x-coordinate of the cell
+     * @param theY the y-coordinate of the cell
+     * @return the index
+     */
+    private static int cellIndex(final int theTileX, final int theX, final int theY) {
+        return theTileX * TILE_BYTES + ((theY & CELL_MASK) << TILE_BITS) + (theX & CELL_MASK);
+    }
+
+    /**
+     * Returns the number of tiles needed to cover a length.
+     *
+     * @param theCells the length in cells
+     * @return the number of tiles
+     */
+    private static int tilesAlong(final int theCells) {
+        return (theCells + CELL_MASK) >> TILE_BITS;
+    }
+
+    /**
+     * Writes all of a buffer to a file.
+     *
+     * @param theChannel the file
+     * @param theBuffer the buffer
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeFully(final FileChannel theChannel, final ByteBuffer theBuffer)
+        throws IOException {
+        while (theBuffer.hasRemaining()) {
+            theChannel.write(theBuffer);
+        }
+    }
+
+    /**
+     * Writes a tile file one row of cells at a time. Rows are gathered into a row of
+     * tiles, which is written out once it is full, so only one row of tiles is held in
+     * memory. The header is written last, when the writer is closed.
+     */
+    public static final class RowWriter implements Closeable {
+
+        /**
+         * The tile file.
+         */
+        private final FileChannel myChannel;
+
+        /**
+         * The number of columns.
+         */
+        private final int myWidth;
+
+        /**
+         * The number of rows.
+         */
+        private final int myHeight;
+
+        /**
+         * The row of tiles being gathered.
+         */
+        private final byte[] myBand;
+
+        /**
+         * The number of rows written so far.
+         */
+        private int myRow;
+
+        /**
+         * The length of the text the map is compiled from, or 0 if it is not.
+         */
+        private long mySourceLength;
+
+        /**
+         * The checksum of the text the map is compiled from, or 0 if it is not.
+         */
+        private int mySourceChecksum;
+
+        /**
+         * The position of the vehicles in the text the map is compiled from, or 0 if it
+         * is not.
+         */
+        private long myVehiclesPosition;
+
+        /**
+         * Starts writing a tile file just past its header.
+         *
+         * @param theChannel the file, open for writing and empty
+         * @param theWidth the number of columns
+         * @param theHeight the number of rows
+         * @throws IOException if the file cannot be written
+         */
+        private RowWriter(final FileChannel theChannel, final int theWidth,
+                          final int theHeight) throws IOException {
+            super();
+            myChannel = theChannel;
+            myWidth = theWidth;
+            myHeight = theHeight;
+            myBand = new byte[tilesAlong(theWidth) * TILE_BYTES];
+            myChannel.position(HEADER_BYTES);
+        }
+
+        /**
+         * Writes the next row of the map.
+         *
+         * @param theOrdinals the terrain ordinal of every cell in the row, from left to
+         *        right
+         * @throws IOException if the file cannot be written
+         * @throws IllegalArgumentException if the row is not as wide as the map or holds
+         *         a byte that is not the ordinal of a terrain
+         * @throws IllegalStateException if every row has already been written
+         */
+        public void writeRow(final byte[] theOrdinals) throws IOException {
+            if (theOrdinals.length != myWidth) {
+                throw new IllegalArgumentException("The row has " + theOrdinals.length
+                                                   + " cells, not " + myWidth);
+            }
+            if (myRow >= myHeight) {
+                throw new IllegalStateException("All " + myHeight + " rows are written");
+            }
+            for (int x = 0; x < myWidth; x++) {
+                if (theOrdinals[x] < 0 || theOrdinals[x] >= TERRAINS.length) {
+                    throw new IllegalArgumentException("Not a terrain ordinal: "
+                                                       + theOrdinals[x]);
+                }
+                myBand[cellIndex(x >> TILE_BITS, x, myRow)] = theOrdinals[x];
+            }
+            myRow++;
+            if ((myRow & CELL_MASK) == 0 || myRow == myHeight) {
+                writeFully(myChannel, ByteBuffer.wrap(myBand));
+                Arrays.fill(myBand, (byte) 0);
+            }
+        }
+
+        /**
+         * Records the text the map is compiled from, so that it can be told whether the
+         * text has changed since.
+         *
+         * @param theLength the length of the text
+         * @param theChecksum the checksum of the text
+         * @param theVehicles the position of the vehicles in the text
+         */
+        void setSource(final long theLength, final int theChecksum, final long theVehicles) {
+            mySourceLength = theLength;
+            mySourceChecksum = theChecksum;
+            myVehiclesPosition = theVehicles;
+        }
+
+        /**
+         * Writes the header and closes the file.
+         *
+         * @throws IOException if the file cannot be written, or not every row was
+         */
+        @Override
+        public void close() throws IOException {
+            try (myChannel) {
+                if (myRow < myHeight) {
+                    throw new IOException("Only " + myRow + " of " + myHeight
+                                          + " rows were written");
+                }
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC).putShort(VERSION).putInt(myWidth).putInt(myHeight);
+                header.putLong(mySourceLength).putInt(mySourceChecksum);
+                header.putLong(myVehiclesPosition);
+                writeFully(myChannel.position(0), header.flip());
+            }
+        }
+    }
+}
@@ -0,0 +1,758 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import edu.uw.tcss.model.BehaviorCounters;
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Light;
+import edu.uw.tcss.model.SimulationRandom;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainMap;
+import edu.uw.tcss.model.Vehicle;
+import edu.uw.tcss.model.VehicleState;
+import edu.uw.tcss.model.VehicleType;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import jdk.jfr.FlightRecorder;
+
+
+/**
+ * The behaviors shared by every RoadRage simulation engine: the terrain grid, the
+ * lights, the clock and the Property Change Listeners. Subclasses decide how vehicles
+ * are stored and how they move during a tick.
+ *
+ * @author Charles Bryan
+ * @author Jakita Kaur (Extracted from RoadRage)
+ * @version Autumn 2024
+ */
+public abstract class AbstractRoadRage implements PropertyChangeEnabledRoadRageControls {
+
+    /**
+     * The number of clock ticks between light changes.
+     */
+    private static final int LIGHT_CHANGE_TICKS = 15;
+
+    /**
+     * The first four bytes of every checkpoint, "RRCP".
+     */
+    private static final int CHECKPOINT_MAGIC = 0x5252_4350;
+
+    /**
+     * The version of the checkpoint format written by save().
+     */
+    private static final short CHECKPOINT_VERSION = 1;
+
+    /**
+     * The size of a checkpoint header: magic, version, width, height, vehicle count,
+     * timestep, light, seed, move count and collision count.
+     */
+    private static final int CHECKPOINT_HEADER_BYTES = Integer.BYTES + Short.BYTES
+            + Integer.BYTES * 3 + Long.BYTES + Byte.BYTES + Long.BYTES * 3;
+
+    /**
+     * The lights, indexed by ordinal.
+     */
+    private static final Light[] LIGHTS = Light.values();
+
+    /**
+     * The terrains, indexed by ordinal.
+     */
+    private static final Terrain[] TERRAINS = Terrain.values();
+
+    /**
+     * The terrain grid for the simulation.
+     */
+    private final TerrainMap myGrid;
+
+    /**
+     * The read-only view of the grid given to listeners; replaced only when a checkpoint
+     * changes the terrain, so listeners can tell new terrain by the view changing.
+     */
+    private TerrainMap myGridView;
+
+    /**
+     * The current timestep of the simulation.
+     */
+    private long myTimestep;
+
+    /**
+     * The current status of lights.
+     */
+    private Light myLight;
+
+    /**
+     * Manager for Property Change Listeners.
+     */
+    private final PropertyChangeSupport myPcs;
+
+    /**
+     * The seed the vehicles' random streams are derived from.
+     */
+    private long mySeed;
+
+    /**
+     * The number of times a vehicle has moved one square since the last reset.
+     */
+    private long myMoveCount;
+
+    /**
+     * The number of times two vehicles have collided since the last reset.
+     */
+    private long myCollisionCount;
+
+    /**
+     * The state of the vehicles at the start of the tick, while anyone listens for
+     * vehicle changes; null otherwise.
+     */
+    private ChangeTracker myChangeTracker;
+
+    /**
+     * The times and counts of the ticks, for JMX.
+     */
+    private final TickMetrics myMetrics;
+
+    /**
+     * The counts of the vehicles' costlier behaviors, by vehicle type.
+     */
+    private final BehaviorCounters myBehavior;
+
+    /**
+     * The behaviors counted by the simulation's thread during the current tick.
+     */
+    private final BehaviorCounters.Tally myTickBehavior;
+
+    /**
+     * Sets the initial state of a RoadRage engine.
+     *
+     * @param theGrid the map of Terrain; it is not copied, and loading a checkpoint of
+     *        different terrain changes it
+     */
+    protected AbstractRoadRage(final TerrainMap theGrid) {
+        super();
+        myGrid = theGrid;
+        myGridView = TerrainMap.readOnly(theGrid);
+        myPcs = new PropertyChangeSupport(this);
+        mySeed = ThreadLocalRandom.current().nextLong();
+        myLight = Light.GREEN;
+        myMetrics = new TickMetrics();
+        myBehavior = new BehaviorCounters();
+        myTickBehavior = myBehavior.tally();
+    }
+
+    @Override
+    public void advance() {
+        advance(1);
+    }
+
+    /**
+     * Advances the simulation by a number of ticks in a tight loop, then informs the
+     * listeners once, as if the ticks were a single long one: the time step and light go
+     * from their values before the first tick to their values after the last, and the
+     * vehicle changes compare each vehicle's state before and after all the ticks. A
+     * vehicle that ends up where and as it started has no change, even if it moved in
+     * between.
+     * <br />
+     * Each tick is recorded as a {@link TickEvent}, each light change as a
+     * {@link LightChangeEvent} and each tick with many collisions as a
+     * {@link CollisionBurstEvent} while Java Flight Recorder is on. Until a recording is
+     * first started, not even the event classes are loaded, since loading them is slow.
+     * After that, whether ticks are recorded is decided once per call.
+     *
+     * @param theTicks the number of ticks
+     * @throws IllegalArgumentException if the number of ticks is negative
+     */
+    @Override
+    public void advance(final int theTicks) {
+        if (theTicks < 0) {
+            throw new IllegalArgumentException("ticks must not be negative: " + theTicks);
+        }
+        if (theTicks > 0) {
+            if (myPcs.hasListeners(PROPERTY_VEHICLE_CHANGES)) {
+                if (myChangeTracker == null) {
+                    myChangeTracker = new ChangeTracker(getVehicles());
+                }
+            } else {
+                myChangeTracker = null;
+            }
+            final long oldTimestep = myTimestep;
+            final Light oldLight = myLight;
+            if (FlightRecorder.isInitialized() && new TickEvent().isEnabled()) {
+                recordedTicks(theTicks);
+            } else {
+                ticks(theTicks);
+            }
+            myMetrics.publish();
+            myPcs.firePropertyChange(PROPERTY_TIME, oldTimestep, myTimestep);
+            myPcs.firePropertyChange(PROPERTY_LIGHT, oldLight, myLight);
+            fireVehicleChanges();
+            fireVehicleState();
+        }
+    }
+
+    @Override
+    public void start() {
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        resetVehicles();
+        myChangeTracker = null;
+        myMoveCount = 0;
+        myCollisionCount = 0;
+        setLightColor(Light.GREEN);
+        setTimeStep(0);
+        fireGridChange();
+        fireVehicleChange();
+    }
+
+    @Override
+    public int getHeight() {
+        return myGrid.getHeight();
+    }
+
+    @Override
+    public int getWidth() {
+        return myGrid.getWidth();
+    }
+
+    /**
+     * Sets the seed of the simulation's random choices, starting from the next call to
+     * start() or reset(). Every run from a reset with the same seed is the same. Until a
+     * seed is set, the seed is chosen unpredictably when the engine is created.
+     *
+     * @param theSeed the seed
+     */
+    public void setSeed(final long theSeed) {
+        mySeed = theSeed;
+    }
+
+    /**
+     * Returns the seed of the simulation's random choices.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return mySeed;
+    }
+
+    /**
+     * Returns the number of times a vehicle has moved one square since the last reset.
+     *
+     * @return the number of moves
+     */
+    public long getMoveCount() {
+        return myMoveCount;
+    }
+
+    /**
+     * Returns the number of times two vehicles have met in a cell and been told they
+     * collided since the last reset.
+     *
+     * @return the number of collisions
+     */
+    public long getCollisionCount() {
+        return myCollisionCount;
+    }
+
+    /**
+     * Returns the times and counts of the ticks of this simulation. They carry on across
+     * resets and loads; see {@link TickMetrics#register(String)} to watch them in
+     * JConsole.
+     *
+     * @return the metrics
+     */
+    public TickMetrics getMetrics() {
+        return myMetrics;
+    }
+
+    /**
+     * Returns the counts of the vehicles' costlier behaviors, by vehicle type: turning
+     * around, being blocked, ATV re-rolls and collisions lost. Like the metrics, they carry
+     * on across resets and loads.
+     *
+     * @return the behavior counters
+     */
+    public BehaviorCounters getBehaviorCounters() {
+        return myBehavior;
+    }
+
+    /**
+     * Writes a checkpoint of the whole simulation to a stream: the grid, the light, the
+     * clock, the seed and counters, and the position, direction, state and random stream
+     * of every vehicle. The stream is flushed but not closed.
+     *
+     * @param theStream the stream to write to
+     * @throws IOException if the stream cannot be written, or a vehicle's random stream
+     *         cannot be saved without changing it
+     */
+    public void save(final OutputStream theStream) throws IOException {
+        final CheckpointBuffer out = new CheckpointBuffer(theStream);
+        final ByteBuffer header = out.room(CHECKPOINT_HEADER_BYTES);
+        header.putInt(CHECKPOINT_MAGIC);
+        header.putShort(CHECKPOINT_VERSION);
+        header.putInt(getWidth());
+        header.putInt(getHeight());
+        header.putInt(getVehicles().size());
+        header.putLong(myTimestep);
+        header.put((byte) myLight.ordinal());
+        header.putLong(mySeed);
+        header.putLong(myMoveCount);
+        header.putLong(myCollisionCount);
+        for (int y = 0; y < myGrid.getHeight(); y++) {
+            for (int x = 0; x < myGrid.getWidth(); x++) {
+                out.room(Byte.BYTES).put((byte) myGrid.ordinal(x, y));
+            }
+        }
+        final VehicleState state = new VehicleState();
+        for (int i = 0; i < getVehicles().size(); i++) {
+            try {
+                saveVehicle(i, state);
+            } catch (final IllegalArgumentException exception) {
+                throw new IOException("Cannot save vehicle " + i + ": "
+                                      + exception.getMessage(), exception);
+            }
+            state.write(out.room(VehicleState.BYTES));
+        }
+        out.flush();
+        theStream.flush();
+    }
+
+    /**
+     * Restores a checkpoint written by save() from a simulation of the same city, then
+     * informs the listeners as reset() does. The simulation carries on from the
+     * checkpoint exactly as the saved simulation would have; reset() still returns to the
+     * start of the city. If the checkpoint turns out to be damaged part way through, the
+     * simulation is left part restored and should be reset or loaded again.
+     *
+     * @param theStream the stream to read from; it is not closed, and nothing past the
+     *        end of the checkpoint is read from it
+     * @throws IOException if the stream cannot be read, or does not hold a checkpoint of
+     *         a city with the same size and the same vehicles in the same order
+     */
+    public void load(final InputStream theStream) throws IOException {
+        // a checkpoint of this city is this long, and any other is rejected by its header
+        final CheckpointBuffer in = new CheckpointBuffer(theStream, CHECKPOINT_HEADER_BYTES
+                + (long) getWidth() * getHeight()
+                + (long) getVehicles().size() * VehicleState.BYTES);
+        try {
+            final ByteBuffer header = in.data(CHECKPOINT_HEADER_BYTES);
+            checkHeader(header);
+            final long timestep = header.getLong();
+            final Light light = LIGHTS[header.get()];
+            mySeed = header.getLong();
+            myMoveCount = header.getLong();
+            myCollisionCount = header.getLong();
+            boolean terrainChanged = false;
+            for (int y = 0; y < myGrid.getHeight(); y++) {
+                for (int x = 0; x < myGrid.getWidth(); x++) {
+                    final Terrain terrain = TERRAINS[in.data(Byte.BYTES).get()];
+                    // a map that cannot be changed must already match
+                    if (myGrid.get(x, y) != terrain) {
+                        myGrid.set(x, y, terrain);
+                        terrainChanged = true;
+                    }
+                }
+            }
+            if (terrainChanged) {
+                myGridView = TerrainMap.readOnly(myGrid);
+            }
+            final VehicleState state = new VehicleState();
+            for (int i = 0; i < getVehicles().size(); i++) {
+                state.read(in.data(VehicleState.BYTES));
+                loadVehicle(i, state);
+            }
+            vehiclesLoaded();
+            myChangeTracker = null;
+            setLightColor(light);
+            setTimeStep(timestep);
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException
+                       | UnsupportedOperationException exception) {
+            throw new IOException("Not a checkpoint of this city: "
+                                  + exception.getMessage(), exception);
+        }
+        fireGridChange();
+        fireVehicleChange();
+    }
+
+    @Override
+    public void addPropertyChangeListener(final PropertyChangeListener theListener) {
+        myPcs.addPropertyChangeListener(theListener);
+    }
+
+
+    @Override
+    public void removePropertyChangeListener(final PropertyChangeListener theListener) {
+        myPcs.removePropertyChangeListener(theListener);
+    }
+
+    @Override
+    public void addPropertyChangeListener(final String thePropertyName,
+                                          final PropertyChangeListener theListener) {
+        myPcs.addPropertyChangeListener(thePropertyName, theListener);
+
+    }
+
+    @Override
+    public void removePropertyChangeListener(final String thePropertyName,
+                                             final PropertyChangeListener theListener) {
+        myPcs.removePropertyChangeListener(thePropertyName, theListener);
+
+    }
+
+    /**
+     * Moves every vehicle one step and resolves any collisions. Called once per tick,
+     * before the clock and lights advance.
+     */
+    protected abstract void moveVehicles();
+
+    /**
+     * Reset all of the vehicles to their original state.
+     */
+    protected abstract void resetVehicles();
+
+    /**
+     * Returns the vehicles in the simulation, in the order they take their turns.
+     *
+     * @return the vehicles
+     */
+    protected abstract List<Vehicle> getVehicles();
+
+    /**
+     * Copies the state of one vehicle for a checkpoint.
+     *
+     * @param theIndex the index of the vehicle
+     * @param theState the state to copy into
+     */
+    protected void saveVehicle(final int theIndex, final VehicleState theState) {
+        theState.copyFrom(getVehicles().get(theIndex));
+    }
+
+    /**
+     * Gives one vehicle its state from a checkpoint.
+     *
+     * @param theIndex the index of the vehicle
+     * @param theState the state read from the checkpoint
+     * @throws IllegalArgumentException if the vehicle is not of the state's type
+     */
+    protected void loadVehicle(final int theIndex, final VehicleState theState) {
+        theState.applyTo(getVehicles().get(theIndex));
+    }
+
+    /**
+     * Called once every vehicle has been given its state from a checkpoint, so that
+     * anything derived from the vehicles' positions can be rebuilt.
+     */
+    protected void vehiclesLoaded() {
+        // nothing is derived from the vehicles by default
+    }
+
+    /**
+     * Returns the current status of lights.
+     *
+     * @return the current light
+     */
+    protected Light getLight() {
+        return myLight;
+    }
+
+    /**
+     * Gives every vehicle its own random stream, numbered by its index in the list and
+     * derived from the seed, so each vehicle's random choices are the same from run to run
+     * whatever order or thread they are made in.
+     *
+     * @param theVehicles the vehicles, in the order they take their turns
+     */
+    protected void seedVehicles(final List<Vehicle> theVehicles) {
+        for (int i = 0; i < theVehicles.size(); i++) {
+            theVehicles.get(i).setRandom(
+                    new SimulationRandom(SimulationRandom.streamSeed(mySeed, i)));
+        }
+    }
+
+    /**
+     * Has every vehicle record its turns around, ATV re-rolls and collisions lost in this
+     * engine's behavior counters. These are rare, and only the vehicle sees them happen.
+     *
+     * @param theVehicles the vehicles
+     */
+    protected void recordBehaviorOf(final List<Vehicle> theVehicles) {
+        for (final Vehicle v : theVehicles) {
+            v.setCounters(myBehavior);
+        }
+    }
+
+    /**
+     * Counts a move blocked because a vehicle could not pass into the square it chose,
+     * against the vehicle's type; the total is still added with countBlocked. Moves are
+     * blocked so often that the counts are kept until the end of the tick, so this must
+     * be called from the simulation's thread.
+     *
+     * @param theType the type of the vehicle
+     */
+    protected void countBlockedBy(final VehicleType theType) {
+        myTickBehavior.increment(BehaviorCounters.Behavior.BLOCKED, theType);
+    }
+
+    /**
+     * Adds to the number of moves made since the last reset.
+     *
+     * @param theMoves the number of moves made
+     */
+    protected void countMoves(final long theMoves) {
+        myMoveCount += theMoves;
+    }
+
+    /**
+     * Adds to the number of collisions since the last reset.
+     *
+     * @param theCollisions the number of collisions
+     */
+    protected void countCollisions(final long theCollisions) {
+        myCollisionCount += theCollisions;
+        myMetrics.collided(theCollisions);
+    }
+
+    /**
+     * Adds to the number of moves blocked because a vehicle could not pass into the
+     * square it chose.
+     *
+     * @param theMoves the number of moves blocked
+     */
+    protected void countBlocked(final long theMoves) {
+        myMetrics.blocked(theMoves);
+    }
+
+    /**
+     * Marks the end of a phase of the current tick, for the metrics. Cheap unless the
+     * tick is sampled.
+     *
+     * @param thePhase the phase that ended
+     * @see TickMetrics#lap(TickMetrics.Phase)
+     */
+    protected void lap(final TickMetrics.Phase thePhase) {
+        myMetrics.lap(thePhase);
+    }
+
+    /**
+     * Returns a read-only neighbors map for the given position. The map is shared with
+     * every other cell that has the same neighbors, so no map is created per call.
+     *
+     * @param theX The x position.
+     * @param theY The y position.
+     * @return The neighbors map.
+     */
+    protected Map<Direction, Terrain> generateNeighbors(final int theX, final int theY) {
+        return NeighborTable.neighbors(myGrid, theX, theY);
+    }
+
+    /**
+     * Reads and checks the part of a checkpoint header that identifies the format and
+     * the city.
+     *
+     * @param theHeader the header, positioned at its start
+     * @throws IOException if the header is not of a checkpoint of this city
+     */
+    private void checkHeader(final ByteBuffer theHeader) throws IOException {
+        if (theHeader.getInt() != CHECKPOINT_MAGIC) {
+            throw new IOException("Not a Road Rage checkpoint");
+        }
+        final short version = theHeader.getShort();
+        if (version != CHECKPOINT_VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version);
+        }
+        final int width = theHeader.getInt();
+        final int height = theHeader.getInt();
+        final int vehicles = theHeader.getInt();
+        if (width != getWidth() || height != getHeight()
+                || vehicles != getVehicles().size()) {
+            throw new IOException("Checkpoint of a " + width + " x " + height
+                                  + " city with " + vehicles + " vehicles");
+        }
+    }
+
+    /**
+     * Runs a number of ticks.
+     *
+     * @param theTicks the number of ticks
+     */
+    private void ticks(final int theTicks) {
+        for (int i = 0; i < theTicks; i++) {
+            tick();
+        }
+    }
+
+    /**
+     * Runs a number of ticks, recording each for Java Flight Recorder.
+     *
+     * @param theTicks the number of ticks
+     */
+    private void recordedTicks(final int theTicks) {
+        for (int i = 0; i < theTicks; i++) {
+            recordedTick();
+        }
+    }
+
+    /**
+     * Runs one tick: moves the vehicles, then advances the clock and the light.
+     */
+    private void tick() {
+        final long collisions = myCollisionCount;
+        myMetrics.tickStarted();
+        moveVehicles();
+        myTickBehavior.flush();
+        myTimestep++;
+        if (myTimestep % LIGHT_CHANGE_TICKS == 0) {
+            final Light light = myLight;
+            myLight = myLight.advance();
+            recordLightChange(light);
+        }
+        myMetrics.lap(TickMetrics.Phase.LIGHT);
+        if (myMetrics.tickEnded(myTimestep)) {
+            countVehicles();
+        }
+        recordCollisionBurst(myCollisionCount - collisions);
+    }
+
+    /**
+     * Runs one tick and records it for Java Flight Recorder.
+     */
+    private void recordedTick() {
+        final TickEvent event = new TickEvent();
+        event.begin();
+        final long moves = myMoveCount;
+        final long collisions = myCollisionCount;
+        tick();
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(myTimestep, getVehicles().size(), getWidth(), getHeight(),
+                      myMoveCount - moves, myCollisionCount - collisions);
+            event.commit();
+        }
+    }
+
+    /**
+     * Records a burst of collisions for Java Flight Recorder, if a tick had enough
+     * collisions to be one.
+     *
+     * @param theCollisions the number of collisions during the tick
+     */
+    private void recordCollisionBurst(final long theCollisions) {
+        if (theCollisions >= CollisionBurstEvent.MIN_COLLISIONS
+                && FlightRecorder.isInitialized()) {
+            final CollisionBurstEvent event = new CollisionBurstEvent();
+            if (event.isEnabled()) {
+                event.set(myTimestep, theCollisions, getVehicles().size());
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Records a change of the light for Java Flight Recorder.
+     *
+     * @param theOld the light before the change
+     */
+    private void recordLightChange(final Light theOld) {
+        if (FlightRecorder.isInitialized()) {
+            final LightChangeEvent event = new LightChangeEvent();
+            if (event.isEnabled()) {
+                event.set(myTimestep, theOld, myLight);
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Counts the live and dead vehicles, for the metrics.
+     */
+    private void countVehicles() {
+        final List<Vehicle> vehicles = getVehicles();
+        int alive = 0;
+        for (int i = 0; i < vehicles.size(); i++) {
+            if (vehicles.get(i).isAlive()) {
+                alive++;
+            }
+        }
+        myMetrics.vehiclesCounted(alive, vehicles.size() - alive);
+    }
+
+    /**
+     * Sets the paint color appropriately for the current lights.
+     *
+     * @param theLight The Light to base the color on.
+     */
+    private void setLightColor(final Light theLight) {
+        final Light old = myLight;
+        myLight = theLight;
+        myPcs.firePropertyChange(PROPERTY_LIGHT, old, myLight);
+    }
+
+    /**
+     * Sets the time step for the simulation.
+     *
+     * @param theTimestep the time to set.
+     */
+    private void setTimeStep(final long theTimestep) {
+        final long old = myTimestep;
+        myTimestep = theTimestep;
+        myPcs.firePropertyChange(PROPERTY_TIME, old, myTimestep);
+    }
+
+    /**
+     * Inform PropertyChangeListeners of the vehicles that changed during the tick.
+     */
+    private void fireVehicleChanges() {
+        if (myChangeTracker != null) {
+            myPcs.firePropertyChange(PROPERTY_VEHICLE_CHANGES, null,
+                                     myChangeTracker.changes(getVehicles()));
+        }
+    }
+
+    /**
+     * Inform the PropertyChangeListeners that asked for it by name of the current state
+     * of every vehicle. Listeners for every property are not sent the full list each
+     * tick; they follow the vehicle changes instead.
+     */
+    private void fireVehicleState() {
+        final PropertyChangeListener[] listeners =
+                myPcs.getPropertyChangeListeners(PROPERTY_VEHICLES);
+        if (listeners.length > 0) {
+            final PropertyChangeEvent event = new PropertyChangeEvent(
+                    this, PROPERTY_VEHICLES, null, new ArrayList<>(getVehicles()));
+            for (final PropertyChangeListener listener : listeners) {
+                listener.propertyChange(event);
+            }
+        }
+    }
+
+    /**
+     * Inform PropertyChagneListeners of the current state of vehicles.
+     */
+    private void fireVehicleChange() {
+        if (myPcs.hasListeners(PROPERTY_VEHICLES)) {
+            myPcs.firePropertyChange(PROPERTY_VEHICLES, null, new ArrayList<>(getVehicles()));
+        }
+    }
+
+    /**
+     * Inform PropertyChagneListeners of the current Terrain grid state. They are given
+     * a read-only view of the grid rather than a copy, which for a large city would be
+     * hundreds of megabytes on every start, reset and load.
+     */
+    private void fireGridChange() {
+        myPcs.firePropertyChange(PROPERTY_GRID, null, myGridView);
+    }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
+import edu.uw.tcss.model.TerrainMap;
+import edu.uw.tcss.model.Vehicle;
+import edu.uw.tcss.model.VehicleState;
+import edu.uw.tcss.model.VehicleStore;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A RoadRage simulation engine that keeps vehicle state in a {@link VehicleStore} of
+ * parallel primitive arrays rather than one object per vehicle. Vehicles take their turns
+ * and collide exactly as they do in {@link RoadRage}; listeners are sent lightweight views
+ * of the store's slots.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public class ArrayRoadRage extends AbstractRoadRage {
+
+    /**
+     * The state of the vehicles to move and display.
+     */
+    private final VehicleStore myStore;
+
+    /**
+     * Views of the vehicles, handed to listeners.
+     */
+    private final List<Vehicle> myViews;
+
+    /**
+     * The cells occupied by each vehicle, used to find collisions.
+     */
+    private final OccupancyIndex myOccupancy;
+
+    /**
+     * Sets the initial state of an ArrayRoadRage Object, copying the state of the given
+     * vehicles into arrays.
+     *
+     * @param theGrid the 2D grid of Terrain that defines the map
+     * @param theVehicles the Vehicles on the map
+     */
+    public ArrayRoadRage(final Terrain[][] theGrid, final List<Vehicle> theVehicles) {
+        this(TerrainGrid.of(theGrid), theVehicles);
+    }
+
+    /**
+     * Sets the initial state of an ArrayRoadRage Object, copying the state of the given
+     * vehicles into arrays.
+     *
+     * @param theGrid the map of Terrain; it is not copied, so engines given the same map
+     *        share it, and loading a checkpoint of different terrain changes it
+     * @param theVehicles the Vehicles on the map
+     */
+    public ArrayRoadRage(final TerrainMap theGrid, final List<Vehicle> theVehicles) {
+        super(theGrid);
+        myStore = new VehicleStore(theVehicles);
+        myStore.setCounters(getBehaviorCounters());
+        myViews = myStore.views();
+        myOccupancy = new OccupancyIndex(myStore.size());
+        indexVehicles();
+    }
+
+    /**
+     * Returns the number of bytes this engine uses to hold each vehicle: the store's
+     * arrays plus the per-vehicle arrays of the occupancy index.
+     *
+     * @return the bytes per vehicle
+     */
+    public static int bytesPerVehicle() {
+        // next, previous, x and y
+        final int indexInts = 4;
+        return VehicleStore.bytesPerVehicle() + Integer.BYTES * indexInts;
+    }
+
+    @Override
+    protected void moveVehicles() {
+        final VehicleStore store = myStore;
+        int moves = 0;
+        int blocked = 0;
+        int collisions = 0;
+        for (int i = 0; i < store.size(); i++) {
+            final int oldX = store.getX(i);
+            final int oldY = store.getY(i);
+            final boolean wasAlive = store.isAlive(i);
+
+            // move the vehicle
+            if (wasAlive) {
+                final Map<Direction, Terrain> neighbors = generateNeighbors(oldX, oldY);
+                lap(TickMetrics.Phase.NEIGHBORS);
+                final Direction newDirection = store.chooseDirection(i, neighbors);
+                store.setDirection(i, newDirection);
+                lap(TickMetrics.Phase.DIRECTION);
+
+                // move one square in current direction, if it's okay to do so
+                if (store.canPass(i, neighbors.get(newDirection), getLight())) {
+                    store.setPosition(i, oldX + newDirection.dx(), oldY + newDirection.dy());
+                    myOccupancy.move(i, store.getX(i), store.getY(i));
+                    moves++;
+                } else {
+                    blocked++;
+                    countBlockedBy(store.getType(i));
+                }
+            } else {
+                // become one move closer to revival
+                store.poke(i);
+            }
+            lap(TickMetrics.Phase.MOVEMENT);
+
+            // look for collisions
+            collisions += collide(i, store.getX(i) != oldX || store.getY(i) != oldY
+                                          || !wasAlive && store.isAlive(i));
+            lap(TickMetrics.Phase.COLLISION);
+        }
+        countMoves(moves);
+        countBlocked(blocked);
+        countCollisions(collisions);
+    }
+
+    @Override
+    protected List<Vehicle> getVehicles() {
+        return myViews;
+    }
+
+    /**
+     * Tells the vehicle at the given slot, and every other vehicle sharing its cell, that
+     * they have collided, skipping pairs already resolved this tick as
+     * {@link RoadRage} does.
+     *
+     * @param theIndex The slot of the vehicle that just took its turn.
+     * @param theChanged Whether the vehicle moved or revived during its turn.
+     * @return the number of vehicles this vehicle collided with
+     */
+    private int collide(final int theIndex, final boolean theChanged) {
+        int result = 0;
+        for (int j = myOccupancy.first(myStore.getX(theIndex), myStore.getY(theIndex));
+                        j != OccupancyIndex.NONE; j = myOccupancy.next(j)) {
+            if (j != theIndex && (theChanged || j > theIndex)) {
+                myStore.collide(theIndex, j);
+                myStore.collide(j, theIndex);
+                result++;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected void resetVehicles() {
+        myStore.reset();
+        myStore.seed(getSeed());
+        indexVehicles();
+    }
+
+    @Override
+    protected void saveVehicle(final int theIndex, final VehicleState theState) {
+        myStore.getState(theIndex, theState);
+    }
+
+    @Override
+    protected void loadVehicle(final int theIndex, final VehicleState theState) {
+        myStore.setState(theIndex, theState);
+    }
+
+    @Override
+    protected void vehiclesLoaded() {
+        indexVehicles();
+    }
+
+    /**
+     * Registers every vehicle at its current cell in the occupancy index.
+     */
+    private void indexVehicles() {
+        myOccupancy.clear();
+        for (int i = 0; i < myStore.size(); i++) {
+            myOccupancy.add(i, myStore.getX(i), myStore.getY(i));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Vehicle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Remembers the position, direction and state of every vehicle at the start of a tick,
+ * so the vehicles that moved, turned, died or revived during the tick can be reported on
+ * their own.
+ * Nothing is allocated for a vehicle that did not change.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+final class ChangeTracker {
+
+    /**
+     * The x-coordinate of each vehicle at the start of the tick.
+     */
+    private final int[] myX;
+
+    /**
+     * The y-coordinate of each vehicle at the start of the tick.
+     */
+    private final int[] myY;
+
+    /**
+     * The direction each vehicle faced at the start of the tick.
+     */
+    private final Direction[] myDirections;
+
+    /**
+     * Whether each vehicle was alive at the start of the tick.
+     */
+    private final boolean[] myAlive;
+
+    /**
+     * Creates a tracker that starts from the current state of the vehicles.
+     *
+     * @param theVehicles the vehicles, in the order they take their turns
+     */
+    ChangeTracker(final List<Vehicle> theVehicles) {
+        super();
+        myX = new int[theVehicles.size()];
+        myY = new int[theVehicles.size()];
+        myDirections = new Direction[theVehicles.size()];
+        myAlive = new boolean[theVehicles.size()];
+        for (int i = 0; i < theVehicles.size(); i++) {
+            final Vehicle v = theVehicles.get(i);
+            myX[i] = v.getX();
+            myY[i] = v.getY();
+            myDirections[i] = v.getDirection();
+            myAlive[i] = v.isAlive();
+        }
+    }
+
+    /**
+     * Returns the changes since the last call, or since the tracker was created, in index
+     * order, and starts the next tick from the current state of the vehicles.
+     *
+     * @param theVehicles the same vehicles the tracker was created with
+     * @return the read-only list of changes, empty if no vehicle changed
+     */
+    List<VehicleChange> changes(final List<Vehicle> theVehicles) {
+        List<VehicleChange> result = null;
+        for (int i = 0; i < myX.length; i++) {
+            final Vehicle v = theVehicles.get(i);
+            final int x = v.getX();
+            final int y = v.getY();
+            final Direction direction = v.getDirection();
+            final boolean alive = v.isAlive();
+            if (x != myX[i] || y != myY[i] || direction != myDirections[i]
+                    || alive != myAlive[i]) {
+                if (result == null) {
+                    result = new ArrayList<>();
+                }
+                result.add(new VehicleChange(v, i, myX[i], myY[i], myDirections[i],
+                                             myAlive[i]));
+                myX[i] = x;
+                myY[i] = y;
+                myDirections[i] = direction;
+                myAlive[i] = alive;
+            }
+        }
+        if (result == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(result);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A fixed-size buffer between a simulation checkpoint and a stream. Values are put into
+ * or taken out of the buffer directly, and the buffer is emptied into the stream or
+ * refilled from it in large blocks only when it runs out of room or data. A buffer
+ * reading a checkpoint never reads past its end, so whatever follows the checkpoint in
+ * the stream is left for the caller.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+final class CheckpointBuffer {
+
+    /**
+     * The size of the buffer in bytes.
+     */
+    private static final int CAPACITY = 65_536;
+
+    /**
+     * The buffer.
+     */
+    private final ByteBuffer myBuffer;
+
+    /**
+     * The stream written to, or null when reading.
+     */
+    private final WritableByteChannel myOut;
+
+    /**
+     * The stream read from, or null when writing.
+     */
+    private final ReadableByteChannel myIn;
+
+    /**
+     * The number of bytes of the checkpoint not yet read from the stream.
+     */
+    private long myUnread;
+
+    /**
+     * Creates a buffer writing to the given stream.
+     *
+     * @param theStream the stream
+     */
+    CheckpointBuffer(final OutputStream theStream) {
+        super();
+        myBuffer = ByteBuffer.allocate(CAPACITY);
+        myOut = Channels.newChannel(theStream);
+        myIn = null;
+    }
+
+    /**
+     * Creates a buffer reading a checkpoint of the given length from the given stream.
+     *
+     * @param theStream the stream
+     * @param theLength the number of bytes in the checkpoint
+     */
+    CheckpointBuffer(final InputStream theStream, final long theLength) {
+        super();
+        myBuffer = ByteBuffer.allocate(CAPACITY);
+        myBuffer.limit(0);
+        myOut = null;
+        myIn = Channels.newChannel(theStream);
+        myUnread = theLength;
+    }
+
+    /**
+     * Returns the buffer with room for at least the given number of bytes, writing out
+     * what it holds first if it has to.
+     *
+     * @param theBytes the number of bytes about to be put
+     * @return the buffer
+     * @throws IOException if the stream cannot be written
+     */
+    ByteBuffer room(final int theBytes) throws IOException {
+        if (myBuffer.remaining() < theBytes) {
+            flush();
+        }
+        return myBuffer;
+    }
+
+    /**
+     * Writes out everything put into the buffer so far.
+     *
+     * @throws IOException if the stream cannot be written
+     */
+    void flush() throws IOException {
+        myBuffer.flip();
+        while (myBuffer.hasRemaining()) {
+            myOut.write(myBuffer);
+        }
+        myBuffer.clear();
+    }
+
+    /**
+     * Returns the buffer holding at least the given number of bytes, reading more from
+     * the stream first if it has to.
+     *
+     * @param theBytes the number of bytes about to be taken
+     * @return the buffer
+     * @throws IOException if the stream cannot be read
+     * @throws EOFException if the stream or the checkpoint ends first
+     */
+    ByteBuffer data(final int theBytes) throws IOException {
+        if (myBuffer.remaining() < theBytes) {
+            myBuffer.compact();
+            while (myBuffer.position() < theBytes) {
+                if (myUnread == 0) {
+                    throw new EOFException("The checkpoint ends too soon");
+                }
+                // read no further than the end of the checkpoint
+                myBuffer.limit((int) Math.min(myBuffer.capacity(),
+                                              myBuffer.position() + myUnread));
+                final int read = myIn.read(myBuffer);
+                if (read < 0) {
+                    throw new EOFException("The checkpoint ends too soon");
+                }
+                myUnread -= read;
+            }
+            myBuffer.flip();
+        }
+        return myBuffer;
+    }
+}
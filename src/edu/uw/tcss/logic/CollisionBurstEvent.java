@@ -0,0 +1,66 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for a tick in which many vehicles collided at once, and
+ * so many died at once, recorded at the end of the tick.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+@Name("edu.uw.tcss.CollisionBurst")
+@Label("Collision Burst")
+@Category({"Road Rage", "Simulation"})
+@Description("A tick of a Road Rage simulation with a burst of collisions")
+@StackTrace(false)
+final class CollisionBurstEvent extends Event {
+
+    /**
+     * The least number of collisions in a tick that makes a burst.
+     */
+    static final int MIN_COLLISIONS = 10;
+
+    /**
+     * The timestep at the end of the tick.
+     */
+    @Name("timestep")
+    @Label("Timestep")
+    private long myTimestep;
+
+    /**
+     * The number of collisions during the tick.
+     */
+    @Name("collisions")
+    @Label("Collisions")
+    private long myCollisions;
+
+    /**
+     * The number of vehicles.
+     */
+    @Name("vehicles")
+    @Label("Vehicles")
+    private int myVehicles;
+
+    /**
+     * Sets the burst.
+     *
+     * @param theTimestep the timestep at the end of the tick
+     * @param theCollisions the number of collisions
+     * @param theVehicles the number of vehicles
+     */
+    void set(final long theTimestep, final long theCollisions, final int theVehicles) {
+        myTimestep = theTimestep;
+        myCollisions = theCollisions;
+        myVehicles = theVehicles;
+    }
+}
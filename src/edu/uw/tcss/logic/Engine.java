@@ -0,0 +1,50 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import edu.uw.tcss.model.TerrainMap;
+import edu.uw.tcss.model.Vehicle;
+import java.util.List;
+
+/**
+ * The RoadRage simulation engines that can be chosen to run a city.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public enum Engine {
+
+    /**
+     * One object per vehicle, moved one after another ({@link RoadRage}).
+     */
+    OBJECT,
+
+    /**
+     * Vehicle state in parallel primitive arrays ({@link ArrayRoadRage}).
+     */
+    ARRAY,
+
+    /**
+     * Every vehicle planned and moved across all cores ({@link ParallelRoadRage}).
+     */
+    PARALLEL;
+
+    /**
+     * Creates an engine of this kind for the given city.
+     *
+     * @param theGrid the map of Terrain; it is not copied, so engines given the same map
+     *        share it, and loading a checkpoint of different terrain changes it
+     * @param theVehicles the Vehicles on the map
+     * @return the engine
+     */
+    public AbstractRoadRage create(final TerrainMap theGrid,
+                                   final List<Vehicle> theVehicles) {
+        return switch (this) {
+            case OBJECT -> new RoadRage(theGrid, theVehicles);
+            case ARRAY -> new ArrayRoadRage(theGrid, theVehicles);
+            case PARALLEL -> new ParallelRoadRage(theGrid, theVehicles);
+        };
+    }
+}
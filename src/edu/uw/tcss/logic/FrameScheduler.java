@@ -0,0 +1,160 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+/**
+ * Decides how often a running simulation shows a frame and how many ticks each frame
+ * runs, from what was asked for and what the last frames actually cost.
+ * <br />
+ * Two costs are measured: how long a tick of the simulation takes, and how long a frame
+ * takes to reach the screen once it is published, waiting for the display included. A
+ * frame never comes sooner than the display can show it, nor sooner than the budget
+ * allows. When frames have to come less often than asked, each one runs more ticks, so
+ * the simulation keeps its speed. But a frame never runs more ticks than fit in its
+ * period, so a slow simulation shows frames steadily instead of stalling on one long
+ * frame.
+ * <br />
+ * Costs are smoothed over the last several frames. The display cost may be reported
+ * from any thread; everything else is used only on the simulation's thread.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public final class FrameScheduler {
+
+    /**
+     * The number of nanoseconds in a second.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * How many times a new measurement is smaller than the weight of the past ones, as
+     * a power of two: each new cost counts for one eighth.
+     */
+    private static final int SMOOTHING_SHIFT = 3;
+
+    /**
+     * The shortest time between frames, in nanoseconds.
+     */
+    private final long myBudgetNanos;
+
+    /**
+     * The time between frames asked for, in nanoseconds.
+     */
+    private long myRequestedNanos;
+
+    /**
+     * The number of ticks each frame was asked to run.
+     */
+    private int myRequestedTicks;
+
+    /**
+     * The smoothed time a tick takes, in nanoseconds; 0 before the first is measured.
+     */
+    private long myTickNanos;
+
+    /**
+     * The smoothed time a frame takes to reach the screen, in nanoseconds.
+     */
+    private volatile long myDisplayNanos;
+
+    /**
+     * Creates a scheduler asking for one tick per frame.
+     *
+     * @param theFramesPerSecond the frame rate asked for
+     * @param theBudgetNanos the shortest time between frames, in nanoseconds
+     * @throws IllegalArgumentException if the frame rate is not positive or the budget is
+     *         negative
+     */
+    public FrameScheduler(final double theFramesPerSecond, final long theBudgetNanos) {
+        super();
+        if (theBudgetNanos < 0) {
+            throw new IllegalArgumentException("Budget must not be negative: "
+                                               + theBudgetNanos);
+        }
+        myBudgetNanos = theBudgetNanos;
+        myRequestedTicks = 1;
+        setFrameRate(theFramesPerSecond);
+    }
+
+    /**
+     * Changes the frame rate asked for.
+     *
+     * @param theFramesPerSecond the number of frames per second
+     * @throws IllegalArgumentException if the frame rate is not positive
+     */
+    public void setFrameRate(final double theFramesPerSecond) {
+        if (!(theFramesPerSecond > 0)) {
+            throw new IllegalArgumentException("Frame rate must be positive: "
+                                               + theFramesPerSecond);
+        }
+        myRequestedNanos = Math.round(NANOS_PER_SECOND / theFramesPerSecond);
+    }
+
+    /**
+     * Changes the number of ticks each frame is asked to run.
+     *
+     * @param theTicks the number of ticks per frame
+     * @throws IllegalArgumentException if the number of ticks is not positive
+     */
+    public void setTicksPerFrame(final int theTicks) {
+        if (theTicks <= 0) {
+            throw new IllegalArgumentException("Ticks per frame must be positive: "
+                                               + theTicks);
+        }
+        myRequestedTicks = theTicks;
+    }
+
+    /**
+     * Returns the time until the next frame: the time asked for, unless the budget or
+     * the display needs longer.
+     *
+     * @return the frame period in nanoseconds
+     */
+    public long framePeriodNanos() {
+        return Math.max(myRequestedNanos, Math.max(myBudgetNanos, myDisplayNanos));
+    }
+
+    /**
+     * Returns the number of ticks the next frame should run: enough to keep the speed
+     * asked for over the frame period, but no more than fit in it, and at least one.
+     *
+     * @return the number of ticks
+     */
+    public int ticksPerFrame() {
+        final long period = framePeriodNanos();
+        long result = Math.round((double) myRequestedTicks * period / myRequestedNanos);
+        if (myTickNanos > 0) {
+            result = Math.min(result, period / myTickNanos);
+        }
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, result));
+    }
+
+    /**
+     * Records how long a frame's ticks took. Called on the simulation's thread.
+     *
+     * @param theTicks the number of ticks run
+     * @param theNanos the time they took, in nanoseconds
+     */
+    public void ticksRun(final int theTicks, final long theNanos) {
+        final long perTick = Math.max(1, theNanos / Math.max(1, theTicks));
+        if (myTickNanos == 0) {
+            myTickNanos = perTick;
+        } else {
+            myTickNanos += perTick - myTickNanos >> SMOOTHING_SHIFT;
+        }
+    }
+
+    /**
+     * Records how long a frame took to reach the screen once it was published. May be
+     * called from any thread.
+     *
+     * @param theNanos the time in nanoseconds
+     */
+    public void frameShown(final long theNanos) {
+        final long display = myDisplayNanos;
+        myDisplayNanos = display + (Math.max(0, theNanos) - display >> SMOOTHING_SHIFT);
+    }
+}
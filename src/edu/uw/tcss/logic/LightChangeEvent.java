@@ -0,0 +1,61 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import edu.uw.tcss.model.Light;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for the light of a simulation changing during a tick.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+@Name("edu.uw.tcss.LightChange")
+@Label("Light Change")
+@Category({"Road Rage", "Simulation"})
+@Description("The light of a Road Rage simulation changing")
+@StackTrace(false)
+final class LightChangeEvent extends Event {
+
+    /**
+     * The timestep the light changed at.
+     */
+    @Name("timestep")
+    @Label("Timestep")
+    private long myTimestep;
+
+    /**
+     * The light before the change.
+     */
+    @Name("from")
+    @Label("From")
+    private String myFrom;
+
+    /**
+     * The light after the change.
+     */
+    @Name("to")
+    @Label("To")
+    private String myTo;
+
+    /**
+     * Sets the change.
+     *
+     * @param theTimestep the timestep the light changed at
+     * @param theFrom the light before the change
+     * @param theTo the light after the change
+     */
+    void set(final long theTimestep, final Light theFrom, final Light theTo) {
+        myTimestep = theTimestep;
+        myFrom = theFrom.name();
+        myTo = theTo.name();
+    }
+}
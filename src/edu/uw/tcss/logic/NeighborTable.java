@@ -0,0 +1,116 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainMap;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A table of every possible read-only neighbors map. A cell's neighborhood is one of a
+ * small, fixed number of combinations of terrain (or no terrain, off the edge of the map)
+ * in each direction, so every combination is built once and shared by every cell and
+ * every tick, and looking up a cell's neighbors allocates nothing.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+final class NeighborTable {
+
+    /**
+     * The directions, in the order they are encoded.
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * The terrains, indexed by ordinal.
+     */
+    private static final Terrain[] TERRAINS = Terrain.values();
+
+    /**
+     * The number of states a neighbor can be in: any terrain, or absent.
+     */
+    private static final int STATES = TERRAINS.length + 1;
+
+    /**
+     * The state of a neighbor that lies off the edge of the map.
+     */
+    private static final int ABSENT = TERRAINS.length;
+
+    /**
+     * Every neighbors map, indexed by the base-STATES code of its neighbors.
+     */
+    private static final Map<Direction, Terrain>[] MAPS = createMaps();
+
+    /**
+     * Private constructor to prevent construction of instances.
+     */
+    private NeighborTable() {
+        super();
+    }
+
+    /**
+     * Returns the read-only neighbors map for the given position of the given grid.
+     *
+     * @param theGrid the terrain map
+     * @param theX The x position.
+     * @param theY The y position.
+     * @return The neighbors map.
+     */
+    static Map<Direction, Terrain> neighbors(final TerrainMap theGrid,
+                                             final int theX, final int theY) {
+        int code = 0;
+        for (final Direction dir : DIRECTIONS) {
+            code = code * STATES + state(theGrid, theX + dir.dx(), theY + dir.dy());
+        }
+        return MAPS[code];
+    }
+
+    /**
+     * Returns the state of a single neighbor: the ordinal of its terrain, or ABSENT.
+     *
+     * @param theGrid the terrain map
+     * @param theX The x position.
+     * @param theY The y position.
+     * @return the state of the neighbor
+     */
+    private static int state(final TerrainMap theGrid, final int theX, final int theY) {
+        int result = ABSENT;
+        if (theGrid.contains(theX, theY)) {
+            result = theGrid.ordinal(theX, theY);
+        }
+        return result;
+    }
+
+    /**
+     * Builds the neighbors map for every code.
+     *
+     * @return the maps, indexed by code
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Map<Direction, Terrain>[] createMaps() {
+        int count = 1;
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            count *= STATES;
+        }
+        final Map<Direction, Terrain>[] result = new Map[count];
+        for (int code = 0; code < count; code++) {
+            final Map<Direction, Terrain> map = new EnumMap<>(Direction.class);
+            int rest = code;
+            for (int d = DIRECTIONS.length - 1; d >= 0; d--) {
+                final int state = rest % STATES;
+                if (state != ABSENT) {
+                    map.put(DIRECTIONS[d], TERRAINS[state]);
+                }
+                rest /= STATES;
+            }
+            result[code] = Collections.unmodifiableMap(map);
+        }
+        return result;
+    }
+}
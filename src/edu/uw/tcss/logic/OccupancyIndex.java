@@ -0,0 +1,213 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import java.util.Arrays;
+
+/**
+ * A spatial hash of the vehicles in the simulation, keyed by the cell each vehicle
+ * occupies. Vehicles are identified by their index in the simulation's vehicle list.
+ *
+ * <p>Each hash bucket holds an intrusive doubly-linked chain of vehicle indexes kept in
+ * ascending order, so the occupants of a cell are always visited in the same order as
+ * the simulation's vehicle list. Adding, moving and looking up a vehicle cost O(1) on
+ * average and allocate nothing.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+final class OccupancyIndex {
+
+    /**
+     * Marks the end of a chain, or a lookup with no occupants.
+     */
+    static final int NONE = -1;
+
+    /**
+     * The smallest number of hash buckets to allocate.
+     */
+    private static final int MIN_BUCKETS = 16;
+
+    /**
+     * Multiplier used to spread the x-coordinate over the hash.
+     */
+    private static final int X_MIX = 0x9E3779B1;
+
+    /**
+     * Multiplier used to spread the y-coordinate over the hash.
+     */
+    private static final int Y_MIX = 0x85EBCA6B;
+
+    /**
+     * The shift used to fold the high bits of a hash into the low bits.
+     */
+    private static final int FOLD_SHIFT = 16;
+
+    /**
+     * The first vehicle index in each bucket, or NONE.
+     */
+    private final int[] myHeads;
+
+    /**
+     * Mask applied to a hash to select a bucket.
+     */
+    private final int myMask;
+
+    /**
+     * The next vehicle index in the same bucket, for each vehicle.
+     */
+    private final int[] myNext;
+
+    /**
+     * The previous vehicle index in the same bucket, for each vehicle.
+     */
+    private final int[] myPrev;
+
+    /**
+     * The x-coordinate each vehicle is registered at.
+     */
+    private final int[] myX;
+
+    /**
+     * The y-coordinate each vehicle is registered at.
+     */
+    private final int[] myY;
+
+    /**
+     * Creates an empty index for the given number of vehicles.
+     *
+     * @param theCapacity the number of vehicles the index will hold
+     */
+    OccupancyIndex(final int theCapacity) {
+        final int buckets =
+                        Integer.highestOneBit(Math.max(MIN_BUCKETS, theCapacity) * 2 - 1);
+        myHeads = new int[buckets];
+        myMask = buckets - 1;
+        myNext = new int[theCapacity];
+        myPrev = new int[theCapacity];
+        myX = new int[theCapacity];
+        myY = new int[theCapacity];
+        clear();
+    }
+
+    /**
+     * Removes every vehicle from the index.
+     */
+    void clear() {
+        Arrays.fill(myHeads, NONE);
+        Arrays.fill(myNext, NONE);
+        Arrays.fill(myPrev, NONE);
+    }
+
+    /**
+     * Registers a vehicle at the given cell. The vehicle must not already be registered.
+     *
+     * @param theIndex the index of the vehicle
+     * @param theX the x-coordinate of the cell
+     * @param theY the y-coordinate of the cell
+     */
+    void add(final int theIndex, final int theX, final int theY) {
+        myX[theIndex] = theX;
+        myY[theIndex] = theY;
+        final int bucket = bucket(theX, theY);
+
+        int prev = NONE;
+        int next = myHeads[bucket];
+        while (next != NONE && next < theIndex) {
+            prev = next;
+            next = myNext[next];
+        }
+
+        myPrev[theIndex] = prev;
+        myNext[theIndex] = next;
+        if (prev == NONE) {
+            myHeads[bucket] = theIndex;
+        } else {
+            myNext[prev] = theIndex;
+        }
+        if (next != NONE) {
+            myPrev[next] = theIndex;
+        }
+    }
+
+    /**
+     * Moves a registered vehicle to the given cell.
+     *
+     * @param theIndex the index of the vehicle
+     * @param theX the x-coordinate of the new cell
+     * @param theY the y-coordinate of the new cell
+     */
+    void move(final int theIndex, final int theX, final int theY) {
+        remove(theIndex);
+        add(theIndex, theX, theY);
+    }
+
+    /**
+     * Returns the lowest vehicle index registered at the given cell.
+     *
+     * @param theX the x-coordinate of the cell
+     * @param theY the y-coordinate of the cell
+     * @return the first occupant of the cell, or NONE if the cell is empty
+     */
+    int first(final int theX, final int theY) {
+        return seek(myHeads[bucket(theX, theY)], theX, theY);
+    }
+
+    /**
+     * Returns the next vehicle index registered at the same cell as the given vehicle.
+     *
+     * @param theIndex an occupant returned by first or next
+     * @return the next occupant of the cell, or NONE if there are no more
+     */
+    int next(final int theIndex) {
+        return seek(myNext[theIndex], myX[theIndex], myY[theIndex]);
+    }
+
+    /**
+     * Unlinks a registered vehicle from its bucket.
+     *
+     * @param theIndex the index of the vehicle
+     */
+    private void remove(final int theIndex) {
+        final int prev = myPrev[theIndex];
+        final int next = myNext[theIndex];
+        if (prev == NONE) {
+            myHeads[bucket(myX[theIndex], myY[theIndex])] = next;
+        } else {
+            myNext[prev] = next;
+        }
+        if (next != NONE) {
+            myPrev[next] = prev;
+        }
+    }
+
+    /**
+     * Walks a chain from the given index to the first vehicle registered at the cell.
+     *
+     * @param theStart the index to start from
+     * @param theX the x-coordinate of the cell
+     * @param theY the y-coordinate of the cell
+     * @return the first matching vehicle index, or NONE
+     */
+    private int seek(final int theStart, final int theX, final int theY) {
+        int index = theStart;
+        while (index != NONE && (myX[index] != theX || myY[index] != theY)) {
+            index = myNext[index];
+        }
+        return index;
+    }
+
+    /**
+     * Selects the hash bucket for a cell.
+     *
+     * @param theX the x-coordinate of the cell
+     * @param theY the y-coordinate of the cell
+     * @return the bucket index
+     */
+    private int bucket(final int theX, final int theY) {
+        final int hash = theX * X_MIX ^ theY * Y_MIX;
+        return (hash ^ hash >>> FOLD_SHIFT) & myMask;
+    }
+}
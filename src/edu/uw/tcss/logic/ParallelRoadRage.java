@@ -0,0 +1,343 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import edu.uw.tcss.model.BehaviorCounters;
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Light;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
+import edu.uw.tcss.model.TerrainMap;
+import edu.uw.tcss.model.Vehicle;
+import edu.uw.tcss.model.VehicleType;
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+/**
+ * A RoadRage simulation engine that spreads each tick over the cores of a ForkJoinPool.
+ *
+ * <p>A tick runs in two phases. In the intent phase every vehicle, in parallel, chooses
+ * where it would like to go using only the state at the start of the tick. In the commit
+ * phase the intended moves are applied, then the vehicles are grouped by cell and every
+ * pair sharing a cell collides once, lower list index first. No vehicle ever sees another
+ * vehicle's move from the same tick, so the outcome of a tick does not depend on how the
+ * work is split between threads.
+ *
+ * <p>Since the phases run one after another for all the vehicles, the tick metrics time
+ * them as wholes: the intent phase counts as choosing a direction, neighbors included,
+ * applying the moves as movement, and grouping and colliding as collision.
+ *
+ * <p>Because every vehicle moves before any collision is resolved, the results differ
+ * from {@link RoadRage}, where each vehicle moves and collides before the next one is
+ * considered.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public class ParallelRoadRage extends AbstractRoadRage {
+
+    /**
+     * The number of vehicles or cells handled by a single task.
+     */
+    private static final int LEAF_SIZE = 4096;
+
+    /**
+     * Marks a vehicle that is dead at the start of the tick and will only be poked.
+     */
+    private static final byte POKE = -1;
+
+    /**
+     * Multiplier used to spread the x-coordinate over a cell hash.
+     */
+    private static final int X_MIX = 0x9E3779B1;
+
+    /**
+     * Multiplier used to spread the y-coordinate over a cell hash.
+     */
+    private static final int Y_MIX = 0x85EBCA6B;
+
+    /**
+     * The number of bits a cell hash is shifted by in a sort key.
+     */
+    private static final int HASH_SHIFT = 32;
+
+    /**
+     * Mask selecting the vehicle index from a sort key.
+     */
+    private static final long INDEX_MASK = 0xFFFF_FFFFL;
+
+    /**
+     * The directions, indexed by ordinal.
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * The vehicles to move and display.
+     */
+    private final List<Vehicle> myVehicles;
+
+    /**
+     * The pool the phases of a tick run in.
+     */
+    private final ForkJoinPool myPool;
+
+    /**
+     * The direction ordinal each vehicle intends to face this tick, or POKE.
+     */
+    private final byte[] myIntentDirection;
+
+    /**
+     * Whether each vehicle intends to move one square this tick.
+     */
+    private final boolean[] myIntentMove;
+
+    /**
+     * Sort keys holding each vehicle's cell hash above its list index.
+     */
+    private final long[] myCellKeys;
+
+    /**
+     * The moves made during the current tick.
+     */
+    private final LongAdder myTickMoves;
+
+    /**
+     * The moves blocked during the current tick.
+     */
+    private final LongAdder myTickBlocked;
+
+    /**
+     * The collisions resolved during the current tick.
+     */
+    private final LongAdder myTickCollisions;
+
+    /**
+     * Sets the initial state of a ParallelRoadRage Object that runs in the common pool.
+     *
+     * @param theGrid the 2D grid of Terrain that defines the map
+     * @param theVehicles the Vehicles on the map
+     */
+    public ParallelRoadRage(final Terrain[][] theGrid, final List<Vehicle> theVehicles) {
+        this(TerrainGrid.of(theGrid), theVehicles, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Sets the initial state of a ParallelRoadRage Object that runs in the common pool.
+     *
+     * @param theGrid the map of Terrain; it is not copied, so engines given the same map
+     *        share it, and loading a checkpoint of different terrain changes it
+     * @param theVehicles the Vehicles on the map
+     */
+    public ParallelRoadRage(final TerrainMap theGrid, final List<Vehicle> theVehicles) {
+        this(theGrid, theVehicles, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Sets the initial state of a ParallelRoadRage Object that runs in the given pool.
+     *
+     * @param theGrid the map of Terrain; it is not copied, so engines given the same map
+     *        share it, and loading a checkpoint of different terrain changes it
+     * @param theVehicles the Vehicles on the map
+     * @param thePool the pool to run each tick in
+     */
+    public ParallelRoadRage(final TerrainMap theGrid, final List<Vehicle> theVehicles,
+                            final ForkJoinPool thePool) {
+        super(theGrid);
+        myVehicles = new ArrayList<>(theVehicles);
+        myPool = thePool;
+        myIntentDirection = new byte[myVehicles.size()];
+        myIntentMove = new boolean[myVehicles.size()];
+        myCellKeys = new long[myVehicles.size()];
+        myTickMoves = new LongAdder();
+        myTickBlocked = new LongAdder();
+        myTickCollisions = new LongAdder();
+        // seeded before start() too, so a checkpoint can be saved at any time
+        seedVehicles(myVehicles);
+    }
+
+    @Override
+    protected void moveVehicles() {
+        final int size = myVehicles.size();
+        final Light light = getLight();
+
+        // intent phase: every vehicle plans against the start-of-tick state
+        myPool.invoke(new RangeTask(0, size, i -> planMove(i, light)));
+        lap(TickMetrics.Phase.DIRECTION);
+
+        // commit phase: apply the moves, then group by cell and resolve collisions
+        myPool.invoke(new RangeTask(0, size, this::commitMove));
+        lap(TickMetrics.Phase.MOVEMENT);
+        myPool.submit(() -> Arrays.parallelSort(myCellKeys)).join();
+        myPool.invoke(new RangeTask(0, size, this::resolveCellsFrom));
+        lap(TickMetrics.Phase.COLLISION);
+        countMoves(myTickMoves.sumThenReset());
+        countBlocked(myTickBlocked.sumThenReset());
+        countCollisions(myTickCollisions.sumThenReset());
+    }
+
+    @Override
+    protected List<Vehicle> getVehicles() {
+        return myVehicles;
+    }
+
+    @Override
+    protected void resetVehicles() {
+        for (final Vehicle mov : myVehicles) {
+            mov.reset();
+        }
+        seedVehicles(myVehicles);
+        recordBehaviorOf(myVehicles);
+    }
+
+    /**
+     * Records where the vehicle at the given index intends to go this tick.
+     *
+     * @param theIndex the index of the vehicle
+     * @param theLight the light at the start of the tick
+     */
+    private void planMove(final int theIndex, final Light theLight) {
+        final Vehicle v = myVehicles.get(theIndex);
+        if (v.isAlive()) {
+            final Map<Direction, Terrain> neighbors = generateNeighbors(v.getX(), v.getY());
+            final Direction newDirection = v.chooseDirection(neighbors);
+            myIntentDirection[theIndex] = (byte) newDirection.ordinal();
+            myIntentMove[theIndex] = v.canPass(neighbors.get(newDirection), theLight);
+        } else {
+            myIntentDirection[theIndex] = POKE;
+            myIntentMove[theIndex] = false;
+        }
+    }
+
+    /**
+     * Applies the intent of the vehicle at the given index and records its sort key.
+     *
+     * @param theIndex the index of the vehicle
+     */
+    private void commitMove(final int theIndex) {
+        final Vehicle v = myVehicles.get(theIndex);
+        if (myIntentDirection[theIndex] == POKE) {
+            // become one move closer to revival
+            v.poke();
+        } else {
+            final Direction newDirection = DIRECTIONS[myIntentDirection[theIndex]];
+            v.setDirection(newDirection);
+            if (myIntentMove[theIndex]) {
+                v.setX(v.getX() + newDirection.dx());
+                v.setY(v.getY() + newDirection.dy());
+                myTickMoves.increment();
+            } else {
+                myTickBlocked.increment();
+                // from any thread of the pool, so straight to the counters
+                getBehaviorCounters().increment(BehaviorCounters.Behavior.BLOCKED,
+                                                VehicleType.of(v));
+            }
+        }
+        myCellKeys[theIndex] = (long) cellHash(v.getX(), v.getY()) << HASH_SHIFT | theIndex;
+    }
+
+    /**
+     * Resolves the collisions in every run of equal cell hashes that starts at the given
+     * position of the sorted keys. Runs that start earlier belong to an earlier position.
+     *
+     * @param thePosition a position in the sorted keys
+     */
+    private void resolveCellsFrom(final int thePosition) {
+        final long[] keys = myCellKeys;
+        if (thePosition > 0
+                && keys[thePosition - 1] >> HASH_SHIFT == keys[thePosition] >> HASH_SHIFT) {
+            // not the start of a run
+            return;
+        }
+        final long hash = keys[thePosition] >> HASH_SHIFT;
+        int end = thePosition + 1;
+        while (end < keys.length && keys[end] >> HASH_SHIFT == hash) {
+            end++;
+        }
+        for (int a = thePosition; a < end - 1; a++) {
+            final Vehicle first = myVehicles.get((int) (keys[a] & INDEX_MASK));
+            for (int b = a + 1; b < end; b++) {
+                final Vehicle second = myVehicles.get((int) (keys[b] & INDEX_MASK));
+                // equal hashes may still be different cells
+                if (first.getX() == second.getX() && first.getY() == second.getY()) {
+                    first.collide(second);
+                    second.collide(first);
+                    myTickCollisions.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Hashes the coordinates of a cell.
+     *
+     * @param theX the x-coordinate of the cell
+     * @param theY the y-coordinate of the cell
+     * @return the hash
+     */
+    private static int cellHash(final int theX, final int theY) {
+        return theX * X_MIX ^ theY * Y_MIX;
+    }
+
+    /**
+     * Applies an action to every index in a range, splitting the range across the pool.
+     */
+    private static final class RangeTask extends RecursiveAction {
+
+        /**
+         * The serial version UID.
+         */
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The first index of the range.
+         */
+        private final int myFrom;
+
+        /**
+         * One past the last index of the range.
+         */
+        private final int myTo;
+
+        /**
+         * The action to apply to each index.
+         */
+        private final transient IntConsumer myAction;
+
+        /**
+         * Creates a task for the given range.
+         *
+         * @param theFrom the first index of the range
+         * @param theTo one past the last index of the range
+         * @param theAction the action to apply to each index
+         */
+        RangeTask(final int theFrom, final int theTo, final IntConsumer theAction) {
+            super();
+            myFrom = theFrom;
+            myTo = theTo;
+            myAction = theAction;
+        }
+
+        @Override
+        protected void compute() {
+            if (myTo - myFrom <= LEAF_SIZE) {
+                for (int i = myFrom; i < myTo; i++) {
+                    myAction.accept(i);
+                }
+            } else {
+                final int middle = (myFrom + myTo) >>> 1;
+                invokeAll(new RangeTask(myFrom, middle, myAction),
+                          new RangeTask(middle, myTo, myAction));
+            }
+        }
+    }
+}
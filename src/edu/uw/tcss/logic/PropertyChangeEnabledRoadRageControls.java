@@ -36,12 +36,21 @@ public interface PropertyChangeEnabledRoadRageControls extends RoadRageControls
     String PROPERTY_LIGHT = "light";
     
     /**
-     * A property name for the current vehicle state in the simulation.
+     * A property name for the current vehicle state in the simulation. The full list is 
+     * sent to every listener when the simulation starts or resets, but after each tick 
+     * only to listeners added for this property by name. 
      */
     String PROPERTY_VEHICLES = "vehicles";
     
     /**
-     * A property name for the current 2D grid of Terrains in the simulation.
+     * A property name for the vehicles that changed during a tick. The new value is a 
+     * read-only List of VehicleChange, in turn order, holding only the vehicles that 
+     * moved, turned, died or revived. 
+     */
+    String PROPERTY_VEHICLE_CHANGES = "vehicle changes";
+    
+    /**
+     * A property name for the current grid of Terrains in the simulation, a TerrainMap.
      */
     String PROPERTY_GRID = "the terrain grid";
     
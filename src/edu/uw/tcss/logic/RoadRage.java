@@ -5,241 +5,167 @@
 package edu.uw.tcss.logic;
 
 import edu.uw.tcss.model.Direction;
-import edu.uw.tcss.model.Light;
 import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
+import edu.uw.tcss.model.TerrainMap;
 import edu.uw.tcss.model.Vehicle;
-import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
+import edu.uw.tcss.model.VehicleType;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 
 /**
- * Implementation the behaviors of the RoadRage simulation. 
- * 
+ * Implementation the behaviors of the RoadRage simulation, with one object per vehicle.
+ *
  * @author Charles Bryan
  * @version 1 OCT 2018
  */
-public class RoadRage implements PropertyChangeEnabledRoadRageControls {
-    
-    /**
-     * The number of clock ticks between light changes.
-     */
-    private static final int LIGHT_CHANGE_TICKS = 15;
-    
-    /**
-     * The terrain grid for the simulation.
-     */
-    private final Terrain[][] myGrid;
-    
-    /**
-     * The current timestep of the simulation.
-     */
-    private long myTimestep;
-    
-    /**
-     * The current status of lights.
-     */
-    private Light myLight;
-    
+public class RoadRage extends AbstractRoadRage {
+
     /**
-     * The vehicles to move and display. 
+     * The vehicles to move and display.
      */
     private final List<Vehicle> myVehicles;
-    
+
     /**
-     * Manager for Property Change Listeners. 
+     * The cells occupied by each vehicle, used to find collisions.
      */
-    private final PropertyChangeSupport myPcs;
-    
+    private final OccupancyIndex myOccupancy;
+
     /**
-     * Sets the initial state of a RoadRage Object. 
-     * 
+     * Sets the initial state of a RoadRage Object.
+     *
      * @param theGrid the 2D grid of Terrain that defines the map
      * @param theVehicles the Vehicles on the map
      */
     public RoadRage(final Terrain[][] theGrid, final List<Vehicle> theVehicles) {
-        super();
+        this(TerrainGrid.of(theGrid), theVehicles);
+    }
+
+    /**
+     * Sets the initial state of a RoadRage Object.
+     *
+     * @param theGrid the map of Terrain; it is not copied, so engines given the same map
+     *        share it, and loading a checkpoint of different terrain changes it
+     * @param theVehicles the Vehicles on the map
+     */
+    public RoadRage(final TerrainMap theGrid, final List<Vehicle> theVehicles) {
+        super(theGrid);
         myVehicles = new ArrayList<>(theVehicles);
-        myGrid = theGrid.clone();
-        myPcs = new PropertyChangeSupport(this);
+        myOccupancy = new OccupancyIndex(myVehicles.size());
+        // seeded before start() too, so a checkpoint can be saved at any time
+        seedVehicles(myVehicles);
+        indexVehicles();
     }
-    
+
     @SuppressWarnings("LawOfDemeter")
     @Override
-    public void advance() {
-        for (final Vehicle v : myVehicles) {
-            final Map<Direction, Terrain> neighbors = generateNeighbors(v);
+    protected void moveVehicles() {
+        int moves = 0;
+        int blocked = 0;
+        int collisions = 0;
+        for (int i = 0; i < myVehicles.size(); i++) {
+            final Vehicle v = myVehicles.get(i);
+            final Map<Direction, Terrain> neighbors = generateNeighbors(v.getX(), v.getY());
+            lap(TickMetrics.Phase.NEIGHBORS);
+            final int oldX = v.getX();
+            final int oldY = v.getY();
+            final boolean wasAlive = v.isAlive();
 
             // move the vehicle
-            if (v.isAlive()) {
+            if (wasAlive) {
                 final Direction newDirection = v.chooseDirection(neighbors);
                 v.setDirection(newDirection);
+                lap(TickMetrics.Phase.DIRECTION);
 
                 // move one square in current direction, if it's okay to do so
-                if (v.canPass(neighbors.get(newDirection), myLight)) {
+                if (v.canPass(neighbors.get(newDirection), getLight())) {
                     v.setX(v.getX() + newDirection.dx());
                     v.setY(v.getY() + newDirection.dy());
+                } else {
+                    blocked++;
+                    countBlockedBy(VehicleType.of(v));
                 }
             } else {
                 // become one move closer to revival
                 v.poke();
             }
 
-            // look for collisions
-            for (final Vehicle other : myVehicles) {
-                if (v.equals(other)) { // use of == is intentional - checking for same object
-                    // don't collide with self
-                    continue;
-                }
-
-                if (v.getX() == other.getX() && v.getY() == other.getY()) { //NOPMD
-                    // tell both vehicles they have collided
-                    v.collide(other);
-                    other.collide(v);
-                }
+            final boolean moved = v.getX() != oldX || v.getY() != oldY;
+            if (moved) {
+                myOccupancy.move(i, v.getX(), v.getY());
+                moves++;
             }
-        }
-        advanceTimeStep();
-        if (myTimestep % LIGHT_CHANGE_TICKS == 0) {
-            setLightColor(myLight.advance());
-        }
-        fireVehicleChange();
-    }
-    
-    @Override
-    public void start() {
-        reset();
-    }
-    
-    @Override
-    public void reset() {
-        resetVehicles();
-        setLightColor(Light.GREEN);
-        setTimeStep(0);
-        fireGridChange();
-        fireVehicleChange();
-    }
-    
-    @Override
-    public int getHeight() {
-        return myGrid.length;
-    }
+            lap(TickMetrics.Phase.MOVEMENT);
 
-    @Override
-    public int getWidth() {
-        return myGrid[0].length;
-    }
-    
- 
-    @Override
-    public void addPropertyChangeListener(final PropertyChangeListener theListener) {
-        myPcs.addPropertyChangeListener(theListener);
+            // look for collisions
+            collisions += collide(i, moved || !wasAlive && v.isAlive());
+            lap(TickMetrics.Phase.COLLISION);
+        }
+        countMoves(moves);
+        countBlocked(blocked);
+        countCollisions(collisions);
     }
-    
 
     @Override
-    public void removePropertyChangeListener(final PropertyChangeListener theListener) {
-        myPcs.removePropertyChangeListener(theListener);
-    }
-    
-    @Override
-    public void addPropertyChangeListener(final String thePropertyName,
-                                          final PropertyChangeListener theListener) {
-        myPcs.addPropertyChangeListener(thePropertyName, theListener);
-        
+    protected List<Vehicle> getVehicles() {
+        return myVehicles;
     }
 
-    @Override
-    public void removePropertyChangeListener(final String thePropertyName,
-                                             final PropertyChangeListener theListener) {
-        myPcs.removePropertyChangeListener(thePropertyName, theListener);
-        
-    }
-    
-    /**
-     * Tests whether the square at the given x/y position exists on the map.
-     * 
-     * @param theX The x position.
-     * @param theY The y position.
-     * @return true if the position exists on the map, false otherwise.
-     */
-    private boolean isValidIndex(final int theY, final int theX) {
-        return theY >= 0 && theY < myGrid.length
-            && theX >= 0 && theX < myGrid[theY].length;
-    }
-    
     /**
-     * Generates a read-only neighbors map for the specified vehicle.
-     * 
-     * @param theMover The vehicle.
-     * @return The neighbors map.
+     * Tells the vehicle at the given index, and every other vehicle sharing its cell, that
+     * they have collided. Occupants earlier in the list already collided with this vehicle
+     * during their own turn, and repeating a resolved collision has no further effect, so
+     * they are only revisited if this vehicle has since moved in or come back to life.
+     *
+     * @param theIndex The index of the vehicle that just took its turn.
+     * @param theChanged Whether the vehicle moved or revived during its turn.
+     * @return the number of vehicles this vehicle collided with
      */
-    private Map<Direction, Terrain> generateNeighbors(final Vehicle theMover) {
-        final int x = theMover.getX();
-        final int y = theMover.getY();
-        final Map<Direction, Terrain> result = new HashMap<>();
-
-        for (final Direction dir : Direction.values()) {
-            if (isValidIndex(y + dir.dy(), x + dir.dx())) {
-                result.put(dir, myGrid[y + dir.dy()][x + dir.dx()]);
+    private int collide(final int theIndex, final boolean theChanged) {
+        int result = 0;
+        final Vehicle v = myVehicles.get(theIndex);
+        for (int j = myOccupancy.first(v.getX(), v.getY()); j != OccupancyIndex.NONE;
+                        j = myOccupancy.next(j)) {
+            // don't collide with self, or with earlier vehicles twice
+            if (j != theIndex && (theChanged || j > theIndex)) {
+                final Vehicle other = myVehicles.get(j);
+                // tell both vehicles they have collided
+                v.collide(other);
+                other.collide(v);
+                result++;
             }
         }
-        return Collections.unmodifiableMap(result);
-    }
-    
-    /**
-     * Sets the paint color appropriately for the current lights.
-     * 
-     * @param theLight The Light to base the color on.
-     */
-    private void setLightColor(final Light theLight) {
-        final Light old = myLight;
-        myLight = theLight;
-        myPcs.firePropertyChange(PROPERTY_LIGHT, old, myLight); 
-    }
-    
-    /**
-     * Sets the time step for the simulation. 
-     * 
-     * @param theTimestep the time to set. 
-     */
-    private void setTimeStep(final long theTimestep) {
-        final long old = myTimestep;
-        myTimestep = theTimestep;
-        myPcs.firePropertyChange(PROPERTY_TIME, old, myTimestep);
+        return result;
     }
-    
-    /**
-     * Advances the time step by 1 for the simulation. 
-     */
-    private void advanceTimeStep() {
-        setTimeStep(myTimestep + 1);
-    }
-    
+
     /**
-     * Inform PropertyChagneListeners of the current state of vehicles.
+     * Reset all of the vehicles to their original state.
      */
-    private void fireVehicleChange() {
-        myPcs.firePropertyChange(PROPERTY_VEHICLES, null, new ArrayList<>(myVehicles));
+    @Override
+    protected void resetVehicles() {
+        for (final Vehicle mov : myVehicles) {
+            mov.reset();
+        }
+        seedVehicles(myVehicles);
+        recordBehaviorOf(myVehicles);
+        indexVehicles();
     }
-    
-    /**
-     * Inform PropertyChagneListeners of the current 2D Terrain grid state.
-     */
-    private void fireGridChange() {
-        myPcs.firePropertyChange(PROPERTY_GRID, null, myGrid.clone());
+
+    @Override
+    protected void vehiclesLoaded() {
+        indexVehicles();
     }
-    
+
     /**
-     * Reset all of the vehicles to their original state. 
+     * Registers every vehicle at its current cell in the occupancy index.
      */
-    private void resetVehicles() {
-        for (final Vehicle mov : myVehicles) {
-            mov.reset();
+    private void indexVehicles() {
+        myOccupancy.clear();
+        for (int i = 0; i < myVehicles.size(); i++) {
+            final Vehicle v = myVehicles.get(i);
+            myOccupancy.add(i, v.getX(), v.getY());
         }
     }
 
@@ -18,6 +18,23 @@ public interface RoadRageControls {
      */
     void advance();
 
+    /**
+     * Advances the simulation by a number of frames of animation, as that many calls to
+     * advance() would. Implementations may run the frames in a tight loop and inform
+     * listeners once, of the state at the end, rather than after every frame.
+     *
+     * @param theTicks the number of frames
+     * @throws IllegalArgumentException if the number of frames is negative
+     */
+    default void advance(final int theTicks) {
+        if (theTicks < 0) {
+            throw new IllegalArgumentException("ticks must not be negative: " + theTicks);
+        }
+        for (int i = 0; i < theTicks; i++) {
+            advance();
+        }
+    }
+
     /**
      * Put the simulation in the starting state. 
      */
@@ -0,0 +1,276 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a simulation on a thread of its own at a steady tick rate, so that slow ticks do
+ * not hold up the user interface and slow painting does not hold up the simulation.
+ * Each tick of the thread may run several ticks of the simulation at once, through
+ * {@link RoadRageControls#advance(int)}, to fast-forward the simulation.
+ * <br />
+ * Every call on the simulation is made on this thread. The controls below only queue a
+ * command for it, so they may be called from any thread and return at once. The state
+ * of the simulation comes back as a {@link Snapshot} after every tick, through a
+ * {@link SnapshotRecorder}; only the newest snapshot is kept for the reader.
+ * <br />
+ * How often a frame is shown, and how many ticks it runs, is left to a
+ * {@link FrameScheduler}, which measures how long ticks take here and how long frames
+ * take to reach the screen, as the reader reports through {@link #frameShown(long)}.
+ * When the reader cannot keep up with the frame rate asked for, frames come less often
+ * and each runs more ticks; when the ticks cannot keep up, each frame runs only as many
+ * as fit in its period. Each snapshot is meant to be shown moving from the one before it
+ * over one frame period; see {@link Snapshot#progress(long)}.
+ * <br />
+ * Frames that run late are not made up for: the schedule carries on from the late frame,
+ * so a simulation slower than its tick rate runs as fast as it can without building a
+ * backlog of ticks to catch up on.
+ * <br />
+ * A command or tick that throws an exception does not end the thread. The exception is
+ * handed to the thread's uncaught exception handler, the simulation is paused, and the
+ * thread goes on to the next command.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public final class SimulationThread {
+
+    /**
+     * The number of nanoseconds in a second.
+     */
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /**
+     * The refresh rate of a typical display, in frames per second.
+     */
+    private static final long DISPLAY_RATE = 60;
+
+    /**
+     * The shortest time between frames, in nanoseconds: one refresh of the display.
+     */
+    private static final long FRAME_BUDGET_NANOS = NANOS_PER_SECOND / DISPLAY_RATE;
+
+    /**
+     * The simulation; used only on the thread.
+     */
+    private final PropertyChangeEnabledRoadRageControls mySimulation;
+
+    /**
+     * The snapshots of the simulation.
+     */
+    private final SnapshotRecorder myRecorder;
+
+    /**
+     * The commands waiting to be run on the thread.
+     */
+    private final BlockingQueue<Runnable> myCommands;
+
+    /**
+     * The thread the simulation runs on.
+     */
+    private final Thread myThread;
+
+    /**
+     * Decides when frames are due and how many ticks each runs; used only on the thread,
+     * apart from reporting frames shown.
+     */
+    private final FrameScheduler myScheduler;
+
+    /**
+     * Whether the simulation is ticking by itself; used only on the thread.
+     */
+    private boolean myRunning;
+
+    /**
+     * When the next tick is due, by System.nanoTime(); used only on the thread.
+     */
+    private long myNextTick;
+
+    /**
+     * Creates a thread for a simulation, not yet started. The simulation must not be
+     * used by anything else once the thread starts.
+     *
+     * @param theSimulation the simulation
+     * @param theTicksPerSecond the initial tick rate
+     * @throws IllegalArgumentException if the tick rate is not positive
+     */
+    public SimulationThread(final PropertyChangeEnabledRoadRageControls theSimulation,
+                            final double theTicksPerSecond) {
+        super();
+        mySimulation = theSimulation;
+        myRecorder = new SnapshotRecorder(theSimulation);
+        myCommands = new LinkedBlockingQueue<>();
+        myScheduler = new FrameScheduler(theTicksPerSecond, FRAME_BUDGET_NANOS);
+        myRecorder.setFrameNanos(myScheduler.framePeriodNanos());
+        myThread = new Thread(this::run, "Road Rage simulation");
+        myThread.setDaemon(true);
+    }
+
+    /**
+     * Starts the thread and puts the simulation in its starting state, paused.
+     */
+    public void start() {
+        myCommands.add(mySimulation::start);
+        myThread.start();
+    }
+
+    /**
+     * Stops the thread once the command it is running is done. The simulation is left
+     * as it is.
+     */
+    public void shutdown() {
+        myThread.interrupt();
+    }
+
+    /**
+     * Sets what to do on the simulation's thread each time a snapshot is published. Set
+     * it before the thread starts.
+     *
+     * @param theListener the action; it must be quick
+     * @see SnapshotRecorder#setListener(Runnable)
+     */
+    public void setSnapshotListener(final Runnable theListener) {
+        myRecorder.setListener(theListener);
+    }
+
+    /**
+     * Returns the newest snapshot of the simulation. Called only by the one reader
+     * thread; the snapshot returned by the previous call must no longer be used.
+     *
+     * @return the newest snapshot
+     * @see SnapshotRecorder#latest()
+     */
+    public Snapshot latest() {
+        return myRecorder.latest();
+    }
+
+    /**
+     * Changes the tick rate, the number of frames per second asked for. A frame already
+     * due is not delayed.
+     *
+     * @param theTicksPerSecond the number of ticks per second
+     * @throws IllegalArgumentException if the tick rate is not positive
+     */
+    public void setTickRate(final double theTicksPerSecond) {
+        if (!(theTicksPerSecond > 0)) {
+            throw new IllegalArgumentException("Tick rate must be positive: "
+                                               + theTicksPerSecond);
+        }
+        myCommands.add(() -> myScheduler.setFrameRate(theTicksPerSecond));
+    }
+
+    /**
+     * Changes the number of simulation ticks each frame is asked to run. Listeners are
+     * informed once for all of them, so a large number fast-forwards the simulation at
+     * the cost of only one snapshot. A frame runs fewer if they do not fit in its period.
+     *
+     * @param theTicks the number of simulation ticks per frame
+     * @throws IllegalArgumentException if the number of ticks is not positive
+     */
+    public void setTicksPerFrame(final int theTicks) {
+        if (theTicks <= 0) {
+            throw new IllegalArgumentException("Ticks per frame must be positive: "
+                                               + theTicks);
+        }
+        myCommands.add(() -> myScheduler.setTicksPerFrame(theTicks));
+    }
+
+    /**
+     * Reports how long a snapshot took to reach the screen once it was published, so
+     * that frames come no faster than the reader can show them. May be called from any
+     * thread.
+     *
+     * @param theNanos the time in nanoseconds
+     */
+    public void frameShown(final long theNanos) {
+        myScheduler.frameShown(theNanos);
+    }
+
+    /**
+     * Lets the simulation tick by itself.
+     */
+    public void play() {
+        myCommands.add(() -> {
+            if (!myRunning) {
+                myRunning = true;
+                myNextTick = System.nanoTime();
+            }
+        });
+    }
+
+    /**
+     * Stops the simulation ticking by itself.
+     */
+    public void pause() {
+        myCommands.add(() -> myRunning = false);
+    }
+
+    /**
+     * Advances the simulation by one tick.
+     */
+    public void step() {
+        myCommands.add(mySimulation::advance);
+    }
+
+    /**
+     * Stops the simulation and resets it to the starting state.
+     */
+    public void reset() {
+        myCommands.add(() -> {
+            myRunning = false;
+            mySimulation.reset();
+        });
+    }
+
+    /**
+     * Runs commands, and ticks whenever a tick is due while the simulation is running,
+     * until the thread is interrupted. A command or tick that fails is reported and
+     * pauses the simulation.
+     */
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                final Runnable command;
+                if (myRunning) {
+                    command = myCommands.poll(myNextTick - System.nanoTime(),
+                                              TimeUnit.NANOSECONDS);
+                } else {
+                    command = myCommands.take();
+                }
+                try {
+                    if (command != null) {
+                        command.run();
+                    } else {
+                        frame();
+                    }
+                } catch (final RuntimeException exception) {
+                    myRunning = false;
+                    myThread.getUncaughtExceptionHandler().uncaughtException(myThread,
+                                                                             exception);
+                }
+            }
+        } catch (final InterruptedException exception) {
+            // shut down
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs the ticks of a frame that is due, and schedules the next one.
+     */
+    private void frame() {
+        final long period = myScheduler.framePeriodNanos();
+        final int ticks = myScheduler.ticksPerFrame();
+        myRecorder.setFrameNanos(period);
+        final long start = System.nanoTime();
+        mySimulation.advance(ticks);
+        final long end = System.nanoTime();
+        myScheduler.ticksRun(ticks, end - start);
+        myNextTick = Math.max(myNextTick + period, end);
+    }
+}
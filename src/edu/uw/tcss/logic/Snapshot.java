@@ -0,0 +1,567 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Light;
+import edu.uw.tcss.model.TerrainMap;
+import edu.uw.tcss.model.Vehicle;
+import edu.uw.tcss.model.VehicleType;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The state of a simulation at the end of one tick, as a reader on another thread sees
+ * it: the clock, the light, the grid and the position, direction and state of every
+ * vehicle. A snapshot handed to a reader does not change while the reader holds it.
+ * <br />
+ * Vehicles are kept in primitive arrays, in the order they take their turns, and are
+ * looked up by index. Snapshots are recycled by {@link SnapshotRecorder}, so the arrays
+ * are allocated only when the number of vehicles changes.
+ * <br />
+ * A snapshot also remembers where each vehicle was in the snapshot before it, when it
+ * was published, and how long the step to it is meant to take on screen, so that a
+ * reader drawing faster than the simulation ticks can move each vehicle smoothly from
+ * its previous cell to its current one.
+ * <br />
+ * Finally, a snapshot lists the vehicles that changed since the snapshot the reader took
+ * before it, so a reader can bring what it keeps about the vehicles up to date without
+ * looking at every one. Snapshots the reader never took are accounted for.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public final class Snapshot {
+
+    /**
+     * The directions, indexed by ordinal.
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * The timestep the snapshot was taken at.
+     */
+    private long myTimestep;
+
+    /**
+     * The light at the time of the snapshot.
+     */
+    private Light myLight;
+
+    /**
+     * The grid, or null before the simulation has started.
+     */
+    private TerrainMap myGrid;
+
+    /**
+     * When the snapshot was published, by System.nanoTime().
+     */
+    private long myTime;
+
+    /**
+     * How long the step from the previous snapshot is meant to take on screen, in
+     * nanoseconds; 0 if it should be shown at once.
+     */
+    private long myFrameNanos;
+
+    /**
+     * The number of vehicles.
+     */
+    private int myCount;
+
+    /**
+     * The x-coordinate of each vehicle.
+     */
+    private int[] myX;
+
+    /**
+     * The y-coordinate of each vehicle.
+     */
+    private int[] myY;
+
+    /**
+     * The x-coordinate of each vehicle in the previous snapshot.
+     */
+    private int[] myPreviousX;
+
+    /**
+     * The y-coordinate of each vehicle in the previous snapshot.
+     */
+    private int[] myPreviousY;
+
+    /**
+     * The ordinal of the direction each vehicle is facing.
+     */
+    private byte[] myDirections;
+
+    /**
+     * Whether each vehicle is alive.
+     */
+    private boolean[] myAlive;
+
+    /**
+     * The type of each vehicle, or null for other kinds; shared between snapshots.
+     */
+    private VehicleType[] myTypes;
+
+    /**
+     * The class name of each vehicle; shared between snapshots.
+     */
+    private String[] myNames;
+
+    /**
+     * The index of each vehicle that changed since the snapshot the reader took before
+     * this one, possibly with a few that ended up as they were; see myChangedCount.
+     */
+    private int[] myChanged;
+
+    /**
+     * The number of indexes in myChanged.
+     */
+    private int myChangedCount;
+
+    /**
+     * Whether every vehicle is to be treated as changed, in place of myChanged.
+     */
+    private boolean myEveryChanged;
+
+    /**
+     * The index of each vehicle whose values here may be out of date; see myStaleCount.
+     * Kept by the recorder while the reader uses the snapshot, and never read by the
+     * reader.
+     */
+    private int[] myStale;
+
+    /**
+     * The number of indexes in myStale.
+     */
+    private int myStaleCount;
+
+    /**
+     * Whether every vehicle's values here may be out of date, in place of myStale.
+     */
+    private boolean myEveryStale;
+
+    /**
+     * In the recorder's own up to date copy only, the index of each vehicle that changed
+     * in the last tick, whose previous position is still where it came from.
+     */
+    private int[] myTick;
+
+    /**
+     * The number of indexes in myTick.
+     */
+    private int myTickCount;
+
+    /**
+     * In the recorder's own up to date copy only, the index of each vehicle whose values
+     * were changed by the last update, possibly with repeats.
+     */
+    private int[] myTouched;
+
+    /**
+     * The number of indexes in myTouched.
+     */
+    private int myTouchedCount;
+
+    /**
+     * In the recorder's own up to date copy only, whether each vehicle is in myChanged.
+     */
+    private boolean[] myListed;
+
+    /**
+     * Creates an empty snapshot of a simulation that has not started.
+     */
+    Snapshot() {
+        super();
+        myLight = Light.GREEN;
+        myX = new int[0];
+        myY = new int[0];
+        myPreviousX = myX;
+        myPreviousY = myY;
+        myDirections = new byte[0];
+        myAlive = new boolean[0];
+        myTypes = new VehicleType[0];
+        myNames = new String[0];
+        myChanged = new int[0];
+        myEveryChanged = true;
+        myStale = myChanged;
+        myEveryStale = true;
+        myTick = myChanged;
+        myTouched = myChanged;
+        myListed = myAlive;
+    }
+
+    /**
+     * Returns the timestep the snapshot was taken at.
+     *
+     * @return the timestep
+     */
+    public long getTimestep() {
+        return myTimestep;
+    }
+
+    /**
+     * Returns the light at the time of the snapshot.
+     *
+     * @return the light
+     */
+    public Light getLight() {
+        return myLight;
+    }
+
+    /**
+     * Returns the grid. The same grid is returned until the simulation is reset or
+     * loaded.
+     *
+     * @return the grid, or null before the simulation has started
+     */
+    public TerrainMap getGrid() {
+        return myGrid;
+    }
+
+    /**
+     * Returns when the snapshot was published.
+     *
+     * @return the time, by System.nanoTime()
+     */
+    public long getTime() {
+        return myTime;
+    }
+
+    /**
+     * Returns how far the step from the previous snapshot has got on screen at a given
+     * time: 0 when the snapshot is published, rising steadily to 1 when the next one is
+     * due.
+     *
+     * @param theNanos the time, by System.nanoTime()
+     * @return the fraction of the step shown, from 0 to 1
+     */
+    public double progress(final long theNanos) {
+        double result = 1;
+        if (myFrameNanos > 0) {
+            result = Math.max(0, Math.min(1, (double) (theNanos - myTime) / myFrameNanos));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of vehicles.
+     *
+     * @return the number of vehicles
+     */
+    public int getVehicleCount() {
+        return myCount;
+    }
+
+    /**
+     * Returns the x-coordinate of a vehicle.
+     *
+     * @param theIndex the index of the vehicle
+     * @return the x-coordinate
+     */
+    public int getX(final int theIndex) {
+        return myX[theIndex];
+    }
+
+    /**
+     * Returns the y-coordinate of a vehicle.
+     *
+     * @param theIndex the index of the vehicle
+     * @return the y-coordinate
+     */
+    public int getY(final int theIndex) {
+        return myY[theIndex];
+    }
+
+    /**
+     * Returns the x-coordinate of a vehicle in the previous snapshot, or its current
+     * x-coordinate if there was none.
+     *
+     * @param theIndex the index of the vehicle
+     * @return the previous x-coordinate
+     */
+    public int getPreviousX(final int theIndex) {
+        return myPreviousX[theIndex];
+    }
+
+    /**
+     * Returns the y-coordinate of a vehicle in the previous snapshot, or its current
+     * y-coordinate if there was none.
+     *
+     * @param theIndex the index of the vehicle
+     * @return the previous y-coordinate
+     */
+    public int getPreviousY(final int theIndex) {
+        return myPreviousY[theIndex];
+    }
+
+    /**
+     * Returns the direction a vehicle is facing.
+     *
+     * @param theIndex the index of the vehicle
+     * @return the direction
+     */
+    public Direction getDirection(final int theIndex) {
+        return DIRECTIONS[myDirections[theIndex]];
+    }
+
+    /**
+     * Returns whether a vehicle is alive.
+     *
+     * @param theIndex the index of the vehicle
+     * @return true if the vehicle is alive
+     */
+    public boolean isAlive(final int theIndex) {
+        return myAlive[theIndex];
+    }
+
+    /**
+     * Returns the type of a vehicle.
+     *
+     * @param theIndex the index of the vehicle
+     * @return the type, or null if the vehicle is not one of the known kinds
+     */
+    public VehicleType getType(final int theIndex) {
+        return myTypes[theIndex];
+    }
+
+    /**
+     * Returns whether every vehicle is to be treated as changed since the snapshot the
+     * reader took before this one, as after the simulation starts, resets or loads, or
+     * when too many changed to list.
+     *
+     * @return true if every vehicle changed
+     */
+    public boolean isEveryVehicleChanged() {
+        return myEveryChanged;
+    }
+
+    /**
+     * Returns the number of vehicles listed as changed since the snapshot the reader
+     * took before this one. A vehicle may be listed although it ended up as it was.
+     * Meaningless if every vehicle changed.
+     *
+     * @return the number of changed vehicles listed
+     */
+    public int getChangedCount() {
+        return myChangedCount;
+    }
+
+    /**
+     * Returns the index of a vehicle listed as changed.
+     *
+     * @param theNumber the place of the vehicle in the list, less than getChangedCount()
+     * @return the index of the vehicle
+     */
+    public int getChangedIndex(final int theNumber) {
+        return myChanged[theNumber];
+    }
+
+    /**
+     * Returns the image file name of a vehicle in its current state, named after its
+     * class as {@link edu.uw.tcss.model.AbstractVehicle} names it.
+     *
+     * @param theIndex the index of the vehicle
+     * @return the image file name
+     */
+    public String getImageFileName(final int theIndex) {
+        final String base = myNames[theIndex].toLowerCase(Locale.ROOT);
+        final String result;
+        if (myAlive[theIndex]) {
+            result = base + ".gif";
+        } else {
+            result = base + "_dead.gif";
+        }
+        return result;
+    }
+
+    /**
+     * Returns a description of a vehicle, as a vehicle describes itself.
+     *
+     * @param theIndex the index of the vehicle
+     * @return the description
+     */
+    public String describe(final int theIndex) {
+        final String status;
+        if (myAlive[theIndex]) {
+            status = ", alive";
+        } else {
+            status = ", dead";
+        }
+        return myNames[theIndex] + " at (" + myX[theIndex] + "," + myY[theIndex]
+               + "), facing " + getDirection(theIndex) + status;
+    }
+
+    /**
+     * Makes this the recorder's up to date copy of the vehicles as they are now, after
+     * the simulation starts, resets or loads. Every vehicle is treated as changed, and
+     * none as moving.
+     *
+     * @param theVehicles the vehicles, in the order they take their turns
+     * @param theTypes the type of each vehicle, not copied
+     * @param theNames the class name of each vehicle, not copied
+     */
+    void reset(final List<Vehicle> theVehicles, final VehicleType[] theTypes,
+               final String[] theNames) {
+        myTypes = theTypes;
+        myNames = theNames;
+        resize(theVehicles.size());
+        for (int i = 0; i < myCount; i++) {
+            final Vehicle vehicle = theVehicles.get(i);
+            myX[i] = vehicle.getX();
+            myY[i] = vehicle.getY();
+            myDirections[i] = (byte) vehicle.getDirection().ordinal();
+            myAlive[i] = vehicle.isAlive();
+        }
+        System.arraycopy(myX, 0, myPreviousX, 0, myCount);
+        System.arraycopy(myY, 0, myPreviousY, 0, myCount);
+        myTick = new int[myCount];
+        myTickCount = 0;
+        myTouched = new int[2 * myCount];
+        myTouchedCount = 0;
+        myListed = new boolean[myCount];
+        myChangedCount = 0;
+        myEveryChanged = true;
+    }
+
+    /**
+     * Brings the recorder's up to date copy of the vehicles forward by one tick's
+     * changes. The vehicles that changed in the tick before stop moving, and those that
+     * change now move from where they were.
+     *
+     * @param theChanges the changes of the tick
+     * @param theMerge whether the changes add to those listed already, because the
+     *        reader has not taken the snapshot they were published in
+     */
+    void apply(final List<VehicleChange> theChanges, final boolean theMerge) {
+        myTouchedCount = 0;
+        for (int k = 0; k < myTickCount; k++) {
+            final int i = myTick[k];
+            myPreviousX[i] = myX[i];
+            myPreviousY[i] = myY[i];
+            myTouched[myTouchedCount++] = i;
+        }
+        myTickCount = 0;
+        if (!theMerge) {
+            for (int k = 0; k < myChangedCount; k++) {
+                myListed[myChanged[k]] = false;
+            }
+            myEveryChanged = false;
+            myChangedCount = 0;
+        }
+        for (final VehicleChange change : theChanges) {
+            final int i = change.getIndex();
+            myX[i] = change.getNewX();
+            myY[i] = change.getNewY();
+            myDirections[i] = (byte) change.getNewDirection().ordinal();
+            myAlive[i] = change.isAlive();
+            myPreviousX[i] = change.getOldX();
+            myPreviousY[i] = change.getOldY();
+            myTick[myTickCount++] = i;
+            myTouched[myTouchedCount++] = i;
+            if (!myEveryChanged && !myListed[i]) {
+                myListed[i] = true;
+                myChanged[myChangedCount++] = i;
+            }
+        }
+    }
+
+    /**
+     * Notes that the vehicles the last update of the recorder's copy touched are out of
+     * date in this snapshot. Safe to call while the reader uses this snapshot.
+     *
+     * @param theCurrent the recorder's up to date copy
+     */
+    void markStale(final Snapshot theCurrent) {
+        if (!myEveryStale) {
+            if (myStaleCount + theCurrent.myTouchedCount > myCount) {
+                // cheaper to copy everything than to go through the list
+                myEveryStale = true;
+            } else {
+                System.arraycopy(theCurrent.myTouched, 0, myStale, myStaleCount,
+                                 theCurrent.myTouchedCount);
+                myStaleCount += theCurrent.myTouchedCount;
+            }
+        }
+    }
+
+    /**
+     * Notes that every vehicle is out of date in this snapshot. Safe to call while the
+     * reader uses this snapshot.
+     */
+    void markEveryStale() {
+        myEveryStale = true;
+        myStaleCount = 0;
+    }
+
+    /**
+     * Copies the state of the simulation into this snapshot: the clock, light and grid,
+     * and the vehicles from the recorder's up to date copy. Only the vehicles noted as
+     * out of date are copied, unless all of them are.
+     *
+     * @param theCurrent the recorder's up to date copy of the vehicles
+     * @param theTimestep the timestep
+     * @param theLight the light
+     * @param theGrid the grid
+     * @param theFrameNanos how long the step from the previous snapshot is meant to take
+     */
+    void copy(final Snapshot theCurrent, final long theTimestep, final Light theLight,
+              final TerrainMap theGrid, final long theFrameNanos) {
+        myTime = System.nanoTime();
+        myFrameNanos = theFrameNanos;
+        myTimestep = theTimestep;
+        myLight = theLight;
+        myGrid = theGrid;
+        myTypes = theCurrent.myTypes;
+        myNames = theCurrent.myNames;
+        if (myEveryStale || myCount != theCurrent.myCount) {
+            resize(theCurrent.myCount);
+            System.arraycopy(theCurrent.myX, 0, myX, 0, myCount);
+            System.arraycopy(theCurrent.myY, 0, myY, 0, myCount);
+            System.arraycopy(theCurrent.myPreviousX, 0, myPreviousX, 0, myCount);
+            System.arraycopy(theCurrent.myPreviousY, 0, myPreviousY, 0, myCount);
+            System.arraycopy(theCurrent.myDirections, 0, myDirections, 0, myCount);
+            System.arraycopy(theCurrent.myAlive, 0, myAlive, 0, myCount);
+        } else {
+            for (int k = 0; k < myStaleCount; k++) {
+                final int i = myStale[k];
+                myX[i] = theCurrent.myX[i];
+                myY[i] = theCurrent.myY[i];
+                myPreviousX[i] = theCurrent.myPreviousX[i];
+                myPreviousY[i] = theCurrent.myPreviousY[i];
+                myDirections[i] = theCurrent.myDirections[i];
+                myAlive[i] = theCurrent.myAlive[i];
+            }
+        }
+        myStaleCount = 0;
+        myEveryStale = false;
+        myEveryChanged = theCurrent.myEveryChanged;
+        myChangedCount = 0;
+        if (!myEveryChanged) {
+            myChangedCount = theCurrent.myChangedCount;
+            System.arraycopy(theCurrent.myChanged, 0, myChanged, 0, myChangedCount);
+        }
+    }
+
+    /**
+     * Makes room for a number of vehicles, if there is not room for exactly that many.
+     *
+     * @param theCount the number of vehicles
+     */
+    private void resize(final int theCount) {
+        myCount = theCount;
+        if (myX.length != theCount) {
+            myX = new int[theCount];
+            myY = new int[theCount];
+            myPreviousX = new int[theCount];
+            myPreviousY = new int[theCount];
+            myDirections = new byte[theCount];
+            myAlive = new boolean[theCount];
+            myChanged = new int[theCount];
+            myStale = new int[theCount];
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_GRID;
+import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_LIGHT;
+import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_TIME;
+import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_VEHICLES;
+import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_VEHICLE_CHANGES;
+
+import edu.uw.tcss.model.Light;
+import edu.uw.tcss.model.TerrainMap;
+import edu.uw.tcss.model.Vehicle;
+import edu.uw.tcss.model.VehicleType;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Records a {@link Snapshot} of a simulation at the end of every tick, start, reset and
+ * load, and hands the newest one to a reader on another thread through a
+ * {@link TripleBuffer}.
+ * <br />
+ * The recorder follows the simulation's property changes on the thread that runs the
+ * simulation. It keeps its own copy of every vehicle, built from the full vehicle list
+ * when the simulation starts, resets or loads, and brought forward by the vehicle changes
+ * after each tick. The vehicles are the last thing the simulation announces, so a
+ * snapshot is taken and published as soon as they arrive. Only the vehicles that changed
+ * since a recycled snapshot was last written are copied into it, and the full vehicle
+ * list is never asked for after a tick.
+ * <br />
+ * The reader never blocks the simulation: if it falls behind, the snapshots it did not
+ * look at are overwritten, and their changes are listed again in the next one.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public final class SnapshotRecorder implements PropertyChangeListener {
+
+    /**
+     * The snapshots shared with the reader.
+     */
+    private final TripleBuffer<Snapshot> mySnapshots;
+
+    /**
+     * Called on the simulation's thread after each snapshot is published.
+     */
+    private Runnable myListener;
+
+    /**
+     * The recorder's own up to date copy of the vehicles, never published; empty until
+     * the simulation starts.
+     */
+    private final Snapshot myCurrent;
+
+    /**
+     * How long the step to the next snapshot is meant to take on screen, in nanoseconds.
+     */
+    private long myFrameNanos;
+
+    /**
+     * The current timestep of the simulation.
+     */
+    private long myTimestep;
+
+    /**
+     * The current light of the simulation.
+     */
+    private Light myLight;
+
+    /**
+     * The current grid of the simulation, or null before it starts.
+     */
+    private TerrainMap myGrid;
+
+    /**
+     * The type of each vehicle, or null before the vehicles are first seen.
+     */
+    private VehicleType[] myTypes;
+
+    /**
+     * The class name of each vehicle.
+     */
+    private String[] myNames;
+
+    /**
+     * Creates a recorder following a simulation. Nothing is recorded until the
+     * simulation starts. The recorder listens for every property, so that it is sent
+     * the vehicle changes after each tick and not the full vehicle list.
+     *
+     * @param theSimulation the simulation
+     */
+    public SnapshotRecorder(final PropertyChangeEnabledRoadRageControls theSimulation) {
+        super();
+        mySnapshots = new TripleBuffer<>(Snapshot::new);
+        myCurrent = new Snapshot();
+        myListener = () -> { };
+        myLight = Light.GREEN;
+        theSimulation.addPropertyChangeListener(this);
+    }
+
+    /**
+     * Sets what to do on the simulation's thread each time a snapshot is published,
+     * typically to ask the reader to look at it. It must be quick, since the simulation
+     * waits for it.
+     *
+     * @param theListener the action
+     */
+    public void setListener(final Runnable theListener) {
+        myListener = theListener;
+    }
+
+    /**
+     * Sets how long the step to each following snapshot is meant to take on screen,
+     * typically the time between ticks. Called on the simulation's thread.
+     *
+     * @param theNanos the time in nanoseconds; 0 to show each snapshot at once
+     */
+    public void setFrameNanos(final long theNanos) {
+        myFrameNanos = theNanos;
+    }
+
+    /**
+     * Returns the newest snapshot published. The snapshot returned by the previous call
+     * must no longer be used, since it may be recorded over. Called only by the one
+     * reader thread.
+     *
+     * @return the newest snapshot, empty if the simulation has not started
+     */
+    public Snapshot latest() {
+        return mySnapshots.front();
+    }
+
+    @Override
+    public void propertyChange(final PropertyChangeEvent theEvent) {
+        switch (theEvent.getPropertyName()) {
+            case PROPERTY_TIME -> myTimestep = (Long) theEvent.getNewValue();
+            case PROPERTY_LIGHT -> myLight = (Light) theEvent.getNewValue();
+            case PROPERTY_GRID -> {
+                myGrid = (TerrainMap) theEvent.getNewValue();
+                myTypes = null;
+            }
+            case PROPERTY_VEHICLES -> {
+                @SuppressWarnings("unchecked")
+                final List<Vehicle> vehicles = (List<Vehicle>) theEvent.getNewValue();
+                reset(vehicles);
+            }
+            case PROPERTY_VEHICLE_CHANGES -> {
+                @SuppressWarnings("unchecked")
+                final List<VehicleChange> changes =
+                        (List<VehicleChange>) theEvent.getNewValue();
+                advance(changes);
+            }
+            default -> { }
+        }
+    }
+
+    /**
+     * Copies every vehicle after the simulation starts, resets or loads, and publishes a
+     * snapshot in which every vehicle has changed.
+     *
+     * @param theVehicles the vehicles, in the order they take their turns
+     */
+    private void reset(final List<Vehicle> theVehicles) {
+        if (myTypes == null || myTypes.length != theVehicles.size()) {
+            // vehicles keep their kind, so this is only looked at after a reset
+            myTypes = new VehicleType[theVehicles.size()];
+            myNames = new String[theVehicles.size()];
+            for (int i = 0; i < myTypes.length; i++) {
+                final Vehicle vehicle = theVehicles.get(i);
+                myTypes[i] = VehicleType.of(vehicle);
+                myNames[i] = nameOf(vehicle, myTypes[i]);
+            }
+        }
+        myCurrent.reset(theVehicles, myTypes, myNames);
+        mySnapshots.forEach(Snapshot::markEveryStale);
+        record();
+    }
+
+    /**
+     * Brings the copy of the vehicles forward by the changes of a tick, and publishes a
+     * snapshot. Changes before the simulation starts are ignored.
+     *
+     * @param theChanges the changes of the tick
+     */
+    private void advance(final List<VehicleChange> theChanges) {
+        if (myTypes != null) {
+            myCurrent.apply(theChanges, mySnapshots.hasUnread());
+            mySnapshots.forEach(snapshot -> snapshot.markStale(myCurrent));
+            record();
+        }
+    }
+
+    /**
+     * Takes a snapshot of the simulation and publishes it.
+     */
+    private void record() {
+        mySnapshots.back().copy(myCurrent, myTimestep, myLight, myGrid, myFrameNanos);
+        mySnapshots.publish();
+        myListener.run();
+    }
+
+    /**
+     * Returns the class name of a vehicle, as it describes itself.
+     *
+     * @param theVehicle the vehicle
+     * @param theType the type of the vehicle, or null
+     * @return the name
+     */
+    private static String nameOf(final Vehicle theVehicle, final VehicleType theType) {
+        final String result;
+        if (theType == null) {
+            result = theVehicle.getClass().getSimpleName();
+        } else {
+            result = theType.name().charAt(0)
+                     + theType.name().substring(1).toLowerCase(Locale.ROOT);
+        }
+        return result.intern();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for one tick of a simulation, lasting as long as the
+ * tick. Ticks are short and many, so a recording may set a threshold on this event to
+ * keep only the slow ones.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+@Name("edu.uw.tcss.Tick")
+@Label("Tick")
+@Category({"Road Rage", "Simulation"})
+@Description("One tick of a Road Rage simulation")
+@StackTrace(false)
+final class TickEvent extends Event {
+
+    /**
+     * The timestep at the end of the tick.
+     */
+    @Name("timestep")
+    @Label("Timestep")
+    private long myTimestep;
+
+    /**
+     * The number of vehicles.
+     */
+    @Name("vehicles")
+    @Label("Vehicles")
+    private int myVehicles;
+
+    /**
+     * The width of the map, in squares.
+     */
+    @Name("width")
+    @Label("Map Width")
+    private int myWidth;
+
+    /**
+     * The height of the map, in squares.
+     */
+    @Name("height")
+    @Label("Map Height")
+    private int myHeight;
+
+    /**
+     * The number of moves made during the tick.
+     */
+    @Name("moves")
+    @Label("Moves")
+    private long myMoves;
+
+    /**
+     * The number of collisions during the tick.
+     */
+    @Name("collisions")
+    @Label("Collisions")
+    private long myCollisions;
+
+    /**
+     * Sets what the tick did, once it is over.
+     *
+     * @param theTimestep the timestep at the end of the tick
+     * @param theVehicles the number of vehicles
+     * @param theWidth the width of the map
+     * @param theHeight the height of the map
+     * @param theMoves the number of moves made
+     * @param theCollisions the number of collisions
+     */
+    void set(final long theTimestep, final int theVehicles, final int theWidth,
+             final int theHeight, final long theMoves, final long theCollisions) {
+        myTimestep = theTimestep;
+        myVehicles = theVehicles;
+        myWidth = theWidth;
+        myHeight = theHeight;
+        myMoves = theMoves;
+        myCollisions = theCollisions;
+    }
+}
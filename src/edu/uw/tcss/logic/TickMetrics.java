@@ -0,0 +1,644 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Times the ticks of a simulation and counts what happens in them, for watching a long
+ * run through JMX, for example in JConsole once {@link #register(String)} is called.
+ * <br />
+ * Counting is cheap enough to happen every tick: the number of moves blocked by
+ * canPass and the number of collisions. Timing is not, so only every Nth tick is timed,
+ * N being the sample interval, and the live and dead vehicles are counted after it. Most
+ * sampled ticks are timed as a whole, into a histogram from which the percentiles are
+ * read. Every {@value #PHASE_SAMPLE_RATIO}th one instead times each {@link Phase} of
+ * every vehicle's turn; that takes several clock readings per vehicle, so those ticks
+ * are slower and are kept out of the histogram.
+ * <br />
+ * Only the simulation's thread records; any number of threads may read. Nothing takes a
+ * lock: each value has a single writer and is published through a volatile field or an
+ * atomic array, so a reader may see one tick's values partly updated but never a torn
+ * one. The counts are kept by the writer and published only on sampled ticks and when
+ * {@link #publish()} is called, so that a tick that is not sampled writes nothing
+ * shared. A reset asked for by a reader is carried out by the simulation's thread when
+ * the next tick starts.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public final class TickMetrics implements TickMetricsMBean {
+
+    /**
+     * The parts of a tick that are timed separately.
+     */
+    public enum Phase {
+        /** Looking up the neighbors of the vehicles. */
+        NEIGHBORS,
+        /** The vehicles choosing a direction. */
+        DIRECTION,
+        /** The vehicles checking they can pass, moving, or being poked. */
+        MOVEMENT,
+        /** Finding and resolving collisions. */
+        COLLISION,
+        /** Advancing the clock and changing the light. */
+        LIGHT
+    }
+
+    /**
+     * The number of ticks between sampled ticks unless set otherwise.
+     */
+    public static final int DEFAULT_SAMPLE_INTERVAL = 16;
+
+    /**
+     * The number of sampled ticks for each one whose phases are timed.
+     */
+    public static final int PHASE_SAMPLE_RATIO = 8;
+
+    /**
+     * The phases, indexed by ordinal.
+     */
+    private static final Phase[] PHASES = Phase.values();
+
+    /**
+     * The number of bits of a time kept in its histogram bucket: each power of two is
+     * split into 8 buckets, so a percentile is within an eighth of the true time.
+     */
+    private static final int SUB_BITS = 3;
+
+    /**
+     * The number of buckets per power of two.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /**
+     * The number of buckets, enough for every non-negative long.
+     */
+    private static final int BUCKETS = (Long.SIZE - SUB_BITS) * SUB_BUCKETS;
+
+    /**
+     * The median.
+     */
+    private static final double P50 = 0.5;
+
+    /**
+     * The 99th percentile.
+     */
+    private static final double P99 = 0.99;
+
+    /**
+     * The 99.9th percentile.
+     */
+    private static final double P999 = 0.999;
+
+    /**
+     * The number of sampled ticks in each histogram bucket.
+     */
+    private final AtomicLongArray myHistogram;
+
+    /**
+     * The time spent in each phase over all phase-timed ticks, by ordinal.
+     */
+    private final AtomicLongArray myPhaseNanos;
+
+    /**
+     * The time spent in each phase during the current tick; used only by the writer.
+     */
+    private final long[] myTickPhaseNanos;
+
+    /**
+     * The number of ticks between sampled ticks.
+     */
+    private volatile int mySampleInterval;
+
+    /**
+     * Whether a reader asked for a reset.
+     */
+    private volatile boolean myResetRequested;
+
+    /**
+     * The number of ticks run, as last published. Like every volatile value below, only
+     * the writer changes it.
+     */
+    private volatile long myTicks;
+
+    /**
+     * The number of ticks timed as a whole.
+     */
+    private volatile long mySampledTicks;
+
+    /**
+     * The number of ticks whose phases were timed.
+     */
+    private volatile long myPhaseTimedTicks;
+
+    /**
+     * The total time of the sampled ticks.
+     */
+    private volatile long myTotalNanos;
+
+    /**
+     * The longest time of a sampled tick.
+     */
+    private volatile long myMaxNanos;
+
+    /**
+     * The number of live vehicles after the last sampled tick.
+     */
+    private volatile int myAlive;
+
+    /**
+     * The number of dead vehicles after the last sampled tick.
+     */
+    private volatile int myDead;
+
+    /**
+     * The number of blocked moves, as last published.
+     */
+    private volatile long myBlocked;
+
+    /**
+     * The number of collisions, as last published.
+     */
+    private volatile long myCollisions;
+
+    /**
+     * The number of collisions in the last tick, as last published.
+     */
+    private volatile long myLastCollisions;
+
+    /**
+     * The number of ticks run; used only by the writer.
+     */
+    private long myTickCount;
+
+    /**
+     * The number of blocked moves; used only by the writer.
+     */
+    private long myBlockedCount;
+
+    /**
+     * The number of collisions; used only by the writer.
+     */
+    private long myCollisionCount;
+
+    /**
+     * The number of collisions so far in the current tick; used only by the writer.
+     */
+    private long myTickCollisions;
+
+    /**
+     * The number of collisions in the last tick; used only by the writer.
+     */
+    private long myLastTickCollisions;
+
+    /**
+     * The number of ticks until the next sampled one; used only by the writer.
+     */
+    private int myCountdown;
+
+    /**
+     * The number of sampled ticks until the next phase-timed one; used only by the
+     * writer.
+     */
+    private int myPhaseCountdown;
+
+    /**
+     * Whether the current tick is sampled; used only by the writer.
+     */
+    private boolean mySampling;
+
+    /**
+     * Whether the phases of the current tick are timed; used only by the writer.
+     */
+    private boolean myTimingPhases;
+
+    /**
+     * When the current tick started; used only by the writer.
+     */
+    private long myStart;
+
+    /**
+     * When the current phase started; used only by the writer.
+     */
+    private long myLap;
+
+    /**
+     * Creates metrics with nothing recorded, sampling every
+     * {@value #DEFAULT_SAMPLE_INTERVAL} ticks starting with the first.
+     */
+    public TickMetrics() {
+        super();
+        myHistogram = new AtomicLongArray(BUCKETS);
+        myPhaseNanos = new AtomicLongArray(PHASES.length);
+        myTickPhaseNanos = new long[PHASES.length];
+        mySampleInterval = DEFAULT_SAMPLE_INTERVAL;
+        myPhaseCountdown = PHASE_SAMPLE_RATIO;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, under the name
+     * edu.uw.tcss.logic:type=TickMetrics,name=theName.
+     *
+     * @param theName the name telling these metrics from others in the same process
+     * @return the name registered under
+     * @throws JMException if the metrics cannot be registered, for example because the
+     *         name is taken
+     */
+    public ObjectName register(final String theName) throws JMException {
+        final ObjectName result = new ObjectName(getClass().getPackageName()
+                                                 + ":type=" + getClass().getSimpleName()
+                                                 + ",name=" + ObjectName.quote(theName));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, result);
+        return result;
+    }
+
+    /**
+     * Called by the simulation's thread as a tick starts. Decides whether the tick is
+     * sampled, and carries out a reset asked for since the last tick.
+     */
+    public void tickStarted() {
+        if (myResetRequested) {
+            myResetRequested = false;
+            clear();
+        }
+        myCountdown--;
+        mySampling = myCountdown <= 0;
+        if (mySampling) {
+            myCountdown = mySampleInterval;
+            myPhaseCountdown--;
+            myTimingPhases = myPhaseCountdown <= 0;
+            if (myTimingPhases) {
+                myPhaseCountdown = PHASE_SAMPLE_RATIO;
+            }
+            myStart = System.nanoTime();
+            myLap = myStart;
+        }
+    }
+
+    /**
+     * Called by the simulation's thread as a phase ends: on a phase-timed tick, adds the
+     * time since the previous phase ended, or since the tick started, to a phase. Does
+     * nothing on other ticks.
+     *
+     * @param thePhase the phase that ended
+     */
+    public void lap(final Phase thePhase) {
+        // kept small enough to be inlined into every vehicle's turn
+        if (myTimingPhases) {
+            timeLap(thePhase);
+        }
+    }
+
+    /**
+     * Adds the time since the previous phase ended, or since the tick started, to a
+     * phase.
+     *
+     * @param thePhase the phase that ended
+     */
+    private void timeLap(final Phase thePhase) {
+        final long now = System.nanoTime();
+        myTickPhaseNanos[thePhase.ordinal()] += now - myLap;
+        myLap = now;
+    }
+
+    /**
+     * Records the phase times of the current tick for Java Flight Recorder.
+     *
+     * @param theTimestep the timestep at the end of the tick
+     */
+    private void recordPhases(final long theTimestep) {
+        final TickPhasesEvent event = new TickPhasesEvent();
+        if (event.isEnabled()) {
+            event.set(theTimestep, myTickPhaseNanos);
+            event.commit();
+        }
+    }
+
+    /**
+     * Called by the simulation's thread when moves are blocked.
+     *
+     * @param theMoves the number of moves blocked
+     */
+    public void blocked(final long theMoves) {
+        myBlockedCount += theMoves;
+    }
+
+    /**
+     * Called by the simulation's thread when vehicles collide.
+     *
+     * @param theCollisions the number of collisions
+     */
+    public void collided(final long theCollisions) {
+        myTickCollisions += theCollisions;
+    }
+
+    /**
+     * Called by the simulation's thread as a tick ends. A sampled tick's time or phase
+     * times are recorded, and the counts published. Phase times are also recorded as a
+     * {@link TickPhasesEvent} when Java Flight Recorder is on.
+     *
+     * @param theTimestep the timestep at the end of the tick
+     * @return true if the tick was sampled, and the vehicles should be counted
+     */
+    public boolean tickEnded(final long theTimestep) {
+        myCollisionCount += myTickCollisions;
+        myLastTickCollisions = myTickCollisions;
+        myTickCollisions = 0;
+        myTickCount++;
+        if (myTimingPhases) {
+            myTimingPhases = false;
+            if (FlightRecorder.isInitialized()) {
+                recordPhases(theTimestep);
+            }
+            for (int i = 0; i < myTickPhaseNanos.length; i++) {
+                myPhaseNanos.lazySet(i, myPhaseNanos.get(i) + myTickPhaseNanos[i]);
+                myTickPhaseNanos[i] = 0;
+            }
+            myPhaseTimedTicks = myPhaseTimedTicks + 1;
+            publish();
+        } else if (mySampling) {
+            final long nanos = System.nanoTime() - myStart;
+            final int bucket = bucketOf(nanos);
+            myHistogram.lazySet(bucket, myHistogram.get(bucket) + 1);
+            myTotalNanos = myTotalNanos + nanos;
+            myMaxNanos = Math.max(myMaxNanos, nanos);
+            mySampledTicks = mySampledTicks + 1;
+            publish();
+        }
+        return mySampling;
+    }
+
+    /**
+     * Called by the simulation's thread to publish the counts of the ticks so far, at
+     * least whenever it stops ticking for a while.
+     */
+    public void publish() {
+        myTicks = myTickCount;
+        myBlocked = myBlockedCount;
+        myCollisions = myCollisionCount;
+        myLastCollisions = myLastTickCollisions;
+    }
+
+    /**
+     * Called by the simulation's thread after a sampled tick, with the vehicles counted.
+     *
+     * @param theAlive the number of live vehicles
+     * @param theDead the number of dead vehicles
+     */
+    public void vehiclesCounted(final int theAlive, final int theDead) {
+        myAlive = theAlive;
+        myDead = theDead;
+    }
+
+    /**
+     * Returns the time within which a fraction of the sampled ticks ran, to within the
+     * width of a histogram bucket.
+     *
+     * @param theQuantile the fraction, from 0 to 1
+     * @return the time in nanoseconds, 0 if no tick was sampled
+     * @throws IllegalArgumentException if the fraction is not from 0 to 1
+     */
+    public long tickNanosAt(final double theQuantile) {
+        if (!(theQuantile >= 0 && theQuantile <= 1)) {
+            throw new IllegalArgumentException("Quantile must be from 0 to 1: "
+                                               + theQuantile);
+        }
+        final long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = myHistogram.get(i);
+            total += counts[i];
+        }
+        long result = 0;
+        if (total > 0) {
+            final long rank = Math.max(1, (long) Math.ceil(theQuantile * total));
+            long seen = 0;
+            int bucket = 0;
+            while (seen + counts[bucket] < rank) {
+                seen += counts[bucket];
+                bucket++;
+            }
+            // the highest time in the bucket, but never above the longest seen
+            result = Math.min(lowestIn(bucket + 1) - 1, myMaxNanos);
+        }
+        return result;
+    }
+
+    @Override
+    public int getSampleInterval() {
+        return mySampleInterval;
+    }
+
+    @Override
+    public void setSampleInterval(final int theTicks) {
+        if (theTicks <= 0) {
+            throw new IllegalArgumentException("Sample interval must be positive: "
+                                               + theTicks);
+        }
+        mySampleInterval = theTicks;
+    }
+
+    @Override
+    public long getTicks() {
+        return myTicks;
+    }
+
+    @Override
+    public long getSampledTicks() {
+        return mySampledTicks;
+    }
+
+    @Override
+    public long getPhaseTimedTicks() {
+        return myPhaseTimedTicks;
+    }
+
+    @Override
+    public long getTickNanosP50() {
+        return tickNanosAt(P50);
+    }
+
+    @Override
+    public long getTickNanosP99() {
+        return tickNanosAt(P99);
+    }
+
+    @Override
+    public long getTickNanosP999() {
+        return tickNanosAt(P999);
+    }
+
+    @Override
+    public long getTickNanosMax() {
+        return myMaxNanos;
+    }
+
+    @Override
+    public long getTickNanosMean() {
+        return perSampledTick(myTotalNanos);
+    }
+
+    @Override
+    public long getNeighborNanos() {
+        return perPhaseTimedTick(myPhaseNanos.get(Phase.NEIGHBORS.ordinal()));
+    }
+
+    @Override
+    public long getDirectionNanos() {
+        return perPhaseTimedTick(myPhaseNanos.get(Phase.DIRECTION.ordinal()));
+    }
+
+    @Override
+    public long getMovementNanos() {
+        return perPhaseTimedTick(myPhaseNanos.get(Phase.MOVEMENT.ordinal()));
+    }
+
+    @Override
+    public long getCollisionNanos() {
+        return perPhaseTimedTick(myPhaseNanos.get(Phase.COLLISION.ordinal()));
+    }
+
+    @Override
+    public long getLightNanos() {
+        return perPhaseTimedTick(myPhaseNanos.get(Phase.LIGHT.ordinal()));
+    }
+
+    @Override
+    public int getVehiclesAlive() {
+        return myAlive;
+    }
+
+    @Override
+    public int getVehiclesDead() {
+        return myDead;
+    }
+
+    @Override
+    public long getBlockedMoves() {
+        return myBlocked;
+    }
+
+    @Override
+    public long getCollisions() {
+        return myCollisions;
+    }
+
+    @Override
+    public long getCollisionsLastTick() {
+        return myLastCollisions;
+    }
+
+    @Override
+    public double getCollisionsPerTick() {
+        final long ticks = myTicks;
+        double result = 0;
+        if (ticks > 0) {
+            result = (double) myCollisions / ticks;
+        }
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        myResetRequested = true;
+    }
+
+    /**
+     * Clears every time and count; called only by the writer.
+     */
+    private void clear() {
+        for (int i = 0; i < BUCKETS; i++) {
+            myHistogram.lazySet(i, 0);
+        }
+        for (int i = 0; i < PHASES.length; i++) {
+            myPhaseNanos.lazySet(i, 0);
+        }
+        myTickCount = 0;
+        myBlockedCount = 0;
+        myCollisionCount = 0;
+        myLastTickCollisions = 0;
+        mySampledTicks = 0;
+        myPhaseTimedTicks = 0;
+        myPhaseCountdown = PHASE_SAMPLE_RATIO;
+        myTotalNanos = 0;
+        myMaxNanos = 0;
+        myCountdown = 0;
+        publish();
+    }
+
+    /**
+     * Returns a total time divided by the number of sampled ticks.
+     *
+     * @param theNanos the total time in nanoseconds
+     * @return the time per sampled tick, 0 if no tick was sampled
+     */
+    private long perSampledTick(final long theNanos) {
+        final long ticks = mySampledTicks;
+        long result = 0;
+        if (ticks > 0) {
+            result = theNanos / ticks;
+        }
+        return result;
+    }
+
+    /**
+     * Returns a total time divided by the number of phase-timed ticks.
+     *
+     * @param theNanos the total time in nanoseconds
+     * @return the time per phase-timed tick, 0 if no tick was phase-timed
+     */
+    private long perPhaseTimedTick(final long theNanos) {
+        final long ticks = myPhaseTimedTicks;
+        long result = 0;
+        if (ticks > 0) {
+            result = theNanos / ticks;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the histogram bucket of a time: times below 8 have a bucket each, and
+     * every power of two above is split into 8 buckets of equal width.
+     *
+     * @param theNanos the time in nanoseconds, not negative
+     * @return the bucket
+     */
+    static int bucketOf(final long theNanos) {
+        final int result;
+        if (theNanos < SUB_BUCKETS) {
+            result = (int) Math.max(0, theNanos);
+        } else {
+            final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(theNanos);
+            final int shift = exponent - SUB_BITS;
+            result = (shift + 1) * SUB_BUCKETS
+                     + (int) (theNanos >>> shift & SUB_BUCKETS - 1);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the lowest time in a histogram bucket.
+     *
+     * @param theBucket the bucket; the one past the last gives the largest long
+     * @return the time in nanoseconds
+     */
+    static long lowestIn(final int theBucket) {
+        final long result;
+        if (theBucket >= BUCKETS) {
+            result = Long.MAX_VALUE;
+        } else if (theBucket < SUB_BUCKETS) {
+            result = theBucket;
+        } else {
+            final int shift = theBucket / SUB_BUCKETS - 1;
+            result = (long) (SUB_BUCKETS + theBucket % SUB_BUCKETS) << shift;
+        }
+        return result;
+    }
+}
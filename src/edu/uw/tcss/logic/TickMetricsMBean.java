@@ -0,0 +1,172 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+/**
+ * The management interface of {@link TickMetrics}, as JConsole and other JMX clients see
+ * it. Times are in nanoseconds and come from the sampled ticks only: tick times from the
+ * ticks timed as a whole, phase times from the phase-timed ones. Counts cover every tick
+ * since the metrics were created or last reset.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public interface TickMetricsMBean {
+
+    /**
+     * Returns how many ticks pass between two sampled ticks.
+     *
+     * @return the sample interval in ticks
+     */
+    int getSampleInterval();
+
+    /**
+     * Changes how many ticks pass between two sampled ticks, from the next tick on.
+     *
+     * @param theTicks the sample interval in ticks; 1 samples every tick
+     * @throws IllegalArgumentException if the interval is not positive
+     */
+    void setSampleInterval(int theTicks);
+
+    /**
+     * Returns the number of ticks run.
+     *
+     * @return the number of ticks
+     */
+    long getTicks();
+
+    /**
+     * Returns the number of ticks that were timed as a whole.
+     *
+     * @return the number of sampled ticks
+     */
+    long getSampledTicks();
+
+    /**
+     * Returns the number of ticks whose phases were timed.
+     *
+     * @return the number of phase-timed ticks
+     */
+    long getPhaseTimedTicks();
+
+    /**
+     * Returns the median time a sampled tick took.
+     *
+     * @return the time in nanoseconds, 0 if no tick was sampled
+     */
+    long getTickNanosP50();
+
+    /**
+     * Returns the time 99 in 100 sampled ticks took at most.
+     *
+     * @return the time in nanoseconds, 0 if no tick was sampled
+     */
+    long getTickNanosP99();
+
+    /**
+     * Returns the time 999 in 1000 sampled ticks took at most.
+     *
+     * @return the time in nanoseconds, 0 if no tick was sampled
+     */
+    long getTickNanosP999();
+
+    /**
+     * Returns the longest time a sampled tick took.
+     *
+     * @return the time in nanoseconds, 0 if no tick was sampled
+     */
+    long getTickNanosMax();
+
+    /**
+     * Returns the mean time a sampled tick took.
+     *
+     * @return the time in nanoseconds, 0 if no tick was sampled
+     */
+    long getTickNanosMean();
+
+    /**
+     * Returns the mean time per phase-timed tick spent looking up the vehicles'
+     * neighbors.
+     *
+     * @return the time in nanoseconds
+     */
+    long getNeighborNanos();
+
+    /**
+     * Returns the mean time per phase-timed tick spent by the vehicles choosing a
+     * direction.
+     *
+     * @return the time in nanoseconds
+     */
+    long getDirectionNanos();
+
+    /**
+     * Returns the mean time per phase-timed tick spent moving the vehicles.
+     *
+     * @return the time in nanoseconds
+     */
+    long getMovementNanos();
+
+    /**
+     * Returns the mean time per phase-timed tick spent finding and resolving collisions.
+     *
+     * @return the time in nanoseconds
+     */
+    long getCollisionNanos();
+
+    /**
+     * Returns the mean time per phase-timed tick spent changing the light.
+     *
+     * @return the time in nanoseconds
+     */
+    long getLightNanos();
+
+    /**
+     * Returns the number of vehicles alive at the end of the last sampled tick.
+     *
+     * @return the number of live vehicles
+     */
+    int getVehiclesAlive();
+
+    /**
+     * Returns the number of vehicles dead at the end of the last sampled tick.
+     *
+     * @return the number of dead vehicles
+     */
+    int getVehiclesDead();
+
+    /**
+     * Returns the number of times a vehicle could not pass into the square it chose.
+     *
+     * @return the number of blocked moves
+     */
+    long getBlockedMoves();
+
+    /**
+     * Returns the number of collisions.
+     *
+     * @return the number of collisions
+     */
+    long getCollisions();
+
+    /**
+     * Returns the number of collisions during the last tick.
+     *
+     * @return the number of collisions
+     */
+    long getCollisionsLastTick();
+
+    /**
+     * Returns the mean number of collisions per tick.
+     *
+     * @return the number of collisions per tick
+     */
+    double getCollisionsPerTick();
+
+    /**
+     * Clears every time and count, from the next tick on.
+     */
+    void reset();
+}
@@ -0,0 +1,93 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A Java Flight Recorder event for the time each phase of a tick took, recorded at the
+ * end of the ticks whose phases {@link TickMetrics} times. The phases of a vehicle's turn
+ * take turns with those of the next vehicle, so they are not events of their own but
+ * totals over the tick.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+@Name("edu.uw.tcss.TickPhases")
+@Label("Tick Phases")
+@Category({"Road Rage", "Simulation"})
+@Description("The time each phase of a sampled Road Rage tick took")
+@StackTrace(false)
+final class TickPhasesEvent extends Event {
+
+    /**
+     * The timestep at the end of the tick.
+     */
+    @Name("timestep")
+    @Label("Timestep")
+    private long myTimestep;
+
+    /**
+     * The time spent looking up neighbors.
+     */
+    @Name("neighbors")
+    @Label("Neighbors")
+    @Timespan(Timespan.NANOSECONDS)
+    private long myNeighbors;
+
+    /**
+     * The time spent choosing directions.
+     */
+    @Name("direction")
+    @Label("Direction Choice")
+    @Timespan(Timespan.NANOSECONDS)
+    private long myDirection;
+
+    /**
+     * The time spent moving.
+     */
+    @Name("movement")
+    @Label("Movement")
+    @Timespan(Timespan.NANOSECONDS)
+    private long myMovement;
+
+    /**
+     * The time spent on collisions.
+     */
+    @Name("collision")
+    @Label("Collision")
+    @Timespan(Timespan.NANOSECONDS)
+    private long myCollision;
+
+    /**
+     * The time spent changing the light.
+     */
+    @Name("light")
+    @Label("Light Change")
+    @Timespan(Timespan.NANOSECONDS)
+    private long myLight;
+
+    /**
+     * Sets the time of each phase.
+     *
+     * @param theTimestep the timestep at the end of the tick
+     * @param thePhaseNanos the time of each phase, indexed by the ordinal of its
+     *        {@link TickMetrics.Phase}
+     */
+    void set(final long theTimestep, final long[] thePhaseNanos) {
+        myTimestep = theTimestep;
+        myNeighbors = thePhaseNanos[TickMetrics.Phase.NEIGHBORS.ordinal()];
+        myDirection = thePhaseNanos[TickMetrics.Phase.DIRECTION.ordinal()];
+        myMovement = thePhaseNanos[TickMetrics.Phase.MOVEMENT.ordinal()];
+        myCollision = thePhaseNanos[TickMetrics.Phase.COLLISION.ordinal()];
+        myLight = thePhaseNanos[TickMetrics.Phase.LIGHT.ordinal()];
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Three buffers handed between one writer thread and one reader thread without locks.
+ * The writer fills the back buffer and publishes it; the reader takes the newest
+ * published buffer as its front buffer. Neither thread ever waits for the other, and
+ * neither ever sees a buffer the other is using.
+ * <br />
+ * The buffer between the two is swapped in a single atomic step, together with a flag
+ * saying whether it holds something the reader has not taken yet. A buffer the writer
+ * publishes twice before the reader looks is simply overwritten, so the reader always
+ * gets the newest one and the writer never falls behind.
+ *
+ * @param <T> the type of the buffers
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+final class TripleBuffer<T> {
+
+    /**
+     * Selects the index of the middle buffer from the shared state.
+     */
+    private static final int INDEX_MASK = 0b11;
+
+    /**
+     * Set in the shared state while the middle buffer has not been taken by the reader.
+     */
+    private static final int FRESH = 0b100;
+
+    /**
+     * The three buffers.
+     */
+    private final Object[] myBuffers;
+
+    /**
+     * The index of the middle buffer, with FRESH set if the writer has published it since
+     * the reader last took it.
+     */
+    private final AtomicInteger myMiddle;
+
+    /**
+     * The index of the buffer the writer is filling; used only by the writer.
+     */
+    private int myBack;
+
+    /**
+     * The index of the buffer the reader is using; used only by the reader.
+     */
+    private int myFront;
+
+    /**
+     * Creates a triple buffer of three new buffers. The reader starts with one of them,
+     * as it was created.
+     *
+     * @param theFactory creates each buffer
+     */
+    TripleBuffer(final Supplier<? extends T> theFactory) {
+        super();
+        myBuffers = new Object[] {theFactory.get(), theFactory.get(), theFactory.get()};
+        myFront = 0;
+        myMiddle = new AtomicInteger(1);
+        myBack = 2;
+    }
+
+    /**
+     * Returns the buffer the writer is filling. Called only by the writer.
+     *
+     * @return the back buffer
+     */
+    @SuppressWarnings("unchecked")
+    T back() {
+        return (T) myBuffers[myBack];
+    }
+
+    /**
+     * Publishes the back buffer to the reader and gives the writer another buffer to
+     * fill. Called only by the writer, once the back buffer is complete.
+     */
+    void publish() {
+        myBack = myMiddle.getAndSet(myBack | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Returns whether the buffer published last has not been taken by the reader yet.
+     * The reader may still take it at any moment after this returns true. Called only by
+     * the writer.
+     *
+     * @return true if the reader has not taken the newest buffer
+     */
+    boolean hasUnread() {
+        return (myMiddle.get() & FRESH) != 0;
+    }
+
+    /**
+     * Performs an action on each of the three buffers, whichever thread is using it.
+     * Called only by the writer, and only to change what the reader never looks at.
+     *
+     * @param theAction the action
+     */
+    @SuppressWarnings("unchecked")
+    void forEach(final Consumer<? super T> theAction) {
+        for (final Object buffer : myBuffers) {
+            theAction.accept((T) buffer);
+        }
+    }
+
+    /**
+     * Returns the newest buffer the writer has published, taking it as the reader's
+     * front buffer if it has not been taken yet. The buffer returned by the previous call
+     * must no longer be used. Called only by the reader.
+     *
+     * @return the front buffer
+     */
+    @SuppressWarnings("unchecked")
+    T front() {
+        if ((myMiddle.get() & FRESH) != 0) {
+            myFront = myMiddle.getAndSet(myFront) & INDEX_MASK;
+        }
+        return (T) myBuffers[myFront];
+    }
+}
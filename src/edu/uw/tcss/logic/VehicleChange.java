@@ -0,0 +1,230 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Vehicle;
+
+/**
+ * A change to one vehicle during one tick: where it was, which way it faced and whether
+ * it was alive at the start of the tick, and the same at the end. Only vehicles that
+ * moved, turned, died or revived during a tick have a change.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public final class VehicleChange {
+
+    /**
+     * The vehicle that changed.
+     */
+    private final Vehicle myVehicle;
+
+    /**
+     * The index of the vehicle in the order the vehicles take their turns.
+     */
+    private final int myIndex;
+
+    /**
+     * The x-coordinate of the vehicle at the start of the tick.
+     */
+    private final int myOldX;
+
+    /**
+     * The y-coordinate of the vehicle at the start of the tick.
+     */
+    private final int myOldY;
+
+    /**
+     * The x-coordinate of the vehicle at the end of the tick.
+     */
+    private final int myNewX;
+
+    /**
+     * The y-coordinate of the vehicle at the end of the tick.
+     */
+    private final int myNewY;
+
+    /**
+     * The direction the vehicle faced at the start of the tick.
+     */
+    private final Direction myOldDirection;
+
+    /**
+     * The direction the vehicle faces at the end of the tick.
+     */
+    private final Direction myNewDirection;
+
+    /**
+     * Whether the vehicle was alive at the start of the tick.
+     */
+    private final boolean myWasAlive;
+
+    /**
+     * Whether the vehicle is alive at the end of the tick.
+     */
+    private final boolean myIsAlive;
+
+    /**
+     * Creates the change of one vehicle over a tick.
+     *
+     * @param theVehicle the vehicle, as it is at the end of the tick
+     * @param theIndex the index of the vehicle
+     * @param theOldX the x-coordinate at the start of the tick
+     * @param theOldY the y-coordinate at the start of the tick
+     * @param theOldDirection the direction the vehicle faced at the start of the tick
+     * @param theWasAlive whether the vehicle was alive at the start of the tick
+     */
+    VehicleChange(final Vehicle theVehicle, final int theIndex, final int theOldX,
+                  final int theOldY, final Direction theOldDirection,
+                  final boolean theWasAlive) {
+        super();
+        myVehicle = theVehicle;
+        myIndex = theIndex;
+        myOldX = theOldX;
+        myOldY = theOldY;
+        myNewX = theVehicle.getX();
+        myNewY = theVehicle.getY();
+        myOldDirection = theOldDirection;
+        myNewDirection = theVehicle.getDirection();
+        myWasAlive = theWasAlive;
+        myIsAlive = theVehicle.isAlive();
+    }
+
+    /**
+     * Returns the vehicle that changed. The vehicle itself keeps changing as the
+     * simulation runs; the rest of this change does not.
+     *
+     * @return the vehicle
+     */
+    public Vehicle getVehicle() {
+        return myVehicle;
+    }
+
+    /**
+     * Returns the index of the vehicle in the order the vehicles take their turns, which
+     * is also its position in the full list of vehicles.
+     *
+     * @return the index
+     */
+    public int getIndex() {
+        return myIndex;
+    }
+
+    /**
+     * Returns the x-coordinate of the vehicle at the start of the tick.
+     *
+     * @return the old x-coordinate
+     */
+    public int getOldX() {
+        return myOldX;
+    }
+
+    /**
+     * Returns the y-coordinate of the vehicle at the start of the tick.
+     *
+     * @return the old y-coordinate
+     */
+    public int getOldY() {
+        return myOldY;
+    }
+
+    /**
+     * Returns the x-coordinate of the vehicle at the end of the tick.
+     *
+     * @return the new x-coordinate
+     */
+    public int getNewX() {
+        return myNewX;
+    }
+
+    /**
+     * Returns the y-coordinate of the vehicle at the end of the tick.
+     *
+     * @return the new y-coordinate
+     */
+    public int getNewY() {
+        return myNewY;
+    }
+
+    /**
+     * Returns the direction the vehicle faced at the start of the tick.
+     *
+     * @return the old direction
+     */
+    public Direction getOldDirection() {
+        return myOldDirection;
+    }
+
+    /**
+     * Returns the direction the vehicle faces at the end of the tick.
+     *
+     * @return the new direction
+     */
+    public Direction getNewDirection() {
+        return myNewDirection;
+    }
+
+    /**
+     * Returns whether the vehicle was alive at the start of the tick.
+     *
+     * @return true if the vehicle was alive
+     */
+    public boolean wasAlive() {
+        return myWasAlive;
+    }
+
+    /**
+     * Returns whether the vehicle is alive at the end of the tick.
+     *
+     * @return true if the vehicle is alive
+     */
+    public boolean isAlive() {
+        return myIsAlive;
+    }
+
+    /**
+     * Returns whether the vehicle ended the tick in a different square.
+     *
+     * @return true if the vehicle moved
+     */
+    public boolean hasMoved() {
+        return myOldX != myNewX || myOldY != myNewY;
+    }
+
+    /**
+     * Returns whether the vehicle ended the tick facing a different way.
+     *
+     * @return true if the vehicle turned
+     */
+    public boolean hasTurned() {
+        return myOldDirection != myNewDirection;
+    }
+
+    /**
+     * Returns whether the vehicle was alive at the start of the tick and is dead now.
+     *
+     * @return true if the vehicle died
+     */
+    public boolean hasDied() {
+        return myWasAlive && !myIsAlive;
+    }
+
+    /**
+     * Returns whether the vehicle was dead at the start of the tick and is alive now.
+     *
+     * @return true if the vehicle revived
+     */
+    public boolean hasRevived() {
+        return !myWasAlive && myIsAlive;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("VehicleChange[%d: (%d, %d) %s %b -> (%d, %d) %s %b]",
+                             myIndex, myOldX, myOldY, myOldDirection, myWasAlive, myNewX,
+                             myNewY, myNewDirection, myIsAlive);
+    }
+}
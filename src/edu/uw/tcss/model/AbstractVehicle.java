@@ -1,7 +1,10 @@
 package edu.uw.tcss.model;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * An abstract class representing a vehicle in the city traffic simulation.
@@ -15,8 +18,17 @@ import java.util.Random;
  */
 public abstract class AbstractVehicle implements Vehicle {
 
-    /** Random instance for generating random directions. */
-    private static final Random RANDOM = new Random();
+    /**
+     * The alive and dead image file names of each vehicle class, worked out once per class
+     * rather than on every call.
+     */
+    private static final ClassValue<String[]> IMAGE_FILE_NAMES = new ClassValue<>() {
+        @Override
+        protected String[] computeValue(final Class<?> theClass) {
+            final String baseName = theClass.getSimpleName().toLowerCase();
+            return new String[] {baseName + ".gif", baseName + "_dead.gif"};
+        }
+    };
 
     /** Current x-coordinate of the vehicle. */
     private int myX;
@@ -45,6 +57,12 @@ public abstract class AbstractVehicle implements Vehicle {
     /** Counter tracking cycles since the vehicle died. */
     private int myDeathCounter;
 
+    /** The source of randomness for this vehicle's random choices. */
+    private RandomGenerator myRandom = new SplittableRandom();
+
+    /** The counters to record this vehicle's costlier behaviors in; null if none. */
+    private BehaviorCounters myCounters;
+
     /**
      * Constructs an `AbstractVehicle` object with a specified initial position,
      * direction, and death time.
@@ -118,6 +136,61 @@ public abstract class AbstractVehicle implements Vehicle {
         return myDeathTime;
     }
 
+    /**
+     * Returns the number of cycles since the vehicle died.
+     *
+     * @return the death counter
+     */
+    int getDeathCounter() {
+        return myDeathCounter;
+    }
+
+    /**
+     * Sets the number of cycles since the vehicle died.
+     *
+     * @param theDeathCounter the death counter
+     */
+    void setDeathCounter(final int theDeathCounter) {
+        myDeathCounter = theDeathCounter;
+    }
+
+    /**
+     * Sets whether the vehicle is alive, without any of the effects of a collision or a
+     * revival.
+     *
+     * @param theAlive true if the vehicle is alive; false otherwise
+     */
+    void setAlive(final boolean theAlive) {
+        myAlive = theAlive;
+    }
+
+    /**
+     * Returns the x-coordinate the vehicle returns to when reset.
+     *
+     * @return the initial x-coordinate
+     */
+    int getInitialX() {
+        return myInitialX;
+    }
+
+    /**
+     * Returns the y-coordinate the vehicle returns to when reset.
+     *
+     * @return the initial y-coordinate
+     */
+    int getInitialY() {
+        return myInitialY;
+    }
+
+    /**
+     * Returns the direction the vehicle faces when reset.
+     *
+     * @return the initial direction
+     */
+    Direction getInitialDirection() {
+        return myInitialDirection;
+    }
+
     /**
      * Advances the vehicle’s death counter and revives it if necessary.
      */
@@ -136,7 +209,7 @@ public abstract class AbstractVehicle implements Vehicle {
      */
     protected void revive() {
         myAlive = true;
-        myDirection = Direction.random();
+        myDirection = Direction.random(myRandom);
         myDeathCounter = 0;
     }
 
@@ -150,6 +223,7 @@ public abstract class AbstractVehicle implements Vehicle {
     public void collide(final Vehicle theOther) {
         if (myAlive && theOther.isAlive() && this.getDeathTime() > theOther.getDeathTime()) {
             myAlive = false;
+            count(BehaviorCounters.Behavior.COLLISION_LOST, 1);
         }
     }
 
@@ -162,14 +236,14 @@ public abstract class AbstractVehicle implements Vehicle {
      */
     @Override
     public String getImageFileName() {
-        final String baseName = getClass().getSimpleName().toLowerCase();
-        final String suffix;
+        final String[] names = IMAGE_FILE_NAMES.get(getClass());
+        final String result;
         if (myAlive) {
-            suffix = ".gif";
+            result = names[0];
         } else {
-            suffix = "_dead.gif";
+            result = names[1];
         }
-        return baseName + suffix;
+        return result;
     }
 
 
@@ -216,6 +290,79 @@ public abstract class AbstractVehicle implements Vehicle {
         myDirection = theDir;
     }
 
+    /**
+     * Sets the source of randomness for this vehicle's random choices. Until one is set,
+     * the vehicle uses a generator of its own with an unpredictable seed.
+     *
+     * @param theRandom the source of randomness
+     */
+    @Override
+    public void setRandom(final RandomGenerator theRandom) {
+        myRandom = theRandom;
+    }
+
+    /**
+     * Sets the counters to record this vehicle's costlier behaviors in. Until some are
+     * set, nothing is recorded.
+     *
+     * @param theCounters the counters
+     */
+    @Override
+    public void setCounters(final BehaviorCounters theCounters) {
+        myCounters = theCounters;
+    }
+
+    /**
+     * Counts occurrences of a behavior by this vehicle, if it has counters to count them
+     * in and is one of the known types.
+     *
+     * @param theBehavior the behavior
+     * @param theCount the number of occurrences
+     */
+    protected void count(final BehaviorCounters.Behavior theBehavior, final long theCount) {
+        if (myCounters != null) {
+            final VehicleType type = VehicleType.of(this);
+            if (type != null) {
+                myCounters.add(theBehavior, type, theCount);
+            }
+        }
+    }
+
+    /**
+     * Returns the direction this vehicle chose, after counting it as a fall back if it is
+     * the reverse of the direction the vehicle is facing.
+     *
+     * @param theChosen the chosen direction
+     * @return the chosen direction
+     */
+    protected Direction counted(final Direction theChosen) {
+        if (theChosen == myDirection.reverse()) {
+            count(BehaviorCounters.Behavior.REVERSED, 1);
+        }
+        return theChosen;
+    }
+
+    /**
+     * Returns the source of randomness for this vehicle's random choices.
+     *
+     * @return the source of randomness
+     */
+    protected RandomGenerator getRandom() {
+        return myRandom;
+    }
+
+    /**
+     * Randomly reorders a list of directions, with this vehicle's source of randomness.
+     *
+     * @param theDirections the directions to reorder
+     */
+    protected void shuffle(final List<Direction> theDirections) {
+        // the same swaps Collections.shuffle makes, which only accepts a Random
+        for (int i = theDirections.size(); i > 1; i--) {
+            Collections.swap(theDirections, i - 1, myRandom.nextInt(i));
+        }
+    }
+
     /**
      * Returns a string representation of the vehicle, including its type,
      * position, direction, and status.
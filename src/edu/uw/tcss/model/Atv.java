@@ -50,7 +50,8 @@ public class Atv extends AbstractVehicle {
      * avoiding walls and the reverse direction.
      * <br />
      * The ATV selects a random direction that is neither its reverse direction
-     * nor towards a wall, ensuring continued movement in open, accessible areas.
+     * nor towards a wall, ensuring continued movement in open, accessible areas. Each
+     * direction drawn and thrown away is counted as a re-roll.
      *
      * @param theNeighbors a map of the neighboring terrains in each direction
      * @return the chosen direction for movement, which is random but excludes walls
@@ -58,11 +59,17 @@ public class Atv extends AbstractVehicle {
      */
     @Override
     public Direction chooseDirection(final Map<Direction, Terrain> theNeighbors) {
-        Direction atvDirection = Direction.random();
+        Direction atvDirection = Direction.random(getRandom());
+        int rerolls = 0;
 
         while (atvDirection == getDirection().reverse()
                 || theNeighbors.get(atvDirection) == Terrain.WALL) {
-            atvDirection = Direction.random();
+            atvDirection = Direction.random(getRandom());
+            rerolls++;
+        }
+
+        if (rerolls > 0) {
+            count(BehaviorCounters.Behavior.REROLLED, rerolls);
         }
 
         return atvDirection;
@@ -0,0 +1,244 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often each type of vehicle falls back on its costlier behaviors, so that the
+ * rules can be tuned with data.
+ * <br />
+ * Every count is a {@link LongAdder}, one per behavior and vehicle type. An adder spreads
+ * its updates over cells of its own when threads contend for it, so the counters can be
+ * updated from every thread of the parallel engine at once without a lock, and read or
+ * reset from yet another thread while they are. Code that counts very often from a single
+ * thread can keep a {@link Tally} instead, and add it to the counters now and then.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public final class BehaviorCounters {
+
+    /**
+     * The behaviors that are counted.
+     */
+    public enum Behavior {
+
+        /** A vehicle found nowhere else to go and turned around. */
+        REVERSED,
+
+        /** A vehicle could not pass into the square it chose. */
+        BLOCKED,
+
+        /** An ATV drew a random direction it could not take and drew again. */
+        REROLLED,
+
+        /** A vehicle died in a collision with a vehicle of shorter death time. */
+        COLLISION_LOST
+    }
+
+    /** The behaviors, indexed by ordinal. */
+    private static final Behavior[] BEHAVIORS = Behavior.values();
+
+    /** The vehicle types, indexed by ordinal. */
+    private static final VehicleType[] TYPES = VehicleType.values();
+
+    /**
+     * The counts, indexed by behavior ordinal times the number of types plus type ordinal.
+     */
+    private final LongAdder[] myAdders;
+
+    /**
+     * Constructs counters that all start at zero.
+     */
+    public BehaviorCounters() {
+        super();
+        myAdders = new LongAdder[BEHAVIORS.length * TYPES.length];
+        for (int i = 0; i < myAdders.length; i++) {
+            myAdders[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Counts one occurrence of a behavior by a type of vehicle. Safe to call from any
+     * thread.
+     *
+     * @param theBehavior the behavior
+     * @param theType the type of vehicle
+     */
+    public void increment(final Behavior theBehavior, final VehicleType theType) {
+        adder(theBehavior, theType).increment();
+    }
+
+    /**
+     * Counts several occurrences of a behavior by a type of vehicle. Safe to call from any
+     * thread.
+     *
+     * @param theBehavior the behavior
+     * @param theType the type of vehicle
+     * @param theCount the number of occurrences
+     */
+    public void add(final Behavior theBehavior, final VehicleType theType,
+                    final long theCount) {
+        adder(theBehavior, theType).add(theCount);
+    }
+
+    /**
+     * Returns the number of occurrences of a behavior by a type of vehicle since the
+     * counters were created or last reset.
+     *
+     * @param theBehavior the behavior
+     * @param theType the type of vehicle
+     * @return the count
+     */
+    public long get(final Behavior theBehavior, final VehicleType theType) {
+        return adder(theBehavior, theType).sum();
+    }
+
+    /**
+     * Returns every count as it stands. Counts made while the snapshot is taken may or may
+     * not be in it.
+     *
+     * @return the counts
+     */
+    public Counts snapshot() {
+        final long[] counts = new long[myAdders.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = myAdders[i].sum();
+        }
+        return new Counts(counts);
+    }
+
+    /**
+     * Returns every count as it stands and sets it back to zero. A count made while this
+     * runs is either in the snapshot or left in the counters for the next one, never lost
+     * and never in both.
+     *
+     * @return the counts since the counters were created or last reset
+     */
+    public Counts snapshotThenReset() {
+        final long[] counts = new long[myAdders.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = myAdders[i].sumThenReset();
+        }
+        return new Counts(counts);
+    }
+
+    /**
+     * Sets every count back to zero.
+     */
+    public void reset() {
+        snapshotThenReset();
+    }
+
+    /**
+     * Returns a new tally that adds to these counters.
+     *
+     * @return the tally, with every count at zero
+     */
+    public Tally tally() {
+        return new Tally(this);
+    }
+
+    /**
+     * Returns the adder of a behavior by a type of vehicle.
+     *
+     * @param theBehavior the behavior
+     * @param theType the type of vehicle
+     * @return the adder
+     */
+    private LongAdder adder(final Behavior theBehavior, final VehicleType theType) {
+        return myAdders[theBehavior.ordinal() * TYPES.length + theType.ordinal()];
+    }
+
+    /**
+     * Counts kept in a plain array by a single thread, and added to the counters only
+     * when flushed. Counting in a tally costs no more than incrementing an array element.
+     * A tally is not thread safe.
+     */
+    public static final class Tally {
+
+        /** The counters flushed to. */
+        private final BehaviorCounters myCounters;
+
+        /** The counts since the last flush, laid out as the counters' adders are. */
+        private final long[] myCounts;
+
+        /**
+         * Constructs a tally that adds to the given counters.
+         *
+         * @param theCounters the counters
+         */
+        private Tally(final BehaviorCounters theCounters) {
+            myCounters = theCounters;
+            myCounts = new long[theCounters.myAdders.length];
+        }
+
+        /**
+         * Counts one occurrence of a behavior by a type of vehicle.
+         *
+         * @param theBehavior the behavior
+         * @param theType the type of vehicle
+         */
+        public void increment(final Behavior theBehavior, final VehicleType theType) {
+            myCounts[theBehavior.ordinal() * TYPES.length + theType.ordinal()]++;
+        }
+
+        /**
+         * Adds the counts since the last flush to the counters, and starts again from
+         * zero.
+         */
+        public void flush() {
+            for (int i = 0; i < myCounts.length; i++) {
+                if (myCounts[i] != 0) {
+                    myCounters.myAdders[i].add(myCounts[i]);
+                    myCounts[i] = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * The counts of every behavior by every type of vehicle at one moment. Counts do not
+     * change once taken.
+     */
+    public static final class Counts {
+
+        /** The counts, laid out as the counters' adders are. */
+        private final long[] myCounts;
+
+        /**
+         * Constructs counts from the given values, which are not copied.
+         *
+         * @param theCounts the counts, laid out as the counters' adders are
+         */
+        private Counts(final long[] theCounts) {
+            myCounts = theCounts;
+        }
+
+        /**
+         * Returns the number of occurrences of a behavior by a type of vehicle.
+         *
+         * @param theBehavior the behavior
+         * @param theType the type of vehicle
+         * @return the count
+         */
+        public long get(final Behavior theBehavior, final VehicleType theType) {
+            return myCounts[theBehavior.ordinal() * TYPES.length + theType.ordinal()];
+        }
+
+        /**
+         * Returns the number of occurrences of a behavior by every type of vehicle.
+         *
+         * @param theBehavior the behavior
+         * @return the count
+         */
+        public long total(final Behavior theBehavior) {
+            final int from = theBehavior.ordinal() * TYPES.length;
+            return Arrays.stream(myCounts, from, from + TYPES.length).sum();
+        }
+    }
+}
@@ -89,7 +89,7 @@ public class Bicycle extends AbstractVehicle {
             }
         }
 
-        return chosenDirection;
+        return counted(chosenDirection);
     }
 
     /**
@@ -84,6 +84,6 @@ public class Car extends AbstractVehicle {
             chosenDirection = right;
         }
 
-        return chosenDirection;
+        return counted(chosenDirection);
     }
 }
@@ -4,7 +4,8 @@
 
 package edu.uw.tcss.model;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * An enumeration (and associated functionality) for directions in which a
@@ -40,9 +41,9 @@ public enum Direction {
     EAST('E');
 
     /**
-     * A Random that we use for generating random directions.
+     * The directions, indexed by ordinal.
      */
-    private static final Random RANDOM_GENERATOR = new Random();
+    private static final Direction[] VALUES = values();
 
     /**
      * The letter corresponding to a particular value of the enumeration.
@@ -126,12 +127,22 @@ public enum Direction {
     }
 
     /**
-     * Returns a random Direction.
+     * Returns a random Direction, chosen with the current thread's random generator.
      * 
      * @return a random Direction.
      */
     public static Direction random() {
-        return values()[RANDOM_GENERATOR.nextInt(values().length)];
+        return random(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Returns a random Direction, chosen with the given random generator.
+     * 
+     * @param theRandom The source of randomness.
+     * @return a random Direction.
+     */
+    public static Direction random(final RandomGenerator theRandom) {
+        return VALUES[theRandom.nextInt(VALUES.length)];
     }
 
     /**
@@ -1,10 +1,8 @@
 package edu.uw.tcss.model;
 
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 
 /**
  * Represents a Human vehicle in the city traffic simulation.
@@ -22,9 +20,6 @@ public class Human extends AbstractVehicle {
     /** The death time for a Human after a collision, measured in simulation cycles. */
     private static final int HUMAN_DEATH_TIME = 45;
 
-    /** Random instance for shuffling direction choices. */
-    private static final Random RANDOM = new Random();
-
     /**
      * Constructs a Human object with a specified initial position and direction.
      * <br />
@@ -82,7 +77,7 @@ public class Human extends AbstractVehicle {
         if (chosenDirection == getDirection().reverse()) {
             final List<Direction> directions = Arrays.asList(getDirection(),
                     getDirection().left(), getDirection().right());
-            Collections.shuffle(directions, RANDOM);
+            shuffle(directions);
 
             for (final Direction direction : directions) {
                 final Terrain terrain = theNeighbors.get(direction);
@@ -93,6 +88,6 @@ public class Human extends AbstractVehicle {
             }
         }
 
-        return chosenDirection;
+        return counted(chosenDirection);
     }
 }
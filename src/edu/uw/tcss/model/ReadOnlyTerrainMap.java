@@ -0,0 +1,72 @@
+package edu.uw.tcss.model;
+
+/**
+ * A view of another terrain map that cannot be used to change it. Changes made to the
+ * other map show through.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+final class ReadOnlyTerrainMap implements TerrainMap {
+
+    /** The map viewed. */
+    private final TerrainMap myMap;
+
+    /**
+     * Constructs a read-only view of a map.
+     *
+     * @param theMap the map to view
+     */
+    ReadOnlyTerrainMap(final TerrainMap theMap) {
+        super();
+        myMap = theMap;
+    }
+
+    @Override
+    public int getWidth() {
+        return myMap.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return myMap.getHeight();
+    }
+
+    @Override
+    public boolean contains(final int theX, final int theY) {
+        return myMap.contains(theX, theY);
+    }
+
+    @Override
+    public Terrain get(final int theX, final int theY) {
+        return myMap.get(theX, theY);
+    }
+
+    @Override
+    public int ordinal(final int theX, final int theY) {
+        return myMap.ordinal(theX, theY);
+    }
+
+    /**
+     * Always throws, since a view cannot change its map.
+     *
+     * @param theX the x-coordinate of the cell
+     * @param theY the y-coordinate of the cell
+     * @param theTerrain the terrain
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void set(final int theX, final int theY, final Terrain theTerrain) {
+        throw new UnsupportedOperationException("Read-only terrain map");
+    }
+
+    @Override
+    public TerrainMap copy() {
+        return myMap.copy();
+    }
+
+    @Override
+    public String toString() {
+        return "Read-only " + myMap;
+    }
+}
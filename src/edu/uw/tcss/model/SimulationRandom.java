@@ -0,0 +1,101 @@
+package edu.uw.tcss.model;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A small, fast, seedable source of random numbers for the simulation (the SplitMix64
+ * algorithm). Its whole state is a single long that can be read and restored, so a
+ * simulation can keep one independent stream per vehicle, save it, and replay it.
+ * <br />
+ * {@link #streamSeed(long, long)} derives the seed of any numbered stream of a simulation
+ * from the simulation's seed, so every vehicle gets the same stream no matter how many
+ * threads the simulation runs on or in which order the vehicles take their turns.
+ * A generator is not thread safe; give each thread or vehicle its own.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public final class SimulationRandom implements RandomGenerator {
+
+    /** The amount the state advances by for each number; the golden ratio in 64 bits. */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /** The first multiplier of the output mix. */
+    private static final long MIX_1 = 0xBF58476D1CE4E5B9L;
+
+    /** The second multiplier of the output mix. */
+    private static final long MIX_2 = 0x94D049BB133111EBL;
+
+    /** The first shift of the output mix. */
+    private static final int SHIFT_1 = 30;
+
+    /** The second shift of the output mix. */
+    private static final int SHIFT_2 = 27;
+
+    /** The third shift of the output mix. */
+    private static final int SHIFT_3 = 31;
+
+    /** The current state. */
+    private long myState;
+
+    /**
+     * Constructs a generator with the given seed. Generators with the same seed produce
+     * the same numbers.
+     *
+     * @param theSeed the seed
+     */
+    public SimulationRandom(final long theSeed) {
+        super();
+        myState = theSeed;
+    }
+
+    /**
+     * Returns the seed of one stream of a simulation. Streams with different numbers are
+     * statistically independent of one another.
+     *
+     * @param theSeed the seed of the simulation
+     * @param theStream the number of the stream, such as a vehicle's index
+     * @return the seed of the stream
+     */
+    public static long streamSeed(final long theSeed, final long theStream) {
+        return mix(theSeed + mix(theStream * GOLDEN_GAMMA + GOLDEN_GAMMA));
+    }
+
+    /**
+     * Returns the current state, from which {@link #setState(long)} resumes the same
+     * sequence of numbers.
+     *
+     * @return the state
+     */
+    public long getState() {
+        return myState;
+    }
+
+    /**
+     * Restores a state returned by {@link #getState()}.
+     *
+     * @param theState the state
+     */
+    public void setState(final long theState) {
+        myState = theState;
+    }
+
+    @Override
+    public long nextLong() {
+        myState += GOLDEN_GAMMA;
+        return mix(myState);
+    }
+
+    /**
+     * Scrambles the bits of a value.
+     *
+     * @param theValue the value
+     * @return the scrambled value
+     */
+    private static long mix(final long theValue) {
+        long z = theValue;
+        z = (z ^ z >>> SHIFT_1) * MIX_1;
+        z = (z ^ z >>> SHIFT_2) * MIX_2;
+        return z ^ z >>> SHIFT_3;
+    }
+}
@@ -38,6 +38,24 @@ public class Taxi extends AbstractVehicle {
         super(theX, theY, theDir, TAXI_DEATH_TIME);
     }
 
+    /**
+     * Returns the number of ticks this Taxi has waited at a red crosswalk.
+     *
+     * @return the wait counter
+     */
+    int getWaitCounter() {
+        return myWaitCounter;
+    }
+
+    /**
+     * Sets the number of ticks this Taxi has waited at a red crosswalk.
+     *
+     * @param theWaitCounter the new wait counter
+     */
+    void setWaitCounter(final int theWaitCounter) {
+        myWaitCounter = theWaitCounter;
+    }
+
     /**
      * Determines if the Taxi can pass through a given terrain and light condition.
      * <br />
@@ -97,7 +115,7 @@ public class Taxi extends AbstractVehicle {
             chosenDirection = right;
         }
 
-        return chosenDirection;
+        return counted(chosenDirection);
     }
 
     /**
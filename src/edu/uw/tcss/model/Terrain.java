@@ -83,6 +83,15 @@ public enum Terrain {
         return result;
     }
 
+    /**
+     * Returns the letter corresponding to this Terrain in a city map file.
+     * 
+     * @return the letter corresponding to this Terrain.
+     */
+    public char letter() {
+        return myLetter;
+    }
+
     /**
      * Returns a String representation of this Terrain, such as "WALL (X)".
      * 
@@ -0,0 +1,222 @@
+package edu.uw.tcss.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A rectangular map of terrain held in memory, stored compactly as one byte per cell.
+ * <br />
+ * Each cell holds the ordinal of its {@link Terrain}, in a single array in row-major
+ * order. A grid takes one byte per cell, where a {@code Terrain[][]} takes a reference
+ * per cell and an array object per row. Reading a row touches one contiguous block of
+ * memory.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public final class TerrainGrid implements TerrainMap {
+
+    /** The terrains, indexed by ordinal. */
+    private static final Terrain[] TERRAINS = Terrain.values();
+
+    /** The number of columns. */
+    private final int myWidth;
+
+    /** The number of rows. */
+    private final int myHeight;
+
+    /** The terrain ordinal of every cell, row by row. */
+    private final byte[] myCells;
+
+    /**
+     * Constructs a grid of the given size with every cell set to the first terrain,
+     * {@link Terrain#GRASS}.
+     *
+     * @param theWidth the number of columns
+     * @param theHeight the number of rows
+     * @throws IllegalArgumentException if a size is negative or the grid has too many
+     *         cells for one array
+     */
+    public TerrainGrid(final int theWidth, final int theHeight) {
+        super();
+        if (theWidth < 0 || theHeight < 0
+                || (long) theWidth * theHeight > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Unsupported grid size: " + theWidth + " by "
+                                               + theHeight);
+        }
+        myWidth = theWidth;
+        myHeight = theHeight;
+        myCells = new byte[theWidth * theHeight];
+    }
+
+    /**
+     * Constructs a copy of another grid.
+     *
+     * @param theOther the grid to copy
+     */
+    public TerrainGrid(final TerrainGrid theOther) {
+        super();
+        myWidth = theOther.myWidth;
+        myHeight = theOther.myHeight;
+        myCells = theOther.myCells.clone();
+    }
+
+    /**
+     * Returns a grid holding the same terrain as a 2D array indexed by row then column.
+     * Every row must be as long as the first.
+     *
+     * @param theGrid the 2D array
+     * @return the grid
+     * @throws IllegalArgumentException if the rows are not all the same length
+     */
+    public static TerrainGrid of(final Terrain[][] theGrid) {
+        int width = 0;
+        if (theGrid.length > 0) {
+            width = theGrid[0].length;
+        }
+        final TerrainGrid result = new TerrainGrid(width, theGrid.length);
+        for (int y = 0; y < theGrid.length; y++) {
+            if (theGrid[y].length != width) {
+                throw new IllegalArgumentException("Row " + y + " is not " + width
+                                                   + " cells long");
+            }
+            for (int x = 0; x < width; x++) {
+                result.set(x, y, theGrid[y][x]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int getWidth() {
+        return myWidth;
+    }
+
+    @Override
+    public int getHeight() {
+        return myHeight;
+    }
+
+    @Override
+    public boolean contains(final int theX, final int theY) {
+        return theX >= 0 && theX < myWidth && theY >= 0 && theY < myHeight;
+    }
+
+    @Override
+    public Terrain get(final int theX, final int theY) {
+        return TERRAINS[ordinal(theX, theY)];
+    }
+
+    @Override
+    public int ordinal(final int theX, final int theY) {
+        return myCells[index(theX, theY)];
+    }
+
+    @Override
+    public void set(final int theX, final int theY, final Terrain theTerrain) {
+        myCells[index(theX, theY)] = (byte) theTerrain.ordinal();
+    }
+
+    @Override
+    public TerrainGrid copy() {
+        return new TerrainGrid(this);
+    }
+
+    /**
+     * Puts the terrain ordinals of one row into a buffer, one byte per cell.
+     *
+     * @param theY the row
+     * @param theBuffer the buffer, which must have at least the width remaining
+     * @throws IndexOutOfBoundsException if the row is not on the grid
+     */
+    public void writeRow(final int theY, final ByteBuffer theBuffer) {
+        theBuffer.put(myCells, rowStart(theY), myWidth);
+    }
+
+    /**
+     * Takes the terrain ordinals of one row from a buffer, as put by
+     * {@link #writeRow(int, ByteBuffer)}.
+     *
+     * @param theY the row
+     * @param theBuffer the buffer, which must have at least the width remaining
+     * @throws IndexOutOfBoundsException if the row is not on the grid
+     * @throws IllegalArgumentException if a byte is not the ordinal of a terrain; the row
+     *         is then left part read
+     */
+    public void readRow(final int theY, final ByteBuffer theBuffer) {
+        final int start = rowStart(theY);
+        theBuffer.get(myCells, start, myWidth);
+        for (int i = start; i < start + myWidth; i++) {
+            final byte ordinal = myCells[i];
+            if (ordinal < 0 || ordinal >= TERRAINS.length) {
+                myCells[i] = 0;
+                throw new IllegalArgumentException("Not a terrain ordinal: " + ordinal);
+            }
+        }
+    }
+
+    /**
+     * Returns the terrain as a new 2D array indexed by row then column, for code that
+     * still works with one. The array takes far more memory than the grid.
+     *
+     * @return the 2D array
+     */
+    public Terrain[][] toArray() {
+        final Terrain[][] result = new Terrain[myHeight][myWidth];
+        for (int y = 0; y < myHeight; y++) {
+            for (int x = 0; x < myWidth; x++) {
+                result[y][x] = get(x, y);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(final Object theOther) {
+        return theOther instanceof TerrainGrid
+               && ((TerrainGrid) theOther).myWidth == myWidth
+               && ((TerrainGrid) theOther).myHeight == myHeight
+               && Arrays.equals(((TerrainGrid) theOther).myCells, myCells);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(myWidth, myHeight) ^ Arrays.hashCode(myCells);
+    }
+
+    @Override
+    public String toString() {
+        return "TerrainGrid[" + myWidth + " x " + myHeight + ']';
+    }
+
+    /**
+     * Returns the position of a cell in the array.
+     *
+     * @param theX the x-coordinate of the cell
+     * @param theY the y-coordinate of the cell
+     * @return the index
+     * @throws IndexOutOfBoundsException if the cell is not on the grid
+     */
+    private int index(final int theX, final int theY) {
+        if (!contains(theX, theY)) {
+            throw new IndexOutOfBoundsException("(" + theX + ", " + theY + ") is not on the "
+                                                + this);
+        }
+        return theY * myWidth + theX;
+    }
+
+    /**
+     * Returns the position of the first cell of a row in the array.
+     *
+     * @param theY the row
+     * @return the index
+     * @throws IndexOutOfBoundsException if the row is not on the grid
+     */
+    private int rowStart(final int theY) {
+        if (theY < 0 || theY >= myHeight) {
+            throw new IndexOutOfBoundsException(theY + " is not a row of the " + this);
+        }
+        return theY * myWidth;
+    }
+}
@@ -0,0 +1,88 @@
+package edu.uw.tcss.model;
+
+/**
+ * A rectangular map of terrain, however it is stored: in memory as a {@link TerrainGrid},
+ * or in a file that is read only where it is needed.
+ * <br />
+ * A map may be read from several threads at once, as long as none of them changes it.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public interface TerrainMap {
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return the width
+     */
+    int getWidth();
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the height
+     */
+    int getHeight();
+
+    /**
+     * Returns whether a position lies on the map.
+     *
+     * @param theX the x-coordinate
+     * @param theY the y-coordinate
+     * @return true if the position is on the map
+     */
+    default boolean contains(final int theX, final int theY) {
+        return theX >= 0 && theX < getWidth() && theY >= 0 && theY < getHeight();
+    }
+
+    /**
+     * Returns the terrain of a cell.
+     *
+     * @param theX the x-coordinate of the cell
+     * @param theY the y-coordinate of the cell
+     * @return the terrain
+     * @throws IndexOutOfBoundsException if the cell is not on the map
+     */
+    Terrain get(int theX, int theY);
+
+    /**
+     * Returns the ordinal of the terrain of a cell, without looking up the terrain.
+     *
+     * @param theX the x-coordinate of the cell
+     * @param theY the y-coordinate of the cell
+     * @return the terrain ordinal
+     * @throws IndexOutOfBoundsException if the cell is not on the map
+     */
+    int ordinal(int theX, int theY);
+
+    /**
+     * Sets the terrain of a cell (optional operation).
+     *
+     * @param theX the x-coordinate of the cell
+     * @param theY the y-coordinate of the cell
+     * @param theTerrain the terrain
+     * @throws IndexOutOfBoundsException if the cell is not on the map
+     * @throws UnsupportedOperationException if the map cannot be changed
+     */
+    void set(int theX, int theY, Terrain theTerrain);
+
+    /**
+     * Returns a map with the same terrain that later changes to this map do not affect.
+     * A map that cannot be changed may return itself.
+     *
+     * @return the copy
+     */
+    TerrainMap copy();
+
+    /**
+     * Returns a view of a map that cannot be used to change it. Changes made to the map
+     * itself show through the view, so nothing is copied.
+     *
+     * @param theMap the map
+     * @return the view
+     */
+    static TerrainMap readOnly(final TerrainMap theMap) {
+        return new ReadOnlyTerrainMap(theMap);
+    }
+}
@@ -1,10 +1,8 @@
 package edu.uw.tcss.model;
 
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 
 /**
  * Represents a Truck vehicle in the city traffic simulation.
@@ -24,9 +22,6 @@ public class Truck extends AbstractVehicle {
     /** The death time for a Truck after a collision, measured in simulation cycles. */
     private static final int TRUCK_DEATH_TIME = 0;
 
-    /** Random instance for shuffling direction choices. */
-    private static final Random RANDOM = new Random();
-
     /**
      * Constructs a Truck object with a specified initial position and direction.
      * <br />
@@ -76,7 +71,7 @@ public class Truck extends AbstractVehicle {
     public Direction chooseDirection(final Map<Direction, Terrain> theNeighbors) {
         final List<Direction> directions = Arrays.asList(getDirection(),
                 getDirection().left(), getDirection().right());
-        Collections.shuffle(directions, RANDOM);
+        shuffle(directions);
 
         Direction chosenDirection = getDirection().reverse();
 
@@ -89,7 +84,7 @@ public class Truck extends AbstractVehicle {
             }
         }
 
-        return chosenDirection;
+        return counted(chosenDirection);
     }
 
     /**
@@ -5,6 +5,7 @@
 package edu.uw.tcss.model;
 
 import java.util.Map;
+import java.util.random.RandomGenerator;
 
 /**
  * An interface for objects that can move in four directions.
@@ -105,6 +106,26 @@ public interface Vehicle {
      */
     void setDirection(Direction theDir);
 
+    /**
+     * Gives this object the source of randomness to make its random choices with.
+     * Objects that make no random choices ignore it.
+     * 
+     * @param theRandom The source of randomness.
+     */
+    default void setRandom(final RandomGenerator theRandom) {
+        // no random choices to make
+    }
+
+    /**
+     * Gives this object the counters to record its costlier behaviors in. Objects whose
+     * behaviors are all counted by the simulation ignore it.
+     * 
+     * @param theCounters The counters.
+     */
+    default void setCounters(final BehaviorCounters theCounters) {
+        // nothing to count
+    }
+
     /**
      * Sets this object's x-coordinate to the given value.
      * 
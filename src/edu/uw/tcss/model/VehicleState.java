@@ -0,0 +1,274 @@
+package edu.uw.tcss.model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The complete state of one vehicle at one moment, and its fixed-size binary form for
+ * simulation checkpoints.
+ * <br />
+ * A state can be copied from a vehicle or from a slot of a {@link VehicleStore}, written
+ * to and read from a buffer, and applied to a vehicle or slot of the same type. One state
+ * object is meant to be reused for every vehicle of a checkpoint, so saving and loading
+ * allocate nothing per vehicle.
+ * <br />
+ * The binary form is, in order: type ordinal (byte), x (int), y (int), direction ordinal
+ * (byte), alive (byte), death counter (short), wait counter (byte) and random stream
+ * state (long).
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public final class VehicleState {
+
+    /** The number of bytes in the binary form of a state. */
+    public static final int BYTES = Byte.BYTES + Integer.BYTES + Integer.BYTES + Byte.BYTES
+                                    + Byte.BYTES + Short.BYTES + Byte.BYTES + Long.BYTES;
+
+    /** The directions, indexed by ordinal. */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /** The vehicle types, indexed by ordinal. */
+    private static final VehicleType[] TYPES = VehicleType.values();
+
+    /** The type of the vehicle. */
+    private VehicleType myType;
+
+    /** The x-coordinate of the vehicle. */
+    private int myX;
+
+    /** The y-coordinate of the vehicle. */
+    private int myY;
+
+    /** The direction the vehicle is facing. */
+    private Direction myDirection;
+
+    /** Whether the vehicle is alive. */
+    private boolean myAlive;
+
+    /** Cycles since the vehicle died. */
+    private int myDeathCounter;
+
+    /** Ticks a Taxi has waited at a red crosswalk; 0 for other types. */
+    private int myWaitCounter;
+
+    /** The state of the vehicle's random stream. */
+    private long myRandomState;
+
+    /**
+     * Returns the type of the vehicle.
+     *
+     * @return the type
+     */
+    public VehicleType getType() {
+        return myType;
+    }
+
+    /**
+     * Returns the x-coordinate of the vehicle.
+     *
+     * @return the x-coordinate
+     */
+    public int getX() {
+        return myX;
+    }
+
+    /**
+     * Returns the y-coordinate of the vehicle.
+     *
+     * @return the y-coordinate
+     */
+    public int getY() {
+        return myY;
+    }
+
+    /**
+     * Returns the direction the vehicle is facing.
+     *
+     * @return the direction
+     */
+    public Direction getDirection() {
+        return myDirection;
+    }
+
+    /**
+     * Returns whether the vehicle is alive.
+     *
+     * @return true if the vehicle is alive
+     */
+    public boolean isAlive() {
+        return myAlive;
+    }
+
+    /**
+     * Returns the number of cycles since the vehicle died.
+     *
+     * @return the death counter
+     */
+    public int getDeathCounter() {
+        return myDeathCounter;
+    }
+
+    /**
+     * Returns the number of ticks a Taxi has waited at a red crosswalk.
+     *
+     * @return the wait counter; 0 for other types
+     */
+    public int getWaitCounter() {
+        return myWaitCounter;
+    }
+
+    /**
+     * Returns the state of the vehicle's random stream.
+     *
+     * @return the random stream state
+     */
+    public long getRandomState() {
+        return myRandomState;
+    }
+
+    /**
+     * Sets every part of this state.
+     *
+     * @param theType the type of the vehicle
+     * @param theX the x-coordinate
+     * @param theY the y-coordinate
+     * @param theDir the direction the vehicle is facing
+     * @param theAlive whether the vehicle is alive
+     * @param theDeathCounter the cycles since the vehicle died
+     * @param theWaitCounter the ticks a Taxi has waited at a red crosswalk
+     * @param theRandomState the state of the vehicle's random stream
+     */
+    void set(final VehicleType theType, final int theX, final int theY,
+             final Direction theDir, final boolean theAlive, final int theDeathCounter,
+             final int theWaitCounter, final long theRandomState) {
+        myType = theType;
+        myX = theX;
+        myY = theY;
+        myDirection = theDir;
+        myAlive = theAlive;
+        myDeathCounter = theDeathCounter;
+        myWaitCounter = theWaitCounter;
+        myRandomState = theRandomState;
+    }
+
+    /**
+     * Copies the state of a vehicle. The vehicle is left exactly as it was.
+     *
+     * @param theVehicle the vehicle
+     * @throws IllegalArgumentException if the vehicle is not one of the known types, or
+     *         its random choices do not come from a {@link SimulationRandom}
+     */
+    public void copyFrom(final Vehicle theVehicle) {
+        final AbstractVehicle source = checkType(theVehicle);
+        if (!(source.getRandom() instanceof SimulationRandom)) {
+            // its state cannot be read without drawing from it
+            throw new IllegalArgumentException("Vehicle has no seeded random stream: "
+                                               + theVehicle);
+        }
+        myType = VehicleType.of(source);
+        myX = source.getX();
+        myY = source.getY();
+        myDirection = source.getDirection();
+        myAlive = source.isAlive();
+        myDeathCounter = source.getDeathCounter();
+        myWaitCounter = 0;
+        if (source instanceof Taxi) {
+            myWaitCounter = ((Taxi) source).getWaitCounter();
+        }
+        myRandomState = ((SimulationRandom) source.getRandom()).getState();
+    }
+
+    /**
+     * Gives a vehicle this state. The vehicle keeps its initial position and direction.
+     *
+     * @param theVehicle the vehicle
+     * @throws IllegalArgumentException if the vehicle is not of this state's type
+     */
+    public void applyTo(final Vehicle theVehicle) {
+        final AbstractVehicle target = checkType(theVehicle);
+        if (VehicleType.of(target) != myType) {
+            throw new IllegalArgumentException("Expected a " + myType + ": " + theVehicle);
+        }
+        target.setX(myX);
+        target.setY(myY);
+        target.setDirection(myDirection);
+        target.setAlive(myAlive);
+        target.setDeathCounter(myDeathCounter);
+        if (target instanceof Taxi) {
+            ((Taxi) target).setWaitCounter(myWaitCounter);
+        }
+        if (target.getRandom() instanceof SimulationRandom) {
+            ((SimulationRandom) target.getRandom()).setState(myRandomState);
+        } else {
+            target.setRandom(new SimulationRandom(myRandomState));
+        }
+    }
+
+    /**
+     * Writes the binary form of this state at the buffer's position, which must have at
+     * least {@link #BYTES} remaining.
+     *
+     * @param theBuffer the buffer
+     */
+    public void write(final ByteBuffer theBuffer) {
+        theBuffer.put((byte) myType.ordinal());
+        theBuffer.putInt(myX);
+        theBuffer.putInt(myY);
+        theBuffer.put((byte) myDirection.ordinal());
+        byte alive = 0;
+        if (myAlive) {
+            alive = 1;
+        }
+        theBuffer.put(alive);
+        theBuffer.putShort((short) myDeathCounter);
+        theBuffer.put((byte) myWaitCounter);
+        theBuffer.putLong(myRandomState);
+    }
+
+    /**
+     * Reads the binary form of a state from the buffer's position, which must have at
+     * least {@link #BYTES} remaining.
+     *
+     * @param theBuffer the buffer
+     * @throws IllegalArgumentException if the type or direction is out of range
+     */
+    public void read(final ByteBuffer theBuffer) {
+        myType = TYPES[checkOrdinal(theBuffer.get(), TYPES.length)];
+        myX = theBuffer.getInt();
+        myY = theBuffer.getInt();
+        myDirection = DIRECTIONS[checkOrdinal(theBuffer.get(), DIRECTIONS.length)];
+        myAlive = theBuffer.get() != 0;
+        myDeathCounter = theBuffer.getShort();
+        myWaitCounter = theBuffer.get();
+        myRandomState = theBuffer.getLong();
+    }
+
+    /**
+     * Returns a vehicle as an AbstractVehicle of one of the known types.
+     *
+     * @param theVehicle the vehicle
+     * @return the same vehicle
+     * @throws IllegalArgumentException if the vehicle is not one of the known types
+     */
+    private static AbstractVehicle checkType(final Vehicle theVehicle) {
+        if (VehicleType.of(theVehicle) == null || !(theVehicle instanceof AbstractVehicle)) {
+            throw new IllegalArgumentException("Unsupported vehicle: " + theVehicle);
+        }
+        return (AbstractVehicle) theVehicle;
+    }
+
+    /**
+     * Checks that an ordinal read from a buffer is in range.
+     *
+     * @param theOrdinal the ordinal
+     * @param theCount the number of constants
+     * @return the ordinal
+     * @throws IllegalArgumentException if the ordinal is out of range
+     */
+    private static int checkOrdinal(final byte theOrdinal, final int theCount) {
+        if (theOrdinal < 0 || theOrdinal >= theCount) {
+            throw new IllegalArgumentException("Ordinal out of range: " + theOrdinal);
+        }
+        return theOrdinal;
+    }
+}
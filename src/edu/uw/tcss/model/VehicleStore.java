@@ -0,0 +1,626 @@
+package edu.uw.tcss.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stores the state of many vehicles in parallel primitive arrays, one slot per vehicle.
+ * <br />
+ * Walking the arrays touches a few contiguous blocks of memory instead of one heap object
+ * per vehicle. Movement rules are not duplicated here: a single prototype of each vehicle
+ * type is loaded with a slot's state and asked to choose a direction or test a terrain,
+ * so a store behaves exactly like the equivalent list of vehicle objects.
+ * <br />
+ * Each slot is also available as a lightweight {@link Vehicle} view, for code such as
+ * the GUI that works with vehicles one at a time. The views are created with the store,
+ * so handing them out allocates nothing. Every slot has its own stream of random
+ * numbers, kept as the state of a {@link SimulationRandom}. A store is not thread safe.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public final class VehicleStore {
+
+    /** The directions, indexed by ordinal. */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /** The vehicle types, indexed by ordinal. */
+    private static final VehicleType[] TYPES = VehicleType.values();
+
+    /** The image file names of live vehicles, indexed by type ordinal. */
+    private static final String[] ALIVE_IMAGES = new String[TYPES.length];
+
+    /** The image file names of dead vehicles, indexed by type ordinal. */
+    private static final String[] DEAD_IMAGES = new String[TYPES.length];
+
+    static {
+        for (final VehicleType type : TYPES) {
+            final String baseName = type.name().toLowerCase();
+            ALIVE_IMAGES[type.ordinal()] = baseName + ".gif";
+            DEAD_IMAGES[type.ordinal()] = baseName + "_dead.gif";
+        }
+    }
+
+    /** Current x-coordinate of each vehicle. */
+    private final int[] myX;
+
+    /** Current y-coordinate of each vehicle. */
+    private final int[] myY;
+
+    /** Ordinal of the direction each vehicle is facing. */
+    private final byte[] myDirection;
+
+    /** The status of each vehicle; true if alive, false if dead. */
+    private final boolean[] myAlive;
+
+    /** Cycles since each vehicle died. */
+    private final short[] myDeathCounter;
+
+    /** Ordinal of the type of each vehicle. */
+    private final byte[] myType;
+
+    /** Ticks each Taxi has waited at a red crosswalk; unused for other types. */
+    private final byte[] myWaitCounter;
+
+    /** Initial x-coordinate of each vehicle, used for resetting. */
+    private final int[] myInitialX;
+
+    /** Initial y-coordinate of each vehicle, used for resetting. */
+    private final int[] myInitialY;
+
+    /** Ordinal of the initial direction of each vehicle, used for resetting. */
+    private final byte[] myInitialDirection;
+
+    /** The random stream state of each vehicle. */
+    private long[] myRandomState;
+
+    /** The view of each slot. */
+    private final View[] myViews;
+
+    /** A read-only list of the views, in slot order. */
+    private final List<Vehicle> myViewList;
+
+    /** The counters collisions lost are recorded in; null if none. */
+    private BehaviorCounters myCounters;
+
+    /** The generator the prototypes use, loaded with a slot's random stream state. */
+    private final SimulationRandom myRandom = new SimulationRandom(0);
+
+    /** One vehicle of each type, loaded with a slot's state to run its movement rules. */
+    private final AbstractVehicle[] myPrototypes = createPrototypes(myRandom);
+
+    /**
+     * Constructs a store holding a copy of the state of the given vehicles, in order.
+     * The random streams are seeded unpredictably until {@link #seed(long)} is called.
+     *
+     * @param theVehicles the vehicles to copy
+     * @throws IllegalArgumentException if a vehicle is not one of the known types
+     */
+    public VehicleStore(final List<? extends Vehicle> theVehicles) {
+        this(theVehicles.size());
+        myRandomState = new long[theVehicles.size()];
+        for (int i = 0; i < theVehicles.size(); i++) {
+            copy(i, theVehicles.get(i));
+        }
+        seed(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Constructs a store with room for the given number of vehicles.
+     *
+     * @param theSize the number of vehicles
+     */
+    private VehicleStore(final int theSize) {
+        myX = new int[theSize];
+        myY = new int[theSize];
+        myDirection = new byte[theSize];
+        myAlive = new boolean[theSize];
+        myDeathCounter = new short[theSize];
+        myType = new byte[theSize];
+        myWaitCounter = new byte[theSize];
+        myInitialX = new int[theSize];
+        myInitialY = new int[theSize];
+        myInitialDirection = new byte[theSize];
+        myViews = new View[theSize];
+        for (int i = 0; i < theSize; i++) {
+            myViews[i] = new View(i);
+        }
+        myViewList = Collections.unmodifiableList(Arrays.asList(myViews));
+    }
+
+    /**
+     * Returns the number of bytes of array storage used for each vehicle.
+     *
+     * @return the bytes per vehicle
+     */
+    public static int bytesPerVehicle() {
+        // x, y, initial x, initial y; direction, type, wait, initial direction; counter;
+        // alive; random state
+        final int ints = 4;
+        final int bytes = 4;
+        return Integer.BYTES * ints + Byte.BYTES * bytes + Short.BYTES + 1 + Long.BYTES;
+    }
+
+    /**
+     * Returns the number of vehicles in the store.
+     *
+     * @return the number of vehicles
+     */
+    public int size() {
+        return myX.length;
+    }
+
+    /**
+     * Returns the x-coordinate of a vehicle.
+     *
+     * @param theIndex the slot of the vehicle
+     * @return the current x-coordinate
+     */
+    public int getX(final int theIndex) {
+        return myX[theIndex];
+    }
+
+    /**
+     * Returns the y-coordinate of a vehicle.
+     *
+     * @param theIndex the slot of the vehicle
+     * @return the current y-coordinate
+     */
+    public int getY(final int theIndex) {
+        return myY[theIndex];
+    }
+
+    /**
+     * Moves a vehicle to the given coordinates.
+     *
+     * @param theIndex the slot of the vehicle
+     * @param theX the new x-coordinate
+     * @param theY the new y-coordinate
+     */
+    public void setPosition(final int theIndex, final int theX, final int theY) {
+        myX[theIndex] = theX;
+        myY[theIndex] = theY;
+    }
+
+    /**
+     * Returns the direction a vehicle is facing.
+     *
+     * @param theIndex the slot of the vehicle
+     * @return the current direction
+     */
+    public Direction getDirection(final int theIndex) {
+        return DIRECTIONS[myDirection[theIndex]];
+    }
+
+    /**
+     * Sets the direction a vehicle is facing.
+     *
+     * @param theIndex the slot of the vehicle
+     * @param theDir the new direction
+     */
+    public void setDirection(final int theIndex, final Direction theDir) {
+        myDirection[theIndex] = (byte) theDir.ordinal();
+    }
+
+    /**
+     * Returns whether a vehicle is alive.
+     *
+     * @param theIndex the slot of the vehicle
+     * @return true if the vehicle is alive; false otherwise
+     */
+    public boolean isAlive(final int theIndex) {
+        return myAlive[theIndex];
+    }
+
+    /**
+     * Returns the type of a vehicle.
+     *
+     * @param theIndex the slot of the vehicle
+     * @return the vehicle's type
+     */
+    public VehicleType getType(final int theIndex) {
+        return TYPES[myType[theIndex]];
+    }
+
+    /**
+     * Returns the death time of a vehicle.
+     *
+     * @param theIndex the slot of the vehicle
+     * @return the number of cycles the vehicle stays dead
+     */
+    public int getDeathTime(final int theIndex) {
+        return TYPES[myType[theIndex]].getDeathTime();
+    }
+
+    /**
+     * Returns the image file name for a vehicle, such as "car.gif".
+     *
+     * @param theIndex the slot of the vehicle
+     * @return the image file name
+     */
+    public String getImageFileName(final int theIndex) {
+        final String[] names;
+        if (myAlive[theIndex]) {
+            names = ALIVE_IMAGES;
+        } else {
+            names = DEAD_IMAGES;
+        }
+        return names[myType[theIndex]];
+    }
+
+    /**
+     * Chooses the direction a vehicle would like to move, using the rules of its type.
+     *
+     * @param theIndex the slot of the vehicle
+     * @param theNeighbors a map of the neighboring terrains in each direction
+     * @return the chosen direction
+     */
+    public Direction chooseDirection(final int theIndex,
+                                     final Map<Direction, Terrain> theNeighbors) {
+        final AbstractVehicle prototype = myPrototypes[myType[theIndex]];
+        prototype.setDirection(DIRECTIONS[myDirection[theIndex]]);
+        myRandom.setState(myRandomState[theIndex]);
+        final Direction result = prototype.chooseDirection(theNeighbors);
+        myRandomState[theIndex] = myRandom.getState();
+        return result;
+    }
+
+    /**
+     * Determines whether a vehicle may move onto the given terrain, using the rules of
+     * its type.
+     *
+     * @param theIndex the slot of the vehicle
+     * @param theTerrain the terrain
+     * @param theLight the current light condition
+     * @return true if the vehicle can pass, false otherwise
+     */
+    public boolean canPass(final int theIndex, final Terrain theTerrain,
+                           final Light theLight) {
+        final AbstractVehicle prototype = myPrototypes[myType[theIndex]];
+        final boolean result;
+        if (prototype instanceof Taxi) {
+            final Taxi taxi = (Taxi) prototype;
+            taxi.setWaitCounter(myWaitCounter[theIndex]);
+            result = taxi.canPass(theTerrain, theLight);
+            myWaitCounter[theIndex] = (byte) taxi.getWaitCounter();
+        } else {
+            result = prototype.canPass(theTerrain, theLight);
+        }
+        return result;
+    }
+
+    /**
+     * Handles a collision of one vehicle with another, following the same rule as
+     * {@link AbstractVehicle#collide(Vehicle)}.
+     *
+     * @param theIndex the slot of the vehicle being told about the collision
+     * @param theOther the slot of the other vehicle
+     */
+    public void collide(final int theIndex, final int theOther) {
+        if (myAlive[theIndex] && myAlive[theOther]
+                && getDeathTime(theIndex) > getDeathTime(theOther)) {
+            loseCollision(theIndex);
+        }
+    }
+
+    /**
+     * Kills a vehicle that has lost a collision and counts the loss.
+     *
+     * @param theIndex the slot of the vehicle
+     */
+    private void loseCollision(final int theIndex) {
+        myAlive[theIndex] = false;
+        if (myCounters != null) {
+            myCounters.increment(BehaviorCounters.Behavior.COLLISION_LOST, getType(theIndex));
+        }
+    }
+
+    /**
+     * Advances a dead vehicle's death counter and revives it if necessary, following the
+     * same rule as {@link AbstractVehicle#poke()}.
+     *
+     * @param theIndex the slot of the vehicle
+     */
+    public void poke(final int theIndex) {
+        if (!myAlive[theIndex]) {
+            myDeathCounter[theIndex]++;
+            if (myDeathCounter[theIndex] >= getDeathTime(theIndex)) {
+                myAlive[theIndex] = true;
+                myRandom.setState(myRandomState[theIndex]);
+                myDirection[theIndex] = (byte) Direction.random(myRandom).ordinal();
+                myRandomState[theIndex] = myRandom.getState();
+                myDeathCounter[theIndex] = 0;
+            }
+        }
+    }
+
+    /**
+     * Resets every vehicle to its initial position, direction and alive status.
+     */
+    public void reset() {
+        for (int i = 0; i < myX.length; i++) {
+            reset(i);
+        }
+    }
+
+    /**
+     * Resets a vehicle to its initial position, direction and alive status.
+     *
+     * @param theIndex the slot of the vehicle
+     */
+    public void reset(final int theIndex) {
+        myX[theIndex] = myInitialX[theIndex];
+        myY[theIndex] = myInitialY[theIndex];
+        myDirection[theIndex] = myInitialDirection[theIndex];
+        myAlive[theIndex] = true;
+        myDeathCounter[theIndex] = 0;
+    }
+
+    /**
+     * Seeds the random stream of every vehicle. Each slot's stream depends only on the
+     * seed and the slot, as {@link SimulationRandom#streamSeed(long, long)} describes.
+     *
+     * @param theSeed the seed of the simulation
+     */
+    public void seed(final long theSeed) {
+        for (int i = 0; i < myRandomState.length; i++) {
+            myRandomState[i] = SimulationRandom.streamSeed(theSeed, i);
+        }
+    }
+
+    /**
+     * Sets the counters every vehicle records its costlier behaviors in.
+     *
+     * @param theCounters the counters
+     */
+    public void setCounters(final BehaviorCounters theCounters) {
+        myCounters = theCounters;
+        for (final AbstractVehicle prototype : myPrototypes) {
+            prototype.setCounters(theCounters);
+        }
+    }
+
+    /**
+     * Copies the state of a slot, including its random stream.
+     *
+     * @param theIndex the slot of the vehicle
+     * @param theState the state to copy into
+     */
+    public void getState(final int theIndex, final VehicleState theState) {
+        theState.set(TYPES[myType[theIndex]], myX[theIndex], myY[theIndex],
+                     DIRECTIONS[myDirection[theIndex]], myAlive[theIndex],
+                     myDeathCounter[theIndex], myWaitCounter[theIndex],
+                     myRandomState[theIndex]);
+    }
+
+    /**
+     * Gives a slot the given state. The slot keeps its initial position and direction.
+     *
+     * @param theIndex the slot of the vehicle
+     * @param theState the state
+     * @throws IllegalArgumentException if the slot does not hold a vehicle of the state's
+     *         type
+     */
+    public void setState(final int theIndex, final VehicleState theState) {
+        if (theState.getType().ordinal() != myType[theIndex]) {
+            throw new IllegalArgumentException("Expected a " + TYPES[myType[theIndex]]
+                                               + " in slot " + theIndex);
+        }
+        myX[theIndex] = theState.getX();
+        myY[theIndex] = theState.getY();
+        myDirection[theIndex] = (byte) theState.getDirection().ordinal();
+        myAlive[theIndex] = theState.isAlive();
+        myDeathCounter[theIndex] = (short) theState.getDeathCounter();
+        myWaitCounter[theIndex] = (byte) theState.getWaitCounter();
+        myRandomState[theIndex] = theState.getRandomState();
+    }
+
+    /**
+     * Creates one vehicle of each type, indexed by type ordinal.
+     *
+     * @param theRandom the source of randomness for the prototypes
+     * @return the prototypes
+     */
+    private static AbstractVehicle[] createPrototypes(final SimulationRandom theRandom) {
+        final AbstractVehicle[] result = new AbstractVehicle[TYPES.length];
+        for (final VehicleType type : TYPES) {
+            result[type.ordinal()] = type.create(0, 0, Direction.NORTH);
+            result[type.ordinal()].setRandom(theRandom);
+        }
+        return result;
+    }
+
+    /**
+     * Copies the state of a vehicle into a slot.
+     *
+     * @param theIndex the slot
+     * @param theVehicle the vehicle to copy
+     * @throws IllegalArgumentException if the vehicle is not one of the known types
+     */
+    private void copy(final int theIndex, final Vehicle theVehicle) {
+        final VehicleType type = VehicleType.of(theVehicle);
+        if (type == null || !(theVehicle instanceof AbstractVehicle)) {
+            throw new IllegalArgumentException("Unsupported vehicle: " + theVehicle);
+        }
+        final AbstractVehicle source = (AbstractVehicle) theVehicle;
+        myType[theIndex] = (byte) type.ordinal();
+        myX[theIndex] = source.getX();
+        myY[theIndex] = source.getY();
+        myDirection[theIndex] = (byte) source.getDirection().ordinal();
+        myAlive[theIndex] = source.isAlive();
+        myDeathCounter[theIndex] = (short) source.getDeathCounter();
+        myInitialX[theIndex] = source.getInitialX();
+        myInitialY[theIndex] = source.getInitialY();
+        myInitialDirection[theIndex] = (byte) source.getInitialDirection().ordinal();
+        if (source instanceof Taxi) {
+            myWaitCounter[theIndex] = (byte) ((Taxi) source).getWaitCounter();
+        }
+    }
+
+    /**
+     * Returns the view of a single slot as a Vehicle.
+     *
+     * @param theIndex the slot of the vehicle
+     * @return a Vehicle backed by the slot, the same one every time
+     */
+    public Vehicle view(final int theIndex) {
+        return myViews[theIndex];
+    }
+
+    /**
+     * Returns a read-only list of the views of every slot, in order. The list and its
+     * views are the same every time.
+     *
+     * @return the vehicles in the store
+     */
+    public List<Vehicle> views() {
+        return myViewList;
+    }
+
+    /**
+     * A Vehicle backed by one slot of the store. Reads and writes go straight to the
+     * store's arrays, so a view always reflects the current state of its slot.
+     */
+    public final class View implements Vehicle {
+
+        /** The slot this view is backed by. */
+        private final int myIndex;
+
+        /**
+         * Constructs a view of the given slot.
+         *
+         * @param theIndex the slot
+         */
+        private View(final int theIndex) {
+            myIndex = theIndex;
+        }
+
+        /**
+         * Returns the slot this view is backed by.
+         *
+         * @return the slot
+         */
+        public int getIndex() {
+            return myIndex;
+        }
+
+        /**
+         * Returns the type of the vehicle in this slot.
+         *
+         * @return the vehicle type
+         */
+        public VehicleType getType() {
+            return VehicleStore.this.getType(myIndex);
+        }
+
+        @Override
+        public boolean canPass(final Terrain theTerrain, final Light theLight) {
+            return VehicleStore.this.canPass(myIndex, theTerrain, theLight);
+        }
+
+        @Override
+        public Direction chooseDirection(final Map<Direction, Terrain> theNeighbors) {
+            return VehicleStore.this.chooseDirection(myIndex, theNeighbors);
+        }
+
+        @Override
+        public void collide(final Vehicle theOther) {
+            if (isAlive() && theOther.isAlive() && getDeathTime() > theOther.getDeathTime()) {
+                loseCollision(myIndex);
+            }
+        }
+
+        @Override
+        public int getDeathTime() {
+            return VehicleStore.this.getDeathTime(myIndex);
+        }
+
+        @Override
+        public String getImageFileName() {
+            return VehicleStore.this.getImageFileName(myIndex);
+        }
+
+        @Override
+        public Direction getDirection() {
+            return VehicleStore.this.getDirection(myIndex);
+        }
+
+        @Override
+        public int getX() {
+            return myX[myIndex];
+        }
+
+        @Override
+        public int getY() {
+            return myY[myIndex];
+        }
+
+        @Override
+        public boolean isAlive() {
+            return myAlive[myIndex];
+        }
+
+        @Override
+        public void poke() {
+            VehicleStore.this.poke(myIndex);
+        }
+
+        @Override
+        public void reset() {
+            VehicleStore.this.reset(myIndex);
+        }
+
+        @Override
+        public void setDirection(final Direction theDir) {
+            VehicleStore.this.setDirection(myIndex, theDir);
+        }
+
+        @Override
+        public void setX(final int theX) {
+            myX[myIndex] = theX;
+        }
+
+        @Override
+        public void setY(final int theY) {
+            myY[myIndex] = theY;
+        }
+
+        @Override
+        public boolean equals(final Object theOther) {
+            return theOther instanceof View
+                    && ((View) theOther).store() == VehicleStore.this
+                    && ((View) theOther).myIndex == myIndex;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(VehicleStore.this) * 31 + myIndex;
+        }
+
+        @Override
+        public String toString() {
+            final String className = getType().name().charAt(0)
+                    + getType().name().substring(1).toLowerCase();
+            final String status;
+            if (isAlive()) {
+                status = ", alive";
+            } else {
+                status = ", dead";
+            }
+            return className + " at (" + getX() + "," + getY() + "), facing "
+                    + getDirection() + status;
+        }
+
+        /**
+         * Returns the store this view belongs to.
+         *
+         * @return the store
+         */
+        private VehicleStore store() {
+            return VehicleStore.this;
+        }
+    }
+}
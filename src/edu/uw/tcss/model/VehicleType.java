@@ -0,0 +1,140 @@
+package edu.uw.tcss.model;
+
+/**
+ * An enumeration of the concrete kinds of vehicle in the city traffic simulation.
+ * <br />
+ * Each type knows the letter used for it in a city map file, how to construct a
+ * vehicle of that kind, and the death time shared by every vehicle of that kind.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+public enum VehicleType {
+
+    /** An All-Terrain Vehicle. */
+    ATV('A'),
+
+    /** A Bicycle. */
+    BICYCLE('B'),
+
+    /** A Car. */
+    CAR('C'),
+
+    /** A Human. */
+    HUMAN('H'),
+
+    /** A Taxi. */
+    TAXI('X'),
+
+    /** A Truck. */
+    TRUCK('T');
+
+    /** The death time of every vehicle of each type, indexed by ordinal. */
+    private static final int[] DEATH_TIMES = new int[values().length];
+
+    static {
+        for (final VehicleType type : values()) {
+            DEATH_TIMES[type.ordinal()] = type.create(0, 0, Direction.NORTH).getDeathTime();
+        }
+    }
+
+    /** The letter used for this type in a city map file. */
+    private final char myLetter;
+
+    /**
+     * Constructs a VehicleType with the specified map letter.
+     *
+     * @param theLetter the letter used for this type in a city map file
+     */
+    VehicleType(final char theLetter) {
+        myLetter = theLetter;
+    }
+
+    /**
+     * Returns the VehicleType represented by the given map letter.
+     *
+     * @param theLetter the letter
+     * @return the VehicleType represented by the letter, or null if there is none
+     */
+    public static VehicleType valueOf(final char theLetter) {
+        VehicleType result = null;
+
+        for (final VehicleType type : values()) {
+            if (type.myLetter == theLetter) {
+                result = type;
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the VehicleType of the given vehicle.
+     *
+     * @param theVehicle the vehicle
+     * @return the type of the vehicle, or null if it is not one of the known kinds
+     */
+    public static VehicleType of(final Vehicle theVehicle) {
+        final VehicleType result;
+
+        // views are tested last: until a view class is loaded, Vehicle has one
+        // implementation, and the JIT can inline every call made through it
+        if (theVehicle instanceof Atv) {
+            result = ATV;
+        } else if (theVehicle instanceof Bicycle) {
+            result = BICYCLE;
+        } else if (theVehicle instanceof Car) {
+            result = CAR;
+        } else if (theVehicle instanceof Human) {
+            result = HUMAN;
+        } else if (theVehicle instanceof Taxi) {
+            result = TAXI;
+        } else if (theVehicle instanceof Truck) {
+            result = TRUCK;
+        } else if (theVehicle instanceof VehicleStore.View) {
+            result = ((VehicleStore.View) theVehicle).getType();
+        } else {
+            result = null;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the letter used for this type in a city map file.
+     *
+     * @return the map letter
+     */
+    public char letter() {
+        return myLetter;
+    }
+
+    /**
+     * Returns the death time shared by every vehicle of this type.
+     *
+     * @return the number of cycles a vehicle of this type stays dead
+     */
+    public int getDeathTime() {
+        return DEATH_TIMES[ordinal()];
+    }
+
+    /**
+     * Constructs a new vehicle of this type.
+     *
+     * @param theX the initial x-coordinate of the vehicle
+     * @param theY the initial y-coordinate of the vehicle
+     * @param theDir the initial direction the vehicle is facing
+     * @return the new vehicle
+     */
+    public AbstractVehicle create(final int theX, final int theY, final Direction theDir) {
+        return switch (this) {
+            case ATV -> new Atv(theX, theY, theDir);
+            case BICYCLE -> new Bicycle(theX, theY, theDir);
+            case CAR -> new Car(theX, theY, theDir);
+            case HUMAN -> new Human(theX, theY, theDir);
+            case TAXI -> new Taxi(theX, theY, theDir);
+            case TRUCK -> new Truck(theX, theY, theDir);
+        };
+    }
+}
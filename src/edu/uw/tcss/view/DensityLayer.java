@@ -0,0 +1,224 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.view;
+
+import edu.uw.tcss.logic.Snapshot;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * A heat map of how many vehicles are in each square block of cells, drawn in place of
+ * the vehicles themselves when the map is zoomed too far out for their icons to be seen.
+ * <br />
+ * The counts are kept in an array with one entry for each block. The layer remembers
+ * the block of every vehicle in the last snapshot, looks only at the vehicles the next
+ * snapshot lists as changed, and moves the counts of those that changed block. The heat
+ * map is an image with one pixel for each block, and a changed count recolors only its
+ * own pixel. Painting stretches the part of the image in view over the screen, so it costs
+ * as much as the screen however many vehicles there are.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+final class DensityLayer {
+
+    /**
+     * The number of cells along each side of a block.
+     */
+    private static final int BLOCK_CELLS = 4;
+
+    /**
+     * The count at which a block is drawn in the hottest color.
+     */
+    private static final int HOTTEST = BLOCK_CELLS * BLOCK_CELLS;
+
+    /**
+     * The hue of the coolest color, yellow.
+     */
+    private static final float COOL_HUE = 1f / 6;
+
+    /**
+     * The opacity of the coolest color.
+     */
+    private static final int COOL_ALPHA = 96;
+
+    /**
+     * The opacity of the hottest color.
+     */
+    private static final int HOT_ALPHA = 224;
+
+    /**
+     * The number of bits the opacity is shifted by in a packed color.
+     */
+    private static final int ALPHA_SHIFT = 24;
+
+    /**
+     * Selects the red, green and blue of a packed color.
+     */
+    private static final int RGB_MASK = 0x00FF_FFFF;
+
+    /**
+     * The color of each count up to the hottest, packed as ARGB.
+     */
+    private static final int[] PALETTE = palette();
+
+    /**
+     * The size in pixels of a side of one square.
+     */
+    private final int mySquareSize;
+
+    /**
+     * The block each vehicle was counted in, or null if no vehicles are counted.
+     */
+    private int[] myBlockOf;
+
+    /**
+     * The number of blocks along each row of blocks.
+     */
+    private int myBlocksAcross;
+
+    /**
+     * The number of vehicles in each block, row by row.
+     */
+    private int[] myCounts;
+
+    /**
+     * The heat map, one pixel for each block.
+     */
+    private BufferedImage myImage;
+
+    /**
+     * The pixels of the heat map, shared with the image.
+     */
+    private int[] myPixels;
+
+    /**
+     * Creates a heat map of no vehicles on an empty map.
+     *
+     * @param theSquareSize the size in pixels of a side of one square
+     */
+    DensityLayer(final int theSquareSize) {
+        super();
+        mySquareSize = theSquareSize;
+        setMapSize(0, 0);
+    }
+
+    /**
+     * Changes the size of the map and forgets every vehicle; the next snapshot counts
+     * them all again.
+     *
+     * @param theWidth the number of columns
+     * @param theHeight the number of rows
+     */
+    void setMapSize(final int theWidth, final int theHeight) {
+        myBlocksAcross = Math.max(1, (theWidth + BLOCK_CELLS - 1) / BLOCK_CELLS);
+        final int blocksDown = Math.max(1, (theHeight + BLOCK_CELLS - 1) / BLOCK_CELLS);
+        myImage = new BufferedImage(myBlocksAcross, blocksDown, BufferedImage.TYPE_INT_ARGB);
+        myPixels = ((DataBufferInt) myImage.getRaster().getDataBuffer()).getData();
+        myCounts = new int[myPixels.length];
+        myBlockOf = null;
+    }
+
+    /**
+     * Counts the vehicles of a snapshot, moving the count of each vehicle the snapshot
+     * lists as changed from the block it left to the block it entered, if they differ.
+     *
+     * @param theSnapshot the snapshot
+     */
+    void update(final Snapshot theSnapshot) {
+        final int count = theSnapshot.getVehicleCount();
+        if (myBlockOf == null || myBlockOf.length != count
+                || theSnapshot.isEveryVehicleChanged()) {
+            for (int block = 0; block < myCounts.length; block++) {
+                myCounts[block] = 0;
+                myPixels[block] = 0;
+            }
+            myBlockOf = new int[count];
+            for (int i = 0; i < count; i++) {
+                myBlockOf[i] = blockOf(theSnapshot.getX(i), theSnapshot.getY(i));
+                add(myBlockOf[i], 1);
+            }
+        } else {
+            for (int k = 0; k < theSnapshot.getChangedCount(); k++) {
+                final int i = theSnapshot.getChangedIndex(k);
+                final int block = blockOf(theSnapshot.getX(i), theSnapshot.getY(i));
+                if (block != myBlockOf[i]) {
+                    add(myBlockOf[i], -1);
+                    add(block, 1);
+                    myBlockOf[i] = block;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stretches the part of the heat map inside a rectangle over it. Each block is drawn
+     * as a flat square; smoothing them costs more than everything else in the frame.
+     *
+     * @param theGraphics the graphics to draw with, scaled to the zoom
+     * @param theClip the rectangle to draw, in unscaled pixels
+     */
+    void paint(final Graphics2D theGraphics, final Rectangle theClip) {
+        final int blockPixels = BLOCK_CELLS * mySquareSize;
+        final int left = Math.max(0, theClip.x / blockPixels);
+        final int top = Math.max(0, theClip.y / blockPixels);
+        final int right = Math.min(myImage.getWidth(),
+                                   (theClip.x + theClip.width + blockPixels - 1)
+                                   / blockPixels);
+        final int bottom = Math.min(myImage.getHeight(),
+                                    (theClip.y + theClip.height + blockPixels - 1)
+                                    / blockPixels);
+        if (left < right && top < bottom) {
+            theGraphics.drawImage(myImage, left * blockPixels, top * blockPixels,
+                                  right * blockPixels, bottom * blockPixels,
+                                  left, top, right, bottom, null);
+        }
+    }
+
+    /**
+     * Adds to the count of a block and recolors its pixel.
+     *
+     * @param theBlock the block
+     * @param theAmount the amount to add
+     */
+    private void add(final int theBlock, final int theAmount) {
+        final int count = myCounts[theBlock] + theAmount;
+        myCounts[theBlock] = count;
+        myPixels[theBlock] = PALETTE[Math.max(0, Math.min(count, HOTTEST))];
+    }
+
+    /**
+     * Returns the block a cell is in; cells off the map are counted in the nearest block.
+     *
+     * @param theX the x-coordinate of the cell
+     * @param theY the y-coordinate of the cell
+     * @return the block
+     */
+    private int blockOf(final int theX, final int theY) {
+        final int column = Math.max(0, Math.min(myBlocksAcross - 1, theX / BLOCK_CELLS));
+        final int row = Math.max(0, Math.min(myCounts.length / myBlocksAcross - 1,
+                                             theY / BLOCK_CELLS));
+        return row * myBlocksAcross + column;
+    }
+
+    /**
+     * Returns the color of each count, from clear for none through yellow to red.
+     *
+     * @return the colors, packed as ARGB
+     */
+    private static int[] palette() {
+        final int[] result = new int[HOTTEST + 1];
+        for (int count = 1; count <= HOTTEST; count++) {
+            final float heat = (float) (count - 1) / (HOTTEST - 1);
+            final int rgb = Color.HSBtoRGB(COOL_HUE * (1 - heat), 1, 1);
+            final int alpha = COOL_ALPHA + Math.round((HOT_ALPHA - COOL_ALPHA) * heat);
+            result[count] = alpha << ALPHA_SHIFT | rgb & RGB_MASK;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.view;
+
+import edu.uw.tcss.model.TerrainMap;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.io.Serial;
+import javax.swing.JPanel;
+import javax.swing.JViewport;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+/**
+ * A small picture of the whole map with a frame around the part of it in view. Clicking
+ * or dragging on the picture moves the view there.
+ * <br />
+ * The picture is sampled from the terrain once for each grid, so painting it costs the
+ * same however large the city is.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+final class MinimapPanel extends JPanel implements ChangeListener {
+
+    /**
+     * The UID of this class (to avoid warnings).
+     */
+    @Serial
+    private static final long serialVersionUID = 5273094L;
+
+    /**
+     * The size in pixels of the longer side of the picture.
+     */
+    private static final int SIZE = 160;
+
+    /**
+     * The viewport showing the map.
+     */
+    private final JViewport myViewport;
+
+    /**
+     * The picture of the map, or null before a grid arrives.
+     */
+    private transient BufferedImage myPicture;
+
+    /**
+     * Creates a minimap that follows a viewport.
+     *
+     * @param theViewport the viewport showing the map
+     */
+    MinimapPanel(final JViewport theViewport) {
+        super();
+        myViewport = theViewport;
+        myViewport.addChangeListener(this);
+        setPreferredSize(new Dimension(SIZE, SIZE));
+        setBackground(Color.DARK_GRAY);
+        final MouseAdapter mover = new MouseAdapter() {
+            @Override
+            public void mousePressed(final MouseEvent theEvent) {
+                center(theEvent.getPoint());
+            }
+
+            @Override
+            public void mouseDragged(final MouseEvent theEvent) {
+                center(theEvent.getPoint());
+            }
+        };
+        addMouseListener(mover);
+        addMouseMotionListener(mover);
+    }
+
+    @Override
+    protected void paintComponent(final Graphics theGraphics) {
+        super.paintComponent(theGraphics);
+        final Dimension view = myViewport.getViewSize();
+        if (myPicture != null && view.width > 0 && view.height > 0) {
+            theGraphics.drawImage(myPicture, 0, 0, null);
+            final Rectangle visible = myViewport.getViewRect();
+            final double across = (double) myPicture.getWidth() / view.width;
+            final double down = (double) myPicture.getHeight() / view.height;
+            theGraphics.setColor(Color.RED);
+            theGraphics.drawRect((int) (visible.x * across), (int) (visible.y * down),
+                                 Math.max(1, (int) (visible.width * across) - 1),
+                                 Math.max(1, (int) (visible.height * down) - 1));
+        }
+    }
+
+    /**
+     * Samples a new picture of the map.
+     *
+     * @param theGrid the terrain of the map
+     */
+    void setGrid(final TerrainMap theGrid) {
+        myPicture = picture(theGrid);
+        setPreferredSize(new Dimension(myPicture.getWidth(), myPicture.getHeight()));
+        revalidate();
+        repaint();
+    }
+
+    @Override
+    public void stateChanged(final ChangeEvent theEvent) {
+        repaint();
+    }
+
+    /**
+     * Moves the view so that it is centered on a point of the picture.
+     *
+     * @param thePoint the point, in pixels on the picture
+     */
+    private void center(final Point thePoint) {
+        final Dimension view = myViewport.getViewSize();
+        if (myPicture != null) {
+            final Dimension extent = myViewport.getExtentSize();
+            final int x = (int) ((long) thePoint.x * view.width / myPicture.getWidth())
+                          - extent.width / 2;
+            final int y = (int) ((long) thePoint.y * view.height / myPicture.getHeight())
+                          - extent.height / 2;
+            myViewport.setViewPosition(
+                    new Point(Math.max(0, Math.min(x, view.width - extent.width)),
+                              Math.max(0, Math.min(y, view.height - extent.height))));
+        }
+    }
+
+    /**
+     * Samples a picture of a map, each pixel taking the color of the cell under it.
+     *
+     * @param theGrid the map
+     * @return the picture
+     */
+    private static BufferedImage picture(final TerrainMap theGrid) {
+        final int longer = Math.max(1, Math.max(theGrid.getWidth(), theGrid.getHeight()));
+        final int width = Math.max(1, (int) ((long) theGrid.getWidth() * SIZE / longer));
+        final int height = Math.max(1, (int) ((long) theGrid.getHeight() * SIZE / longer));
+        final BufferedImage result = SpriteCache.createImage(width, height,
+                                                             Transparency.OPAQUE);
+        if (theGrid.getWidth() > 0 && theGrid.getHeight() > 0) {
+            final int[] colors = TerrainLayer.sampleColors();
+            final int[] pixels = new int[width * height];
+            for (int py = 0; py < height; py++) {
+                final int y = (int) ((long) py * theGrid.getHeight() / height);
+                for (int px = 0; px < width; px++) {
+                    final int x = (int) ((long) px * theGrid.getWidth() / width);
+                    pixels[py * width + px] = colors[theGrid.ordinal(x, y)];
+                }
+            }
+            result.setRGB(0, 0, width, height, pixels, 0, width);
+        }
+        return result;
+    }
+}
@@ -5,7 +5,11 @@
 package edu.uw.tcss.view;
 
 import edu.uw.tcss.io.FileLoader;
+import edu.uw.tcss.logic.AbstractRoadRage;
 import edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls;
+import edu.uw.tcss.logic.SimulationThread;
+import edu.uw.tcss.logic.Snapshot;
+import edu.uw.tcss.model.TerrainMap;
 import java.awt.BorderLayout;
 import java.awt.Container;
 import java.awt.Dimension;
@@ -14,14 +18,18 @@ import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.Serial;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.management.JMException;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
 import javax.swing.JSlider;
 import javax.swing.SwingConstants;
-import javax.swing.Timer;
+import javax.swing.SwingUtilities;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
@@ -77,6 +85,21 @@ public final class RoadRageGUI extends JFrame implements ActionListener {
      */
     private static final String RESET_COMMAND = "Reset";
 
+    /**
+     * The Zoom In command.
+     */
+    private static final String ZOOM_IN_COMMAND = "Zoom In";
+
+    /**
+     * The Zoom Out command.
+     */
+    private static final String ZOOM_OUT_COMMAND = "Zoom Out";
+
+    /**
+     * The factor the zoom buttons zoom by.
+     */
+    private static final double ZOOM_STEP = 2;
+
     /**
      * The initial frames per second at which the simulation will run.
      */
@@ -88,9 +111,9 @@ public final class RoadRageGUI extends JFrame implements ActionListener {
     private static final int MAX_FRAMES_PER_SECOND = 60;
 
     /**
-     * The numerator for delay calculations.
+     * The turbo settings, as the number of simulation ticks run for each frame.
      */
-    private static final int MY_DELAY_NUMERATOR = 1000;
+    private static final Integer[] TURBO_TICKS = {1, 10, 100, 1000, 10_000};
 
     /**
      * The minor tick spacing for the FPS slider.
@@ -106,24 +129,35 @@ public final class RoadRageGUI extends JFrame implements ActionListener {
     // Instance Fields
     
     /**
-     * The delay between updates, based on the frames per second setting.
+     * Whether a snapshot is waiting to be shown, so that at most one request to show
+     * one is queued on the Event Dispatch Thread at a time.
      */
-    private int myDelay;
+    private final AtomicBoolean mySnapshotPending;
 
     /**
-     * A timer used to update the state of the simulation.
+     * The slider for "frames per second".
      */
-    private final Timer myTimer;
+    private JSlider mySlider;
 
     /**
-     * The slider for "frames per second".
+     * The panel the map is drawn on.
      */
-    private JSlider mySlider;
+    private RoadRagePanel myPanel;
+
+    /**
+     * The small picture of the whole map.
+     */
+    private MinimapPanel myMinimap;
+
+    /**
+     * The grid the minimap shows, or null before the first one.
+     */
+    private transient TerrainMap myGrid;
     
     /**
-     * The logic for the simulation. 
+     * The thread the simulation runs on. 
      */
-    private final PropertyChangeEnabledRoadRageControls myRoadRage;
+    private final transient SimulationThread mySimulation;
     
     // Constructor
 
@@ -135,14 +169,17 @@ public final class RoadRageGUI extends JFrame implements ActionListener {
         super(TITLE);
         // initialize instance fields
         
-        myDelay = MY_DELAY_NUMERATOR / INITIAL_FRAMES_PER_SECOND;
-        myTimer = new Timer(myDelay, this);        
-
-        myRoadRage = FileLoader.readCity(this);
+        mySnapshotPending = new AtomicBoolean();
+        final PropertyChangeEnabledRoadRageControls roadRage = FileLoader.readCity(this);
+        mySimulation = new SimulationThread(roadRage, INITIAL_FRAMES_PER_SECOND);
+        mySimulation.setSnapshotListener(this::snapshotPublished);
+        if (roadRage instanceof AbstractRoadRage) {
+            registerMetrics((AbstractRoadRage) roadRage);
+        }
         
-        initGUI();
+        initGUI(roadRage.getWidth(), roadRage.getHeight());
         
-        myRoadRage.start();
+        mySimulation.start();
         setVisible(true);
     }
     
@@ -150,15 +187,21 @@ public final class RoadRageGUI extends JFrame implements ActionListener {
     
     /**
      * Sets up the GUI.
+     *
+     * @param theWidth width of the 2D grid of Terrain that defines the map
+     * @param theHeight height of the 2D grid of Terrain that defines the map
      */
     @SuppressWarnings("OverlyLongMethod")
-    private void initGUI() {
+    private void initGUI(final int theWidth, final int theHeight) {
         
         // set up graphical components
         
-        final RoadRagePanel panel = 
-                        new RoadRagePanel(myRoadRage.getWidth(), myRoadRage.getHeight()); 
-        myRoadRage.addPropertyChangeListener(panel);
+        final RoadRagePanel panel = new RoadRagePanel(theWidth, theHeight);
+        myPanel = panel;
+        final JScrollPane scrollPane = new JScrollPane(panel);
+        final MinimapPanel minimap = new MinimapPanel(scrollPane.getViewport());
+        myMinimap = minimap;
+        minimap.setVisible(false);
   
         mySlider = new JSlider(SwingConstants.HORIZONTAL, 0, MAX_FRAMES_PER_SECOND,
                                INITIAL_FRAMES_PER_SECOND);
@@ -172,36 +215,75 @@ public final class RoadRageGUI extends JFrame implements ActionListener {
             public void stateChanged(final ChangeEvent theEvent) {
                 final int value = mySlider.getValue();
                 if (value > 0) {
-                    myDelay = MY_DELAY_NUMERATOR / value;
-                    myTimer.setDelay(myDelay);
+                    mySimulation.setTickRate(value);
                 }
             }
         });
 
+        final JComboBox<Integer> turbo = new JComboBox<>(TURBO_TICKS);
+        turbo.addActionListener(new ActionListener() {
+            /** Called in response to turbo selections in this window. */
+            @Override
+            public void actionPerformed(final ActionEvent theEvent) {
+                mySimulation.setTicksPerFrame((Integer) turbo.getSelectedItem());
+            }
+        });
+
         final JCheckBox box = new JCheckBox("Debug Mode");
         box.addChangeListener(panel);
 
+        final JCheckBox smoothBox = new JCheckBox("Smooth Motion", true);
+        panel.setSmooth(true);
+        smoothBox.addChangeListener(new ChangeListener() {
+            /** Called in response to smooth motion check box events in this window. */
+            @Override
+            public void stateChanged(final ChangeEvent theEvent) {
+                panel.setSmooth(smoothBox.isSelected());
+            }
+        });
+
+        final JCheckBox minimapBox = new JCheckBox("Minimap");
+        minimapBox.addChangeListener(new ChangeListener() {
+            /** Called in response to minimap check box events in this window. */
+            @Override
+            public void stateChanged(final ChangeEvent theEvent) {
+                minimap.setVisible(minimapBox.isSelected());
+            }
+        });
+
         // layout
         final Container northPanel = new JPanel(new FlowLayout());
         northPanel.add(makeButton(START_COMMAND));
         northPanel.add(makeButton(STOP_COMMAND));
         northPanel.add(makeButton(STEP_COMMAND));
         northPanel.add(makeButton(RESET_COMMAND));
+        northPanel.add(makeButton(ZOOM_IN_COMMAND));
+        northPanel.add(makeButton(ZOOM_OUT_COMMAND));
 
         final Container southPanel = new JPanel(new FlowLayout());
         southPanel.add(new JLabel("FPS: "));
         southPanel.add(mySlider);
+        southPanel.add(new JLabel("Turbo (ticks per frame): "));
+        southPanel.add(turbo);
         southPanel.add(box);
+        southPanel.add(smoothBox);
+        southPanel.add(minimapBox);
+
+        final Container eastPanel = new JPanel(new FlowLayout());
+        eastPanel.add(minimap);
 
         final Container masterPanel = new JPanel(new BorderLayout());
-        masterPanel.add(panel, BorderLayout.CENTER);
+        masterPanel.add(scrollPane, BorderLayout.CENTER);
+        masterPanel.add(eastPanel, BorderLayout.EAST);
         masterPanel.add(northPanel, BorderLayout.NORTH);
         masterPanel.add(southPanel, BorderLayout.SOUTH);
 
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        setResizable(false);
         add(masterPanel);
         pack();
+        // a large city is scrolled rather than shown whole
+        setSize(Math.min(getWidth(), SCREEN_SIZE.width),
+                Math.min(getHeight(), SCREEN_SIZE.height));
         // position the frame in the center of the screen
         setLocation(SCREEN_SIZE.width / 2 - getWidth() / 2,
                     SCREEN_SIZE.height / 2 - getHeight() / 2);
@@ -226,30 +308,61 @@ public final class RoadRageGUI extends JFrame implements ActionListener {
      */
     @Override
     public void actionPerformed(final ActionEvent theEvent) {
-        final Object source = theEvent.getSource();
-        if (source.equals(myTimer)) {
-            // event came from the timer
-            myRoadRage.advance();
-        } else {
-            // event came from one of the buttons
-            final String command = theEvent.getActionCommand().intern();
-            switch (command) {
-                case START_COMMAND -> myTimer.start();
-                case STOP_COMMAND -> myTimer.stop();
-                case STEP_COMMAND -> myRoadRage.advance();
-                case RESET_COMMAND -> reset();
-                default -> throw new IllegalStateException("You shall not pass");
-            }
+        // event came from one of the buttons
+        final String command = theEvent.getActionCommand().intern();
+        switch (command) {
+            case START_COMMAND -> mySimulation.play();
+            case STOP_COMMAND -> mySimulation.pause();
+            case STEP_COMMAND -> mySimulation.step();
+            case RESET_COMMAND -> mySimulation.reset();
+            case ZOOM_IN_COMMAND -> myPanel.zoom(ZOOM_STEP);
+            case ZOOM_OUT_COMMAND -> myPanel.zoom(1 / ZOOM_STEP);
+            default -> throw new IllegalStateException("You shall not pass");
+        }
+    }
+
+    /**
+     * Called on the simulation's thread when a snapshot is published. Asks the Event
+     * Dispatch Thread to show the newest snapshot, unless it has already been asked and
+     * has not got to it yet; a slow display then skips snapshots instead of queueing
+     * them.
+     */
+    private void snapshotPublished() {
+        if (mySnapshotPending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::showSnapshot);
         }
     }
 
     /**
-     * Resets all the vehicles to their initial locations, resets the tick
-     * counter, and stops the simulation.
+     * Makes the tick metrics of the simulation available over JMX, to watch in JConsole.
+     * The simulation runs the same if they cannot be.
+     *
+     * @param theSimulation the simulation
      */
-    private void reset() {
-        myTimer.stop();
-        myRoadRage.reset();
+    private static void registerMetrics(final AbstractRoadRage theSimulation) {
+        try {
+            theSimulation.getMetrics().register(TITLE);
+        } catch (final JMException exception) {
+            System.err.println("Could not register the tick metrics: "
+                               + exception.getMessage());
+        }
+    }
+
+    /**
+     * Shows the newest snapshot of the simulation, and tells the simulation how long it
+     * took to get here and to paint, so that it sends no more frames than can be shown.
+     */
+    private void showSnapshot() {
+        // a snapshot published from here on asks again
+        mySnapshotPending.set(false);
+        final Snapshot snapshot = mySimulation.latest();
+        mySimulation.frameShown(System.nanoTime() - snapshot.getTime()
+                                + myPanel.getPaintNanos());
+        if (snapshot.getGrid() != null && snapshot.getGrid() != myGrid) {
+            myGrid = snapshot.getGrid();
+            myMinimap.setGrid(myGrid);
+        }
+        myPanel.showSnapshot(snapshot);
     }
         
  // end class RoadRageGUI
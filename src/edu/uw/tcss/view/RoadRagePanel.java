@@ -4,40 +4,40 @@
 
 package edu.uw.tcss.view;
 
-import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_GRID;
-import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_LIGHT;
-import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_TIME;
-import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_VEHICLES;
-
+import edu.uw.tcss.logic.Snapshot;
 import edu.uw.tcss.model.Direction;
 import edu.uw.tcss.model.Light;
-import edu.uw.tcss.model.Terrain;
-import edu.uw.tcss.model.Vehicle;
-import java.awt.BasicStroke;
+import edu.uw.tcss.model.TerrainMap;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Image;
-import java.awt.MediaTracker;
 import java.awt.Paint;
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
 import java.io.Serial;
-import java.util.ArrayList;
-import java.util.List;
-import javax.swing.ImageIcon;
 import javax.swing.JPanel;
 import javax.swing.JToggleButton;
+import javax.swing.JViewport;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
 
 
 /**
- * A drawing panel for the map.
+ * A drawing panel for the map. The panel shows a {@link Snapshot} of the simulation, so
+ * that the simulation can run on a thread of its own while the panel paints. In smooth
+ * mode, vehicles slide from their previous square to their current one while the next
+ * snapshot is on its way, redrawn many times a tick however slowly the simulation runs.
  * 
  * @author Marty Stepp
  * @author Daniel M. Zimmerman
@@ -47,8 +47,7 @@ import javax.swing.event.ChangeListener;
  * 
  */
 @SuppressWarnings("DataFlowIssue")
-public final class RoadRagePanel extends JPanel implements
-        PropertyChangeListener, ChangeListener {
+public final class RoadRagePanel extends JPanel implements ChangeListener, Scrollable {
 
     /**
      * The UID of this class (to avoid warnings).
@@ -61,18 +60,6 @@ public final class RoadRagePanel extends JPanel implements
      */
     private static final Font FONT = new Font("SansSerif", Font.BOLD, 9);
     
-    /**
-     * The stroke used for painting.
-     */
-    private static final BasicStroke STROKE = new BasicStroke(3, BasicStroke.CAP_BUTT,
-                                                              BasicStroke.JOIN_MITER, 2,
-                                                              new float[] {2, 2, 2, 2}, 0);
-
-    /**
-     * The offset to use to position cross walk lines and to use for cross walk light size.
-     */
-    private static final double CROSSWALK_SCALE = .25;
-    
     /**
      * The size in pixels of the directional markers drawn on vehicles in debug
      * mode.
@@ -88,14 +75,44 @@ public final class RoadRagePanel extends JPanel implements
      * The size in pixels of a side of one "square" on the grid.
      */
     private static final int SQUARE_SIZE = 40;
+
+    /**
+     * The smallest zoom, at which a square is one pixel.
+     */
+    private static final double MIN_ZOOM = 1.0 / SQUARE_SIZE;
+
+    /**
+     * The largest zoom.
+     */
+    private static final double MAX_ZOOM = 2;
+
+    /**
+     * The zoom below which vehicles are shown as a heat map, where a square is 8 pixels.
+     */
+    private static final double DENSITY_ZOOM = 0.2;
+
+    /**
+     * The factor one step of the mouse wheel zooms by.
+     */
+    private static final double WHEEL_ZOOM = 1.25;
+
+    /**
+     * The delay in milliseconds between frames while vehicles slide, about 60 a second.
+     */
+    private static final int SLIDE_DELAY = 16;
     
 
     // Instance Fields
     
     /**
-     * The terrain grid for the simulation.
+     * The number of columns and rows of the map.
+     */
+    private Dimension myCells;
+
+    /**
+     * The zoom, at which one unzoomed pixel covers this many pixels on the screen.
      */
-    private Terrain[][] myGrid;
+    private double myZoom;
     
     /**
      * A flag indicating whether or not we are running in debug mode.
@@ -103,19 +120,64 @@ public final class RoadRagePanel extends JPanel implements
     private boolean myDebugFlag;
 
     /**
-     * The current timestep of the simulation.
+     * Whether vehicles slide from square to square rather than jump.
+     */
+    private boolean mySmooth;
+
+    /**
+     * How far the vehicles being drawn are along their slide, from 0 to 1.
+     */
+    private double myProgress;
+
+    /**
+     * How long the last paint took, in nanoseconds.
+     */
+    private long myPaintNanos;
+
+    /**
+     * The cells the vehicles of the snapshot slide across.
+     */
+    private Rectangle mySliding;
+
+    /**
+     * Redraws the sliding vehicles until they reach their squares.
+     */
+    private final Timer mySlideTimer;
+
+    /**
+     * The snapshot being shown.
+     */
+    private transient Snapshot mySnapshot;
+
+    /**
+     * The grid being shown, or null before the first one.
+     */
+    private transient TerrainMap myGrid;
+
+    /**
+     * The light being shown.
      */
-    private long myTimestep;
+    private Light myLight;
     
     /**
-     * The current color of lights.
+     * The vehicles of the snapshot, filed by where they are. 
      */
-    private Color myLightColor;
-        
+    private final transient VehicleIndex myVehicles;
+
+    /**
+     * The vehicle icons, scaled to the size of a square.
+     */
+    private final transient SpriteCache mySprites;
+
+    /**
+     * The terrain, drawn once and then copied to the screen.
+     */
+    private final transient TerrainLayer myTerrain;
+
     /**
-     * The vehicles to move and display. 
+     * How many vehicles are in each part of the map, shown when zoomed far out.
      */
-    private List<Vehicle> myVehicles;
+    private final transient DensityLayer myDensity;
 
     // Constructor
 
@@ -127,122 +189,231 @@ public final class RoadRagePanel extends JPanel implements
     public RoadRagePanel(final int theWidth, final int theHeight) {
         super();
 
-        myVehicles = new ArrayList<>();
-        myGrid = new Terrain[0][0];
-        setLightColor(Light.GREEN);
-        setPreferredSize(new Dimension(theWidth * SQUARE_SIZE,
-                                       theHeight * SQUARE_SIZE));
+        myCells = new Dimension(theWidth, theHeight);
+        myVehicles = new VehicleIndex();
+        myDensity = new DensityLayer(SQUARE_SIZE);
+        mySprites = new SpriteCache(SQUARE_SIZE);
+        myLight = Light.GREEN;
+        myTerrain = new TerrainLayer(SQUARE_SIZE, lightColor(myLight));
+        myProgress = 1;
+        mySliding = new Rectangle();
+        mySlideTimer = new Timer(SLIDE_DELAY, theEvent -> slide());
+        setZoom(1);
         setBackground(Color.GREEN);
         setFont(FONT);
+        listenToMouse();
     }
 
     // Instance Methods
 
     /**
-     * Paints this panel on the screen with the specified Graphics object.
+     * Returns the zoom, at which one unzoomed pixel covers this many pixels on the screen.
+     *
+     * @return the zoom
+     */
+    public double getZoom() {
+        return myZoom;
+    }
+
+    /**
+     * Changes the zoom, keeping the center of the visible part of the map in place.
+     *
+     * @param theFactor the factor to multiply the zoom by
+     */
+    public void zoom(final double theFactor) {
+        final Rectangle visible = getVisibleRect();
+        zoom(theFactor, new Point((int) visible.getCenterX(), (int) visible.getCenterY()));
+    }
+
+    /**
+     * Changes the zoom, keeping one point of the map in place on the screen when the
+     * panel is in a scroll pane. The zoom stays between one pixel and twice the usual
+     * size for a square.
+     *
+     * @param theFactor the factor to multiply the zoom by
+     * @param theAnchor the point to keep in place, in pixels on the panel
+     */
+    public void zoom(final double theFactor, final Point theAnchor) {
+        final double old = myZoom;
+        setZoom(myZoom * theFactor);
+        if (getParent() instanceof JViewport) {
+            final JViewport viewport = (JViewport) getParent();
+            final Point position = viewport.getViewPosition();
+            final double ratio = myZoom / old;
+            scrollTo(viewport,
+                     (int) Math.round(theAnchor.x * ratio) - theAnchor.x + position.x,
+                     (int) Math.round(theAnchor.y * ratio) - theAnchor.y + position.y);
+        }
+        repaint();
+    }
+
+    /**
+     * Returns how long the last paint took.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getPaintNanos() {
+        return myPaintNanos;
+    }
+
+    /**
+     * Sets whether vehicles slide from square to square over each tick, rather than jump
+     * when each snapshot arrives.
+     *
+     * @param theSmooth true to slide
+     */
+    public void setSmooth(final boolean theSmooth) {
+        if (theSmooth != mySmooth) {
+            mySmooth = theSmooth;
+            if (!theSmooth) {
+                mySlideTimer.stop();
+            }
+            repaint();
+        }
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(final Rectangle theVisibleRect,
+                                          final int theOrientation, final int theDirection) {
+        return Math.max(1, (int) (SQUARE_SIZE * myZoom));
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(final Rectangle theVisibleRect,
+                                           final int theOrientation, final int theDirection) {
+        int result = theVisibleRect.width;
+        if (theOrientation == SwingConstants.VERTICAL) {
+            result = theVisibleRect.height;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+
+    /**
+     * Paints this panel on the screen with the specified Graphics object. Only the
+     * terrain and vehicles inside the clip are drawn, so the cost of a frame depends on
+     * the part of the map in view rather than on the size of the city.
      * 
      * @param theGraphics The Graphics object.
      */
     @SuppressWarnings("PublicMethodNotExposedInInterface")
     @Override
     public void paintComponent(final Graphics theGraphics) {
+        final long start = System.nanoTime();
         super.paintComponent(theGraphics);
         final Graphics2D g2 = (Graphics2D) theGraphics;
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-                            RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.scale(myZoom, myZoom);
+        Rectangle clip = g2.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(myCells.width * SQUARE_SIZE, myCells.height * SQUARE_SIZE);
+        }
 
-        g2.setStroke(STROKE);
+        myProgress = 1;
+        if (mySmooth && mySnapshot != null) {
+            myProgress = mySnapshot.progress(System.nanoTime());
+        }
 
         // draw city map
+        myTerrain.paint(g2, clip, myZoom);
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                            RenderingHints.VALUE_ANTIALIAS_ON);
+        if (myZoom < DENSITY_ZOOM) {
+            // too far out to tell one vehicle from another
+            myDensity.paint(g2, clip);
+        } else {
+            final Rectangle cells = cellsIn(clip);
+            if (myProgress < 1) {
+                // a vehicle may still be sliding in from a square out of the clip
+                cells.grow(1, 1);
+            }
+            drawVehicles(g2, cells);
+        }
 
-        drawMap(g2);
+        if (myDebugFlag && mySnapshot != null) {
+            g2.setColor(Color.WHITE);
+            g2.drawString("Update # " + mySnapshot.getTimestep(), DEBUG_OFFSET / 2,
+                          FONT.getSize() + DEBUG_OFFSET / 2);
+        }
+        myPaintNanos = System.nanoTime() - start;
+    }
 
-        // draw vehicles
-        for (final Vehicle v : myVehicles) {
-            final String imageFilename = "icons//" + v.getImageFileName();
-            //final String imageFilename = v.getImageFileName();
-            ImageIcon imgIcon = new ImageIcon(imageFilename);
+    /**
+     * Draws the vehicles in a rectangle of cells, and the debugging information of the
+     * cells and vehicles if necessary.
+     *
+     * @param theGraphics The Graphics2D object.
+     * @param theCells The rectangle of cells.
+     */
+    private void drawVehicles(final Graphics2D theGraphics, final Rectangle theCells) {
+        if (myDebugFlag) {
+            drawDebugInfo(theGraphics, theCells);
+        }
 
-            if (imgIcon.getImageLoadStatus() != MediaTracker.COMPLETE) {
-                imgIcon = new ImageIcon(getClass().getResource(imageFilename));
+        myVehicles.forEachIn(theCells, i -> {
+            int x = mySnapshot.getX(i) * SQUARE_SIZE;
+            int y = mySnapshot.getY(i) * SQUARE_SIZE;
+            final int dx = mySnapshot.getX(i) - mySnapshot.getPreviousX(i);
+            final int dy = mySnapshot.getY(i) - mySnapshot.getPreviousY(i);
+            if (myProgress < 1 && Math.abs(dx) + Math.abs(dy) == 1) {
+                // only a move to the next square slides; longer jumps do not
+                final double behind = SQUARE_SIZE * (1 - myProgress);
+                x -= (int) Math.round(dx * behind);
+                y -= (int) Math.round(dy * behind);
             }
-
-            final Image img = imgIcon.getImage();
-            g2.drawImage(img, v.getX() * SQUARE_SIZE, v.getY() * SQUARE_SIZE,
-                         SQUARE_SIZE, SQUARE_SIZE, this);
+            theGraphics.drawImage(mySprites.get(mySnapshot, i), x, y, null);
 
             if (myDebugFlag) {
-                drawDebugInfo(g2, v);
+                drawDebugInfo(theGraphics, i);
             }
-        }
+        });
+    }
 
-        if (myDebugFlag) {
-            g2.setColor(Color.WHITE);
-            g2.drawString("Update # " + myTimestep, DEBUG_OFFSET / 2,
-                          FONT.getSize() + DEBUG_OFFSET / 2);
-        }
+    /**
+     * Returns the cells of the map that overlap a rectangle.
+     *
+     * @param theClip The rectangle, in unzoomed pixels.
+     * @return the cells
+     */
+    private Rectangle cellsIn(final Rectangle theClip) {
+        final int left = Math.max(0, theClip.x / SQUARE_SIZE);
+        final int top = Math.max(0, theClip.y / SQUARE_SIZE);
+        final int right = Math.min(myCells.width,
+                                   (theClip.x + theClip.width + SQUARE_SIZE - 1)
+                                   / SQUARE_SIZE);
+        final int bottom = Math.min(myCells.height,
+                                    (theClip.y + theClip.height + SQUARE_SIZE - 1)
+                                    / SQUARE_SIZE);
+        return new Rectangle(left, top, Math.max(0, right - left), Math.max(0, bottom - top));
     }
-    
 
     /**
-     * Draws the city map with the specified Graphics2D object.
-     * 
+     * Draws the row and column of every square in a rectangle.
+     *
      * @param theGraphics The Graphics2D object.
+     * @param theCells The rectangle of cells.
      */
-    @SuppressWarnings("OverlyLongMethod")
-    private void drawMap(final Graphics2D theGraphics) {
-        for (int y = 0; y < myGrid.length; y++) {
-            final int topy = y * SQUARE_SIZE;
-
-            for (int x = 0; x < myGrid[y].length; x++) {
-                final int leftx = x * SQUARE_SIZE;
-
-                switch (myGrid[y][x]) {
-                    case STREET:
-                        theGraphics.setPaint(Color.LIGHT_GRAY);
-                        theGraphics.fillRect(leftx, topy, SQUARE_SIZE, SQUARE_SIZE);
-                        drawStreetLines(theGraphics, x, y);
-                        break;
-
-                    case WALL:
-                        theGraphics.setPaint(Color.BLACK);
-                        theGraphics.fillRect(leftx, topy, SQUARE_SIZE, SQUARE_SIZE);
-                        break;
-
-                    case TRAIL:
-                        theGraphics.setPaint(Color.YELLOW.darker().darker());
-                        theGraphics.fillRect(leftx, topy, SQUARE_SIZE, SQUARE_SIZE);
-                        break;
-
-                    case LIGHT:
-                        // draw a circle of appropriate color
-                        theGraphics.setPaint(Color.LIGHT_GRAY);
-                        theGraphics.fillRect(leftx, topy, SQUARE_SIZE, SQUARE_SIZE);
-                        theGraphics.setPaint(myLightColor);
-                        theGraphics.fillOval(leftx, topy, SQUARE_SIZE, SQUARE_SIZE);
-                        break;
-                        
-                    case CROSSWALK:
-                        theGraphics.setPaint(Color.LIGHT_GRAY);
-                        theGraphics.fillRect(leftx, topy, SQUARE_SIZE, SQUARE_SIZE);
-                        
-                        drawCrossWalkLines(theGraphics, x, y);
-                        
-                        // draw a small circle of appropriate color centered in the square
-                        theGraphics.setPaint(myLightColor);
-                        theGraphics.fillOval(leftx + (int)  (SQUARE_SIZE * CROSSWALK_SCALE),
-                                             topy  + (int) (SQUARE_SIZE * CROSSWALK_SCALE),
-                                             SQUARE_SIZE / 2, SQUARE_SIZE / 2);
-                        break;
-
-                    default:
-                }
-
+    private void drawDebugInfo(final Graphics2D theGraphics, final Rectangle theCells) {
+        for (int y = theCells.y; y < theCells.y + theCells.height; y++) {
+            for (int x = theCells.x; x < theCells.x + theCells.width; x++) {
                 drawDebugInfo(theGraphics, x, y);
             }
         }
     }
-    
+
     /**
      * Draws debugging information, if necessary.
      * 
@@ -268,21 +439,22 @@ public final class RoadRagePanel extends JPanel implements
      * Draws the debug information for a single Vehicle.
      * 
      * @param theGraphics The graphic context.
-     * @param theVehicle The Vehicle being drawn.
+     * @param theIndex The index of the Vehicle being drawn in the snapshot.
      */
     @SuppressWarnings("OverlyLongMethod")
-    private void drawDebugInfo(final Graphics2D theGraphics, final Vehicle theVehicle) {
-        int x = theVehicle.getX() * SQUARE_SIZE;
-        int y = theVehicle.getY() * SQUARE_SIZE;
+    private void drawDebugInfo(final Graphics2D theGraphics, final int theIndex) {
+        int x = mySnapshot.getX(theIndex) * SQUARE_SIZE;
+        int y = mySnapshot.getY(theIndex) * SQUARE_SIZE;
 
         // draw numbers on each vehicle
+        final String description = mySnapshot.describe(theIndex);
         theGraphics.setColor(Color.WHITE);
-        theGraphics.drawString(theVehicle.toString(), x, y + SQUARE_SIZE - 1);
+        theGraphics.drawString(description, x, y + SQUARE_SIZE - 1);
         theGraphics.setColor(Color.BLACK);
-        theGraphics.drawString(theVehicle.toString(), x + 1, y + SQUARE_SIZE);
+        theGraphics.drawString(description, x + 1, y + SQUARE_SIZE);
 
         // draw arrow on vehicle for its direction
-        final Direction dir = theVehicle.getDirection();
+        final Direction dir = mySnapshot.getDirection(theIndex);
         int dx = (SQUARE_SIZE - MARKER_SIZE) / 2;
         int dy = dx;
 
@@ -314,141 +486,148 @@ public final class RoadRagePanel extends JPanel implements
     }
 
     /**
-     * Sets the paint color appropriately for the current lights.
+     * Returns the paint color appropriate for the current lights.
      * 
      * @param theLight The Light to base the color on.
+     * @return the color
      */
-    private void setLightColor(final Light theLight) {
+    private static Color lightColor(final Light theLight) {
+        final Color result;
         switch (theLight) {
-            case GREEN:
-                myLightColor = Color.GREEN.darker();
-                break;
-
             case RED:
-                myLightColor = Color.RED.darker();
+                result = Color.RED.darker();
                 break;
 
             case YELLOW:
-                myLightColor = Color.YELLOW;
+                result = Color.YELLOW;
                 break;
 
             default:
+                result = Color.GREEN.darker();
         }
+        return result;
     }
-    
+
     /**
-     * Draws dotted lines on cross walks.
-     * 
-     * @param theGraphics The Graphics context to use for drawing.
-     * @param theX The x-coordinate of the cross walk.
-     * @param theY The y-coordinate of the cross walk.
-     */
-    private void drawCrossWalkLines(final Graphics2D theGraphics,
-                                 final int theX, final int theY) {
-        
-        final Paint oldPaint = theGraphics.getPaint();
-        theGraphics.setPaint(Color.WHITE);
-
-        final int leftx = theX * SQUARE_SIZE;
-        final int topy = theY * SQUARE_SIZE;
-
-        final int rightx = leftx + SQUARE_SIZE;
-        final int bottomy = topy + SQUARE_SIZE;
-
-        if (isValidIndex(theY - 1, theX) && myGrid[theY - 1][theX] == Terrain.GRASS) {
-            // GRASS is above. Let's assume GRASS is also below.
-            // DRAW lines on left and right of light
-            theGraphics.drawLine(leftx  + (int) (SQUARE_SIZE * CROSSWALK_SCALE), topy,
-                                 leftx  + (int) (SQUARE_SIZE * CROSSWALK_SCALE), bottomy);
-            theGraphics.drawLine(rightx - (int) (SQUARE_SIZE * CROSSWALK_SCALE), topy,
-                                 rightx - (int) (SQUARE_SIZE * CROSSWALK_SCALE), bottomy);
-        }
-        
-
-        if (isValidIndex(theY, theX - 1) && myGrid[theY][theX - 1] == Terrain.GRASS) {
-            // GRASS is left. Let's assume GRASS is also right.
-            // DRAW lines above and below light
-            theGraphics.drawLine(leftx, topy + (int) (SQUARE_SIZE * CROSSWALK_SCALE),
-                                 rightx, topy + (int) (SQUARE_SIZE * CROSSWALK_SCALE));
-            theGraphics.drawLine(leftx, bottomy - (int) (SQUARE_SIZE * CROSSWALK_SCALE),
-                                 rightx, bottomy - (int) (SQUARE_SIZE * CROSSWALK_SCALE));
+     * Repaints a rectangle of cells. Swing merges the dirty regions of a component into
+     * one rectangle anyway, so the changed cells are merged into one before they get here.
+     *
+     * @param theCells the rectangle of cells
+     */
+    private void repaintCells(final Rectangle theCells) {
+        if (!theCells.isEmpty()) {
+            final double size = SQUARE_SIZE * myZoom;
+            final int x = (int) (theCells.x * size);
+            final int y = (int) (theCells.y * size);
+            repaint(x, y, (int) Math.ceil((theCells.x + theCells.width) * size) - x,
+                    (int) Math.ceil((theCells.y + theCells.height) * size) - y);
         }
+    }
+
+    /**
+     * Changes the zoom, kept between one pixel and twice the usual size for a square, and
+     * sizes the panel to the map at the new zoom.
+     *
+     * @param theZoom the zoom
+     */
+    private void setZoom(final double theZoom) {
+        myZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, theZoom));
+        updateSize();
+    }
 
-        theGraphics.setPaint(oldPaint);
+    /**
+     * Sizes the panel to the map at the current zoom.
+     */
+    private void updateSize() {
+        final Dimension size =
+                new Dimension((int) Math.ceil(myCells.width * SQUARE_SIZE * myZoom),
+                              (int) Math.ceil(myCells.height * SQUARE_SIZE * myZoom));
+        setPreferredSize(size);
+        setSize(size);
+        revalidate();
     }
-    
+
     /**
-     * Draws dotted lines on streets.
-     * 
-     * @param theGraphics The Graphics context to use for drawing.
-     * @param theX The x-coordinate of the street.
-     * @param theY The y-coordinate of the street.
+     * Scrolls the viewport the panel is in, keeping the view inside the panel.
+     *
+     * @param theViewport the viewport
+     * @param theX the x-coordinate of the new top left corner of the view
+     * @param theY the y-coordinate of the new top left corner of the view
      */
-    private void drawStreetLines(final Graphics2D theGraphics,
-                                 final int theX, final int theY) {
-        
-        final Paint oldPaint = theGraphics.getPaint();
-        theGraphics.setPaint(Color.YELLOW);
-
-        final int leftx = theX * SQUARE_SIZE;
-        final int topy = theY * SQUARE_SIZE;
-        final int centerx = leftx + SQUARE_SIZE / 2;
-        final int centery = topy + SQUARE_SIZE / 2;
-        final int rightx = leftx + SQUARE_SIZE;
-        final int bottomy = topy + SQUARE_SIZE;
-
-        if (isValidIndex(theY - 1, theX) && myGrid[theY - 1][theX] == Terrain.STREET) {
-            theGraphics.drawLine(centerx, centery, centerx, topy); // above
+    private void scrollTo(final JViewport theViewport, final int theX, final int theY) {
+        final Dimension extent = theViewport.getExtentSize();
+        theViewport.setViewPosition(
+                new Point(Math.max(0, Math.min(theX, getWidth() - extent.width)),
+                          Math.max(0, Math.min(theY, getHeight() - extent.height))));
+    }
+
+    /**
+     * Lets the mouse pan the map by dragging it and zoom it by turning the wheel with
+     * the control key held down.
+     */
+    private void listenToMouse() {
+        final MouseAdapter navigator = new Navigator();
+        addMouseListener(navigator);
+        addMouseMotionListener(navigator);
+        addMouseWheelListener(navigator);
+    }
+
+    /**
+     * Shows a snapshot of the simulation. Only the squares that vehicles left, entered,
+     * turned, died or revived in since the last snapshot are repainted, unless the grid
+     * or light changed or debug mode is on, where every label would otherwise have to be
+     * traced.
+     * <br />
+     * The panel keeps drawing from the snapshot until the next one, so the snapshot must
+     * not change in the meantime.
+     *
+     * @param theSnapshot the snapshot
+     */
+    public void showSnapshot(final Snapshot theSnapshot) {
+        mySnapshot = theSnapshot;
+        boolean repaintAll = myDebugFlag;
+        final TerrainMap grid = theSnapshot.getGrid();
+        if (grid != null && grid != myGrid) {
+            myGrid = grid;
+            myCells = new Dimension(grid.getWidth(), grid.getHeight());
+            myVehicles.setMapSize(grid.getWidth(), grid.getHeight());
+            myDensity.setMapSize(grid.getWidth(), grid.getHeight());
+            myTerrain.setGrid(grid);
+            updateSize();
+            repaintAll = true;
         }
-        if (isValidIndex(theY + 1, theX) && myGrid[theY + 1][theX] == Terrain.STREET) {
-            theGraphics.drawLine(centerx, centery, centerx, bottomy); // below
+        if (theSnapshot.getLight() != myLight) {
+            myLight = theSnapshot.getLight();
+            myTerrain.setLightColor(lightColor(myLight));
+            repaintAll = true;
         }
-        if (isValidIndex(theY, theX - 1) && myGrid[theY][theX - 1] == Terrain.STREET) {
-            theGraphics.drawLine(centerx, centery, leftx, centery); // left
+        final Rectangle changed = myVehicles.update(theSnapshot);
+        myDensity.update(theSnapshot);
+        if (repaintAll || changed == null) {
+            repaint();
+        } else {
+            repaintCells(changed);
         }
-        if (isValidIndex(theY, theX + 1) && myGrid[theY][theX + 1] == Terrain.STREET) {
-            theGraphics.drawLine(centerx, centery, rightx, centery); // right
+        if (mySmooth && changed != null && !changed.isEmpty()
+                && theSnapshot.progress(System.nanoTime()) < 1) {
+            mySliding = changed;
+            mySlideTimer.start();
+        } else {
+            mySlideTimer.stop();
         }
-
-        theGraphics.setPaint(oldPaint);
     }
-    
+
     /**
-     * Tests whether the square at the given x/y position exists on the map.
-     * 
-     * @param theX The x position.
-     * @param theY The y position.
-     * @return true if the position exists on the map, false otherwise.
+     * Redraws the cells the vehicles slide across, and stops once they have arrived.
      */
-    private boolean isValidIndex(final int theY, final int theX) {
-        return theY >= 0 && theY < myGrid.length
-            && theX >= 0 && theX < myGrid[theY].length;
-    }
-
-    @Override
-    public void propertyChange(final PropertyChangeEvent theEvent) {
-        switch (theEvent.getPropertyName()) {
-            case PROPERTY_GRID:
-                myGrid = (Terrain[][]) theEvent.getNewValue();
-                repaint();
-                break;
-            case PROPERTY_LIGHT:
-                setLightColor((Light) theEvent.getNewValue());
-                repaint();
-                break;
-            case PROPERTY_VEHICLES:
-                @SuppressWarnings("unchecked") 
-                final List<Vehicle> list = (List<Vehicle>) theEvent.getNewValue();
-                myVehicles = new ArrayList<>(list);
-                repaint();
-                break;
-            case PROPERTY_TIME:
-                myTimestep = (Long) theEvent.getNewValue();
-                repaint();
-                break;
-            default:
-                break;  
-            
+    private void slide() {
+        if (mySnapshot == null || mySnapshot.progress(System.nanoTime()) >= 1) {
+            mySlideTimer.stop();
+        }
+        if (myDebugFlag) {
+            repaint();
+        } else {
+            repaintCells(mySliding);
         }
     }
 
@@ -458,5 +637,47 @@ public final class RoadRagePanel extends JPanel implements
         repaint();
     }
     
+    /**
+     * Pans the map as the mouse drags it and zooms it as the wheel turns with the control
+     * key held down. Turning the wheel alone scrolls as usual.
+     */
+    private final class Navigator extends MouseAdapter {
+
+        /**
+         * Where the last drag started or continued, on the screen.
+         */
+        private Point myDragPoint;
+
+        @Override
+        public void mousePressed(final MouseEvent theEvent) {
+            myDragPoint = theEvent.getLocationOnScreen();
+        }
+
+        @Override
+        public void mouseDragged(final MouseEvent theEvent) {
+            final Point point = theEvent.getLocationOnScreen();
+            if (myDragPoint != null && getParent() instanceof JViewport) {
+                final JViewport viewport = (JViewport) getParent();
+                final Point position = viewport.getViewPosition();
+                scrollTo(viewport, position.x - point.x + myDragPoint.x,
+                         position.y - point.y + myDragPoint.y);
+            }
+            myDragPoint = point;
+        }
+
+        @Override
+        public void mouseWheelMoved(final MouseWheelEvent theEvent) {
+            if (theEvent.isControlDown()) {
+                zoom(Math.pow(WHEEL_ZOOM, -theEvent.getPreciseWheelRotation()),
+                     theEvent.getPoint());
+            } else {
+                // scrolling is left to the scroll pane
+                getParent().dispatchEvent(
+                    SwingUtilities.convertMouseEvent(RoadRagePanel.this, theEvent,
+                                                     getParent()));
+            }
+        }
+    }
+
 } // end class RoadRagePanel
 
@@ -0,0 +1,151 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.view;
+
+import edu.uw.tcss.logic.Snapshot;
+import edu.uw.tcss.model.VehicleType;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.MediaTracker;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import javax.swing.ImageIcon;
+
+/**
+ * The vehicle icons, loaded once and scaled to the size of a square, so that drawing a
+ * vehicle is a single unscaled drawImage of an image already in memory.
+ * <br />
+ * The icon of every known vehicle type, alive and dead, is loaded up front. The icon of
+ * any other kind of vehicle is loaded by file name the first time it is drawn.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+final class SpriteCache {
+
+    /**
+     * The folder the icons are in.
+     */
+    private static final String ICON_FOLDER = "icons//";
+
+    /**
+     * The vehicle types, indexed by ordinal.
+     */
+    private static final VehicleType[] TYPES = VehicleType.values();
+
+    /**
+     * The size in pixels of a side of every sprite.
+     */
+    private final int mySize;
+
+    /**
+     * The sprite of every known vehicle type, alive at twice its ordinal and dead at the
+     * next index.
+     */
+    private final Image[] mySprites;
+
+    /**
+     * The sprites of other kinds of vehicle, by image file name.
+     */
+    private final Map<String, Image> myOtherSprites;
+
+    /**
+     * Loads and scales the icon of every known vehicle type.
+     *
+     * @param theSize the size in pixels of a side of every sprite
+     */
+    SpriteCache(final int theSize) {
+        super();
+        mySize = theSize;
+        mySprites = new Image[TYPES.length * 2];
+        for (final VehicleType type : TYPES) {
+            final String baseName = type.name().toLowerCase(Locale.ROOT);
+            mySprites[type.ordinal() * 2] = load(baseName + ".gif");
+            mySprites[type.ordinal() * 2 + 1] = load(baseName + "_dead.gif");
+        }
+        myOtherSprites = new HashMap<>();
+    }
+
+    /**
+     * Returns the sprite for a vehicle in its state in a snapshot.
+     *
+     * @param theSnapshot the snapshot
+     * @param theIndex the index of the vehicle
+     * @return the sprite, the size of a square
+     */
+    Image get(final Snapshot theSnapshot, final int theIndex) {
+        final VehicleType type = theSnapshot.getType(theIndex);
+        final Image result;
+        if (type == null) {
+            result = myOtherSprites.computeIfAbsent(theSnapshot.getImageFileName(theIndex),
+                                                    this::load);
+        } else if (theSnapshot.isAlive(theIndex)) {
+            result = mySprites[type.ordinal() * 2];
+        } else {
+            result = mySprites[type.ordinal() * 2 + 1];
+        }
+        return result;
+    }
+
+    /**
+     * Loads an icon from the icon folder, or from the class path if it is not there, and
+     * scales it to the size of a square.
+     *
+     * @param theFileName the image file name
+     * @return the scaled image
+     */
+    private Image load(final String theFileName) {
+        final String imageFilename = ICON_FOLDER + theFileName;
+        ImageIcon imgIcon = new ImageIcon(imageFilename);
+        if (imgIcon.getImageLoadStatus() != MediaTracker.COMPLETE) {
+            final URL resource = getClass().getResource(imageFilename);
+            if (resource != null) {
+                imgIcon = new ImageIcon(resource);
+            }
+        }
+        final BufferedImage result = createImage(mySize, mySize, Transparency.TRANSLUCENT);
+        final Graphics2D g2 = result.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                            RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2.drawImage(imgIcon.getImage(), 0, 0, mySize, mySize, null);
+        g2.dispose();
+        return result;
+    }
+
+    /**
+     * Creates an empty image, in the screen's own pixel format when there is a screen so
+     * that drawing it needs no conversion.
+     *
+     * @param theWidth the width in pixels
+     * @param theHeight the height in pixels
+     * @param theTransparency the kind of transparency, as in {@link Transparency}
+     * @return the image
+     */
+    static BufferedImage createImage(final int theWidth, final int theHeight,
+                                     final int theTransparency) {
+        final BufferedImage result;
+        if (GraphicsEnvironment.isHeadless()) {
+            int type = BufferedImage.TYPE_INT_ARGB_PRE;
+            if (theTransparency == Transparency.OPAQUE) {
+                type = BufferedImage.TYPE_INT_RGB;
+            }
+            result = new BufferedImage(theWidth, theHeight, type);
+        } else {
+            final GraphicsEnvironment environment =
+                    GraphicsEnvironment.getLocalGraphicsEnvironment();
+            final GraphicsConfiguration screen =
+                    environment.getDefaultScreenDevice().getDefaultConfiguration();
+            result = screen.createCompatibleImage(theWidth, theHeight, theTransparency);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,571 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.view;
+
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
+import edu.uw.tcss.model.TerrainMap;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Paint;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The terrain of the city, drawn once into images and then only copied to the screen.
+ * <br />
+ * The map is cut into square chunks of cells. A chunk is drawn into an image the first
+ * time any of it is painted, and the most recently painted chunks are kept. Terrain only
+ * changes when a new grid arrives, which throws every chunk away. The colored circles of
+ * lights and crosswalks are not part of the chunks; they are stamped over them from two
+ * small images that are redrawn only when the light changes.
+ * <br />
+ * Zoomed out, chunks are drawn at a coarser level: each level halves the size of a square
+ * in the image and doubles the number of cells along a chunk, so the number of chunks in
+ * view stays about the same at any zoom. From {@value #SAMPLED_LEVEL} levels down a square
+ * is only a few pixels, so each pixel simply takes the color of the cell under it, lights
+ * included, and those chunks are thrown away when the light changes.
+ *
+ * @author Marty Stepp
+ * @author Daniel M. Zimmerman
+ * @author Alan Fowler (acfowler@u.washington.edu)
+ * @author Charles Bryan
+ * @author Jakita Kaur (Extracted from RoadRagePanel)
+ * @version Autumn 2024
+ */
+final class TerrainLayer {
+
+    /**
+     * The number of cells along each side of a chunk.
+     */
+    private static final int CHUNK_CELLS = 8;
+
+    /**
+     * The most chunk images kept at once.
+     */
+    private static final int MAX_CHUNKS = 128;
+
+    /**
+     * The coarsest level, at which a chunk holds 64 times as many cells along each side.
+     */
+    private static final int MAX_LEVEL = 6;
+
+    /**
+     * The first level at which chunks are sampled a pixel at a time.
+     */
+    private static final int SAMPLED_LEVEL = 3;
+
+    /**
+     * The offset to use to position cross walk lines and to use for cross walk light size.
+     */
+    private static final double CROSSWALK_SCALE = .25;
+
+    /**
+     * The stroke used for painting.
+     */
+    private static final BasicStroke STROKE = new BasicStroke(3, BasicStroke.CAP_BUTT,
+                                                              BasicStroke.JOIN_MITER, 2,
+                                                              new float[] {2, 2, 2, 2}, 0);
+
+    /**
+     * The number of bits a chunk row is shifted by in a chunk key.
+     */
+    private static final int ROW_SHIFT = 29;
+
+    /**
+     * The number of bits a chunk level is shifted by in a chunk key.
+     */
+    private static final int LEVEL_SHIFT = 58;
+
+    /**
+     * The color of a sampled pixel of each terrain other than lights, by ordinal.
+     */
+    private static final int[] SAMPLE_COLORS = sampleColors();
+
+    /**
+     * The size in pixels of a side of one square.
+     */
+    private final int mySquareSize;
+
+    /**
+     * The terrain being drawn.
+     */
+    private TerrainMap myGrid;
+
+    /**
+     * The chunk images, by chunk key, least recently painted first.
+     */
+    private final Map<Long, Chunk> myChunks;
+
+    /**
+     * The circle stamped on every light, in the current light color.
+     */
+    private BufferedImage myLightSprite;
+
+    /**
+     * The circle stamped on every crosswalk, in the current light color.
+     */
+    private BufferedImage myCrosswalkSprite;
+
+    /**
+     * The color of the lights, as sampled pixels show it.
+     */
+    private int myLightRgb;
+
+    /**
+     * Creates an empty layer.
+     *
+     * @param theSquareSize the size in pixels of a side of one square
+     * @param theLightColor the color of the lights
+     */
+    TerrainLayer(final int theSquareSize, final Color theLightColor) {
+        super();
+        mySquareSize = theSquareSize;
+        myGrid = new TerrainGrid(0, 0);
+        myChunks = new LinkedHashMap<>(MAX_CHUNKS, 1, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Long, Chunk> theEldest) {
+                return size() > MAX_CHUNKS;
+            }
+        };
+        setLightColor(theLightColor);
+    }
+
+    /**
+     * Changes the terrain being drawn.
+     *
+     * @param theGrid the terrain
+     */
+    void setGrid(final TerrainMap theGrid) {
+        myGrid = theGrid;
+        myChunks.clear();
+    }
+
+    /**
+     * Redraws the light and crosswalk circles in a new color.
+     *
+     * @param theLightColor the color of the lights
+     */
+    void setLightColor(final Color theLightColor) {
+        myLightRgb = theLightColor.getRGB();
+        myChunks.keySet().removeIf(key -> key >>> LEVEL_SHIFT >= SAMPLED_LEVEL);
+        myLightSprite = SpriteCache.createImage(mySquareSize, mySquareSize,
+                                                Transparency.TRANSLUCENT);
+        final Graphics2D light = createGraphics(myLightSprite);
+        light.setPaint(theLightColor);
+        light.fillOval(0, 0, mySquareSize, mySquareSize);
+        light.dispose();
+
+        myCrosswalkSprite = SpriteCache.createImage(mySquareSize / 2, mySquareSize / 2,
+                                                    Transparency.TRANSLUCENT);
+        final Graphics2D crosswalk = createGraphics(myCrosswalkSprite);
+        crosswalk.setPaint(theLightColor);
+        crosswalk.fillOval(0, 0, mySquareSize / 2, mySquareSize / 2);
+        crosswalk.dispose();
+    }
+
+    /**
+     * Copies the terrain inside a rectangle to the screen.
+     *
+     * @param theGraphics the graphics to draw with, scaled to the zoom
+     * @param theClip the rectangle to draw, in unscaled pixels
+     * @param theScale the zoom, at which one unscaled pixel covers this many on the screen
+     */
+    void paint(final Graphics2D theGraphics, final Rectangle theClip, final double theScale) {
+        final int level = levelFor(theScale);
+        final int chunkCells = CHUNK_CELLS << level;
+        final int chunkPixels = chunkCells * mySquareSize;
+        final int right = Math.min(chunksAlong(myGrid.getWidth(), chunkCells),
+                                   chunksAlong(theClip.x + theClip.width, chunkPixels));
+        final int bottom = Math.min(chunksAlong(myGrid.getHeight(), chunkCells),
+                                    chunksAlong(theClip.y + theClip.height, chunkPixels));
+        for (int row = Math.max(0, theClip.y / chunkPixels); row < bottom; row++) {
+            for (int column = Math.max(0, theClip.x / chunkPixels); column < right; column++) {
+                final Chunk chunk = chunk(level, column, row);
+                final BufferedImage image = chunk.myImage;
+                theGraphics.drawImage(image, column * chunkPixels, row * chunkPixels,
+                                      image.getWidth() << level, image.getHeight() << level,
+                                      null);
+                stampLights(theGraphics, chunk, chunkCells, column * chunkCells,
+                            row * chunkCells);
+            }
+        }
+    }
+
+    /**
+     * Returns the level to draw chunks at for a zoom: the coarsest at which a square is
+     * still no smaller in the image than on the screen.
+     *
+     * @param theScale the zoom
+     * @return the level
+     */
+    private static int levelFor(final double theScale) {
+        int result = 0;
+        while (result < MAX_LEVEL && theScale * (2 << result) <= 1) {
+            result++;
+        }
+        return result;
+    }
+
+    /**
+     * Stamps the light and crosswalk circles of one chunk.
+     *
+     * @param theGraphics the graphics to draw with
+     * @param theChunk the chunk
+     * @param theChunkCells the number of cells along a side of the chunk
+     * @param theLeft the x-coordinate of the first column of the chunk
+     * @param theTop the y-coordinate of the first row of the chunk
+     */
+    private void stampLights(final Graphics2D theGraphics, final Chunk theChunk,
+                             final int theChunkCells, final int theLeft, final int theTop) {
+        final int inset = (int) (mySquareSize * CROSSWALK_SCALE);
+        for (final int entry : theChunk.myLights) {
+            // crosswalks are stored as the complement of their cell
+            final int cell = Math.max(entry, ~entry);
+            final int leftx = (theLeft + cell % theChunkCells) * mySquareSize;
+            final int topy = (theTop + cell / theChunkCells) * mySquareSize;
+            if (entry >= 0) {
+                theGraphics.drawImage(myLightSprite, leftx, topy, null);
+            } else {
+                theGraphics.drawImage(myCrosswalkSprite, leftx + inset, topy + inset, null);
+            }
+        }
+    }
+
+    /**
+     * Returns a chunk, drawing it first if it is not kept.
+     *
+     * @param theLevel the level of the chunk
+     * @param theColumn the column of the chunk
+     * @param theRow the row of the chunk
+     * @return the chunk
+     */
+    private Chunk chunk(final int theLevel, final int theColumn, final int theRow) {
+        final long key = (long) theLevel << LEVEL_SHIFT | (long) theRow << ROW_SHIFT
+                         | theColumn;
+        Chunk result = myChunks.get(key);
+        if (result == null) {
+            final int chunkCells = CHUNK_CELLS << theLevel;
+            final Rectangle cells = new Rectangle(theColumn * chunkCells, theRow * chunkCells,
+                                                  chunkCells, chunkCells);
+            final Rectangle onMap = cells.intersection(new Rectangle(myGrid.getWidth(),
+                                                                     myGrid.getHeight()));
+            if (theLevel < SAMPLED_LEVEL) {
+                result = drawChunk(theLevel, chunkCells, onMap);
+            } else {
+                result = sampleChunk(theLevel, onMap);
+            }
+            myChunks.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Draws the terrain of one chunk into a new image.
+     *
+     * @param theLevel the level of the chunk
+     * @param theChunkCells the number of cells along a side of the chunk
+     * @param theCells the cells of the chunk that are on the map
+     * @return the chunk
+     */
+    private Chunk drawChunk(final int theLevel, final int theChunkCells,
+                            final Rectangle theCells) {
+        final BufferedImage image = createChunkImage(theLevel, theCells);
+        final Graphics2D g2 = createGraphics(image);
+        // grass is the background showing through
+        g2.setPaint(Color.GREEN);
+        g2.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g2.scale(1.0 / (1 << theLevel), 1.0 / (1 << theLevel));
+        g2.translate(-theCells.x * mySquareSize, -theCells.y * mySquareSize);
+        int lights = 0;
+        final int[] cells = new int[theChunkCells * theChunkCells];
+        for (int y = theCells.y; y < theCells.y + theCells.height; y++) {
+            for (int x = theCells.x; x < theCells.x + theCells.width; x++) {
+                final Terrain terrain = myGrid.get(x, y);
+                drawSquare(g2, terrain, x, y);
+                // lights are stored as their cell, crosswalks as its complement
+                final int cell = (y - theCells.y) * theChunkCells + (x - theCells.x);
+                if (terrain == Terrain.LIGHT) {
+                    cells[lights++] = cell;
+                } else if (terrain == Terrain.CROSSWALK) {
+                    cells[lights++] = ~cell;
+                }
+            }
+        }
+        g2.dispose();
+        return new Chunk(image, Arrays.copyOf(cells, lights));
+    }
+
+    /**
+     * Samples the terrain of one chunk into a new image, one cell for each pixel.
+     *
+     * @param theLevel the level of the chunk
+     * @param theCells the cells of the chunk that are on the map
+     * @return the chunk
+     */
+    private Chunk sampleChunk(final int theLevel, final Rectangle theCells) {
+        final BufferedImage image = createChunkImage(theLevel, theCells);
+        final int width = image.getWidth();
+        final int[] columns = new int[width];
+        for (int px = 0; px < width; px++) {
+            columns[px] = Math.min(theCells.x + (px << theLevel) / mySquareSize,
+                                   theCells.x + theCells.width - 1);
+        }
+        final int[] pixels = new int[width * image.getHeight()];
+        for (int py = 0; py < image.getHeight(); py++) {
+            final int y = Math.min(theCells.y + (py << theLevel) / mySquareSize,
+                                   theCells.y + theCells.height - 1);
+            for (int px = 0; px < width; px++) {
+                final int ordinal = myGrid.ordinal(columns[px], y);
+                int rgb = SAMPLE_COLORS[ordinal];
+                if (ordinal == Terrain.LIGHT.ordinal()) {
+                    rgb = myLightRgb;
+                }
+                pixels[py * width + px] = rgb;
+            }
+        }
+        image.setRGB(0, 0, width, image.getHeight(), pixels, 0, width);
+        return new Chunk(image, new int[0]);
+    }
+
+    /**
+     * Creates the image of a chunk, a square for every cell at the level's size.
+     *
+     * @param theLevel the level of the chunk
+     * @param theCells the cells of the chunk that are on the map
+     * @return the image
+     */
+    private BufferedImage createChunkImage(final int theLevel, final Rectangle theCells) {
+        final int unit = 1 << theLevel;
+        return SpriteCache.createImage(chunksAlong(theCells.width * mySquareSize, unit),
+                                       chunksAlong(theCells.height * mySquareSize, unit),
+                                       Transparency.OPAQUE);
+    }
+
+    /**
+     * Draws the unchanging part of one square.
+     *
+     * @param theGraphics the graphics to draw with
+     * @param theTerrain the terrain of the square
+     * @param theX the x-coordinate of the square
+     * @param theY the y-coordinate of the square
+     */
+    private void drawSquare(final Graphics2D theGraphics, final Terrain theTerrain,
+                            final int theX, final int theY) {
+        final int leftx = theX * mySquareSize;
+        final int topy = theY * mySquareSize;
+
+        switch (theTerrain) {
+            case STREET:
+                theGraphics.setPaint(Color.LIGHT_GRAY);
+                theGraphics.fillRect(leftx, topy, mySquareSize, mySquareSize);
+                drawStreetLines(theGraphics, theX, theY);
+                break;
+
+            case WALL:
+                theGraphics.setPaint(Color.BLACK);
+                theGraphics.fillRect(leftx, topy, mySquareSize, mySquareSize);
+                break;
+
+            case TRAIL:
+                theGraphics.setPaint(Color.YELLOW.darker().darker());
+                theGraphics.fillRect(leftx, topy, mySquareSize, mySquareSize);
+                break;
+
+            case LIGHT:
+                // the circle of appropriate color is stamped over it
+                theGraphics.setPaint(Color.LIGHT_GRAY);
+                theGraphics.fillRect(leftx, topy, mySquareSize, mySquareSize);
+                break;
+
+            case CROSSWALK:
+                theGraphics.setPaint(Color.LIGHT_GRAY);
+                theGraphics.fillRect(leftx, topy, mySquareSize, mySquareSize);
+                drawCrossWalkLines(theGraphics, theX, theY);
+                break;
+
+            default:
+        }
+    }
+
+    /**
+     * Draws dotted lines on cross walks.
+     *
+     * @param theGraphics The Graphics context to use for drawing.
+     * @param theX The x-coordinate of the cross walk.
+     * @param theY The y-coordinate of the cross walk.
+     */
+    private void drawCrossWalkLines(final Graphics2D theGraphics,
+                                    final int theX, final int theY) {
+
+        final Paint oldPaint = theGraphics.getPaint();
+        theGraphics.setPaint(Color.WHITE);
+
+        final int leftx = theX * mySquareSize;
+        final int topy = theY * mySquareSize;
+
+        final int rightx = leftx + mySquareSize;
+        final int bottomy = topy + mySquareSize;
+
+        if (isValidIndex(theY - 1, theX) && myGrid.get(theX, theY - 1) == Terrain.GRASS) {
+            // GRASS is above. Let's assume GRASS is also below.
+            // DRAW lines on left and right of light
+            theGraphics.drawLine(leftx  + (int) (mySquareSize * CROSSWALK_SCALE), topy,
+                                 leftx  + (int) (mySquareSize * CROSSWALK_SCALE), bottomy);
+            theGraphics.drawLine(rightx - (int) (mySquareSize * CROSSWALK_SCALE), topy,
+                                 rightx - (int) (mySquareSize * CROSSWALK_SCALE), bottomy);
+        }
+
+
+        if (isValidIndex(theY, theX - 1) && myGrid.get(theX - 1, theY) == Terrain.GRASS) {
+            // GRASS is left. Let's assume GRASS is also right.
+            // DRAW lines above and below light
+            theGraphics.drawLine(leftx, topy + (int) (mySquareSize * CROSSWALK_SCALE),
+                                 rightx, topy + (int) (mySquareSize * CROSSWALK_SCALE));
+            theGraphics.drawLine(leftx, bottomy - (int) (mySquareSize * CROSSWALK_SCALE),
+                                 rightx, bottomy - (int) (mySquareSize * CROSSWALK_SCALE));
+        }
+
+        theGraphics.setPaint(oldPaint);
+    }
+
+    /**
+     * Draws dotted lines on streets.
+     *
+     * @param theGraphics The Graphics context to use for drawing.
+     * @param theX The x-coordinate of the street.
+     * @param theY The y-coordinate of the street.
+     */
+    private void drawStreetLines(final Graphics2D theGraphics,
+                                 final int theX, final int theY) {
+
+        final Paint oldPaint = theGraphics.getPaint();
+        theGraphics.setPaint(Color.YELLOW);
+
+        final int leftx = theX * mySquareSize;
+        final int topy = theY * mySquareSize;
+        final int centerx = leftx + mySquareSize / 2;
+        final int centery = topy + mySquareSize / 2;
+        final int rightx = leftx + mySquareSize;
+        final int bottomy = topy + mySquareSize;
+
+        if (isValidIndex(theY - 1, theX) && myGrid.get(theX, theY - 1) == Terrain.STREET) {
+            theGraphics.drawLine(centerx, centery, centerx, topy); // above
+        }
+        if (isValidIndex(theY + 1, theX) && myGrid.get(theX, theY + 1) == Terrain.STREET) {
+            theGraphics.drawLine(centerx, centery, centerx, bottomy); // below
+        }
+        if (isValidIndex(theY, theX - 1) && myGrid.get(theX - 1, theY) == Terrain.STREET) {
+            theGraphics.drawLine(centerx, centery, leftx, centery); // left
+        }
+        if (isValidIndex(theY, theX + 1) && myGrid.get(theX + 1, theY) == Terrain.STREET) {
+            theGraphics.drawLine(centerx, centery, rightx, centery); // right
+        }
+
+        theGraphics.setPaint(oldPaint);
+    }
+
+    /**
+     * Tests whether the square at the given x/y position exists on the map.
+     *
+     * @param theX The x position.
+     * @param theY The y position.
+     * @return true if the position exists on the map, false otherwise.
+     */
+    private boolean isValidIndex(final int theY, final int theX) {
+        return myGrid.contains(theX, theY);
+    }
+
+    /**
+     * Returns the number of chunks needed to cover a length.
+     *
+     * @param theLength the length
+     * @param theChunkLength the length of a chunk, in the same units
+     * @return the number of chunks
+     */
+    private static int chunksAlong(final int theLength, final int theChunkLength) {
+        return (theLength + theChunkLength - 1) / theChunkLength;
+    }
+
+    /**
+     * Returns the color each terrain is sampled as when a square is a pixel or smaller,
+     * by ordinal. Lights are sampled as streets.
+     *
+     * @return the colors
+     */
+    static int[] sampleColors() {
+        final int[] result = new int[Terrain.values().length];
+        for (final Terrain terrain : Terrain.values()) {
+            final Color color;
+            switch (terrain) {
+                case GRASS:
+                    color = Color.GREEN;
+                    break;
+
+                case WALL:
+                    color = Color.BLACK;
+                    break;
+
+                case TRAIL:
+                    color = Color.YELLOW.darker().darker();
+                    break;
+
+                default:
+                    color = Color.LIGHT_GRAY;
+            }
+            result[terrain.ordinal()] = color.getRGB();
+        }
+        return result;
+    }
+
+    /**
+     * Returns graphics for drawing into an image, set up as the panel's are.
+     *
+     * @param theImage the image
+     * @return the graphics
+     */
+    private static Graphics2D createGraphics(final BufferedImage theImage) {
+        final Graphics2D result = theImage.createGraphics();
+        result.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                                RenderingHints.VALUE_ANTIALIAS_ON);
+        result.setStroke(STROKE);
+        return result;
+    }
+
+    /**
+     * The image of one chunk, and where its lights and crosswalks are.
+     */
+    private static final class Chunk {
+
+        /**
+         * The terrain of the chunk, without the light circles.
+         */
+        private final BufferedImage myImage;
+
+        /**
+         * The cell within the chunk of every light, and the complement of the cell of
+         * every crosswalk.
+         */
+        private final int[] myLights;
+
+        /**
+         * Creates a chunk.
+         *
+         * @param theImage the terrain of the chunk
+         * @param theLights where the lights and crosswalks are
+         */
+        Chunk(final BufferedImage theImage, final int[] theLights) {
+            super();
+            myImage = theImage;
+            myLights = theLights;
+        }
+    }
+}
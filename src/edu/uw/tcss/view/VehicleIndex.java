@@ -0,0 +1,269 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.view;
+
+import edu.uw.tcss.logic.Snapshot;
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * The vehicles on the map, filed by the square block of cells each one is in, so that
+ * the vehicles in view can be found without looking at all the others.
+ * <br />
+ * Each block keeps a list of vehicles linked through arrays of vehicle indexes, so moving
+ * a vehicle from one block to another allocates nothing. The index remembers where each
+ * vehicle was in the last snapshot it was given, and looks again only at the vehicles the
+ * next snapshot lists as changed since then.
+ *
+ * @version Autumn 2024
+ * @author Jakita Kaur
+ */
+final class VehicleIndex {
+
+    /**
+     * The number of cells along each side of a block.
+     */
+    private static final int BLOCK_CELLS = 16;
+
+    /**
+     * Marks the end of a list of vehicles.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The x-coordinate of each vehicle in the last snapshot.
+     */
+    private int[] myX;
+
+    /**
+     * The y-coordinate of each vehicle in the last snapshot.
+     */
+    private int[] myY;
+
+    /**
+     * The number of blocks along each row of blocks.
+     */
+    private int myBlocksAcross;
+
+    /**
+     * The number of rows of blocks.
+     */
+    private int myBlocksDown;
+
+    /**
+     * The index of the first vehicle in each block, or NONE.
+     */
+    private int[] myFirst;
+
+    /**
+     * The index of the next vehicle in the same block as each vehicle, or NONE.
+     */
+    private int[] myNext;
+
+    /**
+     * The index of the previous vehicle in the same block as each vehicle, or NONE.
+     */
+    private int[] myPrevious;
+
+    /**
+     * The block each vehicle is filed in.
+     */
+    private int[] myBlock;
+
+    /**
+     * The indexes of the vehicles found by the last search.
+     */
+    private int[] myFound;
+
+    /**
+     * Creates an index of no vehicles on an empty map.
+     */
+    VehicleIndex() {
+        super();
+        myFound = new int[0];
+        setMapSize(0, 0);
+    }
+
+    /**
+     * Changes the size of the map and forgets every vehicle; the next snapshot files
+     * them all again.
+     *
+     * @param theWidth the number of columns
+     * @param theHeight the number of rows
+     */
+    void setMapSize(final int theWidth, final int theHeight) {
+        myBlocksAcross = Math.max(1, (theWidth + BLOCK_CELLS - 1) / BLOCK_CELLS);
+        myBlocksDown = Math.max(1, (theHeight + BLOCK_CELLS - 1) / BLOCK_CELLS);
+        myFirst = new int[myBlocksAcross * myBlocksDown];
+        Arrays.fill(myFirst, NONE);
+        myX = null;
+    }
+
+    /**
+     * Files the vehicles of a snapshot, looking only at those the snapshot lists as
+     * changed and moving only those that changed block, and finds the cells whose
+     * drawing changed: the cells every changed vehicle left and entered, the cell it
+     * moves from in the snapshot, and the cells of vehicles that turned, died or
+     * revived.
+     *
+     * @param theSnapshot the snapshot
+     * @return the smallest rectangle of cells holding every changed cell, empty if none
+     *         changed, or null if every vehicle was filed again
+     */
+    Rectangle update(final Snapshot theSnapshot) {
+        final int count = theSnapshot.getVehicleCount();
+        Rectangle result = null;
+        if (myX == null || myX.length != count || theSnapshot.isEveryVehicleChanged()) {
+            fileAll(theSnapshot);
+        } else {
+            int left = Integer.MAX_VALUE;
+            int top = Integer.MAX_VALUE;
+            int right = Integer.MIN_VALUE;
+            int bottom = Integer.MIN_VALUE;
+            for (int k = 0; k < theSnapshot.getChangedCount(); k++) {
+                final int i = theSnapshot.getChangedIndex(k);
+                final int x = theSnapshot.getX(i);
+                final int y = theSnapshot.getY(i);
+                final int previousX = theSnapshot.getPreviousX(i);
+                final int previousY = theSnapshot.getPreviousY(i);
+                left = Math.min(left, Math.min(x, Math.min(myX[i], previousX)));
+                top = Math.min(top, Math.min(y, Math.min(myY[i], previousY)));
+                right = Math.max(right, Math.max(x, Math.max(myX[i], previousX)));
+                bottom = Math.max(bottom, Math.max(y, Math.max(myY[i], previousY)));
+                final int block = blockOf(x, y);
+                if (block != myBlock[i]) {
+                    unlink(i);
+                    link(i, block);
+                }
+                myX[i] = x;
+                myY[i] = y;
+            }
+            result = new Rectangle();
+            if (left <= right) {
+                result.setBounds(left, top, right - left + 1, bottom - top + 1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Performs an action on every vehicle in a rectangle of cells, in the order the
+     * vehicles take their turns, so that later vehicles are drawn over earlier ones.
+     *
+     * @param theCells the rectangle of cells
+     * @param theAction the action, given the index of each vehicle
+     */
+    void forEachIn(final Rectangle theCells, final IntConsumer theAction) {
+        if (myX != null) {
+            int found = 0;
+            final int right = blockColumn(theCells.x + theCells.width - 1);
+            final int bottom = blockRow(theCells.y + theCells.height - 1);
+            for (int row = blockRow(theCells.y); row <= bottom; row++) {
+                for (int column = blockColumn(theCells.x); column <= right; column++) {
+                    for (int i = myFirst[row * myBlocksAcross + column]; i != NONE;
+                         i = myNext[i]) {
+                        if (theCells.contains(myX[i], myY[i])) {
+                            if (found == myFound.length) {
+                                myFound = Arrays.copyOf(myFound, found * 2 + 1);
+                            }
+                            myFound[found++] = i;
+                        }
+                    }
+                }
+            }
+            Arrays.sort(myFound, 0, found);
+            for (int i = 0; i < found; i++) {
+                theAction.accept(myFound[i]);
+            }
+        }
+    }
+
+    /**
+     * Files every vehicle of a snapshot afresh.
+     *
+     * @param theSnapshot the snapshot
+     */
+    private void fileAll(final Snapshot theSnapshot) {
+        final int count = theSnapshot.getVehicleCount();
+        Arrays.fill(myFirst, NONE);
+        myX = new int[count];
+        myY = new int[count];
+        myNext = new int[count];
+        myPrevious = new int[count];
+        myBlock = new int[count];
+        for (int i = 0; i < count; i++) {
+            myX[i] = theSnapshot.getX(i);
+            myY[i] = theSnapshot.getY(i);
+            link(i, blockOf(myX[i], myY[i]));
+        }
+    }
+
+    /**
+     * Adds a vehicle to the front of the list of a block.
+     *
+     * @param theIndex the index of the vehicle
+     * @param theBlock the block
+     */
+    private void link(final int theIndex, final int theBlock) {
+        final int first = myFirst[theBlock];
+        myBlock[theIndex] = theBlock;
+        myPrevious[theIndex] = NONE;
+        myNext[theIndex] = first;
+        if (first != NONE) {
+            myPrevious[first] = theIndex;
+        }
+        myFirst[theBlock] = theIndex;
+    }
+
+    /**
+     * Removes a vehicle from the list of its block.
+     *
+     * @param theIndex the index of the vehicle
+     */
+    private void unlink(final int theIndex) {
+        final int previous = myPrevious[theIndex];
+        final int next = myNext[theIndex];
+        if (previous == NONE) {
+            myFirst[myBlock[theIndex]] = next;
+        } else {
+            myNext[previous] = next;
+        }
+        if (next != NONE) {
+            myPrevious[next] = previous;
+        }
+    }
+
+    /**
+     * Returns the block a cell is in; cells off the map are filed in the nearest block.
+     *
+     * @param theX the x-coordinate of the cell
+     * @param theY the y-coordinate of the cell
+     * @return the block
+     */
+    private int blockOf(final int theX, final int theY) {
+        return blockRow(theY) * myBlocksAcross + blockColumn(theX);
+    }
+
+    /**
+     * Returns the column of blocks an x-coordinate is in, or the nearest one.
+     *
+     * @param theX the x-coordinate
+     * @return the column of blocks
+     */
+    private int blockColumn(final int theX) {
+        return Math.max(0, Math.min(myBlocksAcross - 1, theX / BLOCK_CELLS));
+    }
+
+    /**
+     * Returns the row of blocks a y-coordinate is in, or the nearest one.
+     *
+     * @param theY the y-coordinate
+     * @return the row of blocks
+     */
+    private int blockRow(final int theY) {
+        return Math.max(0, Math.min(myBlocksDown - 1, theY / BLOCK_CELLS));
+    }
+}
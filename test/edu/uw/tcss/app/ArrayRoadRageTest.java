@@ -0,0 +1,123 @@
+package edu.uw.tcss.app;
+
+import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_VEHICLES;
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.uw.tcss.logic.ArrayRoadRage;
+import edu.uw.tcss.logic.RoadRage;
+import edu.uw.tcss.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class ArrayRoadRageTest {
+
+    private ArrayRoadRage roadRage;
+    private List<Vehicle> vehicles;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        final Terrain[][] grid = new Terrain[3][5];
+        for (int x = 0; x < 5; x++) {
+            grid[0][x] = Terrain.WALL;
+            grid[1][x] = x == 0 || x == 4 ? Terrain.WALL : Terrain.STREET;
+            grid[2][x] = Terrain.WALL;
+        }
+        roadRage = new ArrayRoadRage(grid, List.of(new Car(1, 1, Direction.EAST),
+                                                   new Bicycle(3, 1, Direction.WEST)));
+        vehicles = new ArrayList<>();
+        roadRage.addPropertyChangeListener(PROPERTY_VEHICLES,
+                evt -> vehicles = (List<Vehicle>) evt.getNewValue());
+        roadRage.start();
+    }
+
+    @Test
+    void testViewsReflectInitialState() {
+        assertEquals(2, vehicles.size());
+        assertEquals(VehicleType.CAR, VehicleType.of(vehicles.get(0)));
+        assertEquals(1, vehicles.get(0).getX());
+        assertEquals(Direction.EAST, vehicles.get(0).getDirection());
+        assertEquals("car.gif", vehicles.get(0).getImageFileName());
+        assertEquals(35, vehicles.get(1).getDeathTime());
+    }
+
+    @Test
+    void testViewsAreMadeOnce() {
+        final List<Vehicle> before = vehicles;
+        roadRage.advance();
+
+        assertSame(before.get(0), vehicles.get(0));
+        assertSame(before.get(1), vehicles.get(1));
+        final VehicleStore store = new VehicleStore(List.of(new Car(0, 0, Direction.NORTH)));
+        assertSame(store.view(0), store.views().get(0));
+        assertSame(store.views().get(0), store.views().get(0));
+    }
+
+    @Test
+    void testAdvanceMovesAndCollidesLikeObjects() {
+        roadRage.advance();
+
+        assertEquals(2, vehicles.get(0).getX());
+        assertEquals(2, vehicles.get(1).getX());
+        assertTrue(vehicles.get(0).isAlive());
+        assertFalse(vehicles.get(1).isAlive());
+        assertEquals("bicycle_dead.gif", vehicles.get(1).getImageFileName());
+    }
+
+    @Test
+    void testResetRestoresInitialState() {
+        roadRage.advance();
+        roadRage.reset();
+
+        assertEquals(1, vehicles.get(0).getX());
+        assertEquals(3, vehicles.get(1).getX());
+        assertTrue(vehicles.get(1).isAlive());
+    }
+
+    @Test
+    void testUnsupportedVehicleIsRejected() {
+        final Vehicle custom = new VehicleStore(List.of(new Car(0, 0, Direction.NORTH))).view(0);
+        assertThrows(IllegalArgumentException.class,
+                () -> new VehicleStore(List.of(custom)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRandomChoicesMatchObjectsForSameSeed() {
+        final Terrain[][] grid = new Terrain[7][7];
+        for (int y = 0; y < 7; y++) {
+            for (int x = 0; x < 7; x++) {
+                final boolean edge = x == 0 || y == 0 || x == 6 || y == 6;
+                grid[y][x] = edge ? Terrain.WALL : Terrain.STREET;
+            }
+        }
+        final List<Vehicle> objects = List.of(new Atv(1, 1, Direction.EAST),
+                new Truck(5, 5, Direction.WEST), new Atv(3, 3, Direction.NORTH));
+        final RoadRage objectEngine = new RoadRage(grid, objects);
+        final ArrayRoadRage arrayEngine = new ArrayRoadRage(grid, objects);
+        arrayEngine.addPropertyChangeListener(PROPERTY_VEHICLES,
+                evt -> vehicles = (List<Vehicle>) evt.getNewValue());
+        objectEngine.setSeed(99);
+        arrayEngine.setSeed(99);
+        objectEngine.start();
+        arrayEngine.start();
+
+        for (int i = 0; i < 50; i++) {
+            objectEngine.advance();
+            arrayEngine.advance();
+            assertEquals(describe(objects), describe(vehicles));
+        }
+    }
+
+    static String describe(final List<Vehicle> theVehicles) {
+        final StringBuilder result = new StringBuilder();
+        for (final Vehicle v : theVehicles) {
+            result.append(v.getX()).append(',').append(v.getY()).append(' ')
+                  .append(v.getDirection()).append(' ').append(v.isAlive()).append("; ");
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package edu.uw.tcss.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.uw.tcss.logic.Engine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+class BatchRunnerTest {
+
+    private static final File MAP = new File("maps/city_map1.txt");
+
+    @TempDir
+    File dir;
+
+    private static String withoutTimes(final String theReport) {
+        return theReport.replaceAll("\"(map|seconds|ticksPerSecond|vehicleMovesPerSecond"
+                                    + "|peakHeapBytes)\": [^,\n]*", "");
+    }
+
+    @Test
+    void testReportDescribesRun() throws IOException {
+        final String report = BatchRunner.run(MAP, 50, 7, Engine.ARRAY);
+
+        assertTrue(report.startsWith("{") && report.endsWith("}"));
+        assertTrue(report.contains("\"engine\": \"array\""));
+        assertTrue(report.contains("\"ticks\": 50,"));
+        assertTrue(report.contains("\"vehicles\": 9,"));
+        assertTrue(report.contains("\"totalCollisions\": "));
+        assertTrue(report.contains("\"peakHeapBytes\": "));
+    }
+
+    @Test
+    void testTilesRunLikeTheGrid() throws IOException {
+        final File text = new File(dir, "city.txt");
+        Files.copy(MAP.toPath(), text.toPath());
+        final File tiles = new File(dir, "city.txt.tiles");
+
+        for (final Engine engine : Engine.values()) {
+            assertEquals(withoutTimes(BatchRunner.run(text, 50, 7, engine)),
+                         withoutTimes(BatchRunner.run(tiles, 50, 7, engine)), engine.name());
+        }
+        assertTrue(tiles.isFile());
+    }
+
+    @Test
+    void testNegativeTicksAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> BatchRunner.run(MAP, -1, 0, Engine.OBJECT));
+    }
+
+    @Test
+    void testMissingMapIsReported() {
+        assertThrows(IOException.class,
+                () -> BatchRunner.run(new File("maps/no_such_map.txt"), 1, 0, Engine.OBJECT));
+    }
+}
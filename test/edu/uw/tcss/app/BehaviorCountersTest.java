@@ -0,0 +1,158 @@
+package edu.uw.tcss.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.uw.tcss.io.BehaviorCsvWriter;
+import edu.uw.tcss.io.CityMap;
+import edu.uw.tcss.io.CityReader;
+import edu.uw.tcss.logic.AbstractRoadRage;
+import edu.uw.tcss.logic.Engine;
+import edu.uw.tcss.model.Atv;
+import edu.uw.tcss.model.BehaviorCounters;
+import edu.uw.tcss.model.BehaviorCounters.Behavior;
+import edu.uw.tcss.model.Bicycle;
+import edu.uw.tcss.model.Car;
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.SimulationRandom;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.VehicleStore;
+import edu.uw.tcss.model.VehicleType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+class BehaviorCountersTest {
+
+    private static final File MAP = new File("maps/city_map1.txt");
+
+    private static AbstractRoadRage run(final Engine theEngine, final int theTicks)
+            throws IOException {
+        final CityMap city = CityReader.read(MAP);
+        final AbstractRoadRage result = theEngine.create(city.getGrid(), city.getVehicles());
+        result.setSeed(305);
+        result.start();
+        result.advance(theTicks);
+        return result;
+    }
+
+    @Test
+    void testEnginesCountTheSameBehavior() throws IOException {
+        final BehaviorCounters.Counts expected =
+                run(Engine.OBJECT, 500).getBehaviorCounters().snapshot();
+        assertTrue(expected.total(Behavior.REVERSED) > 0);
+        assertTrue(expected.total(Behavior.REROLLED) > 0, "the map has an ATV");
+        assertEquals(0, expected.get(Behavior.REVERSED, VehicleType.ATV));
+
+        final AbstractRoadRage array = run(Engine.ARRAY, 500);
+        final BehaviorCounters.Counts actual = array.getBehaviorCounters().snapshot();
+        for (final Behavior behavior : Behavior.values()) {
+            for (final VehicleType type : VehicleType.values()) {
+                assertEquals(expected.get(behavior, type), actual.get(behavior, type),
+                             behavior + " " + type);
+            }
+        }
+        assertEquals(array.getMetrics().getBlockedMoves(),
+                     actual.total(Behavior.BLOCKED));
+        assertTrue(actual.total(Behavior.COLLISION_LOST) <= array.getCollisionCount());
+    }
+
+    @Test
+    void testParallelEngineCountsEveryBlockedMove() throws IOException {
+        final AbstractRoadRage parallel = run(Engine.PARALLEL, 500);
+        final BehaviorCounters.Counts counts = parallel.getBehaviorCounters().snapshot();
+        assertEquals(parallel.getMetrics().getBlockedMoves(),
+                     counts.total(Behavior.BLOCKED));
+        assertTrue(counts.total(Behavior.REROLLED) > 0);
+    }
+
+    @Test
+    void testAtvCountsRerolls() {
+        final BehaviorCounters counters = new BehaviorCounters();
+        final Atv atv = new Atv(0, 0, Direction.NORTH);
+        atv.setRandom(new SimulationRandom(305));
+        atv.setCounters(counters);
+        final Map<Direction, Terrain> neighbors = new EnumMap<>(Direction.class);
+        for (final Direction direction : Direction.values()) {
+            neighbors.put(direction, Terrain.WALL);
+        }
+        neighbors.put(Direction.EAST, Terrain.STREET);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Direction.EAST, atv.chooseDirection(neighbors));
+        }
+        // only one direction in four is open, so most choices take several draws
+        assertTrue(counters.get(Behavior.REROLLED, VehicleType.ATV) > 100);
+        assertEquals(0, counters.get(Behavior.REROLLED, VehicleType.CAR));
+    }
+
+    @Test
+    void testSnapshotThenResetLosesNothing() throws InterruptedException {
+        final BehaviorCounters counters = new BehaviorCounters();
+        final int threads = 4;
+        final int increments = 100_000;
+        final Thread[] writers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < increments; i++) {
+                    counters.increment(Behavior.BLOCKED, VehicleType.TAXI);
+                }
+            });
+            writers[t].start();
+        }
+        long seen = 0;
+        for (final Thread writer : writers) {
+            while (writer.isAlive()) {
+                seen += counters.snapshotThenReset().total(Behavior.BLOCKED);
+            }
+            writer.join();
+        }
+        seen += counters.snapshotThenReset().total(Behavior.BLOCKED);
+        assertEquals((long) threads * increments, seen);
+        assertEquals(0, counters.snapshot().total(Behavior.BLOCKED));
+    }
+
+    @Test
+    void testStoreCountsLostCollisionsThroughViewsToo() {
+        final BehaviorCounters counters = new BehaviorCounters();
+        final VehicleStore store = new VehicleStore(List.of(
+            new Car(1, 1, Direction.EAST), new Bicycle(1, 1, Direction.WEST),
+            new Bicycle(2, 1, Direction.WEST)));
+        store.setCounters(counters);
+
+        store.collide(1, 0);
+        store.view(2).collide(store.view(0));
+        assertEquals(2, counters.get(Behavior.COLLISION_LOST, VehicleType.BICYCLE));
+        store.view(0).collide(store.view(2));
+        assertEquals(2, counters.snapshot().total(Behavior.COLLISION_LOST));
+    }
+
+    @Test
+    void testCsvHoldsTheLastCounts(@TempDir final Path theDirectory) throws IOException {
+        final Path file = theDirectory.resolve("behavior.csv");
+        final BehaviorCounters counters = new BehaviorCounters();
+        counters.add(Behavior.COLLISION_LOST, VehicleType.HUMAN, 7);
+        try (BehaviorCsvWriter writer = new BehaviorCsvWriter(counters, file, 1000)) {
+            writer.dump();
+            counters.increment(Behavior.REVERSED, VehicleType.TRUCK);
+        }
+
+        final List<String> lines = Files.readAllLines(file);
+        assertEquals("millis,type,reversed,blocked,rerolled,collision_lost", lines.get(0));
+        final int types = VehicleType.values().length;
+        assertEquals(1 + 2 * types, lines.size(), "one dump, then one on close");
+        assertTrue(lines.get(1).endsWith(",atv,0,0,0,0"));
+        assertTrue(lines.get(types).endsWith(",truck,0,0,0,0"));
+        final String last = lines.get(lines.size() - 1);
+        assertTrue(last.endsWith(",truck,1,0,0,0"), last);
+        assertTrue(lines.get(lines.size() - 3).endsWith(",human,0,0,0,7"));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BehaviorCsvWriter(counters, file, 0));
+    }
+}
@@ -0,0 +1,163 @@
+package edu.uw.tcss.app;
+
+import static edu.uw.tcss.app.ArrayRoadRageTest.describe;
+import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_TIME;
+import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_VEHICLES;
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.uw.tcss.io.CityMap;
+import edu.uw.tcss.io.CityReader;
+import edu.uw.tcss.logic.AbstractRoadRage;
+import edu.uw.tcss.logic.Engine;
+import edu.uw.tcss.model.Vehicle;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class CheckpointTest {
+
+    private static final File MAP = new File("maps/city_map1.txt");
+
+    /** An engine on city_map1 and the latest vehicle list and time it reported. */
+    private static final class Run {
+        private final AbstractRoadRage roadRage;
+        private List<Vehicle> vehicles = new ArrayList<>();
+        private long time;
+
+        @SuppressWarnings("unchecked")
+        Run(final Engine theEngine, final long theSeed) throws IOException {
+            final CityMap city = CityReader.read(MAP);
+            roadRage = theEngine.create(city.getGrid(), city.getVehicles());
+            roadRage.addPropertyChangeListener(PROPERTY_VEHICLES,
+                    evt -> vehicles = (List<Vehicle>) evt.getNewValue());
+            roadRage.addPropertyChangeListener(PROPERTY_TIME,
+                    evt -> time = (Long) evt.getNewValue());
+            roadRage.setSeed(theSeed);
+            roadRage.start();
+        }
+
+        List<String> play(final int theTicks) {
+            final List<String> result = new ArrayList<>();
+            for (int i = 0; i < theTicks; i++) {
+                roadRage.advance();
+                result.add(describe(vehicles));
+            }
+            return result;
+        }
+
+        byte[] save() throws IOException {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            roadRage.save(out);
+            return out.toByteArray();
+        }
+
+        void load(final byte[] theCheckpoint) throws IOException {
+            roadRage.load(new ByteArrayInputStream(theCheckpoint));
+        }
+    }
+
+    @Test
+    void testLoadedRunContinuesLikeSavedRun() throws IOException {
+        for (final Engine engine : Engine.values()) {
+            final Run saved = new Run(engine, 305);
+            saved.play(40);
+            final byte[] checkpoint = saved.save();
+            final List<String> expected = saved.play(200);
+
+            final Run loaded = new Run(engine, 1);
+            loaded.play(7);
+            loaded.load(checkpoint);
+            assertEquals(40, loaded.time, engine.name());
+            assertEquals(expected, loaded.play(200), engine.name());
+            assertEquals(saved.roadRage.getMoveCount(), loaded.roadRage.getMoveCount());
+            assertEquals(saved.roadRage.getCollisionCount(),
+                         loaded.roadRage.getCollisionCount());
+            assertEquals(305, loaded.roadRage.getSeed());
+        }
+    }
+
+    @Test
+    void testCheckpointMovesBetweenObjectAndArrayEngines() throws IOException {
+        final Run saved = new Run(Engine.ARRAY, 42);
+        saved.play(25);
+        final byte[] checkpoint = saved.save();
+        final List<String> expected = saved.play(100);
+
+        final Run loaded = new Run(Engine.OBJECT, 0);
+        loaded.load(checkpoint);
+        assertEquals(expected, loaded.play(100));
+    }
+
+    @Test
+    void testLoadingReadsNothingPastTheCheckpoint() throws IOException {
+        final Run run = new Run(Engine.ARRAY, 11);
+        run.play(20);
+        final byte[] checkpoint = run.save();
+        final byte[] trailer = new byte[100_000];
+        Arrays.fill(trailer, (byte) 7);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(checkpoint);
+        out.write(trailer);
+
+        final ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        new Run(Engine.ARRAY, 0).roadRage.load(in);
+        assertArrayEquals(trailer, in.readAllBytes());
+    }
+
+    @Test
+    void testSavingTwiceGivesSameBytes() throws IOException {
+        final Run run = new Run(Engine.OBJECT, 9);
+        run.play(30);
+        assertArrayEquals(run.save(), run.save());
+    }
+
+    @Test
+    void testSavingBeforeStartLeavesTheRunAlone() throws IOException {
+        for (final Engine engine : Engine.values()) {
+            final CityMap city = CityReader.read(MAP);
+            final AbstractRoadRage saved = engine.create(city.getGrid(), city.getVehicles());
+            final byte[] checkpoint = save(saved);
+            assertArrayEquals(checkpoint, save(saved), engine.name());
+            saved.advance(50);
+
+            final CityMap copy = CityReader.read(MAP);
+            final AbstractRoadRage loaded = engine.create(copy.getGrid(), copy.getVehicles());
+            loaded.load(new ByteArrayInputStream(checkpoint));
+            loaded.advance(50);
+            assertArrayEquals(save(saved), save(loaded), engine.name());
+        }
+    }
+
+    private static byte[] save(final AbstractRoadRage theRoadRage) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        theRoadRage.save(out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void testDamagedCheckpointsAreRejected() throws IOException {
+        final Run run = new Run(Engine.OBJECT, 9);
+        final byte[] checkpoint = run.save();
+
+        assertThrows(IOException.class,
+                () -> run.load(Arrays.copyOf(checkpoint, checkpoint.length - 1)));
+        assertThrows(IOException.class, () -> run.load(new byte[64]));
+        final byte[] badVersion = checkpoint.clone();
+        badVersion[5] = 99;
+        assertThrows(IOException.class, () -> run.load(badVersion));
+    }
+
+    @Test
+    void testCheckpointOfAnotherCityIsRejected() throws IOException {
+        final Run run = new Run(Engine.OBJECT, 9);
+        final byte[] other = new Run(Engine.OBJECT, 9).save();
+        other[17]--;  // the low byte of the vehicle count
+        assertThrows(IOException.class, () -> run.load(other));
+    }
+}
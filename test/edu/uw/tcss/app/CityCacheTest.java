@@ -0,0 +1,80 @@
+package edu.uw.tcss.app;
+
+import static edu.uw.tcss.app.CityReaderTest.assertSameCity;
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.uw.tcss.io.CityCache;
+import edu.uw.tcss.io.CityReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+class CityCacheTest {
+
+    @TempDir
+    File dir;
+
+    private File writeCity(final long theSeed) throws IOException {
+        final CityGenerator generator = new CityGenerator(80, 60, theSeed);
+        final StringWriter out = new StringWriter();
+        generator.write(out, generator.defaultPopulation());
+        final File file = new File(dir, "city.txt");
+        Files.writeString(file.toPath(), out.toString());
+        return file;
+    }
+
+    @Test
+    void testCompiledCopyIsWrittenAndReused() throws IOException {
+        final File text = writeCity(4);
+        final File compiled = CityCache.compiledFile(text);
+        assertFalse(compiled.exists());
+
+        assertSameCity(CityReader.read(text), CityCache.read(text));
+        assertTrue(compiled.exists());
+        final byte[] bytes = Files.readAllBytes(compiled.toPath());
+
+        assertSameCity(CityReader.read(text), CityCache.read(text));
+        assertArrayEquals(bytes, Files.readAllBytes(compiled.toPath()));
+        assertFalse(new File(dir, compiled.getName() + ".tmp").exists());
+    }
+
+    @Test
+    void testChangedTextIsCompiledAgain() throws IOException {
+        final File text = writeCity(4);
+        CityCache.read(text);
+        final byte[] before = Files.readAllBytes(CityCache.compiledFile(text).toPath());
+
+        writeCity(5);
+        assertSameCity(CityReader.read(text), CityCache.read(text));
+        assertFalse(Arrays.equals(before,
+                                  Files.readAllBytes(CityCache.compiledFile(text).toPath())));
+    }
+
+    @Test
+    void testDamagedCopyIsReplaced() throws IOException {
+        final File text = writeCity(6);
+        CityCache.read(text);
+        final File compiled = CityCache.compiledFile(text);
+        final byte[] good = Files.readAllBytes(compiled.toPath());
+
+        final byte[] damaged = good.clone();
+        Arrays.fill(damaged, good.length / 2, good.length, (byte) 0x7F);
+        Files.write(compiled.toPath(), damaged);
+        assertSameCity(CityReader.read(text), CityCache.read(text));
+        assertArrayEquals(good, Files.readAllBytes(compiled.toPath()));
+
+        Files.write(compiled.toPath(), Arrays.copyOf(good, good.length - 1));
+        assertSameCity(CityReader.read(text), CityCache.read(text));
+        assertArrayEquals(good, Files.readAllBytes(compiled.toPath()));
+    }
+
+    @Test
+    void testMissingTextIsAnError() {
+        assertThrows(IOException.class, () -> CityCache.read(new File(dir, "none.txt")));
+    }
+}
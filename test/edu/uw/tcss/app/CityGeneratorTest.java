@@ -0,0 +1,109 @@
+package edu.uw.tcss.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.uw.tcss.io.CityMap;
+import edu.uw.tcss.io.CityReader;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
+import edu.uw.tcss.model.Vehicle;
+import edu.uw.tcss.model.VehicleType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+class CityGeneratorTest {
+
+    @TempDir
+    File dir;
+
+    private static String generate(final int theWidth, final int theHeight, final long theSeed,
+                                   final Map<VehicleType, Integer> thePopulation)
+            throws IOException {
+        final StringWriter out = new StringWriter();
+        new CityGenerator(theWidth, theHeight, theSeed).write(out, thePopulation);
+        return out.toString();
+    }
+
+    private CityMap read(final String theText) throws IOException {
+        final File file = new File(dir, "city.txt");
+        Files.writeString(file.toPath(), theText);
+        return CityReader.read(file);
+    }
+
+    @Test
+    void testSameSeedGivesSameCity() throws IOException {
+        final CityGenerator generator = new CityGenerator(150, 120, 5);
+        final Map<VehicleType, Integer> population = generator.defaultPopulation();
+
+        assertEquals(generate(150, 120, 5, population), generate(150, 120, 5, population));
+        assertNotEquals(generate(150, 120, 5, population), generate(150, 120, 6, population));
+    }
+
+    @Test
+    void testCityIsReadableAndHasEveryTerrain() throws IOException {
+        final CityGenerator generator = new CityGenerator(100, 100, 11);
+        final CityMap city = read(generate(100, 100, 11, generator.defaultPopulation()));
+        final TerrainGrid grid = city.getGrid();
+
+        assertEquals(100, grid.getHeight());
+        assertEquals(100, grid.getWidth());
+        final Set<Terrain> seen = EnumSet.noneOf(Terrain.class);
+        for (int y = 0; y < 100; y++) {
+            for (int x = 0; x < 100; x++) {
+                assertEquals(generator.terrainAt(x, y), grid.get(x, y));
+                seen.add(grid.get(x, y));
+            }
+            assertEquals(Terrain.WALL, grid.get(0, y));
+            assertEquals(Terrain.WALL, grid.get(99, y));
+        }
+        assertEquals(EnumSet.allOf(Terrain.class), seen);
+    }
+
+    @Test
+    void testPopulationIsPlacedOnStartingTerrain() throws IOException {
+        final Map<VehicleType, Integer> population = new EnumMap<>(VehicleType.class);
+        population.put(VehicleType.HUMAN, 40);
+        population.put(VehicleType.TAXI, 25);
+        population.put(VehicleType.BICYCLE, 10);
+        final CityMap city = read(generate(120, 100, 3, population));
+
+        assertEquals(75, city.getVehicles().size());
+        final Map<VehicleType, Integer> counts = new EnumMap<>(VehicleType.class);
+        for (final Vehicle v : city.getVehicles()) {
+            counts.merge(VehicleType.of(v), 1, Integer::sum);
+            final Terrain terrain = city.getGrid().get(v.getX(), v.getY());
+            switch (VehicleType.of(v)) {
+                case HUMAN -> assertEquals(Terrain.GRASS, terrain);
+                case TAXI -> assertEquals(Terrain.STREET, terrain);
+                default -> assertTrue(terrain == Terrain.STREET || terrain == Terrain.TRAIL);
+            }
+        }
+        assertEquals(population, counts);
+    }
+
+    @Test
+    void testSizesOutOfRangeAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new CityGenerator(7, 100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new CityGenerator(100, 10_001, 0));
+    }
+
+    @Test
+    void testMalformedCountsAreRejected() {
+        final CityGenerator generator = new CityGenerator(100, 100, 0);
+        assertEquals(Map.of(VehicleType.TRUCK, 4), generator.parsePopulation("100", "100", "0",
+                                                                            "t=4"));
+        for (final String count : new String[] {"", "t", "t4", "q=4"}) {
+            assertThrows(IllegalArgumentException.class,
+                () -> generator.parsePopulation("100", "100", "0", count), count);
+        }
+    }
+}
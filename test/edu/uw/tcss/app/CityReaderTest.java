@@ -0,0 +1,113 @@
+package edu.uw.tcss.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.uw.tcss.io.CityMap;
+import edu.uw.tcss.io.CityReader;
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.Vehicle;
+import edu.uw.tcss.model.VehicleType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.List;
+
+class CityReaderTest {
+
+    @TempDir
+    File dir;
+
+    private CityMap read(final String theText) throws IOException {
+        final File file = new File(dir, "city.txt");
+        Files.writeString(file.toPath(), theText);
+        return CityReader.read(file);
+    }
+
+    private static String generate(final CityGenerator theGenerator) throws IOException {
+        final StringWriter out = new StringWriter();
+        theGenerator.write(out, theGenerator.defaultPopulation());
+        return out.toString();
+    }
+
+    static void assertSameCity(final CityMap theExpected, final CityMap theActual) {
+        assertEquals(theExpected.getGrid(), theActual.getGrid());
+        assertEquals(theExpected.getVehicles().size(), theActual.getVehicles().size());
+        for (int i = 0; i < theExpected.getVehicles().size(); i++) {
+            final Vehicle expected = theExpected.getVehicles().get(i);
+            final Vehicle actual = theActual.getVehicles().get(i);
+            assertEquals(VehicleType.of(expected), VehicleType.of(actual));
+            assertEquals(expected.getX(), actual.getX());
+            assertEquals(expected.getY(), actual.getY());
+            assertEquals(expected.getDirection(), actual.getDirection());
+        }
+    }
+
+    @Test
+    void testSmallMap() throws IOException {
+        final CityMap city = read("2 3\n|.X\n+#-\n3\nC 0 0 E\nH 2 1 N extra\nX 1 1 S");
+
+        assertEquals(Terrain.STREET, city.getGrid().get(0, 0));
+        assertEquals(Terrain.TRAIL, city.getGrid().get(1, 0));
+        assertEquals(Terrain.WALL, city.getGrid().get(2, 0));
+        assertEquals(Terrain.LIGHT, city.getGrid().get(0, 1));
+        assertEquals(Terrain.CROSSWALK, city.getGrid().get(1, 1));
+        assertEquals(Terrain.GRASS, city.getGrid().get(2, 1));
+        final List<Vehicle> vehicles = city.getVehicles();
+        assertEquals(3, vehicles.size());
+        assertEquals(VehicleType.HUMAN, VehicleType.of(vehicles.get(1)));
+        assertEquals(2, vehicles.get(1).getX());
+        assertEquals(1, vehicles.get(1).getY());
+        assertEquals(Direction.SOUTH, vehicles.get(2).getDirection());
+    }
+
+    @Test
+    void testLargeMapIsReadInParallel() throws IOException {
+        // more than a mebibyte, so the rows and vehicle lines are split between threads
+        final CityGenerator generator = new CityGenerator(1100, 1000, 21);
+        final CityMap city = read(generate(generator));
+
+        assertEquals(1000, city.getGrid().getHeight());
+        for (int y = 0; y < 1000; y++) {
+            for (int x = 0; x < 1100; x++) {
+                assertEquals(generator.terrainAt(x, y), city.getGrid().get(x, y));
+            }
+        }
+        final int expected = generator.defaultPopulation().values().stream()
+                                      .mapToInt(Integer::intValue).sum();
+        assertEquals(expected, city.getVehicles().size());
+    }
+
+    @Test
+    void testLineEndingsAndRaggedRowsGiveTheSameCity() throws IOException {
+        final String text = generate(new CityGenerator(60, 40, 8));
+        final CityMap city = read(text);
+
+        assertSameCity(city, read(text.replace("\n", "\r\n")));
+        // one row with extra characters forces the line-by-line path
+        final int secondRow = text.indexOf('\n', text.indexOf('\n') + 1);
+        assertSameCity(city, read(text.substring(0, secondRow) + "  "
+                                  + text.substring(secondRow)));
+    }
+
+    @Test
+    void testOnlyCountedVehicleLinesAreRead() throws IOException {
+        final CityMap city = read("1 2\n||\n1\nC 0 0 E\nnot a vehicle\n");
+
+        assertEquals(1, city.getVehicles().size());
+    }
+
+    @Test
+    void testMalformedMapsAreRejected() {
+        assertThrows(IOException.class, () -> read(""));
+        assertThrows(IOException.class, () -> read("2 x\n||\n||\n0\n"));
+        assertThrows(IOException.class, () -> read("2 3\n||S\n||\n0\n"));
+        assertThrows(IOException.class, () -> read("1 2\n||\n2\nC 0 0 E\n"));
+        assertThrows(IOException.class, () -> read("1 2\n||\n1\nC 0 zero E\n"));
+        assertThrows(IOException.class, () -> read("1 2\n||\n1\nC 0 0 Q\n"));
+    }
+}
@@ -0,0 +1,94 @@
+package edu.uw.tcss.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.uw.tcss.io.CityMap;
+import edu.uw.tcss.io.CityReader;
+import edu.uw.tcss.io.FileLoader;
+import edu.uw.tcss.logic.AbstractRoadRage;
+import edu.uw.tcss.logic.Engine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class FlightRecorderTest {
+
+    private static final File MAP = new File("maps/city_map1.txt");
+
+    private static List<RecordedEvent> record(final Path theDirectory,
+                                              final Runnable theAction) throws IOException {
+        final Path file = theDirectory.resolve("road-rage.jfr");
+        try (Recording recording = new Recording()) {
+            for (final String name : new String[] {"Tick", "TickPhases", "LightChange",
+                                                   "CollisionBurst", "CityLoad"}) {
+                recording.enable("edu.uw.tcss." + name);
+            }
+            recording.start();
+            theAction.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static List<RecordedEvent> named(final List<RecordedEvent> theEvents,
+                                             final String theName) {
+        final List<RecordedEvent> result = new ArrayList<>();
+        for (final RecordedEvent event : theEvents) {
+            if (event.getEventType().getName().equals("edu.uw.tcss." + theName)) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    void testTicksAndPhasesAreRecorded(@TempDir final Path theDirectory) throws IOException {
+        final CityMap city = CityReader.read(MAP);
+        final AbstractRoadRage roadRage = Engine.OBJECT.create(city.getGrid(),
+                                                               city.getVehicles());
+        roadRage.setSeed(305);
+        roadRage.start();
+        roadRage.getMetrics().setSampleInterval(1);
+
+        final List<RecordedEvent> events = record(theDirectory, () -> roadRage.advance(40));
+
+        final List<RecordedEvent> ticks = named(events, "Tick");
+        assertEquals(40, ticks.size());
+        long collisions = 0;
+        for (final RecordedEvent tick : ticks) {
+            assertEquals(roadRage.getWidth(), tick.getInt("width"));
+            assertEquals(roadRage.getHeight(), tick.getInt("height"));
+            assertEquals(city.getVehicles().size(), tick.getInt("vehicles"));
+            collisions += tick.getLong("collisions");
+        }
+        assertEquals(roadRage.getCollisionCount(), collisions);
+
+        final List<RecordedEvent> lights = named(events, "LightChange");
+        assertEquals(2, lights.size(), "the light changes every 15 ticks");
+        assertEquals(15, lights.get(0).getLong("timestep"));
+        assertEquals("GREEN", lights.get(0).getString("from"));
+
+        final List<RecordedEvent> phases = named(events, "TickPhases");
+        assertEquals(5, phases.size(), "every eighth sampled tick");
+        assertTrue(phases.get(0).getDuration("direction").toNanos() > 0);
+    }
+
+    @Test
+    void testCityLoadIsRecorded(@TempDir final Path theDirectory) throws IOException {
+        final List<RecordedEvent> loads =
+                named(record(theDirectory, () -> FileLoader.readCity(null)), "CityLoad");
+        assertEquals(1, loads.size());
+        assertEquals(MAP.getPath(), loads.get(0).getString("path"));
+        assertEquals(CityReader.read(MAP).getVehicles().size(),
+                     loads.get(0).getInt("vehicles"));
+    }
+}
@@ -0,0 +1,65 @@
+package edu.uw.tcss.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.uw.tcss.logic.FrameScheduler;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+class FrameSchedulerTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void testRequestedRateWhenEverythingKeepsUp() {
+        final FrameScheduler scheduler = new FrameScheduler(10, 0);
+        assertEquals(100 * MILLIS, scheduler.framePeriodNanos());
+        assertEquals(1, scheduler.ticksPerFrame());
+
+        scheduler.setTicksPerFrame(5);
+        scheduler.ticksRun(5, 5 * MILLIS);
+        scheduler.frameShown(MILLIS);
+        assertEquals(100 * MILLIS, scheduler.framePeriodNanos());
+        assertEquals(5, scheduler.ticksPerFrame());
+    }
+
+    @Test
+    void testBudgetFoldsFastRatesIntoMoreTicks() {
+        final FrameScheduler scheduler = new FrameScheduler(1000, 10 * MILLIS);
+        assertEquals(10 * MILLIS, scheduler.framePeriodNanos());
+        assertEquals(10, scheduler.ticksPerFrame(), "keeps 1000 ticks per second");
+    }
+
+    @Test
+    void testSlowDisplayGetsFewerFramesWithMoreTicks() {
+        final FrameScheduler scheduler = new FrameScheduler(50, 0);
+        for (int i = 0; i < 100; i++) {
+            scheduler.frameShown(100 * MILLIS);
+        }
+        final long period = scheduler.framePeriodNanos();
+        assertTrue(period > 90 * MILLIS && period <= 100 * MILLIS, "period " + period);
+        assertEquals(5, scheduler.ticksPerFrame(), "keeps 50 ticks per second");
+    }
+
+    @Test
+    void testSlowTicksAreCappedToTheFrame() {
+        final FrameScheduler scheduler = new FrameScheduler(20, 0);
+        scheduler.setTicksPerFrame(1000);
+        scheduler.ticksRun(100, 100 * MILLIS);
+        assertEquals(50, scheduler.ticksPerFrame(), "only 50 ticks fit in 50 ms");
+
+        scheduler.setTicksPerFrame(1);
+        scheduler.ticksRun(1, 500 * MILLIS);
+        assertEquals(1, scheduler.ticksPerFrame(), "always at least one");
+    }
+
+    @Test
+    void testRejectsBadSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new FrameScheduler(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new FrameScheduler(10, -1));
+        final FrameScheduler scheduler = new FrameScheduler(10, 0);
+        assertThrows(IllegalArgumentException.class, () -> scheduler.setFrameRate(-1));
+        assertThrows(IllegalArgumentException.class, () -> scheduler.setTicksPerFrame(0));
+    }
+}
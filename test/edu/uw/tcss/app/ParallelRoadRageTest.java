@@ -0,0 +1,119 @@
+package edu.uw.tcss.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.uw.tcss.logic.ParallelRoadRage;
+import edu.uw.tcss.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+class ParallelRoadRageTest {
+
+    private static final int WIDTH = 120;
+    private static final int HEIGHT = 90;
+
+    /** A walled city with a street every third row and column. */
+    private static Terrain[][] city() {
+        final Terrain[][] grid = new Terrain[HEIGHT][WIDTH];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (x == 0 || y == 0 || x == WIDTH - 1 || y == HEIGHT - 1) {
+                    grid[y][x] = Terrain.WALL;
+                } else if (x % 3 == 1 && y % 3 == 1) {
+                    grid[y][x] = Terrain.LIGHT;
+                } else if (x % 3 == 1 || y % 3 == 1) {
+                    grid[y][x] = Terrain.STREET;
+                } else {
+                    grid[y][x] = Terrain.TRAIL;
+                }
+            }
+        }
+        return grid;
+    }
+
+    /** Deterministic vehicles of every type crowded onto the streets. */
+    private static List<Vehicle> traffic(final Terrain[][] theGrid) {
+        final Random random = new Random(42);
+        final List<Vehicle> vehicles = new ArrayList<>();
+        while (vehicles.size() < 20_000) {
+            final int x = random.nextInt(WIDTH);
+            final int y = random.nextInt(HEIGHT);
+            if (theGrid[y][x] == Terrain.STREET) {
+                final Direction dir = Direction.values()[random.nextInt(4)];
+                final VehicleType[] types = VehicleType.values();
+                vehicles.add(types[vehicles.size() % types.length].create(x, y, dir));
+            }
+        }
+        return vehicles;
+    }
+
+    private static String run(final int theThreads) {
+        final Terrain[][] grid = city();
+        final List<Vehicle> vehicles = traffic(grid);
+        final ForkJoinPool pool = new ForkJoinPool(theThreads);
+        try {
+            final ParallelRoadRage roadRage = new ParallelRoadRage(TerrainGrid.of(grid), vehicles, pool);
+            roadRage.setSeed(305);
+            roadRage.start();
+            // long enough for every type to die and revive in a random direction
+            for (int i = 0; i < 60; i++) {
+                roadRage.advance();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return vehicles.toString();
+    }
+
+    @Test
+    void testResultIndependentOfThreadCount() {
+        final String single = run(1);
+        assertEquals(single, run(2));
+        assertEquals(single, run(4));
+    }
+
+    @Test
+    void testVehiclesMeetingInACellCollide() {
+        final Terrain[][] grid = new Terrain[3][5];
+        for (int x = 0; x < 5; x++) {
+            grid[0][x] = Terrain.WALL;
+            grid[1][x] = x == 0 || x == 4 ? Terrain.WALL : Terrain.STREET;
+            grid[2][x] = Terrain.WALL;
+        }
+        final Car car = new Car(1, 1, Direction.EAST);
+        final Bicycle bike = new Bicycle(3, 1, Direction.WEST);
+        final ParallelRoadRage roadRage = new ParallelRoadRage(grid, List.of(car, bike));
+        roadRage.start();
+
+        roadRage.advance();
+
+        assertEquals(2, car.getX());
+        assertEquals(2, bike.getX());
+        assertTrue(car.isAlive());
+        assertFalse(bike.isAlive());
+    }
+
+    @Test
+    void testVehiclesSwappingCellsDoNotCollide() {
+        final Terrain[][] grid = new Terrain[3][4];
+        for (int x = 0; x < 4; x++) {
+            grid[0][x] = Terrain.WALL;
+            grid[1][x] = x == 0 || x == 3 ? Terrain.WALL : Terrain.STREET;
+            grid[2][x] = Terrain.WALL;
+        }
+        final Car car = new Car(1, 1, Direction.EAST);
+        final Bicycle bike = new Bicycle(2, 1, Direction.WEST);
+        final ParallelRoadRage roadRage = new ParallelRoadRage(grid, List.of(car, bike));
+        roadRage.start();
+
+        roadRage.advance();
+
+        assertEquals(2, car.getX());
+        assertEquals(1, bike.getX());
+        assertTrue(bike.isAlive());
+    }
+}
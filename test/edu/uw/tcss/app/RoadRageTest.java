@@ -0,0 +1,324 @@
+package edu.uw.tcss.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls;
+import edu.uw.tcss.logic.RoadRage;
+import edu.uw.tcss.logic.VehicleChange;
+import edu.uw.tcss.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+class RoadRageTest {
+
+    /** A single street row between two rows of wall. */
+    private static Terrain[][] streetRow(final int theLength) {
+        final Terrain[][] grid = new Terrain[3][theLength];
+        for (int x = 0; x < theLength; x++) {
+            grid[0][x] = Terrain.WALL;
+            grid[1][x] = x == 0 || x == theLength - 1 ? Terrain.WALL : Terrain.STREET;
+            grid[2][x] = Terrain.WALL;
+        }
+        return grid;
+    }
+
+    /** A Car that counts how many times it is told about a collision. */
+    private static final class CountingCar extends Car {
+        private int collisions;
+
+        CountingCar(final int theX, final int theY, final Direction theDir) {
+            super(theX, theY, theDir);
+        }
+
+        @Override
+        public void collide(final Vehicle theOther) {
+            collisions++;
+            super.collide(theOther);
+        }
+    }
+
+    /** A Car that remembers every neighbors map it is shown. */
+    private static final class RecordingCar extends Car {
+        private final List<Map<Direction, Terrain>> seen = new ArrayList<>();
+
+        RecordingCar(final int theX, final int theY, final Direction theDir) {
+            super(theX, theY, theDir);
+        }
+
+        @Override
+        public Direction chooseDirection(final Map<Direction, Terrain> theNeighbors) {
+            seen.add(theNeighbors);
+            return super.chooseDirection(theNeighbors);
+        }
+    }
+
+    @Test
+    void testVehicleMovingIntoOccupiedCellCollides() {
+        final Car car = new Car(1, 1, Direction.EAST);
+        final Bicycle bike = new Bicycle(3, 1, Direction.WEST);
+        final RoadRage roadRage = new RoadRage(streetRow(5), List.of(car, bike));
+        roadRage.start();
+
+        roadRage.advance();
+
+        assertEquals(2, car.getX());
+        assertEquals(2, bike.getX());
+        assertTrue(car.isAlive());
+        assertFalse(bike.isAlive());
+    }
+
+    @Test
+    void testVehiclesInDifferentCellsDoNotCollide() {
+        final Car car = new Car(1, 1, Direction.EAST);
+        final Bicycle bike = new Bicycle(4, 1, Direction.WEST);
+        final RoadRage roadRage = new RoadRage(streetRow(6), List.of(car, bike));
+        roadRage.start();
+
+        roadRage.advance();
+
+        assertTrue(car.isAlive());
+        assertTrue(bike.isAlive());
+    }
+
+    @Test
+    void testEachPairCollidesOncePerTick() {
+        final CountingCar first = new CountingCar(1, 1, Direction.EAST);
+        final CountingCar second = new CountingCar(1, 1, Direction.EAST);
+        final RoadRage roadRage = new RoadRage(streetRow(3), List.of(first, second));
+        roadRage.start();
+
+        roadRage.advance();
+
+        assertEquals(1, first.collisions);
+        assertEquals(1, second.collisions);
+    }
+
+    @Test
+    void testResetRestoresCollisionLookup() {
+        final Car car = new Car(1, 1, Direction.EAST);
+        final Bicycle bike = new Bicycle(3, 1, Direction.WEST);
+        final RoadRage roadRage = new RoadRage(streetRow(5), List.of(car, bike));
+        roadRage.start();
+        roadRage.advance();
+
+        roadRage.reset();
+        roadRage.advance();
+
+        assertTrue(car.isAlive());
+        assertFalse(bike.isAlive());
+    }
+
+    @Test
+    void testNeighborsMatchGridAndAreShared() {
+        final RecordingCar car = new RecordingCar(1, 1, Direction.EAST);
+        final RoadRage roadRage = new RoadRage(streetRow(6), List.of(car));
+        roadRage.start();
+        roadRage.advance();
+        roadRage.advance();
+        roadRage.advance();
+
+        final Map<Direction, Terrain> first = car.seen.get(0);
+        assertEquals(Terrain.WALL, first.get(Direction.WEST));
+        assertEquals(Terrain.STREET, first.get(Direction.EAST));
+        assertEquals(Terrain.WALL, first.get(Direction.NORTH));
+        // (2, 1) and (3, 1) have the same neighbors
+        assertSame(car.seen.get(1), car.seen.get(2));
+        assertThrows(UnsupportedOperationException.class,
+                () -> first.put(Direction.EAST, Terrain.GRASS));
+    }
+
+    @Test
+    void testNeighborsOffTheMapAreAbsent() {
+        final RecordingCar car = new RecordingCar(0, 0, Direction.EAST);
+        final RoadRage roadRage = new RoadRage(
+                new Terrain[][] {{Terrain.STREET, Terrain.STREET}}, List.of(car));
+        roadRage.start();
+        roadRage.advance();
+
+        assertEquals(Map.of(Direction.EAST, Terrain.STREET), car.seen.get(0));
+    }
+
+    @Test
+    void testMovesAndCollisionsAreCounted() {
+        final RoadRage roadRage = new RoadRage(streetRow(5),
+                List.of(new Car(1, 1, Direction.EAST), new Bicycle(3, 1, Direction.WEST)));
+        roadRage.start();
+        roadRage.advance();
+
+        assertEquals(2, roadRage.getMoveCount());
+        assertEquals(1, roadRage.getCollisionCount());
+
+        roadRage.reset();
+        assertEquals(0, roadRage.getMoveCount());
+        assertEquals(0, roadRage.getCollisionCount());
+    }
+
+    @Test
+    void testSameSeedGivesSameRun() {
+        // an open square, since an Atv in a dead end never stops looking for a way out
+        final Terrain[][] grid = new Terrain[8][8];
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                final boolean edge = x == 0 || y == 0 || x == 7 || y == 7;
+                grid[y][x] = edge ? Terrain.WALL : Terrain.STREET;
+            }
+        }
+        final List<Vehicle> first = List.of(new Atv(1, 1, Direction.EAST),
+                                            new Truck(4, 1, Direction.WEST));
+        final List<Vehicle> second = List.of(new Atv(1, 1, Direction.EAST),
+                                             new Truck(4, 1, Direction.WEST));
+        final RoadRage one = new RoadRage(grid, first);
+        final RoadRage two = new RoadRage(grid, second);
+        one.setSeed(7);
+        two.setSeed(7);
+        one.start();
+        two.start();
+
+        for (int i = 0; i < 100; i++) {
+            one.advance();
+            two.advance();
+            assertEquals(first.toString(), second.toString());
+        }
+    }
+
+    @Test
+    void testVehicleChangesHoldOnlyWhatChanged() {
+        final Car car = new Car(1, 1, Direction.EAST);
+        final Bicycle bike = new Bicycle(3, 1, Direction.WEST);
+        final RoadRage roadRage = new RoadRage(streetRow(5), List.of(car, bike));
+        final List<List<VehicleChange>> ticks = new ArrayList<>();
+        roadRage.addPropertyChangeListener(
+                PropertyChangeEnabledRoadRageControls.PROPERTY_VEHICLE_CHANGES,
+                theEvent -> ticks.add(changes(theEvent)));
+        roadRage.start();
+
+        roadRage.advance();
+
+        assertEquals(1, ticks.size());
+        final List<VehicleChange> changes = ticks.get(0);
+        assertEquals(2, changes.size());
+        final VehicleChange carChange = changes.get(0);
+        assertSame(car, carChange.getVehicle());
+        assertEquals(0, carChange.getIndex());
+        assertEquals(1, carChange.getOldX());
+        assertEquals(2, carChange.getNewX());
+        assertTrue(carChange.hasMoved());
+        assertFalse(carChange.hasDied());
+        final VehicleChange bikeChange = changes.get(1);
+        assertEquals(1, bikeChange.getIndex());
+        assertEquals(3, bikeChange.getOldX());
+        assertEquals(2, bikeChange.getNewX());
+        assertTrue(bikeChange.hasDied());
+        assertFalse(bikeChange.hasRevived());
+
+        // the dead bicycle only waits, so only the car changes
+        roadRage.advance();
+        assertEquals(1, ticks.get(1).size());
+        assertSame(car, ticks.get(1).get(0).getVehicle());
+    }
+
+    @Test
+    void testFullVehicleListIsOptIn() {
+        final RoadRage roadRage = new RoadRage(streetRow(5),
+                List.of(new Car(1, 1, Direction.EAST), new Bicycle(3, 1, Direction.WEST)));
+        final List<String> everything = new ArrayList<>();
+        final List<String> named = new ArrayList<>();
+        roadRage.addPropertyChangeListener(theEvent -> everything.add(theEvent.getPropertyName()));
+        roadRage.addPropertyChangeListener(PropertyChangeEnabledRoadRageControls.PROPERTY_VEHICLES,
+                theEvent -> named.add(theEvent.getPropertyName()));
+        roadRage.start();
+        assertTrue(everything.contains(PropertyChangeEnabledRoadRageControls.PROPERTY_VEHICLES));
+        assertEquals(1, named.size());
+        everything.clear();
+
+        roadRage.advance();
+
+        assertFalse(everything.contains(PropertyChangeEnabledRoadRageControls.PROPERTY_VEHICLES));
+        assertTrue(everything.contains(
+                PropertyChangeEnabledRoadRageControls.PROPERTY_VEHICLE_CHANGES));
+        assertEquals(2, named.size());
+    }
+
+    @Test
+    void testBulkAdvanceMatchesSingleTicks() {
+        final List<Vehicle> oneByOne = List.of(new Car(1, 1, Direction.EAST),
+                new Truck(5, 1, Direction.WEST), new Human(8, 1, Direction.EAST));
+        final List<Vehicle> bulk = List.of(new Car(1, 1, Direction.EAST),
+                new Truck(5, 1, Direction.WEST), new Human(8, 1, Direction.EAST));
+        final RoadRage one = new RoadRage(streetRow(10), oneByOne);
+        final RoadRage two = new RoadRage(streetRow(10), bulk);
+        one.setSeed(7);
+        two.setSeed(7);
+        one.start();
+        two.start();
+
+        for (int i = 0; i < 40; i++) {
+            one.advance();
+        }
+        two.advance(40);
+
+        assertEquals(oneByOne.toString(), bulk.toString());
+        assertEquals(one.getMoveCount(), two.getMoveCount());
+        assertEquals(one.getCollisionCount(), two.getCollisionCount());
+        assertThrows(IllegalArgumentException.class, () -> two.advance(-1));
+    }
+
+    @Test
+    void testBulkAdvanceFiresOnce() {
+        final Car car = new Car(1, 1, Direction.EAST);
+        final RoadRage roadRage = new RoadRage(streetRow(30), List.of(car));
+        final List<PropertyChangeEvent> events = new ArrayList<>();
+        roadRage.start();
+        roadRage.addPropertyChangeListener(events::add);
+
+        roadRage.advance(20);
+
+        final List<String> names = new ArrayList<>();
+        for (final PropertyChangeEvent event : events) {
+            names.add(event.getPropertyName());
+        }
+        assertEquals(List.of(PropertyChangeEnabledRoadRageControls.PROPERTY_TIME,
+                             PropertyChangeEnabledRoadRageControls.PROPERTY_LIGHT,
+                             PropertyChangeEnabledRoadRageControls.PROPERTY_VEHICLE_CHANGES),
+                     names);
+        assertEquals(0L, events.get(0).getOldValue());
+        assertEquals(20L, events.get(0).getNewValue());
+        assertEquals(Light.GREEN, events.get(1).getOldValue());
+        final List<VehicleChange> changes = changes(events.get(2));
+        assertEquals(1, changes.size());
+        assertEquals(1, changes.get(0).getOldX());
+        assertEquals(car.getX(), changes.get(0).getNewX());
+
+        events.clear();
+        roadRage.advance(0);
+        assertTrue(events.isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<VehicleChange> changes(final PropertyChangeEvent theEvent) {
+        return (List<VehicleChange>) theEvent.getNewValue();
+    }
+
+    @Test
+    void testListenersShareOneReadOnlyViewOfTheGrid() {
+        final TerrainGrid grid = TerrainGrid.of(streetRow(6));
+        final RoadRage roadRage = new RoadRage(grid, List.of());
+        final List<TerrainMap> seen = new ArrayList<>();
+        roadRage.addPropertyChangeListener(PropertyChangeEnabledRoadRageControls.PROPERTY_GRID,
+                evt -> seen.add((TerrainMap) evt.getNewValue()));
+        roadRage.start();
+        roadRage.reset();
+
+        assertEquals(2, seen.size());
+        assertSame(seen.get(0), seen.get(1));
+        assertEquals(Terrain.STREET, seen.get(0).get(2, 1));
+        assertThrows(UnsupportedOperationException.class,
+            () -> seen.get(0).set(2, 1, Terrain.WALL));
+        grid.set(2, 1, Terrain.GRASS);
+        assertEquals(Terrain.GRASS, seen.get(0).get(2, 1), "a view, not a copy");
+    }
+}
@@ -0,0 +1,223 @@
+package edu.uw.tcss.app;
+
+import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_TIME;
+import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_VEHICLES;
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.uw.tcss.io.CityMap;
+import edu.uw.tcss.io.CityReader;
+import edu.uw.tcss.logic.RoadRage;
+import edu.uw.tcss.logic.SimulationThread;
+import edu.uw.tcss.logic.Snapshot;
+import edu.uw.tcss.logic.SnapshotRecorder;
+import edu.uw.tcss.model.Vehicle;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+class SimulationThreadTest {
+
+    private static final File MAP = new File("maps/city_map1.txt");
+
+    private static RoadRage load() throws IOException {
+        final CityMap city = CityReader.read(MAP);
+        final RoadRage result = new RoadRage(city.getGrid(), city.getVehicles());
+        result.setSeed(305);
+        return result;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSnapshotMatchesVehicles() throws IOException {
+        final RoadRage roadRage = load();
+        final SnapshotRecorder recorder = new SnapshotRecorder(roadRage);
+        final List<List<Vehicle>> vehicles = new ArrayList<>();
+        roadRage.addPropertyChangeListener(PROPERTY_VEHICLES,
+                evt -> vehicles.add((List<Vehicle>) evt.getNewValue()));
+        assertNull(recorder.latest().getGrid(), "nothing recorded before start");
+
+        roadRage.start();
+        for (int i = 0; i < 50; i++) {
+            roadRage.advance();
+        }
+        final Snapshot snapshot = recorder.latest();
+        final List<Vehicle> last = vehicles.get(vehicles.size() - 1);
+        assertEquals(50, snapshot.getTimestep());
+        assertEquals(roadRage.getWidth(), snapshot.getGrid().getWidth());
+        assertEquals(last.size(), snapshot.getVehicleCount());
+        for (int i = 0; i < last.size(); i++) {
+            final Vehicle v = last.get(i);
+            assertEquals(v.getX(), snapshot.getX(i));
+            assertEquals(v.getY(), snapshot.getY(i));
+            assertEquals(v.getDirection(), snapshot.getDirection(i));
+            assertEquals(v.isAlive(), snapshot.isAlive(i));
+            assertEquals(v.getImageFileName(), snapshot.getImageFileName(i));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSnapshotsListWhatChangedSinceTheLastOneTaken() throws IOException {
+        final RoadRage roadRage = load();
+        final SnapshotRecorder recorder = new SnapshotRecorder(roadRage);
+        final List<List<Vehicle>> vehicles = new ArrayList<>();
+        roadRage.addPropertyChangeListener(PROPERTY_VEHICLES,
+                evt -> vehicles.add((List<Vehicle>) evt.getNewValue()));
+        roadRage.start();
+        Snapshot taken = recorder.latest();
+        assertTrue(taken.isEveryVehicleChanged());
+        final int count = taken.getVehicleCount();
+        final String[] seen = new String[count];
+        for (int i = 0; i < count; i++) {
+            seen[i] = taken.describe(i);
+        }
+
+        for (int tick = 1; tick <= 300; tick++) {
+            roadRage.advance();
+            if (tick % 7 != 0 && tick % 3 != 0) {
+                // the reader is busy, and skips this snapshot
+                continue;
+            }
+            taken = recorder.latest();
+            assertEquals(tick, taken.getTimestep());
+            assertFalse(taken.isEveryVehicleChanged());
+            final List<Vehicle> last = vehicles.get(vehicles.size() - 1);
+            final boolean[] listed = new boolean[count];
+            for (int k = 0; k < taken.getChangedCount(); k++) {
+                listed[taken.getChangedIndex(k)] = true;
+            }
+            for (int i = 0; i < count; i++) {
+                final Vehicle v = last.get(i);
+                assertEquals(v.getX(), taken.getX(i));
+                assertEquals(v.getY(), taken.getY(i));
+                assertEquals(v.getDirection(), taken.getDirection(i));
+                assertEquals(v.isAlive(), taken.isAlive(i));
+                assertTrue(listed[i] || seen[i].equals(taken.describe(i)),
+                           "tick " + tick);
+                seen[i] = taken.describe(i);
+            }
+        }
+    }
+
+    @Test
+    void testLatestSkipsUnreadSnapshots() throws IOException {
+        final RoadRage roadRage = load();
+        final SnapshotRecorder recorder = new SnapshotRecorder(roadRage);
+        roadRage.start();
+        final Snapshot first = recorder.latest();
+        assertEquals(0, first.getTimestep());
+        assertSame(first, recorder.latest(), "no new snapshot, same front buffer");
+
+        for (int i = 0; i < 10; i++) {
+            roadRage.advance();
+        }
+        assertEquals(10, recorder.latest().getTimestep());
+    }
+
+    @Test
+    void testSnapshotRemembersPreviousPositions() throws IOException {
+        final RoadRage roadRage = load();
+        final SnapshotRecorder recorder = new SnapshotRecorder(roadRage);
+        roadRage.start();
+        final Snapshot start = recorder.latest();
+        final int count = start.getVehicleCount();
+        final int[] x = new int[count];
+        final int[] y = new int[count];
+        for (int i = 0; i < count; i++) {
+            assertEquals(start.getX(i), start.getPreviousX(i), "nothing before the start");
+            x[i] = start.getX(i);
+            y[i] = start.getY(i);
+        }
+        assertEquals(1.0, start.progress(System.nanoTime()));
+
+        recorder.setFrameNanos(TimeUnit.SECONDS.toNanos(100));
+        roadRage.advance();
+        final long now = System.nanoTime();
+        final Snapshot next = recorder.latest();
+        for (int i = 0; i < count; i++) {
+            assertEquals(x[i], next.getPreviousX(i));
+            assertEquals(y[i], next.getPreviousY(i));
+        }
+        assertTrue(next.progress(now) < 0.5);
+        assertEquals(1.0, next.progress(now + TimeUnit.SECONDS.toNanos(100)));
+    }
+
+    @Test
+    void testThreadTicksAndResets() throws Exception {
+        final SimulationThread thread = new SimulationThread(load(), 1000);
+        final Semaphore published = new Semaphore(0);
+        thread.setSnapshotListener(published::release);
+        thread.start();
+        assertTrue(published.tryAcquire(5, TimeUnit.SECONDS), "started");
+
+        thread.step();
+        thread.step();
+        assertTrue(published.tryAcquire(2, 5, TimeUnit.SECONDS), "stepped");
+        assertEquals(2, thread.latest().getTimestep());
+
+        thread.play();
+        assertTrue(published.tryAcquire(20, 5, TimeUnit.SECONDS), "running");
+        thread.reset();
+        thread.step();
+        // the reset paused the thread, so only the step runs after it
+        long time = thread.latest().getTimestep();
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (time != 1 && System.nanoTime() < deadline) {
+            published.tryAcquire(10, TimeUnit.MILLISECONDS);
+            time = thread.latest().getTimestep();
+        }
+        assertEquals(1, time);
+        Thread.sleep(50);
+        assertEquals(1, thread.latest().getTimestep());
+        thread.shutdown();
+    }
+
+    @Test
+    void testFailedTickPausesInsteadOfEndingTheThread() throws Exception {
+        final RoadRage roadRage = load();
+        final long[] failedAt = new long[1];
+        roadRage.addPropertyChangeListener(PROPERTY_TIME, evt -> {
+            // a frame may run several ticks, so fail the first one to reach tick 5
+            if ((Long) evt.getNewValue() >= 5 && failedAt[0] == 0) {
+                failedAt[0] = (Long) evt.getNewValue();
+                throw new IllegalStateException("the frame fails");
+            }
+        });
+        final BlockingQueue<Throwable> reported = new LinkedBlockingQueue<>();
+        final Thread.UncaughtExceptionHandler handler =
+            Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((t, e) -> reported.add(e));
+        try {
+            final SimulationThread thread = new SimulationThread(roadRage, 1000);
+            final Semaphore published = new Semaphore(0);
+            thread.setSnapshotListener(published::release);
+            thread.start();
+            thread.play();
+            final Throwable failure = reported.poll(5, TimeUnit.SECONDS);
+            assertEquals("the frame fails", failure.getMessage());
+
+            thread.step();
+            final long expected = failedAt[0] + 1;
+            long time = thread.latest().getTimestep();
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (time != expected && System.nanoTime() < deadline) {
+                published.tryAcquire(10, TimeUnit.MILLISECONDS);
+                time = thread.latest().getTimestep();
+            }
+            assertEquals(expected, time, "still taking commands");
+            Thread.sleep(50);
+            assertEquals(expected, thread.latest().getTimestep(), "paused");
+            assertTrue(reported.isEmpty());
+            thread.shutdown();
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(handler);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package edu.uw.tcss.app;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.uw.tcss.io.CityMap;
+import edu.uw.tcss.io.CityReader;
+import edu.uw.tcss.logic.AbstractRoadRage;
+import edu.uw.tcss.logic.Engine;
+import edu.uw.tcss.logic.TickMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+class TickMetricsTest {
+
+    private static final File MAP = new File("maps/city_map1.txt");
+
+    private static AbstractRoadRage load(final Engine theEngine) throws IOException {
+        final CityMap city = CityReader.read(MAP);
+        final AbstractRoadRage result = theEngine.create(city.getGrid(), city.getVehicles());
+        result.setSeed(305);
+        result.start();
+        return result;
+    }
+
+    @Test
+    void testCountsMatchTheSimulation() throws IOException {
+        for (final Engine engine : Engine.values()) {
+            final AbstractRoadRage roadRage = load(engine);
+            final TickMetrics metrics = roadRage.getMetrics();
+            metrics.setSampleInterval(10);
+            roadRage.advance(95);
+
+            assertEquals(95, metrics.getTicks(), engine.name());
+            // ticks 1, 11, ... 91 are sampled, and the phases of tick 71 are timed
+            assertEquals(9, metrics.getSampledTicks(), engine.name());
+            assertEquals(1, metrics.getPhaseTimedTicks());
+            assertEquals(roadRage.getCollisionCount(), metrics.getCollisions());
+            assertEquals((double) metrics.getCollisions() / 95,
+                         metrics.getCollisionsPerTick(), 1e-9);
+            assertTrue(metrics.getBlockedMoves() > 0, "humans and lights block moves");
+            assertEquals(CityReader.read(MAP).getVehicles().size(),
+                         metrics.getVehiclesAlive() + metrics.getVehiclesDead());
+        }
+    }
+
+    @Test
+    void testTimesAreConsistent() throws IOException {
+        final AbstractRoadRage roadRage = load(Engine.OBJECT);
+        final TickMetrics metrics = roadRage.getMetrics();
+        metrics.setSampleInterval(1);
+        roadRage.advance(200);
+
+        final long p50 = metrics.getTickNanosP50();
+        assertTrue(p50 > 0);
+        assertTrue(p50 <= metrics.getTickNanosP99());
+        assertTrue(metrics.getTickNanosP99() <= metrics.getTickNanosP999());
+        assertTrue(metrics.getTickNanosP999() <= metrics.getTickNanosMax());
+        assertEquals(metrics.getTickNanosMax(), metrics.tickNanosAt(1));
+        assertEquals(200 / TickMetrics.PHASE_SAMPLE_RATIO, metrics.getPhaseTimedTicks());
+        assertEquals(200 - metrics.getPhaseTimedTicks(), metrics.getSampledTicks());
+        assertTrue(metrics.getNeighborNanos() > 0);
+        assertTrue(metrics.getDirectionNanos() > 0);
+        assertTrue(metrics.getMovementNanos() > 0);
+        assertTrue(metrics.getCollisionNanos() > 0);
+        assertTrue(metrics.getLightNanos() >= 0);
+    }
+
+    @Test
+    void testResetAtTheNextTick() throws IOException {
+        final AbstractRoadRage roadRage = load(Engine.ARRAY);
+        final TickMetrics metrics = roadRage.getMetrics();
+        roadRage.advance(50);
+        metrics.reset();
+        assertEquals(50, metrics.getTicks(), "not until the next tick");
+        roadRage.advance(3);
+        assertEquals(3, metrics.getTicks());
+        assertEquals(1, metrics.getSampledTicks());
+        assertThrows(IllegalArgumentException.class, () -> metrics.setSampleInterval(0));
+        assertThrows(IllegalArgumentException.class, () -> metrics.tickNanosAt(1.5));
+    }
+
+    @Test
+    void testReadableOverJmx() throws Exception {
+        final AbstractRoadRage roadRage = load(Engine.OBJECT);
+        final ObjectName name = roadRage.getMetrics().register("TickMetricsTest");
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            roadRage.advance(20);
+            assertEquals(20L, server.getAttribute(name, "Ticks"));
+            assertEquals(roadRage.getCollisionCount(),
+                         server.getAttribute(name, "Collisions"));
+            server.invoke(name, "reset", null, null);
+            roadRage.advance();
+            assertEquals(1L, server.getAttribute(name, "Ticks"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
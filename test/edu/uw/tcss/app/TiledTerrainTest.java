@@ -0,0 +1,207 @@
+package edu.uw.tcss.app;
+
+import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_VEHICLES;
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.uw.tcss.io.CityCache;
+import edu.uw.tcss.io.CityMap;
+import edu.uw.tcss.io.CityReader;
+import edu.uw.tcss.io.TiledCity;
+import edu.uw.tcss.io.TiledTerrain;
+import edu.uw.tcss.logic.AbstractRoadRage;
+import edu.uw.tcss.logic.Engine;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
+import edu.uw.tcss.model.Vehicle;
+import edu.uw.tcss.model.VehicleType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+class TiledTerrainTest {
+
+    @TempDir
+    File dir;
+
+    private CityMap city(final int theWidth, final int theHeight, final long theSeed)
+            throws IOException {
+        final CityGenerator generator = new CityGenerator(theWidth, theHeight, theSeed);
+        final StringWriter out = new StringWriter();
+        generator.write(out, Map.of(VehicleType.CAR, 300, VehicleType.HUMAN, 200));
+        final File file = new File(dir, "city.txt");
+        Files.writeString(file.toPath(), out.toString());
+        return CityReader.read(file);
+    }
+
+    private Path tiles(final TerrainGrid theGrid) throws IOException {
+        final Path result = dir.toPath().resolve("city.tiles");
+        TiledTerrain.write(theGrid, result);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> play(final AbstractRoadRage theRoadRage, final int theTicks) {
+        final List<String> result = new ArrayList<>();
+        final List<List<Vehicle>> latest = new ArrayList<>(List.of(List.of()));
+        theRoadRage.addPropertyChangeListener(PROPERTY_VEHICLES,
+                evt -> latest.set(0, (List<Vehicle>) evt.getNewValue()));
+        theRoadRage.setSeed(17);
+        theRoadRage.start();
+        for (int i = 0; i < theTicks; i++) {
+            theRoadRage.advance();
+            final StringBuilder tick = new StringBuilder();
+            for (final Vehicle v : latest.get(0)) {
+                tick.append(v.getX()).append(',').append(v.getY()).append(v.isAlive()).append(' ');
+            }
+            result.add(tick.toString());
+        }
+        return result;
+    }
+
+    @Test
+    void testTilesHoldTheSameTerrain() throws IOException {
+        // not a whole number of tiles either way
+        final TerrainGrid grid = city(600, 300, 2).getGrid();
+        try (TiledTerrain tiled = TiledTerrain.open(tiles(grid), 2)) {
+            assertEquals(600, tiled.getWidth());
+            assertEquals(300, tiled.getHeight());
+            for (int y = 0; y < 300; y++) {
+                for (int x = 0; x < 600; x++) {
+                    assertEquals(grid.get(x, y), tiled.get(x, y));
+                }
+            }
+            assertEquals(2, tiled.getResidentTiles());
+            assertThrows(IndexOutOfBoundsException.class, () -> tiled.get(600, 0));
+            assertThrows(IndexOutOfBoundsException.class, () -> tiled.get(0, -1));
+            assertThrows(UnsupportedOperationException.class,
+                () -> tiled.set(0, 0, Terrain.GRASS));
+        }
+    }
+
+    @Test
+    void testOnlyTilesThatAreReadAreMapped() throws IOException {
+        final TerrainGrid grid = city(1000, 1000, 3).getGrid();
+        try (TiledTerrain tiled = TiledTerrain.open(tiles(grid))) {
+            assertEquals(0, tiled.getResidentTiles());
+            tiled.get(10, 10);
+            tiled.get(255, 255);
+            assertEquals(1, tiled.getResidentTiles());
+            tiled.get(256, 999);
+            assertEquals(2, tiled.getResidentTiles());
+        }
+    }
+
+    @Test
+    void testEnginesRunTheSameOnTiles() throws IOException {
+        final CityMap city = city(400, 300, 4);
+        final Path file = tiles(city.getGrid());
+        for (final Engine engine : Engine.values()) {
+            final List<String> expected =
+                play(engine.create(city.getGrid(), copy(city.getVehicles())), 40);
+            try (TiledTerrain tiled = TiledTerrain.open(file, 3)) {
+                assertEquals(expected, play(engine.create(tiled, copy(city.getVehicles())), 40),
+                             engine.name());
+            }
+        }
+    }
+
+    @Test
+    void testCheckpointsLoadOntoTiles() throws IOException {
+        final CityMap city = city(300, 300, 5);
+        final AbstractRoadRage inMemory = Engine.OBJECT.create(city.getGrid(),
+                                                               copy(city.getVehicles()));
+        inMemory.start();
+        final ByteArrayOutputStream checkpoint = new ByteArrayOutputStream();
+        inMemory.save(checkpoint);
+
+        try (TiledTerrain tiled = TiledTerrain.open(tiles(city.getGrid()))) {
+            final AbstractRoadRage onTiles = Engine.OBJECT.create(tiled,
+                                                                  copy(city.getVehicles()));
+            onTiles.start();
+            onTiles.load(new ByteArrayInputStream(checkpoint.toByteArray()));
+
+            final CityMap other = city(300, 300, 6);
+            final AbstractRoadRage otherCity = Engine.OBJECT.create(other.getGrid(),
+                                                                    copy(city.getVehicles()));
+            otherCity.start();
+            final ByteArrayOutputStream wrong = new ByteArrayOutputStream();
+            otherCity.save(wrong);
+            assertThrows(IOException.class,
+                () -> onTiles.load(new ByteArrayInputStream(wrong.toByteArray())));
+        }
+    }
+
+    @Test
+    void testCitiesCompileStraightToTiles() throws IOException {
+        final CityMap city = city(600, 300, 8);
+        final File text = new File(dir, "city.txt");
+        final File tiles = CityCache.tiledFile(text);
+        try (TiledCity tiled = CityCache.readTiled(text)) {
+            for (int y = 0; y < 300; y++) {
+                for (int x = 0; x < 600; x++) {
+                    assertEquals(city.getGrid().get(x, y), tiled.getTerrain().get(x, y));
+                }
+            }
+            assertEquals(city.getVehicles().toString(), tiled.getVehicles().toString());
+        }
+
+        // up to date, so not compiled again
+        final FileTime old = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(tiles.toPath(), old);
+        try (TiledCity tiled = CityCache.readTiled(text)) {
+            assertEquals(city.getVehicles().size(), tiled.getVehicles().size());
+        }
+        assertEquals(old, Files.getLastModifiedTime(tiles.toPath()));
+
+        // the text changed, so compiled again
+        final String changed = Files.readString(text.toPath()).replaceFirst("\n.", "\n|");
+        Files.writeString(text.toPath(), changed);
+        try (TiledCity tiled = CityCache.readTiled(text)) {
+            assertEquals(Terrain.STREET, tiled.getTerrain().get(0, 0));
+        }
+        assertNotEquals(old, Files.getLastModifiedTime(tiles.toPath()));
+    }
+
+    @Test
+    void testEveryRowMustBeWritten() throws IOException {
+        final Path file = dir.toPath().resolve("short.tiles");
+        final TiledTerrain.RowWriter writer = TiledTerrain.writer(file, 300, 3);
+        writer.writeRow(new byte[300]);
+        assertThrows(IllegalArgumentException.class, () -> writer.writeRow(new byte[299]));
+        assertThrows(IllegalArgumentException.class, () -> writer.writeRow(new byte[] {-1}));
+        writer.writeRow(new byte[300]);
+        assertThrows(IOException.class, writer::close);
+        assertThrows(IOException.class, () -> TiledTerrain.open(file));
+    }
+
+    @Test
+    void testDamagedFilesAreRejected() throws IOException {
+        final Path file = tiles(city(300, 300, 7).getGrid());
+        final byte[] bytes = Files.readAllBytes(file);
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> TiledTerrain.open(file));
+        Files.write(file, new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> TiledTerrain.open(file));
+    }
+
+    private static List<Vehicle> copy(final List<Vehicle> theVehicles) {
+        final List<Vehicle> result = new ArrayList<>();
+        for (final Vehicle v : theVehicles) {
+            result.add(VehicleType.of(v).create(v.getX(), v.getY(), v.getDirection()));
+        }
+        return result;
+    }
+}